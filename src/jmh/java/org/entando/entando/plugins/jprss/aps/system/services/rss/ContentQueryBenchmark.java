@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the query of the content ids of a channel against a contents table 
+ * of growing size: with the maximum size of the channel pushed into the query 
+ * and, for comparison, with every content of the type returned and cut in memory.
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ContentQueryBenchmark"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentQueryBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	public int tableSize;
+
+	@Param({"20"})
+	public int maxContentsSize;
+
+	private DerbyContentTable _table;
+	private RssManager _rssManager;
+	private Channel _limitedChannel;
+	private Channel _unlimitedChannel;
+
+	@Setup
+	public void setUp() throws Exception {
+		this._table = new DerbyContentTable("jprss" + this.tableSize, this.tableSize, "ART", "NEW");
+		InMemoryContentStore store = new InMemoryContentStore("en", 0, 0);
+		this._rssManager = store.createRssManager("ART");
+		this._rssManager.setContentManager(this._table.createContentManager());
+		this._limitedChannel = this.createChannel(1, this.maxContentsSize);
+		this._unlimitedChannel = this.createChannel(2, 0);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this._table.drop();
+	}
+
+	/**
+	 * The query of a channel with a maximum size: the limit is pushed into the query.
+	 * The cache is cleared, so that every call runs the query.
+	 */
+	@Benchmark
+	public List<String> getContentsIdWithLimit() throws Exception {
+		this._rssManager.getContentIdCache().clear();
+		return this._rssManager.getContentsId(this._limitedChannel, "en");
+	}
+
+	/**
+	 * The query of every content of the type, cut to the maximum size in memory.
+	 */
+	@Benchmark
+	public List<String> getContentsIdWithoutLimit() throws Exception {
+		this._rssManager.getContentIdCache().clear();
+		List<String> contentsId = this._rssManager.getContentsId(this._unlimitedChannel, "en");
+		return contentsId.subList(0, Math.min(this.maxContentsSize, contentsId.size()));
+	}
+
+	/**
+	 * The content ids of a channel served from the cache.
+	 */
+	@Benchmark
+	public List<String> getContentsIdCached() throws Exception {
+		return this._rssManager.getContentsId(this._limitedChannel, "en");
+	}
+
+	private Channel createChannel(int id, int maxContentsSize) {
+		Channel channel = new Channel();
+		channel.setId(id);
+		channel.setActive(true);
+		channel.setTitle("Benchmark");
+		channel.setContentType("ART");
+		channel.setFeedType("rss_2.0");
+		channel.setMaxContentsSize(maxContentsSize);
+		return channel;
+	}
+
+}
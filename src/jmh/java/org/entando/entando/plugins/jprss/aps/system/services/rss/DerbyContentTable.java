@@ -0,0 +1,144 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.agiletec.aps.system.common.FieldSearchFilter;
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
+import com.agiletec.plugins.jacms.aps.system.services.content.IContentManager;
+
+/**
+ * A contents table in an in-memory Derby database, queried like the public content searcher 
+ * of the content manager does for the filters of a channel: by content type, 
+ * ordered by last modify date, with the limit pushed into the query when the filters have one.
+ */
+public class DerbyContentTable {
+
+	/**
+	 * Creates the table and fills it with the given number of published contents, 
+	 * spread over the given content types.
+	 */
+	public DerbyContentTable(String name, int size, String... contentTypes) throws SQLException {
+		this._url = "jdbc:derby:memory:" + name;
+		this._connection = DriverManager.getConnection(this._url + ";create=true");
+		try (Statement stat = this._connection.createStatement()) {
+			stat.execute("CREATE TABLE contents (contentid VARCHAR(16) NOT NULL PRIMARY KEY, contenttype VARCHAR(30) NOT NULL, "
+					+ "lastmodified VARCHAR(20), onlinexml CLOB)");
+		}
+		this._connection.setAutoCommit(false);
+		SimpleDateFormat format = new SimpleDateFormat("yyyyMMddHHmmss");
+		long now = System.currentTimeMillis();
+		try (PreparedStatement stat = this._connection.prepareStatement("INSERT INTO contents VALUES (?, ?, ?, ?)")) {
+			for (int i = 0; i < size; i++) {
+				String contentType = contentTypes[i % contentTypes.length];
+				stat.setString(1, contentType + i);
+				stat.setString(2, contentType);
+				stat.setString(3, format.format(new Date(now - i * 60000L)));
+				stat.setString(4, "<content id=\"" + contentType + i + "\" typecode=\"" + contentType + "\"></content>");
+				stat.addBatch();
+				if (i % 1000 == 999) {
+					stat.executeBatch();
+				}
+			}
+			stat.executeBatch();
+		}
+		this._connection.commit();
+		this._connection.setAutoCommit(true);
+	}
+
+	/**
+	 * Returns the ids of the published contents of a type, applying the order 
+	 * by last modify date and the limit of the given filters.
+	 */
+	public List<String> loadPublicContentsId(String contentType, EntitySearchFilter[] filters) throws SQLException {
+		StringBuilder query = new StringBuilder("SELECT contentid FROM contents WHERE contenttype = ? AND onlinexml IS NOT NULL");
+		Integer limit = null;
+		Integer offset = null;
+		String order = null;
+		for (int i = 0; null != filters && i < filters.length; i++) {
+			FieldSearchFilter<?> filter = filters[i];
+			if (null != filter.getLimit()) {
+				limit = filter.getLimit();
+				offset = filter.getOffset();
+			} else if (IContentManager.CONTENT_MODIFY_DATE_FILTER_KEY.equals(filter.getKey()) && null != filter.getOrder()) {
+				order = filter.getOrder();
+			}
+		}
+		if (null != order) {
+			query.append(" ORDER BY lastmodified ").append(FieldSearchFilter.DESC_ORDER.equals(order) ? "DESC" : "ASC");
+		}
+		if (null != limit) {
+			query.append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+		}
+		List<String> contentsId = new ArrayList<String>();
+		try (PreparedStatement stat = this._connection.prepareStatement(query.toString())) {
+			stat.setString(1, contentType);
+			if (null != limit) {
+				stat.setInt(2, (null != offset) ? offset : 0);
+				stat.setInt(3, limit);
+			}
+			try (ResultSet res = stat.executeQuery()) {
+				while (res.next()) {
+					contentsId.add(res.getString(1));
+				}
+			}
+		}
+		return contentsId;
+	}
+
+	/**
+	 * Creates a content manager whose queries of the public contents run on this table.
+	 */
+	public IContentManager createContentManager() {
+		Map<String, Stubs.Answer> answers = new HashMap<String, Stubs.Answer>();
+		answers.put("loadPublicContentsId", args -> this.loadPublicContentsId((String) args[0], (EntitySearchFilter[]) args[2]));
+		return Stubs.create(IContentManager.class, answers);
+	}
+
+	/**
+	 * Closes the connection and drops the database.
+	 */
+	public void drop() {
+		try {
+			this._connection.close();
+			DriverManager.getConnection(this._url + ";drop=true");
+		} catch (SQLException e) {
+			// Derby reports the drop of a database with an exception
+		}
+	}
+
+	private final String _url;
+	private final Connection _connection;
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.feed.synd.SyndFeedImpl;
+import com.rometools.rome.io.SyndFeedOutput;
+
+/**
+ * Benchmarks of the generation of a feed, against an {@link InMemoryContentStore}: 
+ * the cost of the plugin code, without the database. 
+ * Run with the gc profiler to get the allocation rate:
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="FeedGenerationBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedGenerationBenchmark {
+
+	@Param({"10", "100", "1000"})
+	public int entries;
+
+	@Param({"200", "2000"})
+	public int descriptionSize;
+
+	@Param({"0", "5"})
+	public int linkDensity;
+
+	private RssManager _rssManager;
+	private Channel _channel;
+	private List<RssEntryRecord> _records;
+	private List<FeedEntry> _entries;
+	private SyndFeed _syndFeed;
+	private SyndFeed _header;
+
+	@Setup
+	public void setUp() throws Exception {
+		InMemoryContentStore store = new InMemoryContentStore(LANG, this.descriptionSize, this.linkDensity);
+		List<String> ids = store.addContents(CONTENT_TYPE, this.entries);
+		this._rssManager = store.createRssManager(CONTENT_TYPE);
+		this._channel = new Channel();
+		this._channel.setId(1);
+		this._channel.setActive(true);
+		this._channel.setTitle("Benchmark");
+		this._channel.setDescription("Benchmark channel");
+		this._channel.setContentType(CONTENT_TYPE);
+		this._channel.setFeedType("rss_2.0");
+		this._channel.setMaxContentsSize(this.entries);
+		this._records = new ArrayList<RssEntryRecord>();
+		this._entries = new ArrayList<FeedEntry>();
+		FeedLinkResolver linkResolver = this.createLinkResolver();
+		for (int i = 0; i < ids.size(); i++) {
+			this._records.add(store.getEntry(ids.get(i)));
+			this._entries.add(this._rssManager.createEntry(store.getEntry(ids.get(i)), FEED_LINK, linkResolver));
+		}
+		this._syndFeed = this._rssManager.getSyndFeed(this._channel, LANG, FEED_LINK, null, null);
+		this._header = new SyndFeedImpl();
+		this._header.setFeedType(this._channel.getFeedType());
+		this._header.setTitle(this._channel.getTitle());
+		this._header.setLink(FEED_LINK);
+		this._header.setDescription(this._channel.getDescription());
+	}
+
+	/**
+	 * The feed built for the Rome result, with the content ids and the resolved links cached.
+	 */
+	@Benchmark
+	public SyndFeed getSyndFeed() throws Exception {
+		return this._rssManager.getSyndFeed(this._channel, LANG, FEED_LINK, null, null);
+	}
+
+	/**
+	 * The entries built from the records, resolving every symbolic link.
+	 */
+	@Benchmark
+	public void createEntry(Blackhole blackhole) throws Exception {
+		FeedLinkResolver linkResolver = this.createLinkResolver();
+		for (int i = 0; i < this._records.size(); i++) {
+			blackhole.consume(this._rssManager.createEntry(this._records.get(i), FEED_LINK, linkResolver));
+		}
+	}
+
+	/**
+	 * The content ids of the channel, from the cache.
+	 */
+	@Benchmark
+	public List<String> getContentsId() throws Exception {
+		return this._rssManager.getContentsId(this._channel, LANG);
+	}
+
+	/**
+	 * The output of a {@link SyndFeed} by the Rome result.
+	 */
+	@Benchmark
+	public void romeResultSyndFeed(Blackhole blackhole) throws Exception {
+		Writer writer = new OutputStreamWriter(new BlackholeOutputStream(blackhole), StandardCharsets.UTF_8);
+		new SyndFeedOutput().output(this._syndFeed, writer);
+		writer.flush();
+	}
+
+	/**
+	 * The output of a streamed feed by the Rome result, written by the {@link StaxFeedWriter}.
+	 */
+	@Benchmark
+	public void romeResultFeedStream(Blackhole blackhole) throws Exception {
+		this._rssManager.getFeedWriter().write(this._header, this._entries.iterator(), new BlackholeOutputStream(blackhole));
+	}
+
+	/**
+	 * A feed rendered from scratch, as after a publication: every cache of the channel is evicted.
+	 */
+	@Benchmark
+	public RenderedFeed renderFeed() throws Exception {
+		this._rssManager.getRenderedFeedCache().clear();
+		this._rssManager.getFeedEntriesCache().clear();
+		this._rssManager.getContentIdCache().clear();
+		this._rssManager.getResolvedLinkCache().clear();
+		return this._rssManager.getRenderedFeed(this._channel, LANG, FEED_LINK, null, null);
+	}
+
+	private FeedLinkResolver createLinkResolver() {
+		return new FeedLinkResolver(this._rssManager.getLinkResolver(), null, null, null, FEED_LINK);
+	}
+
+	/**
+	 * An output stream that hands the bytes to the blackhole.
+	 */
+	private static class BlackholeOutputStream extends OutputStream {
+
+		private BlackholeOutputStream(Blackhole blackhole) {
+			this._blackhole = blackhole;
+		}
+
+		@Override
+		public void write(int b) {
+			this._blackhole.consume(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			this._blackhole.consume(b);
+			this._blackhole.consume(len);
+		}
+
+		private final Blackhole _blackhole;
+
+	}
+
+	private static final String LANG = "en";
+	private static final String CONTENT_TYPE = "ART";
+	private static final String FEED_LINK = InMemoryContentStore.BASE_URL + LANG + "/";
+
+}
@@ -0,0 +1,677 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.entando.entando.plugins.jprss.apsadmin.portal.RssPortalAction;
+import org.entando.entando.plugins.jprss.aps.system.services.admission.FeedAdmissionController;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.ChannelMetrics;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.FeedMetrics;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.agiletec.aps.system.services.baseconfig.ConfigInterface;
+import com.agiletec.aps.system.services.lang.ILangManager;
+import com.agiletec.plugins.jacms.aps.system.services.content.event.PublicContentChangedEvent;
+import com.agiletec.plugins.jacms.aps.system.services.content.model.Content;
+import com.opensymphony.xwork2.Action;
+
+/**
+ * A synthetic load test of the feeds: an {@link RssManager} and the {@link RssPortalAction}
+ * run against an {@link InMemoryContentStore}, seeded with contents of several types and categories,
+ * while client threads ask the feeds of the channels and a publisher publishes new contents.
+ * It reports the throughput and the p50/p99 latency of every kind of client, and the heap usage.
+ * The options are given as name=value arguments (see {@link Options}):
+ * <pre>mvn -Pbenchmarks test-compile exec:exec@load-test -Dloadtest.args="contents=1000000 clients=64 duration=60"</pre>
+ */
+public class FeedLoadTest {
+
+	public static void main(String[] args) throws Exception {
+		Options options = Options.parse(args);
+		FeedLoadTest loadTest = new FeedLoadTest(options);
+		loadTest.seed();
+		loadTest.run();
+		loadTest.report();
+		System.exit(0);
+	}
+
+	public FeedLoadTest(Options options) {
+		this._options = options;
+	}
+
+	/**
+	 * Publishes the contents, spread over the content types, and creates the channels and the services.
+	 */
+	protected void seed() throws Exception {
+		long start = System.nanoTime();
+		this._store = new InMemoryContentStore(LANG, this._options.getDescriptionSize(), this._options.getLinkDensity());
+		String[] categories = new String[this._options.getCategories()];
+		for (int i = 0; i < categories.length; i++) {
+			categories[i] = "cat" + (i + 1);
+		}
+		this._store.setCategories(categories);
+		this._contentTypes = new String[this._options.getContentTypes()];
+		for (int i = 0; i < this._contentTypes.length; i++) {
+			this._contentTypes[i] = "T" + (char) ('A' + i % 26) + (i / 26);
+			this._store.addContents(this._contentTypes[i], this._options.getContents() / this._contentTypes.length
+					+ ((i < this._options.getContents() % this._contentTypes.length) ? 1 : 0));
+		}
+		this._channels = new ArrayList<Channel>();
+		for (int i = 0; i < this._options.getChannels(); i++) {
+			Channel channel = new Channel();
+			channel.setId(i + 1);
+			channel.setActive(true);
+			channel.setTitle("Channel " + (i + 1));
+			channel.setDescription("Load test channel " + (i + 1));
+			channel.setContentType(this._contentTypes[i % this._contentTypes.length]);
+			if (categories.length > 0 && i % 2 == 1) {
+				channel.setCategory(categories[(i / 2) % categories.length]);
+			}
+			channel.setFeedType(FEED_TYPES[i % FEED_TYPES.length]);
+			channel.setMaxContentsSize(this._options.getFeedSize());
+			this._channels.add(channel);
+		}
+		this._feedMetrics = new FeedMetrics();
+		this._feedMetrics.setJmxEnabled(false);
+		this._rssManager = this.createRssManager();
+		this._langManager = this._store.createLangManager();
+		this._configManager = this._store.createConfigManager();
+		if (this._options.getMaxConcurrentRequests() > 0 || this._options.getClientRate() > 0) {
+			this._admissionController = new FeedAdmissionController();
+			this._admissionController.setMaxConcurrentRequests(this._options.getMaxConcurrentRequests());
+			this._admissionController.setClientRate(this._options.getClientRate());
+		}
+		System.out.printf(Locale.ROOT, "Seeded %d contents of %d types in %d categories, %d channels, in %d ms%n",
+				this._store.size(), this._contentTypes.length, categories.length, this._channels.size(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		this._seededHeap = usedHeapAfterGc();
+	}
+
+	/**
+	 * Creates the manager as configured by the plugin, with the channels of the test.
+	 */
+	private RssManager createRssManager() {
+		RssManager rssManager = this._store.createRssManager(this._contentTypes);
+		Map<String, Stubs.Answer> answers = new HashMap<String, Stubs.Answer>();
+		answers.put("getChannels", args -> new ArrayList<Channel>(this._channels));
+		answers.put("getChannel", args -> this._channels.get((Integer) args[0] - 1));
+		rssManager.setRssDAO(Stubs.create(IRssDAO.class, answers));
+		Map<String, String> feedTypes = new LinkedHashMap<String, String>();
+		for (int i = 0; i < FEED_TYPES.length; i++) {
+			feedTypes.put(FEED_TYPES[i], FEED_TYPES[i]);
+		}
+		rssManager.setAvailableFeedTypes(feedTypes);
+		rssManager.setFeedMetrics(this._feedMetrics);
+		rssManager.setPageSize(this._options.getPageSize());
+		rssManager.setMaxCachedArchives(1000);
+		rssManager.setMaxResolvedLinks(10000);
+		rssManager.setEntryBuilderThreads(this._options.getEntryBuilderThreads());
+		rssManager.setRefreshThreads(this._options.getRefreshThreads());
+		if (rssManager.getEntryBuilderThreads() > 0) {
+			rssManager.setEntryBuilderPool(new EntryBuilderPool(rssManager.getEntryBuilderThreads(), false));
+		}
+		if (rssManager.getRefreshThreads() > 0) {
+			rssManager.setRefreshScheduler(rssManager.createRefreshScheduler());
+		}
+		return rssManager;
+	}
+
+	/**
+	 * Runs the clients for the warm-up and then for the measured duration.
+	 */
+	protected void run() throws Exception {
+		System.out.printf(Locale.ROOT, "Running %d clients (%s), %d publications/s: warm-up %d s, measure %d s%n",
+				this._options.getClients(), this._options.getMix(), this._options.getPublishRate(),
+				this._options.getWarmup(), this._options.getDuration());
+		List<Client> clients = new ArrayList<Client>();
+		CountDownLatch done = new CountDownLatch(this._options.getClients());
+		for (int i = 0; i < this._options.getClients(); i++) {
+			Client client = new Client(i, done);
+			clients.add(client);
+			Thread thread = new Thread(client, "jprss-load-client-" + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+			Thread thread = new Thread(runnable, "jprss-load-scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		if (this._options.getPublishRate() > 0) {
+			scheduler.scheduleAtFixedRate(this::publish, 0, 1000000 / this._options.getPublishRate(), TimeUnit.MICROSECONDS);
+		}
+		scheduler.scheduleAtFixedRate(this::sampleHeap, 0, 100, TimeUnit.MILLISECONDS);
+		Thread.sleep(TimeUnit.SECONDS.toMillis(this._options.getWarmup()));
+		this._metricsAtStart = this.sumFeedMetrics();
+		this._gcAtStart = gcTotals();
+		this._peakHeap.set(0);
+		this._measuring = true;
+		long start = System.nanoTime();
+		Thread.sleep(TimeUnit.SECONDS.toMillis(this._options.getDuration()));
+		this._measuring = false;
+		this._elapsedNanos = System.nanoTime() - start;
+		this._gcAtEnd = gcTotals();
+		this._metricsAtEnd = this.sumFeedMetrics();
+		this._running = false;
+		done.await(30, TimeUnit.SECONDS);
+		scheduler.shutdownNow();
+		this._rssManager.destroy();
+		this._clients = clients;
+		this._finalHeap = usedHeapAfterGc();
+	}
+
+	/**
+	 * Publishes a new content of a random type, notifying the manager as the content manager does.
+	 */
+	private void publish() {
+		try {
+			String contentType = this._contentTypes[(int) (this._publications.getAndIncrement() % this._contentTypes.length)];
+			String contentId = this._store.addContents(contentType, 1).get(0);
+			Content content = new Content();
+			content.setId(contentId);
+			content.setTypeCode(contentType);
+			PublicContentChangedEvent event = new PublicContentChangedEvent();
+			event.setContent(content);
+			event.setOperationCode(PublicContentChangedEvent.INSERT_OPERATION_CODE);
+			this._rssManager.updateFromPublicContentChanged(event);
+		} catch (Throwable t) {
+			t.printStackTrace();
+		}
+	}
+
+	private void sampleHeap() {
+		long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+		this._peakHeap.accumulateAndGet(used, Math::max);
+	}
+
+	/**
+	 * Prints the results of the measured duration.
+	 */
+	protected void report() {
+		double seconds = this._elapsedNanos / 1e9;
+		System.out.println();
+		System.out.printf(Locale.ROOT, "%-12s %10s %10s %9s %9s %9s %9s %8s%n",
+				"client", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+		LatencyRecorder total = new LatencyRecorder();
+		long totalErrors = 0;
+		Map<Integer, Long> statuses = new HashMap<Integer, Long>();
+		long bytes = 0;
+		for (ClientType type : ClientType.values()) {
+			LatencyRecorder latencies = new LatencyRecorder();
+			long errors = 0;
+			for (Client client : this._clients) {
+				latencies.merge(client.getLatencies(type));
+				errors += client.getErrors(type);
+			}
+			if (latencies.getCount() == 0) {
+				continue;
+			}
+			this.printLatencies(type.name().toLowerCase(Locale.ROOT), latencies, errors, seconds);
+			total.merge(latencies);
+			totalErrors += errors;
+		}
+		for (Client client : this._clients) {
+			for (Map.Entry<Integer, Long> status : client.getStatuses().entrySet()) {
+				statuses.merge(status.getKey(), status.getValue(), Long::sum);
+			}
+			bytes += client.getBytes();
+		}
+		this.printLatencies("total", total, totalErrors, seconds);
+		System.out.println();
+		System.out.println("statuses:   " + new TreeMap<Integer, Long>(statuses));
+		System.out.printf(Locale.ROOT, "body:       %.1f MB/s%n", bytes / seconds / MB);
+		System.out.printf(Locale.ROOT, "feeds:      %d cache hits, %d cache misses, %d renders, %d evictions, %d publications%n",
+				this._metricsAtEnd[0] - this._metricsAtStart[0], this._metricsAtEnd[1] - this._metricsAtStart[1],
+				this._metricsAtEnd[2] - this._metricsAtStart[2], this._metricsAtEnd[3] - this._metricsAtStart[3],
+				this._publications.get());
+		System.out.printf(Locale.ROOT, "admission:  %d rejections, %d answered with the last rendered feed%n",
+				this._metricsAtEnd[4] - this._metricsAtStart[4], this._metricsAtEnd[5] - this._metricsAtStart[5]);
+		System.out.printf(Locale.ROOT, "heap:       %.0f MB live after seeding, %.0f MB peak used, %.0f MB live after the run, %.0f MB max%n",
+				this._seededHeap / MB, this._peakHeap.get() / MB, this._finalHeap / MB,
+				ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax() / MB);
+		System.out.printf(Locale.ROOT, "gc:         %d collections, %d ms (%.1f%% of the time)%n",
+				this._gcAtEnd[0] - this._gcAtStart[0], this._gcAtEnd[1] - this._gcAtStart[1],
+				(this._gcAtEnd[1] - this._gcAtStart[1]) / (seconds * 10));
+	}
+
+	private void printLatencies(String name, LatencyRecorder latencies, long errors, double seconds) {
+		System.out.printf(Locale.ROOT, "%-12s %10d %10.0f %9.2f %9.2f %9.2f %9.2f %8d%n", name, latencies.getCount(),
+				latencies.getCount() / seconds, latencies.getPercentileMillis(50), latencies.getPercentileMillis(90),
+				latencies.getPercentileMillis(99), latencies.getMaxMillis(), errors);
+	}
+
+	/**
+	 * The cache hits, misses, renders, evictions, rejections and last feeds served of all the channels.
+	 */
+	private long[] sumFeedMetrics() {
+		long[] totals = new long[6];
+		for (ChannelMetrics metrics : this._feedMetrics.getAll()) {
+			totals[0] += metrics.getCacheHits();
+			totals[1] += metrics.getCacheMisses();
+			totals[2] += metrics.getRenders();
+			totals[3] += metrics.getCacheEvictions();
+			totals[4] += metrics.getRejections();
+			totals[5] += metrics.getLastFeedsServed();
+		}
+		return totals;
+	}
+
+	private static long[] gcTotals() {
+		long[] totals = new long[2];
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			totals[0] += Math.max(0, collector.getCollectionCount());
+			totals[1] += Math.max(0, collector.getCollectionTime());
+		}
+		return totals;
+	}
+
+	private static long usedHeapAfterGc() {
+		System.gc();
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	/**
+	 * The kinds of client of the feeds.
+	 */
+	public enum ClientType {
+
+		/** Asks the current feed without validators, as a first visit. */
+		FULL,
+		/** Asks the current feed with the ETag of its last response, as a polling feed reader. */
+		CONDITIONAL,
+		/** Asks an archive of a paged feed, as a reader catching up. */
+		PAGED,
+		/** Asks the entries modified since its last response (RFC 3229), as a polling aggregator. */
+		DELTA
+
+	}
+
+	/**
+	 * A client thread, that asks the feeds of random channels until the test ends.
+	 */
+	private class Client implements Runnable {
+
+		private Client(int index, CountDownLatch done) {
+			this._random = new Random(index);
+			this._address = "10.0." + (index / 250) + "." + (index % 250 + 1);
+			this._done = done;
+			for (ClientType type : ClientType.values()) {
+				this._latencies.put(type, new LatencyRecorder());
+			}
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (_running) {
+					ClientType type = _options.nextClientType(this._random);
+					Channel channel = _channels.get(this._random.nextInt(_channels.size()));
+					long start = System.nanoTime();
+					boolean success = this.request(type, channel);
+					long nanos = System.nanoTime() - start;
+					if (_measuring) {
+						this._latencies.get(type).record(nanos);
+						if (!success) {
+							this._errors.merge(type, 1L, Long::sum);
+						}
+					}
+				}
+			} finally {
+				this._done.countDown();
+			}
+		}
+
+		/**
+		 * Runs a request of the feed action and writes the feed, as the Rome result does.
+		 * @return false if the action failed
+		 */
+		private boolean request(ClientType type, Channel channel) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/do/jprss/Rss/Feed/show.action");
+			request.setRemoteAddr(this._address);
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			LoadTestPortalAction action = new LoadTestPortalAction(request, _langManager);
+			action.setRssManager(_rssManager);
+			action.setFeedMetrics(_feedMetrics);
+			action.setAdmissionController(_admissionController);
+			action.setConfigManager(_configManager);
+			action.setServletResponse(response);
+			action.setId(String.valueOf(channel.getId()));
+			action.setLang(LANG);
+			String eTag = this._eTags.get(channel.getId());
+			Long lastModified = this._lastModified.get(channel.getId());
+			if (type == ClientType.CONDITIONAL && null != eTag) {
+				request.addHeader("If-None-Match", eTag);
+			} else if (type == ClientType.PAGED) {
+				int archives = Math.max(1, (_options.getFeedSize() - 1) / Math.max(1, _options.getPageSize()));
+				action.setPage(String.valueOf(1 + this._random.nextInt(archives)));
+			} else if (type == ClientType.DELTA && null != lastModified) {
+				request.addHeader("A-IM", "feed");
+				request.addHeader("If-Modified-Since", lastModified.longValue());
+			}
+			try {
+				String result = action.show();
+				if (Action.SUCCESS.equals(result)) {
+					action.getFeedStream().writeTo(this._body);
+				} else if (null != result) {
+					return false;
+				}
+			} catch (Throwable t) {
+				return false;
+			}
+			if (_measuring) {
+				this._statuses.merge(response.getStatus(), 1L, Long::sum);
+			}
+			if (null != response.getHeader("ETag") && response.getStatus() == HttpServletResponse.SC_OK) {
+				this._eTags.put(channel.getId(), response.getHeader("ETag"));
+			}
+			if (null != response.getHeader("Last-Modified")) {
+				this._lastModified.put(channel.getId(), response.getDateHeader("Last-Modified"));
+			}
+			return true;
+		}
+
+		private LatencyRecorder getLatencies(ClientType type) {
+			return this._latencies.get(type);
+		}
+
+		private long getErrors(ClientType type) {
+			Long errors = this._errors.get(type);
+			return (null != errors) ? errors : 0;
+		}
+
+		private Map<Integer, Long> getStatuses() {
+			return _statuses;
+		}
+
+		private long getBytes() {
+			return this._body.getCount();
+		}
+
+		private final Random _random;
+		private final String _address;
+		private final CountDownLatch _done;
+		private final Map<ClientType, LatencyRecorder> _latencies = new HashMap<ClientType, LatencyRecorder>();
+		private final Map<ClientType, Long> _errors = new HashMap<ClientType, Long>();
+		private final Map<Integer, Long> _statuses = new HashMap<Integer, Long>();
+		private final Map<Integer, String> _eTags = new HashMap<Integer, String>();
+		private final Map<Integer, Long> _lastModified = new HashMap<Integer, Long>();
+		private final CountingOutputStream _body = new CountingOutputStream();
+
+	}
+
+	/**
+	 * The feed action, reading the request given by the test rather than the one of the Struts context.
+	 */
+	private static class LoadTestPortalAction extends RssPortalAction {
+
+		private LoadTestPortalAction(HttpServletRequest request, ILangManager langManager) {
+			this._request = request;
+			this._langManager = langManager;
+		}
+
+		@Override
+		protected HttpServletRequest getRequest() {
+			return _request;
+		}
+
+		@Override
+		protected ILangManager getLangManager() {
+			return _langManager;
+		}
+
+		private final HttpServletRequest _request;
+		private final ILangManager _langManager;
+
+	}
+
+	/**
+	 * An output stream that counts the bytes of the measured responses and drops them.
+	 */
+	private class CountingOutputStream extends OutputStream {
+
+		@Override
+		public void write(int b) {
+			if (_measuring) {
+				this._count++;
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			if (_measuring) {
+				this._count += len;
+			}
+		}
+
+		private long getCount() {
+			return _count;
+		}
+
+		private long _count;
+
+	}
+
+	/**
+	 * The options of the load test, given as name=value arguments.
+	 * <ul>
+	 * <li><b>contents</b>: the number of the contents (default 100000)</li>
+	 * <li><b>contentTypes</b>: the number of the content types (default 4)</li>
+	 * <li><b>categories</b>: the number of the categories; every other channel serves a category (default 10)</li>
+	 * <li><b>channels</b>: the number of the channels, whose feed types cycle over rss 2.0, atom 1.0, json and rss 1.0 (default 40)</li>
+	 * <li><b>feedSize</b>: the maximum number of contents of a channel (default 100)</li>
+	 * <li><b>pageSize</b>: the number of entries of a feed page, 0 for unpaged feeds (default 25)</li>
+	 * <li><b>descriptionSize</b>, <b>linkDensity</b>: the size of the descriptions and the number of links in them (default 1000 and 3)</li>
+	 * <li><b>clients</b>: the number of the client threads (default 32)</li>
+	 * <li><b>mix</b>: the weights of the kinds of client (default full=20,conditional=60,paged=10,delta=10)</li>
+	 * <li><b>publishRate</b>: the contents published every second (default 2)</li>
+	 * <li><b>refreshThreads</b>, <b>entryBuilderThreads</b>: as the properties of the manager (default 2 and 0)</li>
+	 * <li><b>maxConcurrentRequests</b>, <b>clientRate</b>: the limits of the admission control, 
+	 * every client thread being a client; 0 for both serves the feeds without admission control (default 0)</li>
+	 * <li><b>warmup</b>, <b>duration</b>: the seconds of the warm-up and of the measure (default 10 and 30)</li>
+	 * </ul>
+	 */
+	public static class Options {
+
+		public static Options parse(String[] args) {
+			Options options = new Options();
+			for (int i = 0; i < args.length; i++) {
+				int separator = args[i].indexOf('=');
+				if (separator <= 0) {
+					throw new IllegalArgumentException("Wrong option '" + args[i] + "', expected name=value");
+				}
+				String name = args[i].substring(0, separator);
+				String value = args[i].substring(separator + 1);
+				if (name.equals("mix")) {
+					options.setMix(value);
+				} else if (options._values.containsKey(name)) {
+					options._values.put(name, Integer.parseInt(value));
+				} else {
+					throw new IllegalArgumentException("Unknown option '" + name + "'");
+				}
+			}
+			return options;
+		}
+
+		private Options() {
+			this._values.put("contents", 100000);
+			this._values.put("contentTypes", 4);
+			this._values.put("categories", 10);
+			this._values.put("channels", 40);
+			this._values.put("feedSize", 100);
+			this._values.put("pageSize", 25);
+			this._values.put("descriptionSize", 1000);
+			this._values.put("linkDensity", 3);
+			this._values.put("clients", 32);
+			this._values.put("publishRate", 2);
+			this._values.put("refreshThreads", 2);
+			this._values.put("entryBuilderThreads", 0);
+			this._values.put("maxConcurrentRequests", 0);
+			this._values.put("clientRate", 0);
+			this._values.put("warmup", 10);
+			this._values.put("duration", 30);
+			this.setMix("full=20,conditional=60,paged=10,delta=10");
+		}
+
+		private void setMix(String mix) {
+			Map<ClientType, Integer> weights = new LinkedHashMap<ClientType, Integer>();
+			String[] parts = mix.split(",");
+			for (int i = 0; i < parts.length; i++) {
+				String[] weight = parts[i].trim().split("=");
+				weights.put(ClientType.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+			}
+			List<ClientType> draws = new ArrayList<ClientType>();
+			for (Map.Entry<ClientType, Integer> weight : weights.entrySet()) {
+				draws.addAll(Collections.nCopies(weight.getValue(), weight.getKey()));
+			}
+			if (draws.isEmpty()) {
+				throw new IllegalArgumentException("Empty client mix '" + mix + "'");
+			}
+			this._mix = mix;
+			this._draws = draws.toArray(new ClientType[draws.size()]);
+		}
+
+		private ClientType nextClientType(Random random) {
+			return this._draws[random.nextInt(this._draws.length)];
+		}
+
+		public String getMix() {
+			return _mix;
+		}
+
+		public int getContents() {
+			return this._values.get("contents");
+		}
+
+		public int getContentTypes() {
+			return Math.max(1, this._values.get("contentTypes"));
+		}
+
+		public int getCategories() {
+			return this._values.get("categories");
+		}
+
+		public int getChannels() {
+			return Math.max(1, this._values.get("channels"));
+		}
+
+		public int getFeedSize() {
+			return this._values.get("feedSize");
+		}
+
+		public int getPageSize() {
+			return this._values.get("pageSize");
+		}
+
+		public int getDescriptionSize() {
+			return this._values.get("descriptionSize");
+		}
+
+		public int getLinkDensity() {
+			return this._values.get("linkDensity");
+		}
+
+		public int getClients() {
+			return Math.max(1, this._values.get("clients"));
+		}
+
+		public int getPublishRate() {
+			return this._values.get("publishRate");
+		}
+
+		public int getRefreshThreads() {
+			return this._values.get("refreshThreads");
+		}
+
+		public int getEntryBuilderThreads() {
+			return this._values.get("entryBuilderThreads");
+		}
+
+		public int getMaxConcurrentRequests() {
+			return this._values.get("maxConcurrentRequests");
+		}
+
+		public int getClientRate() {
+			return this._values.get("clientRate");
+		}
+
+		public int getWarmup() {
+			return this._values.get("warmup");
+		}
+
+		public int getDuration() {
+			return Math.max(1, this._values.get("duration"));
+		}
+
+		private final Map<String, Integer> _values = new LinkedHashMap<String, Integer>();
+		private String _mix;
+		private ClientType[] _draws;
+
+	}
+
+	private final Options _options;
+	private InMemoryContentStore _store;
+	private String[] _contentTypes;
+	private List<Channel> _channels;
+	private FeedMetrics _feedMetrics;
+	private RssManager _rssManager;
+	private ILangManager _langManager;
+	private ConfigInterface _configManager;
+	private FeedAdmissionController _admissionController;
+	private List<Client> _clients;
+
+	private volatile boolean _running = true;
+	private volatile boolean _measuring;
+	private long _elapsedNanos;
+	private final AtomicLong _publications = new AtomicLong();
+	private final AtomicLong _peakHeap = new AtomicLong();
+	private long _seededHeap;
+	private long _finalHeap;
+	private long[] _metricsAtStart;
+	private long[] _metricsAtEnd;
+	private long[] _gcAtStart;
+	private long[] _gcAtEnd;
+
+	private static final String LANG = "en";
+	private static final String[] FEED_TYPES = {"rss_2.0", "atom_1.0", "json", "rss_1.0"};
+	private static final double MB = 1024d * 1024d;
+
+}
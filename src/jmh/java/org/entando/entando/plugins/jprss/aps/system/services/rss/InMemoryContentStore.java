@@ -0,0 +1,378 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.agiletec.aps.system.SystemConstants;
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
+import com.agiletec.aps.system.services.baseconfig.ConfigInterface;
+import com.agiletec.aps.system.services.lang.ILangManager;
+import com.agiletec.aps.system.services.lang.Lang;
+import com.agiletec.aps.system.services.page.IPage;
+import com.agiletec.aps.system.services.page.IPageManager;
+import com.agiletec.plugins.jacms.aps.system.services.content.IContentManager;
+import com.agiletec.plugins.jacms.aps.system.services.content.model.SymbolicLink;
+import com.agiletec.plugins.jacms.aps.system.services.linkresolver.ILinkResolverManager;
+
+/**
+ * An in-memory repository of published contents, with the stubs of the services 
+ * that an {@link RssManager} reads them through. The feed entries of the contents 
+ * are generated with descriptions of the given size, holding the given number of symbolic links; 
+ * the descriptions are shared by the contents, so that large repositories fit in memory. 
+ * Every content belongs to one of the categories of the store, if any, assigned in turn.
+ */
+public class InMemoryContentStore {
+
+	public InMemoryContentStore(String langCode, int descriptionSize, int linkDensity) {
+		this._langCode = langCode;
+		this._descriptions = new String[DESCRIPTION_VARIANTS];
+		for (int i = 0; i < DESCRIPTION_VARIANTS; i++) {
+			this._descriptions[i] = createDescription(i, descriptionSize, linkDensity);
+		}
+	}
+
+	/**
+	 * Sets the categories of the contents added from now on.
+	 * @param categories the category codes, none for contents without category
+	 */
+	public synchronized void setCategories(String... categories) {
+		this._categories = categories.clone();
+	}
+
+	/**
+	 * Publishes new contents of the given type. The contents of a type are returned 
+	 * by the queries from the newest.
+	 * @param contentType the code of the content type
+	 * @param count the number of the contents
+	 * @return the ids of the added contents
+	 */
+	public synchronized List<String> addContents(String contentType, int count) {
+		List<String> typeIds = this._contentIds.get(contentType);
+		int typeSize = (null != typeIds) ? typeIds.size() : 0;
+		List<String> addedIds = new ArrayList<String>(count);
+		Map<String, List<String>> addedCategoryIds = new HashMap<String, List<String>>();
+		Date lastModified = new Date();
+		for (int i = 0; i < count; i++) {
+			String id = contentType + (typeSize + addedIds.size() + 1);
+			RssEntryRecord entry = new RssEntryRecord();
+			entry.setContentId(id);
+			entry.setLangCode(this._langCode);
+			entry.setContentType(contentType);
+			entry.setViewPage(VIEW_PAGE);
+			entry.setTitle("Title of " + id);
+			entry.setDescription(this._descriptions[this._entries.size() % DESCRIPTION_VARIANTS]);
+			entry.setLastModified(lastModified);
+			this._entries.put(id, entry);
+			addedIds.add(id);
+			if (this._categories.length > 0) {
+				String categoryKey = createKey(contentType, this._categories[(typeSize + i) % this._categories.length]);
+				List<String> categoryIds = addedCategoryIds.get(categoryKey);
+				if (null == categoryIds) {
+					categoryIds = new ArrayList<String>();
+					addedCategoryIds.put(categoryKey, categoryIds);
+				}
+				categoryIds.add(id);
+			}
+		}
+		this.prependIds(contentType, addedIds);
+		for (Map.Entry<String, List<String>> categoryIds : addedCategoryIds.entrySet()) {
+			this.prependIds(categoryIds.getKey(), categoryIds.getValue());
+		}
+		return this._contentIds.get(contentType).subList(0, count);
+	}
+
+	/**
+	 * Puts the given ids, from the oldest, before the ids of the given list.
+	 */
+	private void prependIds(String key, List<String> addedIds) {
+		List<String> ids = new ArrayList<String>(addedIds);
+		Collections.reverse(ids);
+		List<String> previousIds = this._contentIds.get(key);
+		if (null != previousIds) {
+			ids.addAll(previousIds);
+		}
+		this._contentIds.put(key, ids);
+	}
+
+	public RssEntryRecord getEntry(String contentId) {
+		return this._entries.get(contentId);
+	}
+
+	public int size() {
+		return this._entries.size();
+	}
+
+	/**
+	 * Returns the ids of the published contents of a type, from the newest, 
+	 * applying the categories, the start of the modify date range and the limit of the given filters. 
+	 * As every content has one category, contents in more than one of the given categories are never found.
+	 */
+	protected synchronized List<String> loadPublicContentsId(String contentType, String[] categories, EntitySearchFilter[] filters) {
+		String key = contentType;
+		if (null != categories && categories.length > 0) {
+			for (int i = 1; i < categories.length; i++) {
+				if (!categories[i].equals(categories[0])) {
+					return new ArrayList<String>();
+				}
+			}
+			key = createKey(contentType, categories[0]);
+		}
+		List<String> ids = this._contentIds.get(key);
+		if (null == ids) {
+			return new ArrayList<String>();
+		}
+		int limit = ids.size();
+		Date since = null;
+		for (int i = 0; null != filters && i < filters.length; i++) {
+			if (null != filters[i].getLimit()) {
+				limit = Math.min(limit, filters[i].getLimit());
+			} else if (IContentManager.CONTENT_MODIFY_DATE_FILTER_KEY.equals(filters[i].getKey()) 
+					&& filters[i].getStart() instanceof Date) {
+				since = (Date) filters[i].getStart();
+			}
+		}
+		if (null == since) {
+			return new ArrayList<String>(ids.subList(0, limit));
+		}
+		List<String> modifiedIds = new ArrayList<String>();
+		for (int i = 0; i < ids.size() && modifiedIds.size() < limit; i++) {
+			RssEntryRecord entry = this._entries.get(ids.get(i));
+			if (null != entry && !entry.getLastModified().before(since)) {
+				modifiedIds.add(ids.get(i));
+			} else if (null != entry) {
+				// the ids are ordered from the newest
+				break;
+			}
+		}
+		return modifiedIds;
+	}
+
+	private static String createKey(String contentType, String category) {
+		return contentType + "/" + category;
+	}
+
+	/**
+	 * Creates an {@link RssManager} reading the contents of this repository, 
+	 * with a mapping for every given content type.
+	 */
+	public RssManager createRssManager(String... contentTypes) {
+		RssManager rssManager = new RssManager();
+		rssManager.setContentManager(this.createContentManager());
+		rssManager.setPageManager(this.createPageManager());
+		rssManager.setLinkResolver(this.createLinkResolver());
+		rssManager.setLangManager(this.createLangManager());
+		rssManager.setConfigManager(this.createConfigManager());
+		rssManager.setRssEntryDAO(this.createEntryDAO());
+		rssManager.setRssContentDAO(this.createContentDAO());
+		Map<String, RssContentMapping> mappings = new HashMap<String, RssContentMapping>();
+		for (int i = 0; i < contentTypes.length; i++) {
+			RssContentMapping mapping = new RssContentMapping();
+			mapping.setContentType(contentTypes[i]);
+			mapping.setTitleAttributeName("title");
+			mapping.setDescriptionAttributeName("description");
+			mappings.put(contentTypes[i], mapping);
+		}
+		rssManager.setContentMapping(mappings);
+		return rssManager;
+	}
+
+	public IContentManager createContentManager() {
+		Map<String, Stubs.Answer> answers = new HashMap<String, Stubs.Answer>();
+		answers.put("loadPublicContentsId", args -> this.loadPublicContentsId((String) args[0], (String[]) args[1], (EntitySearchFilter[]) args[2]));
+		return Stubs.create(IContentManager.class, answers);
+	}
+
+	/**
+	 * Creates a content DAO that returns, for the contents of the repository, 
+	 * a minimal xml with the title only: the entries rebuilt on a publication are not saved.
+	 */
+	public IRssContentDAO createContentDAO() {
+		return new IRssContentDAO() {
+
+			@Override
+			public Map<String, RssContentRecord> loadContentRecords(List<String> contentsId) {
+				Map<String, RssContentRecord> records = new HashMap<String, RssContentRecord>();
+				for (int i = 0; i < contentsId.size(); i++) {
+					RssEntryRecord entry = _entries.get(contentsId.get(i));
+					if (null != entry) {
+						RssContentRecord record = new RssContentRecord();
+						record.setId(entry.getContentId());
+						record.setTypeCode(entry.getContentType());
+						record.setLastModified(entry.getLastModified());
+						record.setXml("<content id=\"" + entry.getContentId() + "\"><attributes><attribute name=\"title\">" 
+								+ "<text lang=\"" + _langCode + "\">" + entry.getTitle() + "</text></attribute></attributes></content>");
+						records.put(record.getId(), record);
+					}
+				}
+				return records;
+			}
+
+		};
+	}
+
+	public IRssEntryDAO createEntryDAO() {
+		return new IRssEntryDAO() {
+
+			@Override
+			public Map<String, RssEntryRecord> loadEntries(List<String> contentsId, String langCode) {
+				Map<String, RssEntryRecord> entries = new HashMap<String, RssEntryRecord>();
+				for (int i = 0; i < contentsId.size(); i++) {
+					RssEntryRecord entry = _entries.get(contentsId.get(i));
+					if (null != entry) {
+						entries.put(entry.getContentId(), entry);
+					}
+				}
+				return entries;
+			}
+
+			@Override
+			public long getLastModified(List<String> contentsId, String langCode) {
+				long lastModified = 0;
+				for (int i = 0; i < contentsId.size(); i++) {
+					RssEntryRecord entry = _entries.get(contentsId.get(i));
+					if (null != entry && null != entry.getLastModified()) {
+						lastModified = Math.max(lastModified, entry.getLastModified().getTime());
+					}
+				}
+				return lastModified;
+			}
+
+			@Override
+			public void saveEntries(List<RssEntryRecord> entries) {
+				// the entries of the repository are never rebuilt
+			}
+
+			@Override
+			public void deleteEntries(String contentId) {
+				_entries.remove(contentId);
+			}
+
+			@Override
+			public void deleteAllEntries() {
+				// the entries of the repository are never rebuilt
+			}
+
+		};
+	}
+
+	/**
+	 * Creates a link resolver that resolves the content links ("#!C;id!#") to their view page 
+	 * and the url links ("#!U;url!#") to their url.
+	 */
+	public ILinkResolverManager createLinkResolver() {
+		Map<String, Stubs.Answer> answers = new HashMap<String, Stubs.Answer>();
+		answers.put("resolveLinks", args -> resolveLinks((String) args[0]));
+		return Stubs.create(ILinkResolverManager.class, answers);
+	}
+
+	public IPageManager createPageManager() {
+		Map<String, Stubs.Answer> pageAnswers = new HashMap<String, Stubs.Answer>();
+		pageAnswers.put("getCode", args -> VIEW_PAGE);
+		IPage page = Stubs.create(IPage.class, pageAnswers);
+		Map<String, Stubs.Answer> answers = new HashMap<String, Stubs.Answer>();
+		answers.put("getOnlinePage", args -> page);
+		answers.put("getOnlineRoot", args -> page);
+		return Stubs.create(IPageManager.class, answers);
+	}
+
+	public ILangManager createLangManager() {
+		Lang lang = new Lang();
+		lang.setCode(this._langCode);
+		List<Lang> langs = Collections.singletonList(lang);
+		Map<String, Stubs.Answer> answers = new HashMap<String, Stubs.Answer>();
+		answers.put("getDefaultLang", args -> lang);
+		answers.put("getLangs", args -> langs);
+		answers.put("getLang", args -> this._langCode.equals(args[0]) ? lang : null);
+		return Stubs.create(ILangManager.class, answers);
+	}
+
+	public ConfigInterface createConfigManager() {
+		Map<String, Stubs.Answer> answers = new HashMap<String, Stubs.Answer>();
+		answers.put("getParam", args -> SystemConstants.PAR_APPL_BASE_URL.equals(args[0]) ? BASE_URL : null);
+		return Stubs.create(ConfigInterface.class, answers);
+	}
+
+	private static String resolveLinks(String text) {
+		StringBuilder resolved = new StringBuilder(text.length() + 64);
+		int from = 0;
+		int start = text.indexOf(SymbolicLink.SYMBOLIC_DEST_PREFIX);
+		while (start >= 0) {
+			int end = text.indexOf(SymbolicLink.SYMBOLIC_DEST_POSTFIX, start);
+			if (end < 0) {
+				break;
+			}
+			resolved.append(text, from, start);
+			String destination = text.substring(start + SymbolicLink.SYMBOLIC_DEST_PREFIX.length() + 2, end);
+			if (text.startsWith("C;", start + SymbolicLink.SYMBOLIC_DEST_PREFIX.length())) {
+				resolved.append(BASE_URL).append("en/").append(VIEW_PAGE).append(".page?contentId=").append(destination);
+			} else {
+				resolved.append(destination);
+			}
+			from = end + SymbolicLink.SYMBOLIC_DEST_POSTFIX.length();
+			start = text.indexOf(SymbolicLink.SYMBOLIC_DEST_PREFIX, from);
+		}
+		resolved.append(text, from, text.length());
+		return resolved.toString();
+	}
+
+	/**
+	 * Creates a description of about the given size, with the given number of links spread in the text.
+	 */
+	private static String createDescription(int variant, int size, int links) {
+		StringBuilder text = new StringBuilder(size + links * 64);
+		int linkEvery = (links > 0) ? Math.max(1, size / (links + 1)) : Integer.MAX_VALUE;
+		int nextLink = linkEvery;
+		int added = 0;
+		int word = variant;
+		while (text.length() < size || added < links) {
+			if (added < links && text.length() >= nextLink) {
+				text.append("<a href=\"#!C;ART").append(variant * 31 + added + 1).append("!#\">link</a> ");
+				added++;
+				nextLink += linkEvery;
+			} else {
+				text.append(WORDS[word++ % WORDS.length]).append(' ');
+			}
+		}
+		return text.toString();
+	}
+
+	private final String _langCode;
+	private final String[] _descriptions;
+	private final Map<String, RssEntryRecord> _entries = new ConcurrentHashMap<String, RssEntryRecord>();
+	private final Map<String, List<String>> _contentIds = new HashMap<String, List<String>>();
+	private String[] _categories = new String[0];
+
+	public static final String BASE_URL = "http://localhost:8080/portal/";
+	public static final String VIEW_PAGE = "news";
+
+	private static final int DESCRIPTION_VARIANTS = 32;
+	private static final String[] WORDS = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", 
+		"sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua"};
+
+}
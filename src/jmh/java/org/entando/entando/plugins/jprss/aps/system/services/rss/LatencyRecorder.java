@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A histogram of latencies with a relative error of about 3%, from 1 microsecond to hours,
+ * for the percentiles of a load test. The values up to 64 microseconds have their own bucket;
+ * every following power of two is split in 32 buckets.
+ * A recorder is not thread safe: every client thread records in its own, and the recorders are merged.
+ */
+public class LatencyRecorder {
+
+	/**
+	 * Records a latency.
+	 * @param nanos the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+		this._counts[bucketIndex(micros)]++;
+		this._count++;
+		this._max = Math.max(this._max, micros);
+	}
+
+	/**
+	 * Adds the samples of another recorder to this one.
+	 * @param other the recorder to add
+	 */
+	public void merge(LatencyRecorder other) {
+		for (int i = 0; i < this._counts.length; i++) {
+			this._counts[i] += other._counts[i];
+		}
+		this._count += other._count;
+		this._max = Math.max(this._max, other._max);
+	}
+
+	public long getCount() {
+		return _count;
+	}
+
+	public double getMaxMillis() {
+		return this._max / 1000d;
+	}
+
+	/**
+	 * Estimates a percentile as the upper bound of the bucket that holds it.
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the estimate in milliseconds, 0 without samples
+	 */
+	public double getPercentileMillis(double percentile) {
+		if (this._count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this._count));
+		long cumulative = 0;
+		for (int i = 0; i < this._counts.length; i++) {
+			cumulative += this._counts[i];
+			if (cumulative >= rank) {
+				return Math.min(upperBound(i), this._max) / 1000d;
+			}
+		}
+		return this.getMaxMillis();
+	}
+
+	private static int bucketIndex(long micros) {
+		if (micros < LINEAR_BUCKETS) {
+			return (int) micros;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return Math.min(BUCKETS - 1, LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket);
+	}
+
+	private static long upperBound(int index) {
+		if (index < LINEAR_BUCKETS) {
+			return index;
+		}
+		int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+		int subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+		return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+
+	private final long[] _counts = new long[BUCKETS];
+	private long _count;
+	private long _max;
+
+	private static final int LINEAR_BITS = 6;
+	private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = LINEAR_BUCKETS + (40 - LINEAR_BITS) * SUB_BUCKETS;
+
+}
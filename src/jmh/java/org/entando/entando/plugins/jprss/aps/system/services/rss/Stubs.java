@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates in-memory stubs of the Entando services used by the feeds. 
+ * A stub answers the methods given by name and returns an empty value from every other method, 
+ * so that it does not depend on the whole interface of the service.
+ */
+public final class Stubs {
+
+	private Stubs() {
+	}
+
+	/**
+	 * The implementation of a method of a stub.
+	 */
+	public interface Answer {
+
+		public Object answer(Object[] args) throws Exception;
+
+	}
+
+	/**
+	 * Creates a stub of the given interface.
+	 * @param type the interface
+	 * @param answers the implementations of the methods, by method name
+	 * @return the stub
+	 */
+	public static <T> T create(Class<T> type, Map<String, Answer> answers) {
+		InvocationHandler handler = new StubHandler(type.getSimpleName(), new HashMap<String, Answer>(answers));
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+	}
+
+	private static class StubHandler implements InvocationHandler {
+
+		private StubHandler(String name, Map<String, Answer> answers) {
+			this._name = name;
+			this._answers = answers;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Answer answer = this._answers.get(method.getName());
+			if (null != answer) {
+				return answer.answer(args);
+			}
+			if (method.getDeclaringClass() == Object.class) {
+				switch (method.getName()) {
+					case "equals": 
+						return proxy == args[0];
+					case "hashCode": 
+						return System.identityHashCode(proxy);
+					default: 
+						return "Stub of " + this._name;
+				}
+			}
+			return emptyValue(method.getReturnType());
+		}
+
+		private final String _name;
+		private final Map<String, Answer> _answers;
+
+	}
+
+	private static Object emptyValue(Class<?> type) {
+		if (type == List.class) {
+			return Collections.emptyList();
+		} else if (type == Map.class) {
+			return Collections.emptyMap();
+		} else if (type == Set.class) {
+			return Collections.emptySet();
+		} else if (!type.isPrimitive() || type == void.class) {
+			return null;
+		}
+		return PRIMITIVE_DEFAULTS.get(type);
+	}
+
+	private static final Map<Class<?>, Object> PRIMITIVE_DEFAULTS = new HashMap<Class<?>, Object>();
+
+	static {
+		PRIMITIVE_DEFAULTS.put(boolean.class, Boolean.FALSE);
+		PRIMITIVE_DEFAULTS.put(byte.class, (byte) 0);
+		PRIMITIVE_DEFAULTS.put(short.class, (short) 0);
+		PRIMITIVE_DEFAULTS.put(char.class, (char) 0);
+		PRIMITIVE_DEFAULTS.put(int.class, 0);
+		PRIMITIVE_DEFAULTS.put(long.class, 0L);
+		PRIMITIVE_DEFAULTS.put(float.class, 0f);
+		PRIMITIVE_DEFAULTS.put(double.class, 0d);
+	}
+
+}
@@ -21,6 +21,8 @@
  */
 package org.entando.entando.plugins.jprss.aps.system.init.servdb;
 
+import java.util.Date;
+
 import com.j256.ormlite.field.DataType;
 import com.j256.ormlite.field.DatabaseField;
 import com.j256.ormlite.table.DatabaseTable;
@@ -78,6 +80,16 @@ public class Channel {
 			canBeNull = true)
 	private int _maxContentSize;
 	
+	@DatabaseField(columnName = "lastmodified", 
+			dataType = DataType.DATE, 
+			canBeNull = true)
+	private Date _lastModified;
+	
+	@DatabaseField(columnName = "maxconcurrency", 
+			dataType = DataType.INTEGER, 
+			canBeNull = true)
+	private int _maxConcurrency;
+	
 	public static final String TABLE_NAME = "jprss_channel";
 	
 }
@@ -92,6 +104,8 @@ CREATE TABLE jprss_channel (
     feedtype character varying(10) NOT NULL,
     category character varying(30),
     maxcontentsize integer,
+    lastmodified timestamp without time zone,
+    maxconcurrency integer,
 	 CONSTRAINT rsschannel_pkey PRIMARY KEY (id)
 );
  */
\ No newline at end of file
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.init.servdb;
+
+import java.util.Date;
+
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = FeedEntry.TABLE_NAME)
+public class FeedEntry {
+	
+	public FeedEntry() {}
+	
+	@DatabaseField(columnName = "contentid", 
+			dataType = DataType.STRING, 
+			width = 16, canBeNull = false, 
+			index = true, uniqueCombo = true)
+	private String _contentId;
+	
+	@DatabaseField(columnName = "langcode", 
+			dataType = DataType.STRING, 
+			width = 2, canBeNull = false, uniqueCombo = true)
+	private String _langCode;
+	
+	@DatabaseField(columnName = "contenttype", 
+			dataType = DataType.STRING, 
+			width = 30, canBeNull = false, index = true)
+	private String _contentType;
+	
+	@DatabaseField(columnName = "title", 
+			dataType = DataType.LONG_STRING, 
+			canBeNull = true)
+	private String _title;
+	
+	@DatabaseField(columnName = "description", 
+			dataType = DataType.LONG_STRING, 
+			canBeNull = true)
+	private String _description;
+	
+	@DatabaseField(columnName = "viewpage", 
+			dataType = DataType.STRING, 
+			width = 30, canBeNull = true)
+	private String _viewPage;
+	
+	@DatabaseField(columnName = "lastmodified", 
+			dataType = DataType.DATE, 
+			canBeNull = true)
+	private Date _lastModified;
+	
+	public static final String TABLE_NAME = "jprss_entry";
+	
+}
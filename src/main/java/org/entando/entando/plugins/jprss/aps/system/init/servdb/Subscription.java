@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.init.servdb;
+
+import java.util.Date;
+
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = Subscription.TABLE_NAME)
+public class Subscription {
+	
+	public Subscription() {}
+	
+	@DatabaseField(columnName = "callback", 
+			dataType = DataType.STRING, 
+			width = 512, canBeNull = false, uniqueCombo = true)
+	private String _callback;
+	
+	@DatabaseField(columnName = "topic", 
+			dataType = DataType.STRING, 
+			width = 512, canBeNull = false, uniqueCombo = true, index = true)
+	private String _topic;
+	
+	@DatabaseField(columnName = "callbackhost", 
+			dataType = DataType.STRING, 
+			width = 255, canBeNull = false, index = true)
+	private String _callbackHost;
+	
+	@DatabaseField(columnName = "channelid", 
+			dataType = DataType.INTEGER, 
+			canBeNull = false, index = true)
+	private int _channelId;
+	
+	@DatabaseField(columnName = "langcode", 
+			dataType = DataType.STRING, 
+			width = 2, canBeNull = false)
+	private String _langCode;
+	
+	@DatabaseField(columnName = "feedtype", 
+			dataType = DataType.STRING, 
+			width = 10, canBeNull = false)
+	private String _feedType;
+	
+	@DatabaseField(columnName = "secret", 
+			dataType = DataType.STRING, 
+			width = 200, canBeNull = true)
+	private String _secret;
+	
+	@DatabaseField(columnName = "leaseexpires", 
+			dataType = DataType.DATE, 
+			canBeNull = false)
+	private Date _leaseExpires;
+	
+	public static final String TABLE_NAME = "jprss_subscription";
+	
+}
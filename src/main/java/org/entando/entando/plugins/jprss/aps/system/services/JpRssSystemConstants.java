@@ -28,6 +28,21 @@ public interface JpRssSystemConstants {
 	 */
 	public static final String RSS_MANAGER = "jprssRssManager";
 	
+	/**
+	 * Bean name of the service that manage the WebSub subscriptions
+	 */
+	public static final String WEBSUB_MANAGER = "jprssWebSubManager";
+	
+	/**
+	 * Path of the action that serves the feeds, relative to the application base url
+	 */
+	public static final String FEED_ACTION_PATH = "do/jprss/Rss/Feed/show.action";
+	
+	/**
+	 * Path of the WebSub hub, relative to the application base url
+	 */
+	public static final String HUB_ACTION_PATH = "do/jprss/Rss/Hub/hub.action";
+	
 	public static final String FEED_TYPE_RSS_090 = "rss_0.90";
 	public static final String FEED_TYPE_RSS_091 = "rss_0.91";
 	public static final String FEED_TYPE_RSS_092 = "rss_0.92";
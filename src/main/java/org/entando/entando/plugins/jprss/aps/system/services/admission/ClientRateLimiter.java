@@ -0,0 +1,203 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.admission;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Limits the requests of every client with a token bucket: a client can send
+ * burst requests at once and then rate requests a second.
+ * The clients beyond maxTrackedClients share a bucket. Instances are thread safe.
+ */
+public class ClientRateLimiter {
+
+	/**
+	 * Takes a token from the bucket of a client.
+	 * @param clientId the id of the client, see {@link #getClientId(HttpServletRequest)}
+	 * @return 0 if the request is allowed, otherwise the nanoseconds until the next token
+	 */
+	public long acquire(String clientId) {
+		if (this.getRate() <= 0 || null == clientId) {
+			return 0;
+		}
+		long now = System.nanoTime();
+		ClientBucket bucket = this._clients.get(clientId);
+		if (null == bucket) {
+			if (this._clients.size() >= this.getMaxTrackedClients()) {
+				this.purgeIdleClients(now);
+			}
+			if (this._clients.size() >= this.getMaxTrackedClients()) {
+				// the clients beyond the tracked ones share a bucket
+				bucket = this._overflowBucket;
+			} else {
+				bucket = this._clients.computeIfAbsent(clientId, k -> new ClientBucket(this.getBurst(), now));
+			}
+		}
+		return bucket.consume(now, this.getRate(), this.getBurst());
+	}
+
+	/**
+	 * Returns the id of the client of a request: the last address of the clientIdHeader,
+	 * when configured and present (e.g. X-Forwarded-For behind a proxy), otherwise the remote address.
+	 * The last address is the one added by the proxy in front of the portal; 
+	 * the previous ones are sent by the client and can't be trusted.
+	 * @param request the request
+	 * @return the id of the client
+	 */
+	public String getClientId(HttpServletRequest request) {
+		String header = this.getClientIdHeader();
+		if (null != header && header.trim().length() > 0) {
+			String value = request.getHeader(header.trim());
+			if (null != value && value.trim().length() > 0) {
+				String clientId = value.substring(value.lastIndexOf(',') + 1).trim();
+				if (clientId.length() > 0) {
+					return clientId;
+				}
+			}
+		}
+		return request.getRemoteAddr();
+	}
+
+	/**
+	 * Converts the wait returned by {@link #acquire(String)} into the value of a Retry-After header.
+	 * @param waitNanos the nanoseconds until the next token
+	 * @return the seconds to wait, at least 1
+	 */
+	public static long toRetryAfterSeconds(long waitNanos) {
+		return Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+	}
+
+	/**
+	 * Drops the buckets refilled since their last request: a new bucket is the same.
+	 * The purge runs at most once a second.
+	 */
+	private void purgeIdleClients(long now) {
+		long lastPurge = this._lastPurge;
+		if (now - lastPurge < NANOS_PER_SECOND) {
+			return;
+		}
+		this._lastPurge = now;
+		long idleNanos = (long) (this.getBurst() / this.getRate() * NANOS_PER_SECOND);
+		Iterator<ClientBucket> iter = this._clients.values().iterator();
+		while (iter.hasNext()) {
+			if (iter.next().isIdle(now, idleNanos)) {
+				iter.remove();
+			}
+		}
+	}
+
+	/**
+	 * The token bucket of a client.
+	 */
+	private static class ClientBucket {
+
+		private ClientBucket(int burst, long now) {
+			this._tokens = burst;
+			this._updated = now;
+		}
+
+		private synchronized long consume(long now, double rate, int burst) {
+			this._tokens = Math.min(burst, this._tokens + (now - this._updated) * rate / NANOS_PER_SECOND);
+			this._updated = now;
+			if (this._tokens >= 1) {
+				this._tokens--;
+				return 0;
+			}
+			return Math.max(1, (long) ((1 - this._tokens) / rate * NANOS_PER_SECOND));
+		}
+
+		private synchronized boolean isIdle(long now, long idleNanos) {
+			return now - this._updated >= idleNanos;
+		}
+
+		private double _tokens;
+		private long _updated;
+
+	}
+
+	protected double getRate() {
+		return _rate;
+	}
+
+	/**
+	 * Sets the requests a second that a client can send, once its burst is spent.
+	 * @param rate the rate, 0 for no limit
+	 */
+	public void setRate(double rate) {
+		this._rate = rate;
+	}
+
+	protected int getBurst() {
+		return _burst;
+	}
+
+	/**
+	 * Sets the requests that a client can send at once.
+	 * @param burst the size of the token bucket of a client
+	 */
+	public void setBurst(int burst) {
+		this._burst = Math.max(1, burst);
+		this._overflowBucket = new ClientBucket(this._burst, System.nanoTime());
+	}
+
+	protected int getMaxTrackedClients() {
+		return _maxTrackedClients;
+	}
+
+	/**
+	 * Sets the maximum number of the clients with their own token bucket.
+	 * @param maxTrackedClients the number of the buckets
+	 */
+	public void setMaxTrackedClients(int maxTrackedClients) {
+		this._maxTrackedClients = maxTrackedClients;
+	}
+
+	protected String getClientIdHeader() {
+		return _clientIdHeader;
+	}
+
+	/**
+	 * Sets the request header that identifies the client behind a proxy. 
+	 * Without it, the clients behind a reverse proxy share the address of the proxy, and its bucket.
+	 * @param clientIdHeader the name of the header, empty to use the remote address
+	 */
+	public void setClientIdHeader(String clientIdHeader) {
+		this._clientIdHeader = clientIdHeader;
+	}
+
+	private double _rate;
+	private int _burst = 20;
+	private int _maxTrackedClients = 10000;
+	private String _clientIdHeader;
+
+	private final Map<String, ClientBucket> _clients = new ConcurrentHashMap<String, ClientBucket>();
+	private ClientBucket _overflowBucket = new ClientBucket(_burst, System.nanoTime());
+	private volatile long _lastPurge = System.nanoTime() - NANOS_PER_SECOND;
+
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.admission;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.RejectionReason;
+
+/**
+ * The outcome of the admission of a feed request. 
+ * An admitted request holds a slot of its channel until it is released.
+ */
+public class FeedAdmission {
+
+	private FeedAdmission(Semaphore permits, RejectionReason rejectionReason, long retryAfterSeconds) {
+		this._permits = permits;
+		this._rejectionReason = rejectionReason;
+		this._retryAfterSeconds = retryAfterSeconds;
+	}
+
+	protected static FeedAdmission admitted(Semaphore permits) {
+		return new FeedAdmission(permits, null, 0);
+	}
+
+	protected static FeedAdmission rejected(RejectionReason reason, long retryAfterSeconds) {
+		return new FeedAdmission(null, reason, retryAfterSeconds);
+	}
+
+	public boolean isAdmitted() {
+		return null == this._rejectionReason;
+	}
+
+	/**
+	 * The reason of the rejection.
+	 * @return the reason, null if the request was admitted
+	 */
+	public RejectionReason getRejectionReason() {
+		return _rejectionReason;
+	}
+
+	/**
+	 * The seconds after which the client should ask again, for the Retry-After header.
+	 * @return the seconds to wait, 0 if the request was admitted
+	 */
+	public long getRetryAfterSeconds() {
+		return _retryAfterSeconds;
+	}
+
+	/**
+	 * The status of the response to a rejected request: 
+	 * 429 (Too Many Requests) when the client exceeded its rate, 503 (Service Unavailable) when the channel is busy.
+	 * @return the status code
+	 */
+	public int getStatus() {
+		return (this._rejectionReason == RejectionReason.CLIENT_RATE) ? SC_TOO_MANY_REQUESTS : SC_SERVICE_UNAVAILABLE;
+	}
+
+	/**
+	 * Releases the slot of the channel held by an admitted request. 
+	 * Only the first call releases it.
+	 */
+	public void release() {
+		if (null != this._permits && this._released.compareAndSet(false, true)) {
+			this._permits.release();
+		}
+	}
+
+	private final Semaphore _permits;
+	private final RejectionReason _rejectionReason;
+	private final long _retryAfterSeconds;
+	private final AtomicBoolean _released = new AtomicBoolean();
+
+	/**
+	 * The admission of the requests served without admission control.
+	 */
+	public static final FeedAdmission UNCONTROLLED = admitted(null);
+
+	public static final int SC_TOO_MANY_REQUESTS = 429;
+	public static final int SC_SERVICE_UNAVAILABLE = 503;
+
+}
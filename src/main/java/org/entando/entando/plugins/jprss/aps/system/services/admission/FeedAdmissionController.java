@@ -0,0 +1,259 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.RejectionReason;
+
+/**
+ * Admits the feed requests, so that a client asking the feeds too fast, or too many requests 
+ * on one channel, cannot exhaust the database connections shared by the portal.
+ * <ul>
+ * <li>Every client has a token bucket: it can ask clientBurst feeds at once 
+ * and then clientRate feeds a second.</li>
+ * <li>Every channel serves up to maxConcurrentRequests requests at a time, 
+ * unless the channel has its own limit.</li>
+ * <li>The requests of a busy channel wait for a slot up to maxQueueWait milliseconds; 
+ * at most maxQueuedRequests requests wait, over all the channels.</li>
+ * </ul>
+ * A limit of 0 disables the check.
+ */
+public class FeedAdmissionController {
+
+	/**
+	 * Admits a request of the feed of a channel, with the default limit of the channels.
+	 * @param channelId the id of the channel
+	 * @param clientId the id of the client, see {@link #getClientId(HttpServletRequest)}
+	 * @return the admission, to be released when the feed is written if admitted
+	 */
+	public FeedAdmission admit(int channelId, String clientId) {
+		return this.admit(channelId, -1, clientId);
+	}
+
+	/**
+	 * Admits a request of the feed of a channel.
+	 * @param channelId the id of the channel
+	 * @param maxConcurrentRequests the limit of the channel, 0 for no limit, 
+	 * a negative value for maxConcurrentRequests
+	 * @param clientId the id of the client, see {@link #getClientId(HttpServletRequest)}
+	 * @return the admission, to be released when the feed is written if admitted
+	 */
+	public FeedAdmission admit(int channelId, int maxConcurrentRequests, String clientId) {
+		long waitNanos = this._clientRateLimiter.acquire(clientId);
+		if (waitNanos > 0) {
+			return FeedAdmission.rejected(RejectionReason.CLIENT_RATE, ClientRateLimiter.toRetryAfterSeconds(waitNanos));
+		}
+		Semaphore permits = this.getChannelPermits(channelId, maxConcurrentRequests);
+		if (null == permits) {
+			return FeedAdmission.admitted(null);
+		}
+		if (permits.tryAcquire()) {
+			return FeedAdmission.admitted(permits);
+		}
+		if (this.getMaxQueuedRequests() <= 0 || this.getMaxQueueWait() <= 0) {
+			return FeedAdmission.rejected(RejectionReason.CHANNEL_BUSY, this.getRetryAfterSeconds());
+		}
+		if (this._queued.incrementAndGet() > this.getMaxQueuedRequests()) {
+			this._queued.decrementAndGet();
+			return FeedAdmission.rejected(RejectionReason.QUEUE_FULL, this.getRetryAfterSeconds());
+		}
+		try {
+			if (permits.tryAcquire(this.getMaxQueueWait(), TimeUnit.MILLISECONDS)) {
+				return FeedAdmission.admitted(permits);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			this._queued.decrementAndGet();
+		}
+		return FeedAdmission.rejected(RejectionReason.CHANNEL_BUSY, this.getRetryAfterSeconds());
+	}
+
+	/**
+	 * Returns the id of the client of a request, see {@link ClientRateLimiter#getClientId(HttpServletRequest)}.
+	 * @param request the request
+	 * @return the id of the client
+	 */
+	public String getClientId(HttpServletRequest request) {
+		return this._clientRateLimiter.getClientId(request);
+	}
+
+	/**
+	 * The number of the requests waiting for a busy channel.
+	 * @return the number of the waiting requests
+	 */
+	public int getQueuedRequests() {
+		return this._queued.get();
+	}
+
+	/**
+	 * Returns the permits of a channel. When the limit of the channel changes, new permits replace 
+	 * the old ones: the requests admitted meanwhile release the old permits.
+	 */
+	private Semaphore getChannelPermits(int channelId, int channelLimit) {
+		int limit = (channelLimit >= 0) ? channelLimit : this.getMaxConcurrentRequests();
+		if (limit <= 0) {
+			return null;
+		}
+		ChannelPermits permits = this._channelPermits.get(channelId);
+		if (null == permits || permits.getLimit() != limit) {
+			permits = this._channelPermits.compute(channelId, 
+					(k, current) -> (null != current && current.getLimit() == limit) ? current : new ChannelPermits(limit));
+		}
+		return permits.getSemaphore();
+	}
+
+	protected int getMaxConcurrentRequests() {
+		return _maxConcurrentRequests;
+	}
+
+	/**
+	 * Sets the maximum number of the requests served at a time by a channel.
+	 * @param maxConcurrentRequests the limit, 0 for no limit
+	 */
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		this._maxConcurrentRequests = maxConcurrentRequests;
+		this._channelPermits.clear();
+	}
+
+	protected int getMaxQueuedRequests() {
+		return _maxQueuedRequests;
+	}
+
+	/**
+	 * Sets the maximum number of the requests waiting for a busy channel, over all the channels.
+	 * @param maxQueuedRequests the bound of the queue, 0 to reject the requests of a busy channel at once
+	 */
+	public void setMaxQueuedRequests(int maxQueuedRequests) {
+		this._maxQueuedRequests = maxQueuedRequests;
+	}
+
+	protected long getMaxQueueWait() {
+		return _maxQueueWait;
+	}
+
+	/**
+	 * Sets how long a request waits for a slot of a busy channel.
+	 * @param maxQueueWait the wait in milliseconds
+	 */
+	public void setMaxQueueWait(long maxQueueWait) {
+		this._maxQueueWait = maxQueueWait;
+	}
+
+	protected double getClientRate() {
+		return this._clientRateLimiter.getRate();
+	}
+
+	/**
+	 * Sets the feeds a second that a client can ask, once its burst is spent. 
+	 * Behind a reverse proxy, set the clientIdHeader too, or all the readers share one bucket.
+	 * @param clientRate the rate, 0 (the default) for no limit
+	 */
+	public void setClientRate(double clientRate) {
+		this._clientRateLimiter.setRate(clientRate);
+	}
+
+	protected int getClientBurst() {
+		return this._clientRateLimiter.getBurst();
+	}
+
+	/**
+	 * Sets the feeds that a client can ask at once.
+	 * @param clientBurst the size of the token bucket of a client
+	 */
+	public void setClientBurst(int clientBurst) {
+		this._clientRateLimiter.setBurst(clientBurst);
+	}
+
+	protected int getMaxTrackedClients() {
+		return this._clientRateLimiter.getMaxTrackedClients();
+	}
+
+	/**
+	 * Sets the maximum number of the clients with their own token bucket.
+	 * @param maxTrackedClients the number of the buckets
+	 */
+	public void setMaxTrackedClients(int maxTrackedClients) {
+		this._clientRateLimiter.setMaxTrackedClients(maxTrackedClients);
+	}
+
+	protected String getClientIdHeader() {
+		return this._clientRateLimiter.getClientIdHeader();
+	}
+
+	/**
+	 * Sets the request header that identifies the client behind a proxy.
+	 * @param clientIdHeader the name of the header, empty to use the remote address
+	 */
+	public void setClientIdHeader(String clientIdHeader) {
+		this._clientRateLimiter.setClientIdHeader(clientIdHeader);
+	}
+
+	protected long getRetryAfterSeconds() {
+		return _retryAfterSeconds;
+	}
+
+	/**
+	 * Sets the seconds that the clients of a busy channel should wait before asking again.
+	 * @param retryAfterSeconds the value of the Retry-After header
+	 */
+	public void setRetryAfterSeconds(long retryAfterSeconds) {
+		this._retryAfterSeconds = retryAfterSeconds;
+	}
+
+	private int _maxConcurrentRequests = 8;
+	private int _maxQueuedRequests = 100;
+	private long _maxQueueWait = 2000;
+	private long _retryAfterSeconds = 5;
+
+	private final Map<Integer, ChannelPermits> _channelPermits = new ConcurrentHashMap<Integer, ChannelPermits>();
+	private final ClientRateLimiter _clientRateLimiter = new ClientRateLimiter();
+	private final AtomicInteger _queued = new AtomicInteger();
+
+	private static class ChannelPermits {
+
+		public ChannelPermits(int limit) {
+			this._limit = limit;
+			this._semaphore = new Semaphore(limit, true);
+		}
+
+		public int getLimit() {
+			return _limit;
+		}
+
+		public Semaphore getSemaphore() {
+			return _semaphore;
+		}
+
+		private final int _limit;
+		private final Semaphore _semaphore;
+
+	}
+
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.entando.entando.plugins.jprss.aps.system.services.rss.Channel;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.IRssManager;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.JsonFeedWriter;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.RenderedFeed;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.event.ChannelChangedEvent;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.event.ChannelChangedObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.agiletec.aps.system.SystemConstants;
+import com.agiletec.aps.system.common.AbstractService;
+import com.agiletec.aps.system.services.baseconfig.ConfigInterface;
+import com.agiletec.aps.system.services.lang.ILangManager;
+import com.agiletec.aps.system.services.lang.Lang;
+import com.agiletec.plugins.jacms.aps.system.services.content.event.PublicContentChangedEvent;
+import com.agiletec.plugins.jacms.aps.system.services.content.event.PublicContentChangedObserver;
+import com.agiletec.plugins.jacms.aps.system.services.content.model.Content;
+
+/**
+ * Writes the feeds of the active channels, and their gzip twins, into the export directory: 
+ * {@code <channel id>_<lang>.xml} (or {@code .json}) and {@code <channel id>_<lang>.xml.gz}.
+ * The feeds are rendered by the {@link IRssManager}, so the files hold the same bytes 
+ * served by the feed action; they are rendered in parallel on a fork-join pool. 
+ * Every file is written to a temporary file and then renamed, so a web server 
+ * never serves a partial feed. Every channel is exported at startup; 
+ * when a content is published, the channels of its content type are exported again 
+ * after the export delay, together with the channels published meanwhile. 
+ * A changed channel is exported again the same way, and the files it no longer has 
+ * (deleted or inactive channel, another feed type) are deleted.
+ */
+public class FeedExportManager extends AbstractService implements IFeedExportManager, PublicContentChangedObserver, ChannelChangedObserver {
+
+	private static final Logger _logger = LoggerFactory.getLogger(FeedExportManager.class);
+
+	@Override
+	public void init() throws Exception {
+		if (!this.isEnabled()) {
+			_logger.debug("{} disabled", this.getClass().getName());
+			return;
+		}
+		this.setForkJoinPool(new ForkJoinPool(this.getParallelism()));
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "jprss-feed-export");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.setScheduler(scheduler);
+		scheduler.execute(() -> {
+			try {
+				exportAll();
+			} catch (Throwable t) {
+				_logger.error("Error exporting the feeds", t);
+			}
+		});
+		_logger.debug("{} ready", this.getClass().getName());
+	}
+
+	@Override
+	public void destroy() {
+		this.release();
+	}
+
+	/**
+	 * Shuts down the export pools, so that a refresh of the service creates them again 
+	 * without leaking their threads.
+	 */
+	@Override
+	protected void release() {
+		if (null != this.getScheduler()) {
+			this.getScheduler().shutdownNow();
+			this.setScheduler(null);
+		}
+		if (null != this.getForkJoinPool()) {
+			this.getForkJoinPool().shutdownNow();
+			this.setForkJoinPool(null);
+		}
+		// the pending channels wait for the next publish
+		this._exportScheduled.set(false);
+	}
+
+	@Override
+	public void updateFromPublicContentChanged(PublicContentChangedEvent event) {
+		Content content = event.getContent();
+		if (null == content || null == this.getScheduler()) {
+			return;
+		}
+		try {
+			List<Channel> channels = this.getRssManager().getChannels(Channel.STATUS_ACTIVE);
+			for (int i = 0; i < channels.size(); i++) {
+				if (content.getTypeCode().equals(channels.get(i).getContentType())) {
+					this._pendingChannels.add(channels.get(i).getId());
+				}
+			}
+		} catch (Throwable t) {
+			_logger.error("Error finding the channels of content {}", content.getId(), t);
+		}
+		this.scheduleExport();
+	}
+
+	@Override
+	public void updateFromChannelChanged(ChannelChangedEvent event) {
+		if (null == this.getScheduler()) {
+			return;
+		}
+		this._pendingChannels.add(event.getChannelId());
+		this.scheduleExport();
+	}
+
+	private void scheduleExport() {
+		if (!this._pendingChannels.isEmpty() && this._exportScheduled.compareAndSet(false, true)) {
+			// the export waits for the caches of the feeds to be evicted
+			this.getScheduler().schedule(() -> exportPending(), this.getExportDelay(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void exportPending() {
+		this._exportScheduled.set(false);
+		List<Integer> channelsId = new ArrayList<Integer>();
+		Iterator<Integer> iter = this._pendingChannels.iterator();
+		while (iter.hasNext()) {
+			channelsId.add(iter.next());
+			iter.remove();
+		}
+		try {
+			this.exportChannels(channelsId);
+		} catch (Throwable t) {
+			_logger.error("Error exporting the feeds of channels {}", channelsId, t);
+		}
+	}
+
+	@Override
+	public int exportAll() throws Exception {
+		List<Channel> channels = this.getRssManager().getChannels(Channel.STATUS_ACTIVE);
+		List<ExportedFeed> feeds = this.createFeeds(channels);
+		int exported = this.export(feeds);
+		this.deleteStaleFiles(feeds, null);
+		return exported;
+	}
+
+	@Override
+	public int exportChannels(Collection<Integer> channelsId) throws Exception {
+		List<Channel> channels = new ArrayList<Channel>();
+		Iterator<Integer> iter = channelsId.iterator();
+		while (iter.hasNext()) {
+			Channel channel = this.getRssManager().getChannel(iter.next());
+			if (null != channel && channel.isActive()) {
+				channels.add(channel);
+			}
+		}
+		List<ExportedFeed> feeds = this.createFeeds(channels);
+		int exported = this.export(feeds);
+		this.deleteStaleFiles(feeds, channelsId);
+		return exported;
+	}
+
+	/**
+	 * Deletes the exported files that are not among the files of the given feeds.
+	 * @param channelsId the channels whose files are checked, null for every channel
+	 */
+	private void deleteStaleFiles(List<ExportedFeed> feeds, Collection<Integer> channelsId) throws IOException {
+		if (null == this.getForkJoinPool()) {
+			return;
+		}
+		Set<String> fileNames = new HashSet<String>();
+		for (int i = 0; i < feeds.size(); i++) {
+			fileNames.add(feeds.get(i).getFileName());
+			fileNames.add(feeds.get(i).getFileName() + GZIP_EXTENSION);
+		}
+		Set<String> channelIds = null;
+		if (null != channelsId) {
+			channelIds = new HashSet<String>();
+			for (Integer channelId : channelsId) {
+				channelIds.add(String.valueOf(channelId));
+			}
+		}
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(this.getExportPath())) {
+			for (Path file : files) {
+				String fileName = file.getFileName().toString();
+				if (!FILE_NAME_PATTERN.matcher(fileName).matches() || fileNames.contains(fileName)) {
+					continue;
+				}
+				if (null == channelIds || channelIds.contains(fileName.substring(0, fileName.indexOf('_')))) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	private List<ExportedFeed> createFeeds(List<Channel> channels) {
+		List<ExportedFeed> feeds = new ArrayList<ExportedFeed>();
+		List<Lang> langs = this.getLangManager().getLangs();
+		for (int i = 0; i < channels.size(); i++) {
+			for (int j = 0; j < langs.size(); j++) {
+				feeds.add(new ExportedFeed(channels.get(i), langs.get(j).getCode()));
+			}
+		}
+		return feeds;
+	}
+
+	private int export(List<ExportedFeed> feeds) throws Exception {
+		if (null == this.getForkJoinPool()) {
+			return 0;
+		}
+		Files.createDirectories(this.getExportPath());
+		return this.getForkJoinPool().invoke(new ExportTask(feeds));
+	}
+
+	/**
+	 * Renders a feed and writes it with its gzip twin. The twin is written after the feed; 
+	 * when it can't be written, the previous twin is deleted, so that a web server 
+	 * never serves a gzip twin older than its feed.
+	 * @return true if the feed was exported
+	 */
+	private boolean export(ExportedFeed feed) {
+		try {
+			String feedLink = this.getBaseUrl() + feed._lang + "/";
+			RenderedFeed renderedFeed = this.getRssManager().getRenderedFeed(feed._channel, feed._lang, 
+					feed._channel.getFeedType(), feedLink, null, null);
+			byte[] gzipBody = renderedFeed.hasGzipBody() ? renderedFeed.getGzipBody() : this.compress(renderedFeed.getBody());
+			Path exportPath = this.getExportPath();
+			FileTime lastModified = FileTime.fromMillis(renderedFeed.getLastModified());
+			this.writeFile(exportPath, feed.getFileName(), renderedFeed.getBody(), lastModified);
+			try {
+				this.writeFile(exportPath, feed.getFileName() + GZIP_EXTENSION, gzipBody, lastModified);
+			} catch (IOException e) {
+				Files.deleteIfExists(exportPath.resolve(feed.getFileName() + GZIP_EXTENSION));
+				throw e;
+			}
+			return true;
+		} catch (Throwable t) {
+			_logger.error("Error exporting feed {}", feed.getFileName(), t);
+			return false;
+		}
+	}
+
+	/**
+	 * Writes a file through a temporary file in the same directory, then renamed over the target.
+	 */
+	private void writeFile(Path dir, String fileName, byte[] content, FileTime lastModified) throws IOException {
+		Path tempFile = Files.createTempFile(dir, "." + fileName, ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer buffer = ByteBuffer.wrap(content);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				channel.force(true);
+			}
+			Files.setLastModifiedTime(tempFile, lastModified);
+			Path target = dir.resolve(fileName);
+			try {
+				Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private byte[] compress(byte[] body) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(body.length / 4 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(baos)) {
+			gzip.write(body);
+		}
+		return baos.toByteArray();
+	}
+
+	private String getBaseUrl() {
+		String baseUrl = this.getConfigManager().getParam(SystemConstants.PAR_APPL_BASE_URL);
+		return (null != baseUrl) ? baseUrl : "";
+	}
+
+	protected Path getExportPath() {
+		return Paths.get(this.getExportDir());
+	}
+
+	protected boolean isEnabled() {
+		return null != this.getExportDir() && this.getExportDir().trim().length() > 0;
+	}
+
+	/**
+	 * Exports the feeds of a list, splitting the list until a task holds one feed.
+	 */
+	private class ExportTask extends RecursiveTask<Integer> {
+
+		private ExportTask(List<ExportedFeed> feeds) {
+			this._feeds = feeds;
+		}
+
+		@Override
+		protected Integer compute() {
+			if (this._feeds.size() <= 1) {
+				return (this._feeds.isEmpty() || !export(this._feeds.get(0))) ? 0 : 1;
+			}
+			int middle = this._feeds.size() / 2;
+			ExportTask first = new ExportTask(this._feeds.subList(0, middle));
+			ExportTask second = new ExportTask(this._feeds.subList(middle, this._feeds.size()));
+			first.fork();
+			return second.compute() + first.join();
+		}
+
+		private final List<ExportedFeed> _feeds;
+
+	}
+
+	private static class ExportedFeed {
+
+		private ExportedFeed(Channel channel, String lang) {
+			this._channel = channel;
+			this._lang = lang;
+		}
+
+		private String getFileName() {
+			String extension = JsonFeedWriter.isSupported(this._channel.getFeedType()) ? ".json" : ".xml";
+			return this._channel.getId() + "_" + this._lang + extension;
+		}
+
+		private final Channel _channel;
+		private final String _lang;
+
+	}
+
+	protected IRssManager getRssManager() {
+		return _rssManager;
+	}
+	public void setRssManager(IRssManager rssManager) {
+		this._rssManager = rssManager;
+	}
+
+	protected ILangManager getLangManager() {
+		return _langManager;
+	}
+	public void setLangManager(ILangManager langManager) {
+		this._langManager = langManager;
+	}
+
+	protected ConfigInterface getConfigManager() {
+		return _configManager;
+	}
+	public void setConfigManager(ConfigInterface configManager) {
+		this._configManager = configManager;
+	}
+
+	protected String getExportDir() {
+		return _exportDir;
+	}
+
+	/**
+	 * Sets the directory where the feeds are exported.
+	 * @param exportDir the path of the directory, empty to disable the export
+	 */
+	public void setExportDir(String exportDir) {
+		this._exportDir = exportDir;
+	}
+
+	protected int getParallelism() {
+		return _parallelism;
+	}
+
+	/**
+	 * Sets the number of feeds rendered and written in parallel.
+	 * @param parallelism the parallelism of the fork-join pool
+	 */
+	public void setParallelism(int parallelism) {
+		this._parallelism = parallelism;
+	}
+
+	protected long getExportDelay() {
+		return _exportDelay;
+	}
+
+	/**
+	 * Sets the time waited after a publication before exporting the channels it affects.
+	 * @param exportDelay the delay in milliseconds
+	 */
+	public void setExportDelay(long exportDelay) {
+		this._exportDelay = exportDelay;
+	}
+
+	protected ForkJoinPool getForkJoinPool() {
+		return _forkJoinPool;
+	}
+	protected void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this._forkJoinPool = forkJoinPool;
+	}
+
+	protected ScheduledThreadPoolExecutor getScheduler() {
+		return _scheduler;
+	}
+	protected void setScheduler(ScheduledThreadPoolExecutor scheduler) {
+		this._scheduler = scheduler;
+	}
+
+	private IRssManager _rssManager;
+	private ILangManager _langManager;
+	private ConfigInterface _configManager;
+	private String _exportDir;
+	private int _parallelism = Runtime.getRuntime().availableProcessors();
+	private long _exportDelay = 2000;
+	private ForkJoinPool _forkJoinPool;
+	private ScheduledThreadPoolExecutor _scheduler;
+
+	private final Set<Integer> _pendingChannels = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean _exportScheduled = new AtomicBoolean();
+
+	private static final String GZIP_EXTENSION = ".gz";
+	private static final Pattern FILE_NAME_PATTERN = Pattern.compile("[0-9]+_[a-zA-Z]+\\.(xml|json)(\\.gz)?");
+
+}
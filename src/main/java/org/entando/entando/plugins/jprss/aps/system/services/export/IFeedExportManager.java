@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.export;
+
+import java.util.Collection;
+
+/**
+ * Exports the feeds of the channels as static files, so that they can be served 
+ * by a web server without calling the application.
+ */
+public interface IFeedExportManager {
+
+	/**
+	 * Exports the feeds of every active channel in every lang, 
+	 * and deletes the files of the channels that are no longer active.
+	 * @return the number of exported feeds
+	 * @throws Exception if the export directory can't be written
+	 */
+	public int exportAll() throws Exception;
+
+	/**
+	 * Exports the feeds of the given channels in every lang, and deletes the files 
+	 * of the given channels that were deleted, deactivated or moved to another feed type. 
+	 * @param channelsId the ids of the channels
+	 * @return the number of exported feeds
+	 * @throws Exception if the export directory can't be written
+	 */
+	public int exportChannels(Collection<Integer> channelsId) throws Exception;
+
+}
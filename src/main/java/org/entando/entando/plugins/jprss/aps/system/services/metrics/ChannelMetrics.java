@@ -0,0 +1,236 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of the feeds of a channel in a lang, for every feed type. 
+ * The counters are updated without locks by the concurrent requests.
+ */
+public class ChannelMetrics implements ChannelMetricsMBean {
+
+	public ChannelMetrics(int channelId, String lang) {
+		this._channelId = channelId;
+		this._lang = lang;
+		FeedPhase[] phases = FeedPhase.values();
+		this._phases = new LatencyHistogram[phases.length];
+		for (int i = 0; i < phases.length; i++) {
+			this._phases[i] = new LatencyHistogram();
+		}
+		this._rejections = new LongAdder[RejectionReason.values().length];
+		for (int i = 0; i < this._rejections.length; i++) {
+			this._rejections[i] = new LongAdder();
+		}
+	}
+
+	public void recordRequest() {
+		this._requests.increment();
+	}
+
+	public void recordNotModified() {
+		this._notModified.increment();
+	}
+
+	public void recordCacheHit() {
+		this._cacheHits.increment();
+	}
+
+	public void recordCacheMiss() {
+		this._cacheMisses.increment();
+	}
+
+	public void recordCacheEviction() {
+		this._cacheEvictions.increment();
+	}
+
+	/**
+	 * Records a feed document rendered.
+	 * @param entries the number of the entries of the document
+	 */
+	public void recordRender(int entries) {
+		this._renders.increment();
+		this._renderedEntries.add(entries);
+	}
+
+	/**
+	 * Records the bytes of a feed body served, before compression.
+	 * @param bytes the length of the body
+	 */
+	public void recordResponseBytes(long bytes) {
+		this._responseBytes.add(bytes);
+	}
+
+	/**
+	 * Records a request that was not admitted.
+	 * @param reason the reason of the rejection
+	 * @param lastFeedServed true if the request was answered with the last rendered feed
+	 */
+	public void recordRejection(RejectionReason reason, boolean lastFeedServed) {
+		this._rejections[reason.ordinal()].increment();
+		if (lastFeedServed) {
+			this._lastFeedsServed.increment();
+		}
+	}
+
+	/**
+	 * Records the duration of a phase of the rendering.
+	 * @param phase the phase
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void recordPhase(FeedPhase phase, long nanos) {
+		this._phases[phase.ordinal()].record(nanos);
+	}
+
+	public LatencyHistogram getHistogram(FeedPhase phase) {
+		return this._phases[phase.ordinal()];
+	}
+
+	@Override
+	public int getChannelId() {
+		return _channelId;
+	}
+
+	@Override
+	public String getLang() {
+		return _lang;
+	}
+
+	@Override
+	public long getRequests() {
+		return this._requests.sum();
+	}
+
+	@Override
+	public long getNotModified() {
+		return this._notModified.sum();
+	}
+
+	@Override
+	public double getNotModifiedRatio() {
+		long requests = this.getRequests();
+		return (requests > 0) ? (double) this.getNotModified() / requests : 0;
+	}
+
+	@Override
+	public long getCacheHits() {
+		return this._cacheHits.sum();
+	}
+
+	@Override
+	public long getCacheMisses() {
+		return this._cacheMisses.sum();
+	}
+
+	@Override
+	public long getCacheEvictions() {
+		return this._cacheEvictions.sum();
+	}
+
+	@Override
+	public long getRenders() {
+		return this._renders.sum();
+	}
+
+	@Override
+	public long getRenderedEntries() {
+		return this._renderedEntries.sum();
+	}
+
+	@Override
+	public long getResponseBytes() {
+		return this._responseBytes.sum();
+	}
+
+	@Override
+	public long getRejections() {
+		long rejections = 0;
+		for (int i = 0; i < this._rejections.length; i++) {
+			rejections += this._rejections[i].sum();
+		}
+		return rejections;
+	}
+
+	public long getRejections(RejectionReason reason) {
+		return this._rejections[reason.ordinal()].sum();
+	}
+
+	@Override
+	public long getLastFeedsServed() {
+		return this._lastFeedsServed.sum();
+	}
+
+	@Override
+	public double getQueryMeanMillis() {
+		return this.getHistogram(FeedPhase.QUERY).getMeanMillis();
+	}
+
+	@Override
+	public double getQueryP99Millis() {
+		return this.getHistogram(FeedPhase.QUERY).getQuantileMillis(0.99);
+	}
+
+	@Override
+	public double getContentLoadMeanMillis() {
+		return this.getHistogram(FeedPhase.CONTENT_LOAD).getMeanMillis();
+	}
+
+	@Override
+	public double getContentLoadP99Millis() {
+		return this.getHistogram(FeedPhase.CONTENT_LOAD).getQuantileMillis(0.99);
+	}
+
+	@Override
+	public double getLinkResolutionMeanMillis() {
+		return this.getHistogram(FeedPhase.LINK_RESOLUTION).getMeanMillis();
+	}
+
+	@Override
+	public double getLinkResolutionP99Millis() {
+		return this.getHistogram(FeedPhase.LINK_RESOLUTION).getQuantileMillis(0.99);
+	}
+
+	@Override
+	public double getSerializationMeanMillis() {
+		return this.getHistogram(FeedPhase.SERIALIZATION).getMeanMillis();
+	}
+
+	@Override
+	public double getSerializationP99Millis() {
+		return this.getHistogram(FeedPhase.SERIALIZATION).getQuantileMillis(0.99);
+	}
+
+	private final int _channelId;
+	private final String _lang;
+	private final LongAdder _requests = new LongAdder();
+	private final LongAdder _notModified = new LongAdder();
+	private final LongAdder _cacheHits = new LongAdder();
+	private final LongAdder _cacheMisses = new LongAdder();
+	private final LongAdder _cacheEvictions = new LongAdder();
+	private final LongAdder _renders = new LongAdder();
+	private final LongAdder _renderedEntries = new LongAdder();
+	private final LongAdder _responseBytes = new LongAdder();
+	private final LongAdder _lastFeedsServed = new LongAdder();
+	private final LatencyHistogram[] _phases;
+	private final LongAdder[] _rejections;
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.metrics;
+
+/**
+ * The JMX view of the metrics of the feeds of a channel in a lang. 
+ * The durations are in milliseconds; the quantiles are estimated from the buckets of the histograms.
+ */
+public interface ChannelMetricsMBean {
+
+	public int getChannelId();
+
+	public String getLang();
+
+	public long getRequests();
+
+	public long getNotModified();
+
+	/**
+	 * The share of the requests answered with 304 Not Modified.
+	 * @return the ratio, 0 without requests
+	 */
+	public double getNotModifiedRatio();
+
+	public long getCacheHits();
+
+	public long getCacheMisses();
+
+	public long getCacheEvictions();
+
+	public long getRenders();
+
+	public long getRenderedEntries();
+
+	public long getResponseBytes();
+
+	/**
+	 * The requests not admitted, for any reason.
+	 * @return the number of the rejections
+	 */
+	public long getRejections();
+
+	/**
+	 * The requests not admitted that were answered with the last rendered feed.
+	 * @return the number of the last feeds served
+	 */
+	public long getLastFeedsServed();
+
+	public double getQueryMeanMillis();
+
+	public double getQueryP99Millis();
+
+	public double getContentLoadMeanMillis();
+
+	public double getContentLoadP99Millis();
+
+	public double getLinkResolutionMeanMillis();
+
+	public double getLinkResolutionP99Millis();
+
+	public double getSerializationMeanMillis();
+
+	public double getSerializationP99Millis();
+
+}
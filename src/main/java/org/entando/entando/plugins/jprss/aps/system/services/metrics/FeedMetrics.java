@@ -0,0 +1,249 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The registry of the metrics of the feeds, by channel and lang. 
+ * The metrics are exposed as one JMX MBean for every channel and lang, 
+ * when JMX is enabled, and in the Prometheus text format.
+ */
+public class FeedMetrics {
+
+	private static final Logger _logger = LoggerFactory.getLogger(FeedMetrics.class);
+
+	/**
+	 * Returns the metrics of a channel in a lang, created on first use.
+	 * @param channelId the id of the channel
+	 * @param lang the lang code
+	 * @return the metrics
+	 */
+	public ChannelMetrics get(int channelId, String lang) {
+		String key = channelId + "_" + lang;
+		ChannelMetrics metrics = this._metrics.get(key);
+		if (null == metrics) {
+			metrics = this._metrics.computeIfAbsent(key, k -> this.register(new ChannelMetrics(channelId, lang)));
+		}
+		return metrics;
+	}
+
+	/**
+	 * Returns the metrics of every channel and lang, ordered by channel and lang.
+	 * @return the metrics
+	 */
+	public List<ChannelMetrics> getAll() {
+		List<ChannelMetrics> metrics = new ArrayList<ChannelMetrics>(this._metrics.values());
+		Collections.sort(metrics, METRICS_ORDER);
+		return metrics;
+	}
+
+	/**
+	 * Removes the metrics of a deleted channel.
+	 * @param channelId the id of the channel
+	 */
+	public void removeChannel(int channelId) {
+		Iterator<ChannelMetrics> iter = this._metrics.values().iterator();
+		while (iter.hasNext()) {
+			ChannelMetrics metrics = iter.next();
+			if (metrics.getChannelId() == channelId) {
+				iter.remove();
+				this.unregister(metrics);
+			}
+		}
+	}
+
+	public void destroy() {
+		Iterator<ChannelMetrics> iter = this._metrics.values().iterator();
+		while (iter.hasNext()) {
+			this.unregister(iter.next());
+			iter.remove();
+		}
+	}
+
+	/**
+	 * Writes the metrics in the Prometheus text exposition format (version 0.0.4).
+	 * @param writer the target writer
+	 * @throws IOException in case of error writing
+	 */
+	public void writePrometheus(Writer writer) throws IOException {
+		List<ChannelMetrics> metrics = this.getAll();
+		this.writeCounter(writer, "jprss_feed_requests_total", "Feed requests.", metrics, m -> m.getRequests());
+		this.writeCounter(writer, "jprss_feed_not_modified_total", "Feed requests answered with 304 Not Modified.", metrics, m -> m.getNotModified());
+		this.writeCounter(writer, "jprss_feed_cache_hits_total", "Feeds served from the cache.", metrics, m -> m.getCacheHits());
+		this.writeCounter(writer, "jprss_feed_cache_misses_total", "Feeds missing from the cache.", metrics, m -> m.getCacheMisses());
+		this.writeCounter(writer, "jprss_feed_cache_evictions_total", "Feeds evicted from the cache.", metrics, m -> m.getCacheEvictions());
+		this.writeCounter(writer, "jprss_feed_renders_total", "Feed documents rendered.", metrics, m -> m.getRenders());
+		this.writeCounter(writer, "jprss_feed_rendered_entries_total", "Entries of the feed documents rendered.", metrics, m -> m.getRenderedEntries());
+		this.writeCounter(writer, "jprss_feed_response_bytes_total", "Bytes of the feed bodies served, before compression.", metrics, m -> m.getResponseBytes());
+		this.writeRejections(writer, metrics);
+		this.writeCounter(writer, "jprss_feed_last_feeds_served_total", "Requests not admitted answered with the last rendered feed.", metrics, m -> m.getLastFeedsServed());
+		String name = "jprss_feed_phase_duration_seconds";
+		writer.write("# HELP " + name + " Duration of the phases of the rendering of the feeds.\n");
+		writer.write("# TYPE " + name + " histogram\n");
+		FeedPhase[] phases = FeedPhase.values();
+		for (int i = 0; i < metrics.size(); i++) {
+			ChannelMetrics channelMetrics = metrics.get(i);
+			for (int j = 0; j < phases.length; j++) {
+				LatencyHistogram histogram = channelMetrics.getHistogram(phases[j]);
+				long[] counts = histogram.getBucketCounts();
+				String labels = this.createLabels(channelMetrics) + ",phase=\"" + phases[j].getLabel() + "\"";
+				long cumulative = 0;
+				for (int k = 0; k < counts.length; k++) {
+					cumulative += counts[k];
+					String bound = (k < LatencyHistogram.BUCKET_BOUNDS.length) ? this.toSeconds(LatencyHistogram.BUCKET_BOUNDS[k]) : "+Inf";
+					writer.write(name + "_bucket{" + labels + ",le=\"" + bound + "\"} " + cumulative + "\n");
+				}
+				writer.write(name + "_sum{" + labels + "} " + this.toSeconds(histogram.getSum()) + "\n");
+				writer.write(name + "_count{" + labels + "} " + cumulative + "\n");
+			}
+		}
+	}
+
+	private void writeRejections(Writer writer, List<ChannelMetrics> metrics) throws IOException {
+		String name = "jprss_feed_rejections_total";
+		writer.write("# HELP " + name + " Feed requests not admitted, by reason.\n");
+		writer.write("# TYPE " + name + " counter\n");
+		RejectionReason[] reasons = RejectionReason.values();
+		for (int i = 0; i < metrics.size(); i++) {
+			for (int j = 0; j < reasons.length; j++) {
+				writer.write(name + "{" + this.createLabels(metrics.get(i)) + ",reason=\"" + reasons[j].getLabel() + "\"} " 
+						+ metrics.get(i).getRejections(reasons[j]) + "\n");
+			}
+		}
+	}
+
+	private void writeCounter(Writer writer, String name, String help, 
+			List<ChannelMetrics> metrics, CounterReader reader) throws IOException {
+		writer.write("# HELP " + name + " " + help + "\n");
+		writer.write("# TYPE " + name + " counter\n");
+		for (int i = 0; i < metrics.size(); i++) {
+			writer.write(name + "{" + this.createLabels(metrics.get(i)) + "} " + reader.read(metrics.get(i)) + "\n");
+		}
+	}
+
+	private String createLabels(ChannelMetrics metrics) {
+		return "channel=\"" + metrics.getChannelId() + "\",lang=\"" + escapeLabel(metrics.getLang()) + "\"";
+	}
+
+	private String toSeconds(long nanos) {
+		return Double.toString(nanos / 1e9);
+	}
+
+	private static String escapeLabel(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private ChannelMetrics register(ChannelMetrics metrics) {
+		if (!this.isJmxEnabled()) {
+			return metrics;
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = this.createObjectName(metrics);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(metrics, name);
+			}
+		} catch (Throwable t) {
+			_logger.warn("Error registering the metrics of channel {} lang {}", metrics.getChannelId(), metrics.getLang(), t);
+		}
+		return metrics;
+	}
+
+	private void unregister(ChannelMetrics metrics) {
+		if (!this.isJmxEnabled()) {
+			return;
+		}
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = this.createObjectName(metrics);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (Throwable t) {
+			_logger.warn("Error unregistering the metrics of channel {} lang {}", metrics.getChannelId(), metrics.getLang(), t);
+		}
+	}
+
+	private ObjectName createObjectName(ChannelMetrics metrics) throws Exception {
+		return new ObjectName(this.getJmxDomain() + ":type=FeedMetrics,channel=" + metrics.getChannelId() 
+				+ ",lang=" + ObjectName.quote(metrics.getLang()));
+	}
+
+	/**
+	 * Reads a counter of the metrics of a channel and lang.
+	 */
+	private interface CounterReader {
+
+		public long read(ChannelMetrics metrics);
+
+	}
+
+	protected boolean isJmxEnabled() {
+		return _jmxEnabled;
+	}
+
+	/**
+	 * Sets whether the metrics of every channel and lang are registered in the platform MBean server.
+	 * @param jmxEnabled true to register the MBeans
+	 */
+	public void setJmxEnabled(boolean jmxEnabled) {
+		this._jmxEnabled = jmxEnabled;
+	}
+
+	protected String getJmxDomain() {
+		return _jmxDomain;
+	}
+	public void setJmxDomain(String jmxDomain) {
+		this._jmxDomain = jmxDomain;
+	}
+
+	private boolean _jmxEnabled;
+	private String _jmxDomain = DEFAULT_JMX_DOMAIN;
+	private Map<String, ChannelMetrics> _metrics = new ConcurrentHashMap<String, ChannelMetrics>();
+
+	public static final String DEFAULT_JMX_DOMAIN = "org.entando.entando.plugins.jprss";
+
+	private static final Comparator<ChannelMetrics> METRICS_ORDER = new Comparator<ChannelMetrics>() {
+		@Override
+		public int compare(ChannelMetrics first, ChannelMetrics second) {
+			int result = Integer.compare(first.getChannelId(), second.getChannelId());
+			return (result != 0) ? result : first.getLang().compareTo(second.getLang());
+		}
+	};
+
+}
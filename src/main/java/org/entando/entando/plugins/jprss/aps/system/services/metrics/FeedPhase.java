@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.metrics;
+
+/**
+ * The phases of the rendering of a feed, timed separately.
+ */
+public enum FeedPhase {
+
+	/**
+	 * The query of the ids of the contents of the channel.
+	 */
+	QUERY("query"),
+
+	/**
+	 * The loading of the feed entries of the contents, from the projection or from the contents.
+	 */
+	CONTENT_LOAD("content_load"),
+
+	/**
+	 * The building of the entries: the links of the contents and the symbolic links of the descriptions.
+	 */
+	LINK_RESOLUTION("link_resolution"),
+
+	/**
+	 * The writing of the feed document.
+	 */
+	SERIALIZATION("serialization");
+
+	private FeedPhase(String label) {
+		this._label = label;
+	}
+
+	/**
+	 * The name of the phase in the exported metrics.
+	 * @return the label of the phase
+	 */
+	public String getLabel() {
+		return _label;
+	}
+
+	private final String _label;
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with fixed buckets, updated without locks.
+ * A sample is counted in the first bucket whose upper bound is not lower than the sample; 
+ * the last bucket has no upper bound.
+ */
+public class LatencyHistogram {
+
+	public LatencyHistogram() {
+		this._buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+		for (int i = 0; i < this._buckets.length; i++) {
+			this._buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a duration.
+	 * @param nanos the duration in nanoseconds
+	 */
+	public void record(long nanos) {
+		int index = 0;
+		while (index < BUCKET_BOUNDS.length && nanos > BUCKET_BOUNDS[index]) {
+			index++;
+		}
+		this._buckets[index].increment();
+		this._sum.add(nanos);
+	}
+
+	/**
+	 * The number of samples of every bucket, not cumulative. 
+	 * The last element counts the samples longer than the last bound.
+	 * @return the counts of the buckets
+	 */
+	public long[] getBucketCounts() {
+		long[] counts = new long[this._buckets.length];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = this._buckets[i].sum();
+		}
+		return counts;
+	}
+
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < this._buckets.length; i++) {
+			count += this._buckets[i].sum();
+		}
+		return count;
+	}
+
+	/**
+	 * The sum of the recorded durations.
+	 * @return the sum in nanoseconds
+	 */
+	public long getSum() {
+		return this._sum.sum();
+	}
+
+	/**
+	 * The mean of the recorded durations.
+	 * @return the mean in milliseconds, 0 without samples
+	 */
+	public double getMeanMillis() {
+		long count = this.getCount();
+		return (count > 0) ? (double) this.getSum() / count / NANOS_PER_MILLI : 0;
+	}
+
+	/**
+	 * Estimates a quantile of the recorded durations as the upper bound of the bucket that holds it.
+	 * @param quantile the quantile, between 0 and 1
+	 * @return the estimate in milliseconds, 0 without samples; 
+	 * the last bound when the quantile falls in the last bucket
+	 */
+	public double getQuantileMillis(double quantile) {
+		long[] counts = this.getBucketCounts();
+		long total = 0;
+		for (int i = 0; i < counts.length; i++) {
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(quantile * total);
+		long cumulative = 0;
+		for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+			cumulative += counts[i];
+			if (cumulative >= rank) {
+				return (double) BUCKET_BOUNDS[i] / NANOS_PER_MILLI;
+			}
+		}
+		return (double) BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1] / NANOS_PER_MILLI;
+	}
+
+	private final LongAdder[] _buckets;
+	private final LongAdder _sum = new LongAdder();
+
+	private static final double NANOS_PER_MILLI = 1000000d;
+
+	/**
+	 * The upper bounds of the buckets, in nanoseconds: from 1 millisecond to 10 seconds.
+	 */
+	public static final long[] BUCKET_BOUNDS = {
+		TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.MILLISECONDS.toNanos(10), 
+		TimeUnit.MILLISECONDS.toNanos(25), TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(100), 
+		TimeUnit.MILLISECONDS.toNanos(250), TimeUnit.MILLISECONDS.toNanos(500), TimeUnit.SECONDS.toNanos(1), 
+		TimeUnit.MILLISECONDS.toNanos(2500), TimeUnit.SECONDS.toNanos(5), TimeUnit.SECONDS.toNanos(10)
+	};
+
+}
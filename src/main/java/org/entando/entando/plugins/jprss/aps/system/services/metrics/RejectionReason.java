@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.metrics;
+
+/**
+ * The reasons why a feed request is not admitted, counted separately.
+ */
+public enum RejectionReason {
+
+	/**
+	 * The client asked more feeds than its rate allows.
+	 */
+	CLIENT_RATE("client_rate"),
+
+	/**
+	 * The channel served its maximum of concurrent requests for longer than the request could wait.
+	 */
+	CHANNEL_BUSY("channel_busy"),
+
+	/**
+	 * The queue of the requests waiting for a busy channel was full.
+	 */
+	QUEUE_FULL("queue_full");
+
+	private RejectionReason(String label) {
+		this._label = label;
+	}
+
+	/**
+	 * The name of the reason in the exported metrics.
+	 * @return the label of the reason
+	 */
+	public String getLabel() {
+		return _label;
+	}
+
+	private final String _label;
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the archive documents of the paged feeds (see {@link FeedPage}).
+ * An archive is not evicted when a content is published: it is served as long as 
+ * it holds the same contents, and it is only evicted when its channel changes.
+ * Every archive keeps one rendering for every scope of the links (see {@link FeedLinkResolver#getScope()}).
+ * The cache is cleared when it reaches its max size.
+ */
+public class ArchiveFeedCache {
+
+	public ArchiveFeedCache(int maxSize) {
+		this._maxSize = maxSize;
+	}
+
+	/**
+	 * Returns an archive, if it holds the given contents.
+	 * @param channelId the id of the channel
+	 * @param lang the lang code
+	 * @param feedType the feed type
+	 * @param page the archive document
+	 * @param scope the scope of the links
+	 * @param contentsId the ids of the contents of the archive
+	 * @return the archive, null if missing or changed
+	 */
+	public RenderedFeed get(int channelId, String lang, String feedType, FeedPage page, String scope, List<String> contentsId) {
+		CachedArchive cached = this._archives.get(RenderedFeedCache.createKey(channelId, lang, feedType, page));
+		if (null == cached || !cached._contentsId.equals(contentsId)) {
+			return null;
+		}
+		return cached._feeds.get(scope);
+	}
+
+	/**
+	 * Returns an archive rendered in any scope, without checking its contents. 
+	 * The renderings of the scopes hold the same contents.
+	 * @param channelId the id of the channel
+	 * @param lang the lang code
+	 * @param feedType the feed type
+	 * @param page the archive document
+	 * @return the archive, null if missing
+	 */
+	public RenderedFeed peek(int channelId, String lang, String feedType, FeedPage page) {
+		CachedArchive cached = this._archives.get(RenderedFeedCache.createKey(channelId, lang, feedType, page));
+		if (null == cached) {
+			return null;
+		}
+		Iterator<RenderedFeed> feeds = cached._feeds.values().iterator();
+		return feeds.hasNext() ? feeds.next() : null;
+	}
+
+	public long getGeneration() {
+		return this._generation.get();
+	}
+
+	/**
+	 * Stores an archive, unless an eviction happened since the given generation.
+	 * @param feed the rendered archive
+	 * @param contentsId the ids of the contents of the archive
+	 * @param generation the generation read before starting to render the archive
+	 */
+	public void put(RenderedFeed feed, List<String> contentsId, long generation) {
+		if (this._maxSize <= 0 || this._generation.get() != generation) {
+			return;
+		}
+		if (this._archives.size() >= this._maxSize) {
+			this._archives.clear();
+		}
+		String key = RenderedFeedCache.createKey(feed.getChannelId(), feed.getLang(), feed.getFeedType(), feed.getPage());
+		CachedArchive cached = this._archives.get(key);
+		if (null == cached || !cached._contentsId.equals(contentsId)) {
+			cached = new CachedArchive(feed.getChannelId(), contentsId);
+			this._archives.put(key, cached);
+		}
+		cached._feeds.put(feed.getScope(), feed);
+		if (this._generation.get() != generation) {
+			cached._feeds.remove(feed.getScope(), feed);
+		}
+	}
+
+	public void evictChannel(int channelId) {
+		this._generation.incrementAndGet();
+		Iterator<CachedArchive> iter = this._archives.values().iterator();
+		while (iter.hasNext()) {
+			if (iter.next()._channelId == channelId) {
+				iter.remove();
+			}
+		}
+	}
+
+	public void clear() {
+		this._generation.incrementAndGet();
+		this._archives.clear();
+	}
+
+	public int size() {
+		return this._archives.size();
+	}
+
+	private final Map<String, CachedArchive> _archives = new ConcurrentHashMap<String, CachedArchive>();
+	private final AtomicLong _generation = new AtomicLong();
+	private final int _maxSize;
+
+	private static class CachedArchive {
+
+		private CachedArchive(int channelId, List<String> contentsId) {
+			this._channelId = channelId;
+			this._contentsId = new ArrayList<String>(contentsId);
+		}
+
+		private final int _channelId;
+		private final List<String> _contentsId;
+		private final Map<String, RenderedFeed> _feeds = new ConcurrentHashMap<String, RenderedFeed>();
+
+	}
+
+}
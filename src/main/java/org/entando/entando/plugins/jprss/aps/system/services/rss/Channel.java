@@ -21,6 +21,8 @@
  */
 package org.entando.entando.plugins.jprss.aps.system.services.rss;
 
+import java.util.Date;
+
 import com.agiletec.aps.system.services.category.Category;
 
 /**
@@ -29,6 +31,23 @@ import com.agiletec.aps.system.services.category.Category;
  */
 public class Channel {
 	
+	@Override
+	public Channel clone() {
+		Channel clone = new Channel();
+		clone.setId(this.getId());
+		clone.setTitle(this.getTitle());
+		clone.setDescription(this.getDescription());
+		clone.setActive(this.isActive());
+		clone.setContentType(this.getContentType());
+		clone.setCategory(this.getCategory());
+		clone.setFilters(this.getFilters());
+		clone.setFeedType(this.getFeedType());
+		clone.setMaxContentsSize(this.getMaxContentsSize());
+		clone.setMaxConcurrentRequests(this.getMaxConcurrentRequests());
+		clone.setLastModified(this.getLastModified());
+		return clone;
+	}
+	
 	public int getId() {
 		return _id;
 	}
@@ -123,6 +142,31 @@ public class Channel {
 		this._maxContentsSize = maxContentsSize;
 	}
 	
+	/**
+	 * The maximum number of the requests of the feeds of the channel served at a time. 
+	 * @return the limit, 0 for no limit, a negative value for the default limit of the feed admission
+	 */
+	public int getMaxConcurrentRequests() {
+		return _maxConcurrentRequests;
+	}
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		this._maxConcurrentRequests = maxConcurrentRequests;
+	}
+	
+	/**
+	 * The date of the last change of the channel, or of what its feeds are rendered from: 
+	 * the publications of its content type, the pages and the content types. 
+	 * It is stored with the channel, so that the validators of the feeds 
+	 * don't change on a restart or from a node to another.
+	 * @return the date of the last change, null if the channel never changed since it was stored without it
+	 */
+	public Date getLastModified() {
+		return _lastModified;
+	}
+	public void setLastModified(Date lastModified) {
+		this._lastModified = lastModified;
+	}
+	
 	private int _id;
 	private String _title;
 	private String _description;
@@ -132,6 +176,8 @@ public class Channel {
 	private String _filters;
 	private String _feedType;
 	private int _maxContentsSize = -1;
+	private int _maxConcurrentRequests = -1;
+	private Date _lastModified;
 	
 	public static final int STATUS_ACTIVE = 1;
 	public static final int STATUS_NOT_ACTIVE = 2;
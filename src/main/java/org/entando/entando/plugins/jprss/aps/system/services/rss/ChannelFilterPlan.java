@@ -0,0 +1,284 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
+import com.agiletec.aps.system.services.group.Group;
+import com.agiletec.plugins.jacms.aps.system.services.content.IContentManager;
+
+/**
+ * The query that loads the ids of the contents of a channel, in a given lang.
+ * The filters of the channel are parsed once, when the plan is compiled; 
+ * executing the plan only runs the query. Instances are immutable.
+ * The dates of the filters relative to today (a "today" value or a delay in days) 
+ * are resolved when the plan is compiled: such a plan expires at the end of that day.
+ */
+public class ChannelFilterPlan {
+
+	public ChannelFilterPlan(Channel channel, String lang, String[] categories, EntitySearchFilter[] filters) {
+		this(channel, lang, categories, filters, System.currentTimeMillis());
+	}
+
+	ChannelFilterPlan(Channel channel, String lang, String[] categories, EntitySearchFilter[] filters, long compiled) {
+		this._channelId = channel.getId();
+		this._lang = lang;
+		this._contentType = channel.getContentType();
+		this._channelFilters = channel.getFilters();
+		this._category = channel.getCategory();
+		this._maxContentsSize = channel.getMaxContentsSize();
+		this._categories = (null != categories) ? categories.clone() : null;
+		this._filters = filters.clone();
+		this._fingerprint = createFingerprint(this._contentType, this._categories, this._filters, lang);
+		this._validFrom = isRelative(this._channelFilters) ? getStartOfDay(compiled, 0) : 0;
+	}
+
+	private ChannelFilterPlan(ChannelFilterPlan plan, EntitySearchFilter[] filters) {
+		this._channelId = plan._channelId;
+		this._lang = plan._lang;
+		this._contentType = plan._contentType;
+		this._channelFilters = plan._channelFilters;
+		this._category = plan._category;
+		this._maxContentsSize = plan._maxContentsSize;
+		this._categories = plan._categories;
+		this._filters = filters;
+		this._fingerprint = createFingerprint(this._contentType, this._categories, this._filters, this._lang);
+		this._validFrom = plan._validFrom;
+	}
+
+	private static boolean isRelative(String channelFilters) {
+		return null != channelFilters && RELATIVE_DATE_PATTERN.matcher(channelFilters).find();
+	}
+
+	private static long getStartOfDay(long time, int days) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(time);
+		calendar.set(Calendar.HOUR_OF_DAY, 0);
+		calendar.set(Calendar.MINUTE, 0);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+		calendar.add(Calendar.DATE, days);
+		return calendar.getTimeInMillis();
+	}
+
+	/**
+	 * Returns the plan that loads only the contents modified since the given date: 
+	 * the date range is added to the filters, so the database applies it.
+	 * @param since the date from which the contents are loaded, included
+	 * @return the plan of the delta query
+	 */
+	public ChannelFilterPlan since(Date since) {
+		EntitySearchFilter[] filters = new EntitySearchFilter[this._filters.length + 1];
+		System.arraycopy(this._filters, 0, filters, 0, this._filters.length);
+		filters[this._filters.length] = new EntitySearchFilter(IContentManager.CONTENT_MODIFY_DATE_FILTER_KEY, false, since, null);
+		return new ChannelFilterPlan(this, filters);
+	}
+
+	/**
+	 * Builds the canonical form of the query. The lang is part of it only when 
+	 * a filter depends on the lang, so plans of different channels and langs 
+	 * that run the same query share the same fingerprint.
+	 */
+	private static String createFingerprint(String contentType, String[] categories, EntitySearchFilter[] filters, String lang) {
+		StringBuilder fingerprint = new StringBuilder(contentType);
+		fingerprint.append("|categories=");
+		if (null != categories) {
+			for (int i = 0; i < categories.length; i++) {
+				fingerprint.append(categories[i]).append(",");
+			}
+		}
+		boolean langDependent = false;
+		for (int i = 0; i < filters.length; i++) {
+			EntitySearchFilter filter = filters[i];
+			fingerprint.append("|(key=").append(filter.getKey())
+					.append(";attr=").append(filter.isAttributeFilter())
+					.append(";value=").append(toCanonicalString(filter.getValue()))
+					.append(";start=").append(toCanonicalString(filter.getStart()))
+					.append(";end=").append(toCanonicalString(filter.getEnd()))
+					.append(";allowed=").append(toCanonicalString(filter.getAllowedValues()))
+					.append(";like=").append(filter.isLikeOption())
+					.append(";null=").append(filter.isNullOption())
+					.append(";order=").append(filter.getOrder())
+					.append(";limit=").append(filter.getLimit())
+					.append(";offset=").append(filter.getOffset())
+					.append(";lang=").append(filter.getLangCode()).append(")");
+			langDependent = langDependent || null != filter.getLangCode();
+		}
+		if (langDependent) {
+			fingerprint.append("|lang=").append(lang);
+		}
+		return fingerprint.toString();
+	}
+
+	private static String toCanonicalString(Object value) {
+		if (null == value) {
+			return "";
+		} else if (value instanceof Date) {
+			return String.valueOf(((Date) value).getTime());
+		}
+		return value.getClass().getSimpleName() + ":" + value;
+	}
+
+	/**
+	 * Loads the ids of the public contents of the channel.
+	 * @param contentManager the manager of the contents
+	 * @return the ids of the contents, at most max contents size of the channel
+	 * @throws Exception if an error occurs
+	 */
+	public List<String> execute(IContentManager contentManager) throws Exception {
+		String[] categories = (null != this._categories) ? this._categories.clone() : null;
+		Collection<String> userGroupCodes = new ArrayList<String>();
+		userGroupCodes.add(Group.FREE_GROUP_NAME);
+		List<String> contentsId = contentManager.loadPublicContentsId(this._contentType, categories, this._filters.clone(), userGroupCodes);
+		if (this._maxContentsSize > 0 && contentsId.size() > this._maxContentsSize) {
+			return contentsId.subList(0, this._maxContentsSize);
+		}
+		return contentsId;
+	}
+
+	/**
+	 * Checks whether the plan was compiled from the current configuration of the given channel.
+	 * @param channel the channel
+	 * @return true if the filters, category, content type and size of the channel didn't change
+	 */
+	public boolean isCompiledFrom(Channel channel) {
+		return this._channelId == channel.getId()
+				&& this._maxContentsSize == channel.getMaxContentsSize()
+				&& equals(this._contentType, channel.getContentType())
+				&& equals(this._channelFilters, channel.getFilters())
+				&& equals(this._category, channel.getCategory());
+	}
+
+	/**
+	 * Whether the filters of the plan have dates relative to today.
+	 * @return true if the plan expires at the end of the day it was compiled
+	 */
+	public boolean isRelative() {
+		return this._validFrom > 0;
+	}
+
+	/**
+	 * Checks whether the relative dates of the plan were resolved on a day before the given time; 
+	 * the plan must then be compiled again. A plan without relative dates never expires.
+	 * @param time the current time
+	 * @return true if the plan is expired
+	 */
+	public boolean isExpired(long time) {
+		return this.isRelative() && time >= getStartOfDay(this._validFrom, 1);
+	}
+
+	/**
+	 * The start of the day the relative dates of the plan were resolved on, 
+	 * so the contents of the query may have changed since then.
+	 * @return the start of the day, 0 if the plan has no relative dates
+	 */
+	public long getValidFrom() {
+		return _validFrom;
+	}
+
+	private static boolean equals(String first, String second) {
+		return (null == first) ? null == second : first.equals(second);
+	}
+
+	/**
+	 * Checks whether the contents of the query keep their position from the end of the list 
+	 * while newer contents are published: the query has no limit and is ordered first by 
+	 * descending creation date, which a new publication of a content doesn't change. 
+	 * Only then the archives of a paged feed, counted from the oldest content, don't change.
+	 * @return true if the order of the contents is stable
+	 */
+	public boolean isOrderStable() {
+		if (this._maxContentsSize > 0) {
+			return false;
+		}
+		for (int i = 0; i < this._filters.length; i++) {
+			EntitySearchFilter filter = this._filters[i];
+			if (null != filter.getOrder()) {
+				return !filter.isAttributeFilter() && IContentManager.CONTENT_CREATION_DATE_FILTER_KEY.equals(filter.getKey()) 
+						&& EntitySearchFilter.DESC_ORDER.equals(filter.getOrder());
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The canonical form of the query of the plan. Plans with the same fingerprint 
+	 * load the same contents, whatever the channel and the lang they belong to.
+	 * @return the fingerprint of the query
+	 */
+	public String getFingerprint() {
+		return _fingerprint;
+	}
+
+	public int getChannelId() {
+		return _channelId;
+	}
+
+	public String getLang() {
+		return _lang;
+	}
+
+	public String getContentType() {
+		return _contentType;
+	}
+
+	public int getMaxContentsSize() {
+		return _maxContentsSize;
+	}
+
+	/**
+	 * The categories of the query.
+	 * @return a copy of the categories, null if the channel has no category
+	 */
+	public String[] getCategories() {
+		return (null != _categories) ? _categories.clone() : null;
+	}
+
+	/**
+	 * The compiled filters, including the content type, order and limit filters.
+	 * @return a copy of the filters
+	 */
+	public EntitySearchFilter[] getFilters() {
+		return _filters.clone();
+	}
+
+	private final int _channelId;
+	private final String _lang;
+	private final String _contentType;
+	private final String _channelFilters;
+	private final String _category;
+	private final int _maxContentsSize;
+	private final String[] _categories;
+	private final EntitySearchFilter[] _filters;
+	private final String _fingerprint;
+	private final long _validFrom;
+
+	private static final Pattern RELATIVE_DATE_PATTERN = 
+			Pattern.compile("[(;](start|end|value)=(today|oggi|odierna)[;)]|DateDelay=");
+
+}
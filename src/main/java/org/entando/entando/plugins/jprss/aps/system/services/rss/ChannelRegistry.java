@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of all the channels, indexed by id and by status.
+ * The channels keep the order they were loaded with (by description).
+ * The snapshot is never modified: a new one replaces it when a channel changes, 
+ * and the channels are returned as copies so that callers can't alter it.
+ */
+public class ChannelRegistry {
+
+	public ChannelRegistry(List<Channel> channels) {
+		Map<Integer, Channel> channelsById = new HashMap<Integer, Channel>();
+		List<Channel> all = new ArrayList<Channel>(channels.size());
+		List<Channel> active = new ArrayList<Channel>();
+		List<Channel> notActive = new ArrayList<Channel>();
+		for (int i = 0; i < channels.size(); i++) {
+			Channel channel = channels.get(i).clone();
+			channelsById.put(channel.getId(), channel);
+			all.add(channel);
+			if (channel.isActive()) {
+				active.add(channel);
+			} else {
+				notActive.add(channel);
+			}
+		}
+		this._channelsById = Collections.unmodifiableMap(channelsById);
+		this._all = Collections.unmodifiableList(all);
+		this._active = Collections.unmodifiableList(active);
+		this._notActive = Collections.unmodifiableList(notActive);
+	}
+
+	/**
+	 * Returns a copy of a channel.
+	 * @param id the id of the channel
+	 * @return a copy of the channel, null if the channel doesn't exist
+	 */
+	public Channel getChannel(int id) {
+		Channel channel = this._channelsById.get(id);
+		return (null != channel) ? channel.clone() : null;
+	}
+
+	/**
+	 * Returns a copy of the channels with the given status.
+	 * @param status the status of the channels, see {@link Channel#STATUS_ALL}
+	 * @return the channels, ordered by description
+	 */
+	public List<Channel> getChannels(int status) {
+		List<Channel> source = null;
+		if (status == Channel.STATUS_ACTIVE) {
+			source = this._active;
+		} else if (status == Channel.STATUS_NOT_ACTIVE) {
+			source = this._notActive;
+		} else {
+			source = this._all;
+		}
+		List<Channel> channels = new ArrayList<Channel>(source.size());
+		for (int i = 0; i < source.size(); i++) {
+			channels.add(source.get(i).clone());
+		}
+		return channels;
+	}
+
+	public int size() {
+		return this._all.size();
+	}
+
+	private final Map<Integer, Channel> _channelsById;
+	private final List<Channel> _all;
+	private final List<Channel> _active;
+	private final List<Channel> _notActive;
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the ids of the contents loaded by the channel queries, indexed by the 
+ * fingerprint of the query (see {@link ChannelFilterPlan#getFingerprint()}), 
+ * so that one query serves every channel and lang that share it.
+ */
+public class ContentIdCache {
+
+	/**
+	 * Returns the ids loaded by a query.
+	 * @param fingerprint the fingerprint of the query
+	 * @return the unmodifiable list of ids, indexed for the cursor lookups, null if the query is not cached
+	 */
+	public List<String> get(String fingerprint) {
+		CachedIds cached = this._ids.get(fingerprint);
+		return (null != cached) ? cached._contentsId : null;
+	}
+
+	/**
+	 * Returns the current generation of the cache. The generation changes on every eviction, 
+	 * so ids loaded while an eviction happens are not stored.
+	 * @return the current generation
+	 */
+	public long getGeneration() {
+		return this._generation.get();
+	}
+
+	/**
+	 * Stores the ids loaded by a query, unless an eviction happened since the given generation.
+	 * @param fingerprint the fingerprint of the query
+	 * @param contentType the content type of the query
+	 * @param contentsId the ids loaded
+	 * @param generation the generation read before running the query
+	 * @return the unmodifiable list of the ids
+	 */
+	public List<String> put(String fingerprint, String contentType, List<String> contentsId, long generation) {
+		CachedIds cached = new CachedIds(contentType, contentsId);
+		if (this._generation.get() != generation) {
+			return cached._contentsId;
+		}
+		this._ids.put(fingerprint, cached);
+		if (this._generation.get() != generation) {
+			this._ids.remove(fingerprint, cached);
+		}
+		return cached._contentsId;
+	}
+
+	/**
+	 * Removes the ids of the queries on the given content type.
+	 * @param contentType the code of the content type
+	 */
+	public void evictContentType(String contentType) {
+		this._generation.incrementAndGet();
+		Iterator<CachedIds> iter = this._ids.values().iterator();
+		while (iter.hasNext()) {
+			if (iter.next()._contentType.equals(contentType)) {
+				iter.remove();
+			}
+		}
+	}
+
+	public void clear() {
+		this._generation.incrementAndGet();
+		this._ids.clear();
+	}
+
+	public int size() {
+		return this._ids.size();
+	}
+
+	private static class CachedIds {
+
+		private CachedIds(String contentType, List<String> contentsId) {
+			this._contentType = contentType;
+			this._contentsId = new ContentIdList(contentsId);
+		}
+
+		private final String _contentType;
+		private final List<String> _contentsId;
+
+	}
+
+	private final Map<String, CachedIds> _ids = new ConcurrentHashMap<String, CachedIds>();
+	private final AtomicLong _generation = new AtomicLong();
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The unmodifiable list of the ids loaded by a channel query. 
+ * The position of every id is indexed on the first lookup, so that finding the cursor 
+ * of a page does not scan the whole list on every request. 
+ * The list also keeps the last modification of its contents in every lang, 
+ * loaded once and dropped with the list when the contents change.
+ */
+public class ContentIdList extends AbstractList<String> implements RandomAccess {
+
+	public ContentIdList(List<String> contentsId) {
+		this._contentsId = contentsId.toArray(new String[contentsId.size()]);
+	}
+
+	@Override
+	public String get(int index) {
+		return this._contentsId[index];
+	}
+
+	@Override
+	public int size() {
+		return this._contentsId.length;
+	}
+
+	@Override
+	public int indexOf(Object contentId) {
+		Integer index = this.getPositions().get(contentId);
+		return (null != index) ? index : -1;
+	}
+
+	@Override
+	public boolean contains(Object contentId) {
+		return this.getPositions().containsKey(contentId);
+	}
+
+	/**
+	 * Returns the last modification of the contents in a lang, if already loaded.
+	 * @param langCode the code of the lang
+	 * @return the last modification time in milliseconds, null if not loaded
+	 */
+	public Long getLastModified(String langCode) {
+		return this._lastModified.get(langCode);
+	}
+
+	public void setLastModified(String langCode, long lastModified) {
+		this._lastModified.put(langCode, lastModified);
+	}
+
+	private Map<String, Integer> getPositions() {
+		Map<String, Integer> positions = this._positions;
+		if (null == positions) {
+			positions = new HashMap<String, Integer>(this._contentsId.length * 4 / 3 + 1);
+			for (int i = this._contentsId.length - 1; i >= 0; i--) {
+				positions.put(this._contentsId[i], i);
+			}
+			this._positions = positions;
+		}
+		return positions;
+	}
+
+	private final String[] _contentsId;
+	private volatile Map<String, Integer> _positions;
+	private final Map<String, Long> _lastModified = new ConcurrentHashMap<String, Long>();
+
+}
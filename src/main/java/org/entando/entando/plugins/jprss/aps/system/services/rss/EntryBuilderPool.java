@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded executor used to build the entries of a feed in parallel.
+ * On JVMs that support virtual threads every task runs on a new virtual thread, 
+ * and a semaphore bounds the number of tasks running at the same time; 
+ * otherwise a fixed pool of daemon threads is used.
+ */
+public class EntryBuilderPool {
+
+	private static final Logger _logger = LoggerFactory.getLogger(EntryBuilderPool.class);
+
+	public EntryBuilderPool(int maxThreads, boolean useVirtualThreads) {
+		ExecutorService executor = null;
+		if (useVirtualThreads) {
+			executor = createVirtualThreadExecutor();
+		}
+		if (null != executor) {
+			this._permits = new Semaphore(maxThreads);
+			_logger.debug("Building feed entries on virtual threads, max {} at a time", maxThreads);
+		} else {
+			executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS, 
+					new LinkedBlockingQueue<Runnable>(), new EntryBuilderThreadFactory());
+			((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+			_logger.debug("Building feed entries on a pool of {} threads", maxThreads);
+		}
+		this._executor = executor;
+	}
+
+	public <T> Future<T> submit(final Callable<T> task) {
+		if (null == this._permits) {
+			return this._executor.submit(task);
+		}
+		return this._executor.submit(new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				_permits.acquire();
+				try {
+					return task.call();
+				} finally {
+					_permits.release();
+				}
+			}
+		});
+	}
+
+	public void shutdown() {
+		this._executor.shutdown();
+	}
+
+	private static ExecutorService createVirtualThreadExecutor() {
+		try {
+			Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factoryMethod.invoke(null);
+		} catch (Throwable t) {
+			_logger.debug("Virtual threads not available");
+			return null;
+		}
+	}
+
+	private final ExecutorService _executor;
+	private Semaphore _permits;
+
+	private static class EntryBuilderThreadFactory implements ThreadFactory {
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "jprss-entry-builder-" + this._counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+		private final AtomicInteger _counter = new AtomicInteger();
+
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The entries of a channel in a lang, built once and rendered in every feed type.
+ * The entries of a paged feed are limited to its current document.
+ * Instances are immutable.
+ */
+public class FeedEntries {
+
+	public FeedEntries(int channelId, String contentType, String lang, int limit, String scope, long lastModified, List<FeedEntry> entries) {
+		this._channelId = channelId;
+		this._contentType = contentType;
+		this._lang = lang;
+		this._limit = limit;
+		this._scope = scope;
+		this._lastModified = lastModified;
+		this._entries = Collections.unmodifiableList(new ArrayList<FeedEntry>(entries));
+	}
+
+	public int getChannelId() {
+		return _channelId;
+	}
+
+	public String getContentType() {
+		return _contentType;
+	}
+
+	public String getLang() {
+		return _lang;
+	}
+
+	/**
+	 * The max number of entries, the size of the current document of a paged feed.
+	 * @return the max number of entries, 0 if the entries are not limited
+	 */
+	public int getLimit() {
+		return _limit;
+	}
+
+	/**
+	 * The scope the links of the entries were resolved for: the link of the feed 
+	 * and the origin of the request, as in the {@link ResolvedLinkCache}.
+	 * @return the scope of the links
+	 */
+	public String getScope() {
+		return _scope;
+	}
+
+	/**
+	 * The last modification time of the channel when the entries were built.
+	 * @return the last modification time in milliseconds
+	 */
+	public long getLastModified() {
+		return _lastModified;
+	}
+
+	public List<FeedEntry> getEntries() {
+		return _entries;
+	}
+
+	private final int _channelId;
+	private final String _contentType;
+	private final String _lang;
+	private final int _limit;
+	private final String _scope;
+	private final long _lastModified;
+	private final List<FeedEntry> _entries;
+
+}
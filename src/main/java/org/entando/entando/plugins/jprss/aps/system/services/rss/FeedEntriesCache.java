@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the entries of the channels, indexed by channel, lang and limit, 
+ * so that one content load serves every feed type. 
+ * The entries hold links resolved for one scope, and are returned only for the same scope. 
+ * The scope is not part of the index: it comes from the request, and one slot 
+ * per channel, lang and limit keeps the cache bounded whatever the requests.
+ */
+public class FeedEntriesCache {
+
+	public FeedEntries get(int channelId, String lang, int limit) {
+		return this._entries.get(createKey(channelId, lang, limit));
+	}
+
+	/**
+	 * Returns the entries of a channel whose links were resolved for the given scope.
+	 * @param channelId the id of the channel
+	 * @param lang the lang code
+	 * @param limit the max number of entries
+	 * @param scope the scope of the links, see {@link FeedLinkResolver#getScope()}
+	 * @return the entries, null if missing or resolved for another scope
+	 */
+	public FeedEntries get(int channelId, String lang, int limit, String scope) {
+		FeedEntries entries = this.get(channelId, lang, limit);
+		return (null != entries && entries.getScope().equals(scope)) ? entries : null;
+	}
+
+	/**
+	 * Returns the current generation of the cache. The generation changes on every eviction, 
+	 * so entries built while an eviction happens are not stored.
+	 * @return the current generation
+	 */
+	public long getGeneration() {
+		return this._generation.get();
+	}
+
+	/**
+	 * Stores the entries of a channel, unless an eviction happened since the given generation.
+	 * @param entries the entries to store
+	 * @param generation the generation read before starting to build the entries
+	 * @return true if the entries were stored
+	 */
+	public boolean put(FeedEntries entries, long generation) {
+		if (this._generation.get() != generation) {
+			return false;
+		}
+		String key = createKey(entries.getChannelId(), entries.getLang(), entries.getLimit());
+		this._entries.put(key, entries);
+		if (this._generation.get() != generation) {
+			this._entries.remove(key, entries);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Removes the entries of a channel in a lang, without changing the generation.
+	 * @param channelId the id of the channel
+	 * @param lang the lang code
+	 * @param limit the max number of entries
+	 */
+	public void remove(int channelId, String lang, int limit) {
+		this._entries.remove(createKey(channelId, lang, limit));
+	}
+
+	public void evictChannel(int channelId) {
+		this._generation.incrementAndGet();
+		Iterator<FeedEntries> iter = this._entries.values().iterator();
+		while (iter.hasNext()) {
+			if (iter.next().getChannelId() == channelId) {
+				iter.remove();
+			}
+		}
+	}
+
+	public void evictContentType(String contentType) {
+		this._generation.incrementAndGet();
+		Iterator<FeedEntries> iter = this._entries.values().iterator();
+		while (iter.hasNext()) {
+			if (iter.next().getContentType().equals(contentType)) {
+				iter.remove();
+			}
+		}
+	}
+
+	public void clear() {
+		this._generation.incrementAndGet();
+		this._entries.clear();
+	}
+
+	public int size() {
+		return this._entries.size();
+	}
+
+	protected static String createKey(int channelId, String lang, int limit) {
+		return channelId + "_" + lang + "_" + limit;
+	}
+
+	private final Map<String, FeedEntries> _entries = new ConcurrentHashMap<String, FeedEntries>();
+	private final AtomicLong _generation = new AtomicLong();
+
+}
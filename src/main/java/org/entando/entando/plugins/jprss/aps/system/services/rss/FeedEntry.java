@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Date;
+
+import org.entando.entando.plugins.jprss.aps.system.services.JpRssSystemConstants;
+
+import com.rometools.rome.feed.synd.SyndContent;
+import com.rometools.rome.feed.synd.SyndContentImpl;
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndEntryImpl;
+
+/**
+ * An entry of a feed, independent of the feed type: 
+ * the links of the description are already resolved. Instances are immutable.
+ */
+public class FeedEntry {
+
+	public FeedEntry(String contentId, String title, String link, String description, Date publishedDate) {
+		this._contentId = contentId;
+		this._title = title;
+		this._link = link;
+		this._description = description;
+		this._publishedDate = (null != publishedDate) ? publishedDate.getTime() : -1;
+	}
+
+	public String getContentId() {
+		return _contentId;
+	}
+
+	public String getTitle() {
+		return _title;
+	}
+
+	public String getLink() {
+		return _link;
+	}
+
+	/**
+	 * The html description of the entry.
+	 * @return the description, null if the content has no description
+	 */
+	public String getDescription() {
+		return _description;
+	}
+
+	public Date getPublishedDate() {
+		return (this._publishedDate >= 0) ? new Date(this._publishedDate) : null;
+	}
+
+	/**
+	 * Creates the Rome entry used by the feed types that are not written by the {@link StaxFeedWriter}.
+	 * @return a new Rome entry
+	 */
+	public SyndEntry toSyndEntry() {
+		SyndEntry entry = new SyndEntryImpl();
+		entry.setTitle(this.getTitle());
+		entry.setLink(this.getLink());
+		entry.setPublishedDate(this.getPublishedDate());
+		if (null != this.getDescription()) {
+			SyndContent description = new SyndContentImpl();
+			description.setType(JpRssSystemConstants.SYNDCONTENT_TYPE_TEXTHTML);
+			description.setValue(this.getDescription());
+			entry.setDescription(description);
+		}
+		return entry;
+	}
+
+	private final String _contentId;
+	private final String _title;
+	private final String _link;
+	private final String _description;
+	private final long _publishedDate;
+
+}
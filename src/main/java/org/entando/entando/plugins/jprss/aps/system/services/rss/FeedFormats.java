@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Collection;
+
+/**
+ * Maps the feed types to their mime types and chooses the feed type of a request, 
+ * from the format asked in the url or from the Accept header.
+ */
+public class FeedFormats {
+
+	/**
+	 * Returns the mime type of the given feed type.
+	 * @param feedType the feed type
+	 * @return the mime type, null if the feed type is unknown
+	 */
+	public static String getMimeType(String feedType) {
+		if (null == feedType) {
+			return null;
+		} else if (feedType.startsWith("rss")) {
+			return RSS_MIME_TYPE;
+		} else if (feedType.startsWith("atom")) {
+			return ATOM_MIME_TYPE;
+		} else if (JsonFeedWriter.isSupported(feedType)) {
+			return JSON_MIME_TYPE;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the feed type of a format asked in the url: a feed type (eg. atom_0.3) 
+	 * or one of the short names "rss", "atom" and "rdf"; JSON feeds are asked as "json".
+	 * @param format the format
+	 * @param availableTypes the feed types that can be served
+	 * @return the feed type, null if the format is unknown or not available
+	 */
+	public static String getFeedType(String format, Collection<String> availableTypes) {
+		if (null == format || format.trim().length() == 0) {
+			return null;
+		}
+		String feedType = format.trim().toLowerCase();
+		if (feedType.equals("rss")) {
+			feedType = StaxFeedWriter.RSS_2_0;
+		} else if (feedType.equals("atom")) {
+			feedType = StaxFeedWriter.ATOM_1_0;
+		} else if (feedType.equals("rdf")) {
+			feedType = RSS_1_0;
+		}
+		return availableTypes.contains(feedType) ? feedType : null;
+	}
+
+	/**
+	 * Chooses the feed type of a request. The format asked in the url takes precedence 
+	 * over the Accept header; a generic xml type, or a type of the same family 
+	 * (rss or atom) of the default one, selects the default type.
+	 * @param format the format asked in the url, may be null
+	 * @param accept the value of the Accept header, may be null
+	 * @param defaultType the feed type of the channel
+	 * @param availableTypes the feed types that can be served
+	 * @return the feed type to serve
+	 */
+	public static String negotiate(String format, String accept, String defaultType, Collection<String> availableTypes) {
+		String feedType = getFeedType(format, availableTypes);
+		if (null != feedType) {
+			return feedType;
+		}
+		if (null == accept || accept.trim().length() == 0) {
+			return defaultType;
+		}
+		String chosen = null;
+		double chosenQuality = 0;
+		String[] ranges = accept.split(",");
+		for (int i = 0; i < ranges.length; i++) {
+			String[] parts = ranges[i].split(";");
+			String candidate = getCandidate(parts[0].trim().toLowerCase(), defaultType);
+			if (null == candidate || (!candidate.equals(defaultType) && !availableTypes.contains(candidate))) {
+				continue;
+			}
+			double quality = getQuality(parts);
+			if (quality > chosenQuality || (quality == chosenQuality && quality > 0 && candidate.equals(defaultType))) {
+				chosen = candidate;
+				chosenQuality = quality;
+			}
+		}
+		return (null != chosen) ? chosen : defaultType;
+	}
+
+	private static String getCandidate(String mimeType, String defaultType) {
+		String defaultMimeType = getMimeType(defaultType);
+		if (mimeType.equals(ATOM_MIME_TYPE)) {
+			return mimeType.equals(defaultMimeType) ? defaultType : StaxFeedWriter.ATOM_1_0;
+		} else if (mimeType.equals(RSS_MIME_TYPE)) {
+			return mimeType.equals(defaultMimeType) ? defaultType : StaxFeedWriter.RSS_2_0;
+		} else if (mimeType.equals("application/rdf+xml")) {
+			return RSS_1_0;
+		} else if (mimeType.equals(JSON_MIME_TYPE) || mimeType.equals("application/json")) {
+			return JsonFeedWriter.JSON;
+		} else if (mimeType.equals("text/xml") || mimeType.equals("application/xml") 
+				|| mimeType.equals("*/*") || mimeType.equals("application/*") || mimeType.equals("text/*")) {
+			return defaultType;
+		}
+		return null;
+	}
+
+	private static double getQuality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String param = parts[i].trim();
+			if (param.startsWith("q=")) {
+				try {
+					return Double.parseDouble(param.substring(2).trim());
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	public static final String RSS_1_0 = "rss_1.0";
+
+	public static final String RSS_MIME_TYPE = "application/rss+xml";
+	public static final String ATOM_MIME_TYPE = "application/atom+xml";
+	public static final String JSON_MIME_TYPE = "application/feed+json";
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.agiletec.aps.system.RequestContext;
+import com.agiletec.plugins.jacms.aps.system.services.content.model.SymbolicLink;
+import com.agiletec.plugins.jacms.aps.system.services.linkresolver.ILinkResolverManager;
+
+/**
+ * Resolves the symbolic links of the descriptions of a feed.
+ * One instance is created for every feed build: the request context is built once 
+ * and every symbolic link is resolved once, then reused by all the entries of the feed 
+ * and, through the shared {@link ResolvedLinkCache}, by the following builds of the same scope.
+ * The resolver also counts the entries of the build that failed and were skipped: 
+ * without a request the links of an entry can fail only because the request is missing.
+ * Instances are thread safe, so that the entries can be built in parallel.
+ */
+public class FeedLinkResolver {
+
+	public FeedLinkResolver(ILinkResolverManager linkResolver, HttpServletRequest req, HttpServletResponse resp, 
+			ResolvedLinkCache sharedCache, String scope) {
+		this._linkResolver = linkResolver;
+		this._requestContext = new RequestContext();
+		this._requestContext.setRequest(req);
+		this._requestContext.setResponse(resp);
+		this._sharedCache = sharedCache;
+		this._scope = scope;
+		this._requestBound = (null != req);
+	}
+
+	/**
+	 * Replaces the symbolic links of the given text with the resolved links.
+	 * @param text the text to resolve
+	 * @return the resolved text
+	 */
+	public String resolveLinks(String text) {
+		if (null == text) {
+			return null;
+		}
+		int start = text.indexOf(SymbolicLink.SYMBOLIC_DEST_PREFIX);
+		if (start < 0) {
+			return text;
+		}
+		StringBuilder resolved = new StringBuilder(text.length());
+		int from = 0;
+		while (start >= 0) {
+			int end = text.indexOf(SymbolicLink.SYMBOLIC_DEST_POSTFIX, start + SymbolicLink.SYMBOLIC_DEST_PREFIX.length());
+			if (end < 0) {
+				break;
+			}
+			end += SymbolicLink.SYMBOLIC_DEST_POSTFIX.length();
+			resolved.append(text, from, start);
+			resolved.append(this.resolveLink(text.substring(start, end)));
+			from = end;
+			start = text.indexOf(SymbolicLink.SYMBOLIC_DEST_PREFIX, from);
+		}
+		resolved.append(text, from, text.length());
+		return resolved.toString();
+	}
+
+	private String resolveLink(String symbolicLink) {
+		String link = this._links.get(symbolicLink);
+		if (null != link) {
+			return link;
+		}
+		if (null != this._sharedCache) {
+			link = this._sharedCache.get(this._scope, symbolicLink);
+		}
+		if (null == link) {
+			link = this._linkResolver.resolveLinks(symbolicLink, this._requestContext);
+			if (null == link) {
+				link = symbolicLink;
+			} else if (null != this._sharedCache) {
+				this._sharedCache.put(this._scope, symbolicLink, link);
+			}
+		}
+		this._links.put(symbolicLink, link);
+		return link;
+	}
+
+	/**
+	 * The scope of the resolved links: the link of the feed and the origin of the request.
+	 * @return the scope
+	 */
+	public String getScope() {
+		return _scope;
+	}
+
+	/**
+	 * Records an entry of the build that could not be built and was skipped.
+	 */
+	public void recordFailedEntry() {
+		this._failedEntries.incrementAndGet();
+	}
+
+	/**
+	 * Whether the entries built so far can be cached and published: with a request always, 
+	 * without a request only when no entry failed.
+	 * @return true if the build is complete or bound to a request
+	 */
+	public boolean isPublishable() {
+		return this._requestBound || this._failedEntries.get() == 0;
+	}
+
+	/**
+	 * The entries of the build that failed and were skipped.
+	 * @return the number of the failed entries
+	 */
+	public int getFailedEntries() {
+		return this._failedEntries.get();
+	}
+
+	private final ILinkResolverManager _linkResolver;
+	private final RequestContext _requestContext;
+	private final ResolvedLinkCache _sharedCache;
+	private final String _scope;
+	private final boolean _requestBound;
+	private final Map<String, String> _links = new ConcurrentHashMap<String, String>();
+	private final AtomicInteger _failedEntries = new AtomicInteger();
+
+}
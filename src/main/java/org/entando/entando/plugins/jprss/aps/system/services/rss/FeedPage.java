@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+/**
+ * A document of a paged feed (<a href="https://tools.ietf.org/html/rfc5005">RFC 5005</a>): 
+ * the current document with the newest entries, an archive document, 
+ * or the page of the entries that follow a content (the cursor). 
+ * Archives are numbered from the oldest, so that a complete archive never changes 
+ * while newer contents are published. Instances are immutable.
+ */
+public class FeedPage {
+
+	private FeedPage(int archive, String cursor) {
+		this._archive = archive;
+		this._cursor = cursor;
+	}
+
+	/**
+	 * Returns the archive document with the given number.
+	 * @param archive the number of the archive, starting from 1 for the oldest
+	 * @return the archive document
+	 */
+	public static FeedPage archive(int archive) {
+		if (archive < 1) {
+			throw new IllegalArgumentException("Invalid archive " + archive);
+		}
+		return new FeedPage(archive, null);
+	}
+
+	/**
+	 * Returns the page of the entries that follow the given content in the channel.
+	 * @param contentId the id of the last content of the previous page
+	 * @return the page after the content
+	 */
+	public static FeedPage after(String contentId) {
+		if (!isValidCursor(contentId)) {
+			throw new IllegalArgumentException("Invalid cursor " + contentId);
+		}
+		return new FeedPage(0, contentId);
+	}
+
+	/**
+	 * Checks a cursor: a content id, made of letters and digits only.
+	 * @param contentId the cursor to check
+	 * @return true if the cursor is valid
+	 */
+	public static boolean isValidCursor(String contentId) {
+		if (null == contentId || contentId.length() == 0) {
+			return false;
+		}
+		for (int i = 0; i < contentId.length(); i++) {
+			if (!Character.isLetterOrDigit(contentId.charAt(i)) || contentId.charAt(i) > 127) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public boolean isCurrent() {
+		return this._archive == 0 && null == this._cursor;
+	}
+
+	public boolean isArchive() {
+		return this._archive > 0;
+	}
+
+	public int getArchive() {
+		return _archive;
+	}
+
+	/**
+	 * The id of the content the page follows.
+	 * @return the cursor, null if the page is not a cursor page
+	 */
+	public String getCursor() {
+		return _cursor;
+	}
+
+	/**
+	 * The key of the page in the caches and in the validators, empty for the current document.
+	 * @return the key of the page
+	 */
+	public String getKey() {
+		if (this.isArchive()) {
+			return "archive-" + this._archive;
+		} else if (null != this._cursor) {
+			return "after-" + this._cursor;
+		}
+		return "";
+	}
+
+	/**
+	 * The URL query parameters that select the page, empty for the current document.
+	 * @return the query parameters, starting with "&amp;"
+	 */
+	public String getQuery() {
+		if (this.isArchive()) {
+			return "&page=" + this._archive;
+		} else if (null != this._cursor) {
+			return "&cursor=" + this._cursor;
+		}
+		return "";
+	}
+
+	@Override
+	public String toString() {
+		return this.isCurrent() ? "current" : this.getKey();
+	}
+
+	private final int _archive;
+	private final String _cursor;
+
+	public static final FeedPage CURRENT = new FeedPage(0, null);
+
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the hot feeds ready. The scheduler counts the requests of every feed (channel, lang, 
+ * feed type and scope of the links); when a hot feed is evicted from the cache it keeps the evicted copy, 
+ * served as stale while the feed is rendered again in background. 
+ * The refreshes run on a bounded pool, the most requested feeds first. 
+ * Cold feeds are not refreshed and are rendered on demand.
+ * The counters are halved at the end of every access window, so the feeds that 
+ * are no longer requested cool down.
+ */
+public class FeedRefreshScheduler {
+
+	private static final Logger _logger = LoggerFactory.getLogger(FeedRefreshScheduler.class);
+
+	/**
+	 * Renders a feed again and stores it in the cache.
+	 */
+	public interface Refresher {
+
+		/**
+		 * Renders a feed again.
+		 * @param channelId the id of the channel
+		 * @param lang the lang of the feed
+		 * @param feedType the type of the feed
+		 * @param feedLink the base link of the feed
+		 * @param scope the scope of the links of the feed
+		 * @return false if the rendered feed could not be stored because the cache was evicted meanwhile, 
+		 * so the feed must be refreshed again; true otherwise (also when the channel no longer exists 
+		 * or the feed can't be rendered in background)
+		 * @throws Throwable if the feed can't be rendered
+		 */
+		public boolean refresh(int channelId, String lang, String feedType, String feedLink, String scope) throws Throwable;
+
+	}
+
+	public FeedRefreshScheduler(int threads, long hotThreshold, long accessWindowMillis, Refresher refresher) {
+		this._hotThreshold = hotThreshold;
+		this._accessWindowMillis = accessWindowMillis;
+		this._refresher = refresher;
+		this._executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, 
+				new PriorityBlockingQueue<Runnable>(), new RefreshThreadFactory());
+		this._executor.allowCoreThreadTimeOut(true);
+		this._windowStart.set(System.currentTimeMillis());
+	}
+
+	/**
+	 * Counts a request of a feed.
+	 * @param channelId the id of the channel
+	 * @param lang the lang of the feed
+	 * @param feedType the type of the feed
+	 * @param feedLink the base link of the feed, used to refresh it
+	 * @param scope the scope of the links of the feed
+	 */
+	public void recordAccess(int channelId, String lang, String feedType, String feedLink, String scope) {
+		this.decayIfNeeded();
+		String key = RenderedFeedCache.createKey(channelId, lang, feedType, scope);
+		FeedAccess access = this._accesses.get(key);
+		if (null == access) {
+			FeedAccess newAccess = new FeedAccess(channelId, lang, feedType, scope);
+			access = this._accesses.putIfAbsent(key, newAccess);
+			if (null == access) {
+				access = newAccess;
+			}
+		}
+		access._feedLink = feedLink;
+		access._count.increment();
+	}
+
+	/**
+	 * Keeps the hot feeds among the evicted ones as stale copies and schedules their refresh.
+	 * @param evictedFeeds the feeds evicted from the cache
+	 */
+	public void scheduleRefresh(List<RenderedFeed> evictedFeeds) {
+		for (int i = 0; i < evictedFeeds.size(); i++) {
+			RenderedFeed feed = evictedFeeds.get(i);
+			String key = RenderedFeedCache.createKey(feed.getChannelId(), feed.getLang(), feed.getFeedType(), feed.getScope());
+			FeedAccess access = this._accesses.get(key);
+			if (null == access || access._count.sum() < this._hotThreshold || null == access._feedLink) {
+				continue;
+			}
+			this._staleFeeds.put(key, feed);
+			this.submit(key, access, 0);
+		}
+	}
+
+	/**
+	 * Returns the stale copy of a feed being refreshed.
+	 * @param channelId the id of the channel
+	 * @param lang the lang of the feed
+	 * @param feedType the type of the feed
+	 * @param scope the scope of the links of the feed
+	 * @return the stale feed, null if the feed is not being refreshed
+	 */
+	public RenderedFeed getStale(int channelId, String lang, String feedType, String scope) {
+		return this._staleFeeds.get(RenderedFeedCache.createKey(channelId, lang, feedType, scope));
+	}
+
+	/**
+	 * Drops the stale copy of a feed, so that it is no longer served; its pending refresh is skipped.
+	 * @param channelId the id of the channel
+	 * @param lang the lang of the feed
+	 * @param feedType the type of the feed
+	 * @param scope the scope of the links of the feed
+	 */
+	public void removeStale(int channelId, String lang, String feedType, String scope) {
+		this._staleFeeds.remove(RenderedFeedCache.createKey(channelId, lang, feedType, scope));
+	}
+
+	/**
+	 * Drops the stale feeds, so that they are no longer served.
+	 */
+	public void clearStale() {
+		this._staleFeeds.clear();
+	}
+
+	public long getAccessCount(int channelId, String lang, String feedType, String scope) {
+		FeedAccess access = this._accesses.get(RenderedFeedCache.createKey(channelId, lang, feedType, scope));
+		return (null != access) ? access._count.sum() : 0;
+	}
+
+	public void shutdown() {
+		this._executor.shutdownNow();
+		this._staleFeeds.clear();
+	}
+
+	private void submit(String key, FeedAccess access, int attempt) {
+		if (this._pending.add(key)) {
+			this._executor.execute(new RefreshTask(key, access, attempt));
+		}
+	}
+
+	private void decayIfNeeded() {
+		long windowStart = this._windowStart.get();
+		long now = System.currentTimeMillis();
+		if (now - windowStart < this._accessWindowMillis || !this._windowStart.compareAndSet(windowStart, now)) {
+			return;
+		}
+		Iterator<FeedAccess> iter = this._accesses.values().iterator();
+		while (iter.hasNext()) {
+			FeedAccess access = iter.next();
+			long count = access._count.sumThenReset();
+			if (count > 1) {
+				access._count.add(count / 2);
+			} else {
+				iter.remove();
+			}
+		}
+	}
+
+	private class RefreshTask implements Runnable, Comparable<RefreshTask> {
+
+		private RefreshTask(String key, FeedAccess access, int attempt) {
+			this._key = key;
+			this._access = access;
+			this._attempt = attempt;
+			this._priority = access._count.sum();
+		}
+
+		@Override
+		public void run() {
+			_pending.remove(this._key);
+			RenderedFeed stale = _staleFeeds.get(this._key);
+			if (null == stale) {
+				return;
+			}
+			boolean stored = false;
+			try {
+				stored = _refresher.refresh(this._access._channelId, this._access._lang, this._access._feedType, 
+						this._access._feedLink, this._access._scope);
+			} catch (Throwable t) {
+				_logger.error("Error refreshing feed {}", this._key, t);
+			}
+			if (!stored && this._attempt < MAX_ATTEMPTS && _staleFeeds.get(this._key) == stale) {
+				submit(this._key, this._access, this._attempt + 1);
+			} else {
+				_staleFeeds.remove(this._key, stale);
+			}
+		}
+
+		@Override
+		public int compareTo(RefreshTask other) {
+			return Long.compare(other._priority, this._priority);
+		}
+
+		private final String _key;
+		private final FeedAccess _access;
+		private final int _attempt;
+		private final long _priority;
+
+	}
+
+	private static class FeedAccess {
+
+		private FeedAccess(int channelId, String lang, String feedType, String scope) {
+			this._channelId = channelId;
+			this._lang = lang;
+			this._feedType = feedType;
+			this._scope = scope;
+		}
+
+		private final int _channelId;
+		private final String _lang;
+		private final String _feedType;
+		private final String _scope;
+		private volatile String _feedLink;
+		private final LongAdder _count = new LongAdder();
+
+	}
+
+	private static class RefreshThreadFactory implements ThreadFactory {
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "jprss-feed-refresh-" + this._counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+		private final AtomicInteger _counter = new AtomicInteger();
+
+	}
+
+	private final long _hotThreshold;
+	private final long _accessWindowMillis;
+	private final Refresher _refresher;
+	private final ThreadPoolExecutor _executor;
+	private final AtomicLong _windowStart = new AtomicLong();
+	private final Map<String, FeedAccess> _accesses = new ConcurrentHashMap<String, FeedAccess>();
+	private final Map<String, RenderedFeed> _staleFeeds = new ConcurrentHashMap<String, RenderedFeed>();
+	private final Set<String> _pending = ConcurrentHashMap.newKeySet();
+
+	private static final int MAX_ATTEMPTS = 3;
+
+}
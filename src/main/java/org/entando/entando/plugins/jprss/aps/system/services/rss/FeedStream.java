@@ -0,0 +1,63 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A channel feed ready to be written into the response.
+ */
+public interface FeedStream {
+
+	/**
+	 * The encoding of the bytes written by the stream.
+	 * @return the encoding of the feed
+	 */
+	public String getEncoding();
+
+	/**
+	 * The feed type of the stream.
+	 * @return the feed type
+	 */
+	public String getFeedType();
+
+	/**
+	 * The length of the feed in bytes.
+	 * @return the length of the feed, -1 if it is not known before writing it
+	 */
+	public int getLength();
+
+	/**
+	 * Writes the feed. The given stream is not closed.
+	 * @param out the stream to write to
+	 * @throws IOException if an error occurs
+	 */
+	public void writeTo(OutputStream out) throws IOException;
+
+	/**
+	 * Releases what the stream holds for its request. It is called once the response is done, 
+	 * whether the feed was written or not (e.g. for a HEAD request), and can be called more than once.
+	 */
+	public void close();
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+/**
+ * The HTTP validators (Last-Modified and ETag) of a channel feed.
+ * They are computed from the last change of the channel and of its content type,
+ * without loading any content. The ETag keeps the milliseconds of the change, 
+ * so that two changes within the same second give different ETags.
+ */
+public class FeedValidator {
+
+	public FeedValidator(int channelId, String lang, long lastModified) {
+		this._lastModified = (lastModified / 1000) * 1000;
+		this._eTag = "\"" + channelId + "-" + lang + "-" + Long.toHexString(lastModified) + "\"";
+	}
+
+	/**
+	 * Creates the validators of a feed rendered in the given type: 
+	 * every feed type of a channel is a different representation, with its own ETag.
+	 * @param channelId the id of the channel
+	 * @param lang the lang code
+	 * @param feedType the feed type
+	 * @param lastModified the last modification time in milliseconds
+	 */
+	public FeedValidator(int channelId, String lang, String feedType, long lastModified) {
+		this._lastModified = (lastModified / 1000) * 1000;
+		this._eTag = "\"" + channelId + "-" + lang + "-" + feedType + "-" + Long.toHexString(lastModified) + "\"";
+	}
+
+	/**
+	 * The last modification time, truncated to seconds as required by the HTTP date format.
+	 * @return the last modification time in milliseconds
+	 */
+	public long getLastModified() {
+		return _lastModified;
+	}
+
+	public String getETag() {
+		return _eTag;
+	}
+
+	/**
+	 * Checks the conditional headers sent by the client against this validator.
+	 * If-None-Match takes precedence over If-Modified-Since.
+	 * @param ifNoneMatch the value of the If-None-Match header, null if missing
+	 * @param ifModifiedSince the value of the If-Modified-Since header, -1 if missing
+	 * @return true if the client copy of the feed is current
+	 */
+	public boolean isNotModified(String ifNoneMatch, long ifModifiedSince) {
+		if (null != ifNoneMatch) {
+			String[] tags = ifNoneMatch.split(",");
+			for (int i = 0; i < tags.length; i++) {
+				String tag = tags[i].trim();
+				if (tag.startsWith("W/")) {
+					tag = tag.substring(2);
+				}
+				if (tag.equals("*") || tag.equals(this.getETag())) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return (ifModifiedSince >= 0 && this.getLastModified() <= ifModifiedSince);
+	}
+
+	private final long _lastModified;
+	private final String _eTag;
+
+}
@@ -21,6 +21,7 @@
  */
 package org.entando.entando.plugins.jprss.aps.system.services.rss;
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -41,6 +42,13 @@ public interface IRssDAO {
 	 */
 	public void updateChannel(Channel channel);
 	
+	/**
+	 * Sets the date of the last change of the channels serving a content type.
+	 * @param contentType the code of the content type, null for all the channels
+	 * @param lastModified the date of the change
+	 */
+	public void updateLastModified(String contentType, Date lastModified);
+	
 	/**
 	 * Deletes a channel. 
 	 * Cannot be reverted
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object for the feed entries projection, 
+ * the table that holds the data of the published contents served by the channels.
+ */
+public interface IRssEntryDAO {
+
+	/**
+	 * Returns the entries of the given contents in the given lang.
+	 * @param contentsId the ids of the contents
+	 * @param langCode the code of the lang
+	 * @return the entries found, indexed by content id
+	 */
+	public Map<String, RssEntryRecord> loadEntries(List<String> contentsId, String langCode);
+
+	/**
+	 * Returns the last modification of the entries of the given contents in the given lang.
+	 * @param contentsId the ids of the contents
+	 * @param langCode the code of the lang
+	 * @return the last modification time in milliseconds, 0 if no entry is found
+	 */
+	public long getLastModified(List<String> contentsId, String langCode);
+
+	/**
+	 * Saves the given entries: an entry replaces the stored entry of its content and lang 
+	 * only if the stored one is older, and is added if missing.
+	 * @param entries the entries to save, in every lang
+	 */
+	public void saveEntries(List<RssEntryRecord> entries);
+
+	/**
+	 * Deletes the entries of a content, in every lang.
+	 * @param contentId the id of the content
+	 */
+	public void deleteEntries(String contentId);
+
+	/**
+	 * Deletes all the entries.
+	 */
+	public void deleteAllEntries();
+
+}
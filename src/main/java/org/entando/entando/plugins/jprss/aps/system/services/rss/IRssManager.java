@@ -24,6 +24,7 @@ package org.entando.entando.plugins.jprss.aps.system.services.rss;
 import com.agiletec.aps.system.exception.ApsSystemException;
 import com.rometools.rome.feed.synd.SyndFeed;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -81,6 +82,21 @@ public interface IRssManager {
 	 * @return Returns a map with all the feedTypes that con be used
 	 */
 	public Map<String, String> getAvailableFeedTypes();
+	
+	/**
+	 * Returns the url of the current document of a feed, used as WebSub topic.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang of the feed
+	 * @param feedType the feed type
+	 * @return the url of the feed
+	 */
+	public String getFeedUrl(Channel channel, String lang, String feedType);
+	
+	/**
+	 * Returns the url of the WebSub hub advertised by the feeds.
+	 * @return the url of the hub, null if the hub is disabled
+	 */
+	public String getHubUrl();
 
 	public RssContentMapping getContentMapping(String typeCode);
 
@@ -92,6 +108,17 @@ public interface IRssManager {
 	 */
 	public Channel getChannel(int id) throws ApsSystemException;
 
+	/**
+	 * Returns the autodiscovery links (link rel="alternate") of all the active channels, 
+	 * ready to be printed in the head of a page. The block is built once for every lang 
+	 * and rebuilt only when a channel changes.
+	 * @param langCode the code of the lang of the feeds
+	 * @param baseUrl the base url of the application
+	 * @return the html of the links, an empty string if there are no active channels
+	 * @throws ApsSystemException if an error occurs
+	 */
+	public String getAutodiscoveryLinks(String langCode, String baseUrl) throws ApsSystemException;
+
 	/**
 	 * Build {@link SyndFeed} according to the params provided. This object is
 	 * the one the the rssServlet uses to print data in response.
@@ -105,4 +132,179 @@ public interface IRssManager {
 	 */
 	public SyndFeed getSyndFeed(Channel channel, String lang, String feedLink, HttpServletRequest req, HttpServletResponse resp) throws EntException;
 	
+	/**
+	 * Returns the validators of the feed of the given channel.
+	 * The validators are computed from the last change of the channel and of the contents 
+	 * it serves, without loading any content.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang of the feed
+	 * @return the validators of the feed
+	 */
+	public FeedValidator getFeedValidator(Channel channel, String lang) throws EntException;
+	
+	/**
+	 * Returns the validators of the feed of the given channel rendered in the given feed type.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang of the feed
+	 * @param feedType the feed type of the representation
+	 * @return the validators of the feed
+	 */
+	public FeedValidator getFeedValidator(Channel channel, String lang, String feedType) throws EntException;
+	
+	/**
+	 * Returns the validators of a document of the paged feed of the given channel.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang of the feed
+	 * @param feedType the feed type of the representation
+	 * @param page the document of the paged feed
+	 * @return the validators of the document
+	 */
+	public FeedValidator getFeedValidator(Channel channel, String lang, String feedType, FeedPage page) throws EntException;
+	
+	/**
+	 * Checks whether the archives of the paged feeds of the given channel never change: 
+	 * the channel has no maximum size and orders its contents by a key that doesn't change 
+	 * when a content is published again.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang of the feed
+	 * @return true if the archives can be cached as immutable
+	 */
+	public boolean hasStableArchives(Channel channel, String lang);
+	
+	/**
+	 * Returns the serialized feed of the given channel. The feed is rendered once and 
+	 * then served from cache until a content of the channel type is published 
+	 * or the channel is updated.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang that will be used retrieve the contents
+	 * @param feedLink the base link of the feed
+	 * @param req the request, null to render the feed without request
+	 * @param resp the response
+	 * @return the rendered feed
+	 * @throws EntException if an error occurs, also when an entry of a feed rendered without request fails: 
+	 * an incomplete feed is never cached, pushed or exported
+	 */
+	public RenderedFeed getRenderedFeed(Channel channel, String lang, String feedLink, HttpServletRequest req, HttpServletResponse resp) throws EntException;
+	
+	/**
+	 * Returns the serialized feed of the given channel in the given feed type. 
+	 * The entries of the channel are built once and rendered in every feed type.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang that will be used retrieve the contents
+	 * @param feedType the feed type to render, one of the available feed types
+	 * @param feedLink the base link of the feed
+	 * @param req the request, null to render the feed without request
+	 * @param resp the response
+	 * @return the rendered feed
+	 * @throws EntException if an error occurs, also when an entry of a feed rendered without request fails: 
+	 * an incomplete feed is never cached, pushed or exported
+	 */
+	public RenderedFeed getRenderedFeed(Channel channel, String lang, String feedType, String feedLink, 
+			HttpServletRequest req, HttpServletResponse resp) throws EntException;
+	
+	/**
+	 * Renders the current document of the given feed without request, bypassing the cached 
+	 * and the stale copies: the cached feed is evicted first, then the new one is stored. 
+	 * It renders the feed pushed to the subscribers after a publication.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang that will be used retrieve the contents
+	 * @param feedType the feed type to render, one of the available feed types
+	 * @param feedLink the base link of the feed
+	 * @return the rendered feed
+	 * @throws EntException if an error occurs, also when an entry fails
+	 */
+	public RenderedFeed renderFreshFeed(Channel channel, String lang, String feedType, String feedLink) throws EntException;
+	
+	/**
+	 * Returns the last rendered feed of the given channel, without rendering it: 
+	 * the cached feed or, after the contents of the channel changed, the feed rendered before the change. 
+	 * It is served when a request cannot be admitted.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang of the feed
+	 * @param feedType the feed type of the representation
+	 * @param feedLink the base link of the feed
+	 * @param req the request, whose origin is the scope of the links of the feed
+	 * @return the last rendered feed, null if the feed was never rendered or the channel changed since
+	 */
+	public RenderedFeed getLastRenderedFeed(Channel channel, String lang, String feedType, String feedLink, HttpServletRequest req);
+	
+	/**
+	 * Returns the given document of a feed from the cache, without rendering it: 
+	 * the current document or an archive. The cursor pages are never cached.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang of the feed
+	 * @param feedType the feed type of the representation
+	 * @param page the document of the feed
+	 * @param feedLink the base link of the feed
+	 * @param req the request, whose origin is the scope of the links of the feed
+	 * @return the cached feed, null if the feed must be rendered
+	 * @throws EntException if an error occurs loading the contents of an archive
+	 */
+	public RenderedFeed getCachedFeed(Channel channel, String lang, String feedType, FeedPage page, 
+			String feedLink, HttpServletRequest req) throws EntException;
+	
+	/**
+	 * Returns the feed of the given channel, ready to be written into the response. 
+	 * A cached feed is returned when available; otherwise the feed is rendered in memory 
+	 * by a single build shared by the concurrent requests. The feeds too large to be cached, 
+	 * of the types supported by the {@link StaxFeedWriter}, are streamed entry by entry while they are written.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang that will be used retrieve the contents
+	 * @param feedLink the base link of the feed
+	 * @param req the request
+	 * @param resp the response
+	 * @return the feed to write
+	 * @throws EntException if an error occurs
+	 */
+	public FeedStream getFeedStream(Channel channel, String lang, String feedLink, HttpServletRequest req, HttpServletResponse resp) throws EntException;
+	
+	/**
+	 * Returns the feed of the given channel in the given feed type, ready to be written into the response.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang that will be used retrieve the contents
+	 * @param feedType the feed type to render, one of the available feed types
+	 * @param feedLink the base link of the feed
+	 * @param req the request
+	 * @param resp the response
+	 * @return the feed to write
+	 * @throws EntException if an error occurs
+	 * @see #getFeedStream(Channel, String, String, HttpServletRequest, HttpServletResponse)
+	 */
+	public FeedStream getFeedStream(Channel channel, String lang, String feedType, String feedLink, 
+			HttpServletRequest req, HttpServletResponse resp) throws EntException;
+	
+	/**
+	 * Returns a document of the paged feed of the given channel (RFC 5005), ready to be written into the response. 
+	 * The archives hold a fixed slice of the contents of the channel, counted from the oldest, 
+	 * and are cached until their contents change.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang that will be used retrieve the contents
+	 * @param feedType the feed type to render, one of the available feed types
+	 * @param page the document of the paged feed
+	 * @param feedLink the base link of the feed
+	 * @param req the request
+	 * @param resp the response
+	 * @return the document to write, null if the feed is not paged or the document does not exist
+	 * @throws EntException if an error occurs
+	 */
+	public FeedStream getFeedStream(Channel channel, String lang, String feedType, FeedPage page, String feedLink, 
+			HttpServletRequest req, HttpServletResponse resp) throws EntException;
+	
+	/**
+	 * Returns the delta feed of the given channel: only the contents modified since the given date. 
+	 * The date is pushed into the query of the channel; when nothing changed since the date 
+	 * the feed is empty and no query is run. Delta feeds are not cached.
+	 * @param channel The target channel object.
+	 * @param lang the code of the lang that will be used retrieve the contents
+	 * @param feedType the feed type to render, one of the available feed types
+	 * @param since the date from which the contents are returned, included
+	 * @param feedLink the base link of the feed
+	 * @param req the request
+	 * @param resp the response
+	 * @return the delta feed to write
+	 * @throws EntException if an error occurs
+	 */
+	public FeedStream getDeltaFeed(Channel channel, String lang, String feedType, Date since, String feedLink, 
+			HttpServletRequest req, HttpServletResponse resp) throws EntException;
+	
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.rometools.rome.feed.synd.SyndFeed;
+
+/**
+ * Writes <a href="https://www.jsonfeed.org/version/1.1/">JSON Feed 1.1</a> feeds straight to an output stream, 
+ * as UTF-8 bytes, with the Jackson streaming generator.
+ * The entries are pulled one at a time from an iterator and never held together.
+ * Instances are thread safe.
+ */
+public class JsonFeedWriter {
+
+	public static boolean isSupported(String feedType) {
+		return JSON.equals(feedType);
+	}
+
+	/**
+	 * Writes a feed.
+	 * @param header the feed that supplies title, link and description; its entries are ignored
+	 * @param entries the entries of the feed
+	 * @param out the stream to write to. It is flushed but not closed.
+	 * @throws IOException if an error occurs
+	 */
+	public void write(SyndFeed header, Iterator<FeedEntry> entries, OutputStream out) throws IOException {
+		if (!isSupported(header.getFeedType())) {
+			throw new IllegalArgumentException("Unsupported feed type " + header.getFeedType());
+		}
+		DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+		JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		try {
+			generator.writeStartObject();
+			generator.writeStringField("version", VERSION);
+			this.writeField(generator, "title", header.getTitle());
+			this.writeField(generator, "home_page_url", header.getLink());
+			this.writeField(generator, "feed_url", StaxFeedWriter.getLinkHref(header, "self"));
+			this.writeField(generator, "description", header.getDescription());
+			// the next document of a paged feed, or the previous archive
+			String nextUrl = StaxFeedWriter.getLinkHref(header, "next");
+			this.writeField(generator, "next_url", (null != nextUrl) ? nextUrl : StaxFeedWriter.getLinkHref(header, "prev-archive"));
+			String hubUrl = StaxFeedWriter.getLinkHref(header, "hub");
+			if (null != hubUrl) {
+				generator.writeArrayFieldStart("hubs");
+				generator.writeStartObject();
+				generator.writeStringField("type", "WebSub");
+				generator.writeStringField("url", hubUrl);
+				generator.writeEndObject();
+				generator.writeEndArray();
+			}
+			generator.writeArrayFieldStart("items");
+			generator.flush();
+			while (entries.hasNext()) {
+				FeedEntry entry = entries.next();
+				generator.writeStartObject();
+				String id = (null != entry.getLink()) ? entry.getLink() : entry.getContentId();
+				generator.writeStringField("id", id);
+				this.writeField(generator, "url", entry.getLink());
+				this.writeField(generator, "title", entry.getTitle());
+				// an item requires content_html or content_text
+				generator.writeStringField("content_html", (null != entry.getDescription()) ? entry.getDescription() : "");
+				Date published = entry.getPublishedDate();
+				if (null != published) {
+					generator.writeStringField("date_published", dateFormat.format(published));
+				}
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+			generator.flush();
+		} finally {
+			generator.close();
+		}
+	}
+
+	private void writeField(JsonGenerator generator, String name, String value) throws IOException {
+		if (null != value) {
+			generator.writeStringField(name, value);
+		}
+	}
+
+	public static final String JSON = "json";
+
+	public static final String ENCODING = "UTF-8";
+
+	private static final String VERSION = "https://jsonfeed.org/version/1.1";
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+}
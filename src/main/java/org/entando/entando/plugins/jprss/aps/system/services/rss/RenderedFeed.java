@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The serialized form of a channel feed, ready to be copied into the response.
+ * Instances are immutable and can be shared between concurrent requests.
+ */
+public class RenderedFeed implements FeedStream {
+
+	public RenderedFeed(int channelId, String contentType, String lang, String feedType, String scope, String encoding, 
+			long lastModified, byte[] body, byte[] gzipBody) {
+		this(channelId, contentType, lang, feedType, FeedPage.CURRENT, scope, encoding, lastModified, body, gzipBody);
+	}
+
+	public RenderedFeed(int channelId, String contentType, String lang, String feedType, FeedPage page, String scope, 
+			String encoding, long lastModified, byte[] body, byte[] gzipBody) {
+		this._channelId = channelId;
+		this._contentType = contentType;
+		this._lang = lang;
+		this._feedType = feedType;
+		this._page = page;
+		this._scope = scope;
+		this._encoding = encoding;
+		this._lastModified = lastModified;
+		this._body = body;
+		this._gzipBody = gzipBody;
+	}
+
+	public int getChannelId() {
+		return _channelId;
+	}
+
+	/**
+	 * The content type served by the channel the feed was rendered from.
+	 * @return the code of the content type
+	 */
+	public String getContentType() {
+		return _contentType;
+	}
+
+	public String getLang() {
+		return _lang;
+	}
+
+	@Override
+	public String getFeedType() {
+		return _feedType;
+	}
+
+	/**
+	 * The document of the paged feed, {@link FeedPage#CURRENT} when the feed is not paged.
+	 * @return the page of the feed
+	 */
+	public FeedPage getPage() {
+		return _page;
+	}
+
+	/**
+	 * The scope the links of the feed were resolved in, see {@link FeedLinkResolver#getScope()}: 
+	 * the feed is served only to the requests of the same scope.
+	 * @return the scope of the links
+	 */
+	public String getScope() {
+		return _scope;
+	}
+
+	@Override
+	public String getEncoding() {
+		return _encoding;
+	}
+
+	/**
+	 * The last modification time of the channel and of its contents when the feed was rendered, 
+	 * see {@link FeedValidator#getLastModified()}. When it is older than the current one 
+	 * the feed is stale.
+	 * @return the last modification time the feed was rendered from
+	 */
+	public long getLastModified() {
+		return _lastModified;
+	}
+
+	/**
+	 * The serialized feed. The returned array is shared and must not be modified.
+	 * @return the bytes of the feed
+	 */
+	public byte[] getBody() {
+		return _body;
+	}
+
+	@Override
+	public int getLength() {
+		return _body.length;
+	}
+
+	/**
+	 * The feed compressed with gzip when it was rendered. 
+	 * The returned array is shared and must not be modified.
+	 * @return the gzip compressed bytes of the feed, null if the feed was not compressed
+	 */
+	public byte[] getGzipBody() {
+		return _gzipBody;
+	}
+
+	public boolean hasGzipBody() {
+		return null != _gzipBody;
+	}
+
+	@Override
+	public void writeTo(OutputStream out) throws IOException {
+		out.write(this._body);
+	}
+
+	@Override
+	public void close() {
+		// nothing to release, the feed is shared
+	}
+
+	private final int _channelId;
+	private final String _contentType;
+	private final String _lang;
+	private final String _feedType;
+	private final FeedPage _page;
+	private final String _scope;
+	private final String _encoding;
+	private final long _lastModified;
+	private final byte[] _body;
+	private final byte[] _gzipBody;
+
+}
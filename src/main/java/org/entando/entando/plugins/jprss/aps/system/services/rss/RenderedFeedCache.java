@@ -0,0 +1,179 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the rendered current documents, indexed by channel, lang, feed type and scope of the links 
+ * (see {@link FeedLinkResolver#getScope()}), so that a feed is served only to the requests 
+ * its links were resolved for. The archives have their own bounded cache, the cursor pages are not cached. 
+ * The current documents evicted because their contents changed are kept 
+ * as the last rendered feeds until they are rendered again.
+ */
+public class RenderedFeedCache {
+
+	public RenderedFeed get(int channelId, String lang, String feedType, String scope) {
+		return this._feeds.get(createKey(channelId, lang, feedType, scope));
+	}
+
+	/**
+	 * Returns the current document of a feed, or the one evicted when its contents changed.
+	 * @param channelId the id of the channel
+	 * @param lang the lang code
+	 * @param feedType the feed type
+	 * @param scope the scope of the links
+	 * @return the last rendered feed, null if missing
+	 */
+	public RenderedFeed getLast(int channelId, String lang, String feedType, String scope) {
+		String key = createKey(channelId, lang, feedType, scope);
+		RenderedFeed feed = this._feeds.get(key);
+		return (null != feed) ? feed : this._lastFeeds.get(key);
+	}
+
+	/**
+	 * Returns the current generation of the cache. The generation changes on every eviction, 
+	 * so a feed rendered while an eviction happens is not stored.
+	 * @return the current generation
+	 */
+	public long getGeneration() {
+		return this._generation.get();
+	}
+
+	/**
+	 * Stores the current document of a feed, unless an eviction happened since the given generation.
+	 * @param feed the feed to store
+	 * @param generation the generation read before starting to render the feed
+	 * @return true if the feed was stored
+	 */
+	public boolean put(RenderedFeed feed, long generation) {
+		if (this._generation.get() != generation || !feed.getPage().isCurrent()) {
+			return false;
+		}
+		String key = createKey(feed.getChannelId(), feed.getLang(), feed.getFeedType(), feed.getScope());
+		this._feeds.put(key, feed);
+		if (this._generation.get() != generation) {
+			this._feeds.remove(key, feed);
+			return false;
+		}
+		this._lastFeeds.remove(key);
+		return true;
+	}
+
+	/**
+	 * Removes the current document of a feed, and its last rendered copy.
+	 * @param channelId the id of the channel
+	 * @param lang the lang code
+	 * @param feedType the feed type
+	 * @param scope the scope of the links
+	 * @return the evicted feeds
+	 */
+	public List<RenderedFeed> evict(int channelId, String lang, String feedType, String scope) {
+		this._generation.incrementAndGet();
+		String key = createKey(channelId, lang, feedType, scope);
+		List<RenderedFeed> evicted = new ArrayList<RenderedFeed>();
+		RenderedFeed feed = this._feeds.remove(key);
+		if (null != feed) {
+			evicted.add(feed);
+		}
+		this._lastFeeds.remove(key);
+		return evicted;
+	}
+
+	/**
+	 * Removes every feed rendered from the given channel.
+	 * @param channelId the id of the channel
+	 * @return the evicted feeds
+	 */
+	public List<RenderedFeed> evictChannel(int channelId) {
+		this._generation.incrementAndGet();
+		List<RenderedFeed> evicted = new ArrayList<RenderedFeed>();
+		Iterator<RenderedFeed> iter = this._feeds.values().iterator();
+		while (iter.hasNext()) {
+			RenderedFeed feed = iter.next();
+			if (feed.getChannelId() == channelId) {
+				iter.remove();
+				evicted.add(feed);
+			}
+		}
+		Iterator<RenderedFeed> lastIter = this._lastFeeds.values().iterator();
+		while (lastIter.hasNext()) {
+			if (lastIter.next().getChannelId() == channelId) {
+				lastIter.remove();
+			}
+		}
+		return evicted;
+	}
+
+	/**
+	 * Removes every feed rendered from channels serving the given content type.
+	 * @param contentType the code of the content type
+	 * @return the evicted feeds
+	 */
+	public List<RenderedFeed> evictContentType(String contentType) {
+		this._generation.incrementAndGet();
+		List<RenderedFeed> evicted = new ArrayList<RenderedFeed>();
+		Iterator<RenderedFeed> iter = this._feeds.values().iterator();
+		while (iter.hasNext()) {
+			RenderedFeed feed = iter.next();
+			if (feed.getContentType().equals(contentType)) {
+				iter.remove();
+				evicted.add(feed);
+				this._lastFeeds.put(createKey(feed.getChannelId(), feed.getLang(), feed.getFeedType(), feed.getScope()), feed);
+			}
+		}
+		return evicted;
+	}
+
+	public void clear() {
+		this._generation.incrementAndGet();
+		this._feeds.clear();
+		this._lastFeeds.clear();
+	}
+
+	public int size() {
+		return this._feeds.size();
+	}
+
+	protected static String createKey(int channelId, String lang, String feedType) {
+		return channelId + "_" + lang + "_" + feedType;
+	}
+
+	protected static String createKey(int channelId, String lang, String feedType, String scope) {
+		return createKey(channelId, lang, feedType) + "|" + scope;
+	}
+
+	protected static String createKey(int channelId, String lang, String feedType, FeedPage page) {
+		String key = createKey(channelId, lang, feedType);
+		return page.isCurrent() ? key : key + "_" + page.getKey();
+	}
+
+	private final Map<String, RenderedFeed> _feeds = new ConcurrentHashMap<String, RenderedFeed>();
+	private final Map<String, RenderedFeed> _lastFeeds = new ConcurrentHashMap<String, RenderedFeed>();
+	private final AtomicLong _generation = new AtomicLong();
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the symbolic links resolved while building the feeds, so that they can be 
+ * reused by the following requests. The links are indexed by a scope (the base link of 
+ * the feed and the origin of the request) and by the symbolic link itself.
+ * The cache must be cleared when a page or a content changes.
+ */
+public class ResolvedLinkCache {
+
+	public ResolvedLinkCache(int maxSize) {
+		this._maxSize = maxSize;
+	}
+
+	public String get(String scope, String symbolicLink) {
+		return this._links.get(createKey(scope, symbolicLink));
+	}
+
+	/**
+	 * Stores a resolved link. When the cache is full it is emptied before 
+	 * storing the link, so that its size stays bounded.
+	 * @param scope the scope of the link
+	 * @param symbolicLink the symbolic link
+	 * @param resolvedLink the resolved link
+	 */
+	public void put(String scope, String symbolicLink, String resolvedLink) {
+		if (this._maxSize <= 0) {
+			return;
+		}
+		if (this._links.size() >= this._maxSize) {
+			this._links.clear();
+		}
+		this._links.put(createKey(scope, symbolicLink), resolvedLink);
+	}
+
+	public void clear() {
+		this._links.clear();
+	}
+
+	public int size() {
+		return this._links.size();
+	}
+
+	private static String createKey(String scope, String symbolicLink) {
+		return scope + "|" + symbolicLink;
+	}
+
+	private final int _maxSize;
+	private final Map<String, String> _links = new ConcurrentHashMap<String, String>();
+
+}
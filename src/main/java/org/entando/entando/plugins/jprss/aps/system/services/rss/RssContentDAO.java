@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.agiletec.aps.system.common.AbstractDAO;
+import com.agiletec.aps.util.DateConverter;
+import com.agiletec.plugins.jacms.aps.system.JacmsSystemConstants;
+
+/**
+ * Data Access Object that reads the online contents served by the channels.
+ * The contents are loaded with one query for every block of {@link #MAX_IDS_PER_QUERY} ids.
+ * <p>
+ * It bypasses IContentManager on purpose: loading a content through the manager runs a query 
+ * for every content and builds the whole entity, every attribute of it, only to read a title 
+ * and a description; a feed of hundreds of contents paid that on every build of its entries. 
+ * The bypass reads the same data the manager reads (the online xml of the contents table) 
+ * and is safe for the feeds because the ids come from IContentManager.loadPublicContentsId: 
+ * only public contents of the free group are ever loaded. The parity with the content manager 
+ * is checked by TestRssManager against the contents of the test database.
+ * </p>
+ */
+public class RssContentDAO extends AbstractDAO implements IRssContentDAO {
+
+	private static final Logger _logger = LoggerFactory.getLogger(RssContentDAO.class);
+
+	@Override
+	public Map<String, RssContentRecord> loadContentRecords(List<String> contentsId) {
+		Map<String, RssContentRecord> records = new HashMap<String, RssContentRecord>();
+		if (null == contentsId || contentsId.isEmpty()) {
+			return records;
+		}
+		Connection conn = null;
+		try {
+			conn = this.getConnection();
+			for (int start = 0; start < contentsId.size(); start += MAX_IDS_PER_QUERY) {
+				int end = Math.min(start + MAX_IDS_PER_QUERY, contentsId.size());
+				this.loadContentRecords(conn, contentsId.subList(start, end), records);
+			}
+		} catch (Throwable t) {
+			_logger.error("Error loading content records", t);
+			throw new RuntimeException("Error loading content records", t);
+		} finally {
+			closeConnection(conn);
+		}
+		return records;
+	}
+
+	private void loadContentRecords(Connection conn, List<String> contentsId, Map<String, RssContentRecord> records) throws Throwable {
+		PreparedStatement stat = null;
+		ResultSet res = null;
+		try {
+			stat = conn.prepareStatement(this.createLoadRecordsQuery(contentsId.size()));
+			for (int i = 0; i < contentsId.size(); i++) {
+				stat.setString(i + 1, contentsId.get(i));
+			}
+			res = stat.executeQuery();
+			while (res.next()) {
+				String xml = res.getString("onlinexml");
+				if (null == xml) {
+					continue;
+				}
+				RssContentRecord record = new RssContentRecord();
+				record.setId(res.getString("contentid"));
+				record.setTypeCode(res.getString("contenttype"));
+				record.setLastModified(DateConverter.parseDate(res.getString("lastmodified"),
+						JacmsSystemConstants.CONTENT_METADATA_DATE_FORMAT));
+				record.setXml(xml);
+				records.put(record.getId(), record);
+			}
+		} finally {
+			closeDaoResources(res, stat);
+		}
+	}
+
+	private String createLoadRecordsQuery(int size) {
+		StringBuilder query = new StringBuilder(LOAD_CONTENT_RECORDS_BASE_BLOCK);
+		for (int i = 0; i < size; i++) {
+			query.append((i == 0) ? "?" : ", ?");
+		}
+		return query.append(")").toString();
+	}
+
+	public static final int MAX_IDS_PER_QUERY = 500;
+
+	private static final String LOAD_CONTENT_RECORDS_BASE_BLOCK =
+		"SELECT contentid, contenttype, lastmodified, onlinexml FROM contents WHERE contentid IN (";
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.agiletec.aps.system.exception.ApsSystemException;
+
+/**
+ * Extracts from the xml of a content the texts of the attributes mapped with the rss roles,
+ * without building the whole content entity.
+ * Only the top level text attributes are read ("text", "hypertext" and "monotext" elements), 
+ * the only ones the rss roles can be given to: the texts are the same as the ones of the 
+ * text attributes of the content loaded by IContentManager (see {@link RssContentDAO}).
+ * An instance is not thread safe and should be used by one thread at a time.
+ */
+public class RssContentParser {
+
+	public RssContentParser() throws ApsSystemException {
+		try {
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(false);
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			this._parser = factory.newSAXParser();
+		} catch (Throwable t) {
+			throw new ApsSystemException("Error creating the content parser", t);
+		}
+	}
+
+	/**
+	 * Fills the titles and the descriptions of the given record.
+	 * @param record the record to fill
+	 * @param mapping the mapping of the content type of the record
+	 * @throws ApsSystemException in case of parsing error
+	 */
+	public void parse(RssContentRecord record, RssContentMapping mapping) throws ApsSystemException {
+		try {
+			ContentTextsHandler handler = new ContentTextsHandler(mapping.getTitleAttributeName(), mapping.getDescriptionAttributeName());
+			this._parser.reset();
+			this._parser.parse(new InputSource(new StringReader(record.getXml())), handler);
+			record.setTitles(handler.getTitles());
+			record.setDescriptions(handler.getDescriptions());
+		} catch (Throwable t) {
+			throw new ApsSystemException("Error parsing content " + record.getId(), t);
+		}
+	}
+
+	private SAXParser _parser;
+
+	private static class ContentTextsHandler extends DefaultHandler {
+
+		private ContentTextsHandler(String titleAttributeName, String descriptionAttributeName) {
+			this._titleAttributeName = titleAttributeName;
+			this._descriptionAttributeName = descriptionAttributeName;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			this._depth++;
+			if (this._depth == ATTRIBUTE_DEPTH && qName.equals("attribute")) {
+				String name = attributes.getValue("name");
+				if (null != name && name.equals(this._titleAttributeName)) {
+					this._currentTexts = this._titles;
+				} else if (null != name && name.equals(this._descriptionAttributeName)) {
+					this._currentTexts = this._descriptions;
+				}
+			} else if (this._depth == ATTRIBUTE_DEPTH + 1 && null != this._currentTexts && this.isTextElement(qName)) {
+				String lang = attributes.getValue("lang");
+				this._currentLang = (null != lang) ? lang : NO_LANG;
+				this._buffer.setLength(0);
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (null != this._currentLang) {
+				this._buffer.append(ch, start, length);
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			if (this._depth == ATTRIBUTE_DEPTH + 1 && null != this._currentLang) {
+				this._currentTexts.put(this._currentLang, this._buffer.toString());
+				this._currentLang = null;
+			} else if (this._depth == ATTRIBUTE_DEPTH) {
+				this._currentTexts = null;
+			}
+			this._depth--;
+		}
+
+		private boolean isTextElement(String qName) {
+			return qName.equals("text") || qName.equals("hypertext") || qName.equals("monotext");
+		}
+
+		private Map<String, String> getTitles() {
+			return _titles;
+		}
+
+		private Map<String, String> getDescriptions() {
+			return _descriptions;
+		}
+
+		private String _titleAttributeName;
+		private String _descriptionAttributeName;
+		private Map<String, String> _titles = new HashMap<String, String>();
+		private Map<String, String> _descriptions = new HashMap<String, String>();
+		private Map<String, String> _currentTexts;
+		private String _currentLang;
+		private StringBuilder _buffer = new StringBuilder();
+		private int _depth;
+
+		private static final int ATTRIBUTE_DEPTH = 3;
+
+	}
+
+	/**
+	 * The lang code used for the texts of the attributes without lang (monotext).
+	 */
+	public static final String NO_LANG = "";
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The public data of a content needed to build a feed entry:
+ * the texts of the attributes mapped with the rss roles, indexed by lang.
+ */
+public class RssContentRecord {
+
+	public String getId() {
+		return _id;
+	}
+	public void setId(String id) {
+		this._id = id;
+	}
+
+	public String getTypeCode() {
+		return _typeCode;
+	}
+	public void setTypeCode(String typeCode) {
+		this._typeCode = typeCode;
+	}
+
+	public Date getLastModified() {
+		return _lastModified;
+	}
+	public void setLastModified(Date lastModified) {
+		this._lastModified = lastModified;
+	}
+
+	/**
+	 * The xml of the online version of the content.
+	 * @return the xml of the content
+	 */
+	public String getXml() {
+		return _xml;
+	}
+	public void setXml(String xml) {
+		this._xml = xml;
+	}
+
+	/**
+	 * The title texts, indexed by lang code.
+	 * @return the title texts
+	 */
+	public Map<String, String> getTitles() {
+		return _titles;
+	}
+	public void setTitles(Map<String, String> titles) {
+		this._titles = titles;
+	}
+
+	/**
+	 * The description texts, indexed by lang code.
+	 * @return the description texts
+	 */
+	public Map<String, String> getDescriptions() {
+		return _descriptions;
+	}
+	public void setDescriptions(Map<String, String> descriptions) {
+		this._descriptions = descriptions;
+	}
+
+	public String getTitleForLang(String langCode) {
+		return getTextForLang(this.getTitles(), langCode);
+	}
+
+	public String getDescriptionForLang(String langCode) {
+		return getTextForLang(this.getDescriptions(), langCode);
+	}
+
+	public boolean hasDescription() {
+		return !this.getDescriptions().isEmpty();
+	}
+
+	private static String getTextForLang(Map<String, String> texts, String langCode) {
+		String text = texts.get(langCode);
+		if (null == text) {
+			text = texts.get(RssContentParser.NO_LANG);
+		}
+		return text;
+	}
+
+	private String _id;
+	private String _typeCode;
+	private Date _lastModified;
+	private String _xml;
+	private Map<String, String> _titles = new HashMap<String, String>();
+	private Map<String, String> _descriptions = new HashMap<String, String>();
+
+}
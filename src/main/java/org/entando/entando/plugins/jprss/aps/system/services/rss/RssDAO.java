@@ -26,8 +26,10 @@ package org.entando.entando.plugins.jprss.aps.system.services.rss;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -68,6 +70,8 @@ public class RssDAO extends AbstractDAO implements IRssDAO {
 			} else {
 				stat.setNull(9, Types.INTEGER);
 			}
+			this.setLastModified(stat, 10, channel.getLastModified());
+			this.setMaxConcurrency(stat, 11, channel.getMaxConcurrentRequests());
 			stat.executeUpdate();
 			conn.commit();
 		} catch (Throwable t) {
@@ -103,7 +107,9 @@ public class RssDAO extends AbstractDAO implements IRssDAO {
 			} else {
 				stat.setNull(8, Types.INTEGER);
 			}
-			stat.setInt(9, channel.getId());
+			this.setLastModified(stat, 9, channel.getLastModified());
+			this.setMaxConcurrency(stat, 10, channel.getMaxConcurrentRequests());
+			stat.setInt(11, channel.getId());
 			stat.executeUpdate();
 			conn.commit();
 		} catch (Throwable t) {
@@ -114,6 +120,47 @@ public class RssDAO extends AbstractDAO implements IRssDAO {
 		}
 	}
 	
+	@Override
+	public void updateLastModified(String contentType, Date lastModified) {
+		Connection conn = null;
+		PreparedStatement stat = null;
+		try {
+			conn = this.getConnection();
+			conn.setAutoCommit(false);
+			if (null == contentType) {
+				stat = conn.prepareStatement(UPDATE_LAST_MODIFIED);
+			} else {
+				stat = conn.prepareStatement(UPDATE_LAST_MODIFIED_BY_CONTENT_TYPE);
+				stat.setString(2, contentType);
+			}
+			this.setLastModified(stat, 1, lastModified);
+			stat.executeUpdate();
+			conn.commit();
+		} catch (Throwable t) {
+			this.executeRollback(conn);
+			_logger.error("Error updating the last modification of the channels of content type {}", contentType, t);
+			throw new RuntimeException("Error updating the last modification of the channels", t);
+		} finally {
+			closeDaoResources(null, stat, conn);
+		}
+	}
+	
+	private void setLastModified(PreparedStatement stat, int index, Date lastModified) throws Throwable {
+		if (null != lastModified) {
+			stat.setTimestamp(index, new Timestamp(lastModified.getTime()));
+		} else {
+			stat.setNull(index, Types.TIMESTAMP);
+		}
+	}
+	
+	private void setMaxConcurrency(PreparedStatement stat, int index, int maxConcurrency) throws Throwable {
+		if (maxConcurrency >= 0) {
+			stat.setInt(index, maxConcurrency);
+		} else {
+			stat.setNull(index, Types.INTEGER);
+		}
+	}
+	
 	@Override
 	public void deleteChannel(int id) {
 		Connection conn = null;
@@ -200,6 +247,14 @@ public class RssDAO extends AbstractDAO implements IRssDAO {
 			if (maxContentSize > 0) {
 				channel.setMaxContentsSize(maxContentSize);
 			}
+			Timestamp lastModified = res.getTimestamp("lastmodified");
+			if (null != lastModified) {
+				channel.setLastModified(new Date(lastModified.getTime()));
+			}
+			int maxConcurrency = res.getInt("maxconcurrency");
+			if (!res.wasNull()) {
+				channel.setMaxConcurrentRequests(maxConcurrency);
+			}
 		} catch (Throwable t) {
 			_logger.error("Error creating a channel from resultset");
 			throw new Throwable("Error creating a channel from resultset", t);
@@ -208,16 +263,20 @@ public class RssDAO extends AbstractDAO implements IRssDAO {
 	}
 	
 	private static final String ADD_CHANNEL = 
-		"INSERT INTO jprss_channel (id, title, description, active, contentType, category, filters, feedtype, maxcontentsize) " +
-		"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+		"INSERT INTO jprss_channel (id, title, description, active, contentType, category, filters, feedtype, maxcontentsize, lastmodified, maxconcurrency) " +
+		"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 	
 	private static final String DELETE_CHANNEL = "DELETE FROM jprss_channel WHERE id = ?";
 	
 	private static final String UPDATE_CHANNEL = 
-		"UPDATE jprss_channel SET title =?, description=?, active=?, contentType=?, category=?, filters=?, feedtype=?, maxcontentsize=? WHERE id=?";
+		"UPDATE jprss_channel SET title =?, description=?, active=?, contentType=?, category=?, filters=?, feedtype=?, maxcontentsize=?, lastmodified=?, maxconcurrency=? WHERE id=?";
+	
+	private static final String UPDATE_LAST_MODIFIED = "UPDATE jprss_channel SET lastmodified = ?";
+	
+	private static final String UPDATE_LAST_MODIFIED_BY_CONTENT_TYPE = UPDATE_LAST_MODIFIED + " WHERE contentType = ?";
 	
 	private static final String LOAD_CHANNELS_BASE_BLOCK = 
-		"SELECT id, title, description, active, contentType, category, filters, feedtype, maxcontentsize from jprss_channel ";
+		"SELECT id, title, description, active, contentType, category, filters, feedtype, maxcontentsize, lastmodified, maxconcurrency from jprss_channel ";
 	
 	private static final String LOAD_CHANNELS_ORDER_BLOCK = "ORDER BY description ";
 	
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.agiletec.aps.system.common.AbstractDAO;
+
+/**
+ * Data Access Object for the feed entries projection.
+ */
+public class RssEntryDAO extends AbstractDAO implements IRssEntryDAO {
+
+	private static final Logger _logger = LoggerFactory.getLogger(RssEntryDAO.class);
+
+	@Override
+	public Map<String, RssEntryRecord> loadEntries(List<String> contentsId, String langCode) {
+		Map<String, RssEntryRecord> entries = new HashMap<String, RssEntryRecord>();
+		if (null == contentsId || contentsId.isEmpty()) {
+			return entries;
+		}
+		Connection conn = null;
+		try {
+			conn = this.getConnection();
+			for (int start = 0; start < contentsId.size(); start += MAX_IDS_PER_QUERY) {
+				int end = Math.min(start + MAX_IDS_PER_QUERY, contentsId.size());
+				this.loadEntries(conn, contentsId.subList(start, end), langCode, entries);
+			}
+		} catch (Throwable t) {
+			_logger.error("Error loading feed entries", t);
+			throw new RuntimeException("Error loading feed entries", t);
+		} finally {
+			closeConnection(conn);
+		}
+		return entries;
+	}
+
+	private void loadEntries(Connection conn, List<String> contentsId, String langCode, Map<String, RssEntryRecord> entries) throws Throwable {
+		PreparedStatement stat = null;
+		ResultSet res = null;
+		try {
+			StringBuilder query = new StringBuilder(LOAD_ENTRIES_BASE_BLOCK);
+			for (int i = 0; i < contentsId.size(); i++) {
+				query.append((i == 0) ? "?" : ", ?");
+			}
+			query.append(")");
+			stat = conn.prepareStatement(query.toString());
+			int index = 1;
+			stat.setString(index++, langCode);
+			for (int i = 0; i < contentsId.size(); i++) {
+				stat.setString(index++, contentsId.get(i));
+			}
+			res = stat.executeQuery();
+			while (res.next()) {
+				RssEntryRecord entry = new RssEntryRecord();
+				entry.setContentId(res.getString("contentid"));
+				entry.setLangCode(res.getString("langcode"));
+				entry.setContentType(res.getString("contenttype"));
+				entry.setTitle(res.getString("title"));
+				entry.setDescription(res.getString("description"));
+				entry.setViewPage(res.getString("viewpage"));
+				Timestamp lastModified = res.getTimestamp("lastmodified");
+				if (null != lastModified) {
+					entry.setLastModified(new java.util.Date(lastModified.getTime()));
+				}
+				entries.put(entry.getContentId(), entry);
+			}
+		} finally {
+			closeDaoResources(res, stat);
+		}
+	}
+
+	@Override
+	public long getLastModified(List<String> contentsId, String langCode) {
+		long lastModified = 0;
+		if (null == contentsId || contentsId.isEmpty()) {
+			return lastModified;
+		}
+		Connection conn = null;
+		PreparedStatement stat = null;
+		ResultSet res = null;
+		try {
+			conn = this.getConnection();
+			for (int start = 0; start < contentsId.size(); start += MAX_IDS_PER_QUERY) {
+				List<String> ids = contentsId.subList(start, Math.min(start + MAX_IDS_PER_QUERY, contentsId.size()));
+				StringBuilder query = new StringBuilder(LOAD_LAST_MODIFIED_BASE_BLOCK);
+				for (int i = 0; i < ids.size(); i++) {
+					query.append((i == 0) ? "?" : ", ?");
+				}
+				query.append(")");
+				stat = conn.prepareStatement(query.toString());
+				int index = 1;
+				stat.setString(index++, langCode);
+				for (int i = 0; i < ids.size(); i++) {
+					stat.setString(index++, ids.get(i));
+				}
+				res = stat.executeQuery();
+				if (res.next()) {
+					Timestamp max = res.getTimestamp(1);
+					if (null != max && max.getTime() > lastModified) {
+						lastModified = max.getTime();
+					}
+				}
+				closeDaoResources(res, stat);
+				res = null;
+				stat = null;
+			}
+		} catch (Throwable t) {
+			_logger.error("Error loading the last modification of feed entries", t);
+			throw new RuntimeException("Error loading the last modification of feed entries", t);
+		} finally {
+			closeDaoResources(res, stat, conn);
+		}
+		return lastModified;
+	}
+
+	/**
+	 * Saves the entries without a transaction spanning them: every entry replaces the stored one 
+	 * only if not newer, so an entry built from an older version of a content, e.g. by a request 
+	 * that read the content before a publication, doesn't overwrite the entry of the publication. 
+	 * An entry of the same date replaces the stored one: two publications within the precision 
+	 * of the modify date keep the last one. 
+	 * The missing entries are inserted; an entry inserted meanwhile by a concurrent save 
+	 * violates the unique key and is left as it is.
+	 */
+	@Override
+	public void saveEntries(List<RssEntryRecord> entries) {
+		if (null == entries || entries.isEmpty()) {
+			return;
+		}
+		Connection conn = null;
+		PreparedStatement stat = null;
+		try {
+			conn = this.getConnection();
+			conn.setAutoCommit(true);
+			stat = conn.prepareStatement(UPDATE_ENTRY_IF_OLDER);
+			for (int i = 0; i < entries.size(); i++) {
+				RssEntryRecord entry = entries.get(i);
+				int index = this.setEntryValues(stat, entry, 1);
+				stat.setString(index++, entry.getContentId());
+				stat.setString(index++, entry.getLangCode());
+				this.setLastModified(stat, index, entry);
+				stat.addBatch();
+			}
+			int[] updated = stat.executeBatch();
+			stat.close();
+			stat = null;
+			for (int i = 0; i < entries.size(); i++) {
+				if (updated[i] == 0 || updated[i] == Statement.SUCCESS_NO_INFO) {
+					// missing, or newer than the entry
+					stat = this.insertEntry(conn, stat, entries.get(i));
+				}
+			}
+		} catch (Throwable t) {
+			_logger.error("Error saving feed entries", t);
+			throw new RuntimeException("Error saving feed entries", t);
+		} finally {
+			closeDaoResources(null, stat, conn);
+		}
+	}
+
+	private PreparedStatement insertEntry(Connection conn, PreparedStatement stat, RssEntryRecord entry) throws SQLException {
+		if (null == stat) {
+			stat = conn.prepareStatement(ADD_ENTRY);
+		}
+		stat.setString(1, entry.getContentId());
+		stat.setString(2, entry.getLangCode());
+		this.setEntryValues(stat, entry, 3);
+		try {
+			stat.executeUpdate();
+		} catch (SQLException e) {
+			if (!isUniqueViolation(e)) {
+				throw e;
+			}
+			_logger.debug("The feed entry of content {} lang {} is already saved", entry.getContentId(), entry.getLangCode());
+		}
+		return stat;
+	}
+
+	/**
+	 * Sets the content type, title, description, view page and last modify date of an entry.
+	 * @return the index of the next parameter
+	 */
+	private int setEntryValues(PreparedStatement stat, RssEntryRecord entry, int index) throws SQLException {
+		stat.setString(index++, entry.getContentType());
+		stat.setString(index++, entry.getTitle());
+		if (null != entry.getDescription()) {
+			stat.setString(index++, entry.getDescription());
+		} else {
+			stat.setNull(index++, Types.VARCHAR);
+		}
+		stat.setString(index++, entry.getViewPage());
+		this.setLastModified(stat, index++, entry);
+		return index;
+	}
+
+	private void setLastModified(PreparedStatement stat, int index, RssEntryRecord entry) throws SQLException {
+		if (null != entry.getLastModified()) {
+			stat.setTimestamp(index, new Timestamp(entry.getLastModified().getTime()));
+		} else {
+			stat.setNull(index, Types.TIMESTAMP);
+		}
+	}
+
+	/**
+	 * Whether an error is the violation of an integrity constraint (SQLSTATE class 23).
+	 */
+	private static boolean isUniqueViolation(SQLException e) {
+		return (e instanceof SQLIntegrityConstraintViolationException) 
+				|| (null != e.getSQLState() && e.getSQLState().startsWith("23"));
+	}
+
+	@Override
+	public void deleteEntries(String contentId) {
+		Connection conn = null;
+		PreparedStatement stat = null;
+		try {
+			conn = this.getConnection();
+			conn.setAutoCommit(false);
+			stat = conn.prepareStatement(DELETE_ENTRIES);
+			stat.setString(1, contentId);
+			stat.executeUpdate();
+			conn.commit();
+		} catch (Throwable t) {
+			this.executeRollback(conn);
+			_logger.error("Error deleting feed entries of content {}", contentId, t);
+			throw new RuntimeException("Error deleting feed entries", t);
+		} finally {
+			closeDaoResources(null, stat, conn);
+		}
+	}
+
+	@Override
+	public void deleteAllEntries() {
+		Connection conn = null;
+		PreparedStatement stat = null;
+		try {
+			conn = this.getConnection();
+			conn.setAutoCommit(false);
+			stat = conn.prepareStatement(DELETE_ALL_ENTRIES);
+			stat.executeUpdate();
+			conn.commit();
+		} catch (Throwable t) {
+			this.executeRollback(conn);
+			_logger.error("Error deleting feed entries", t);
+			throw new RuntimeException("Error deleting feed entries", t);
+		} finally {
+			closeDaoResources(null, stat, conn);
+		}
+	}
+
+	private static final int MAX_IDS_PER_QUERY = RssContentDAO.MAX_IDS_PER_QUERY;
+
+	private static final String LOAD_ENTRIES_BASE_BLOCK = 
+		"SELECT contentid, langcode, contenttype, title, description, viewpage, lastmodified FROM jprss_entry " + 
+		"WHERE langcode = ? AND contentid IN (";
+
+	private static final String LOAD_LAST_MODIFIED_BASE_BLOCK = 
+		"SELECT MAX(lastmodified) FROM jprss_entry WHERE langcode = ? AND contentid IN (";
+
+	private static final String ADD_ENTRY = 
+		"INSERT INTO jprss_entry (contentid, langcode, contenttype, title, description, viewpage, lastmodified) " + 
+		"VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String UPDATE_ENTRY_IF_OLDER = 
+		"UPDATE jprss_entry SET contenttype = ?, title = ?, description = ?, viewpage = ?, lastmodified = ? " + 
+		"WHERE contentid = ? AND langcode = ? AND (lastmodified IS NULL OR lastmodified <= ?)";
+
+	private static final String DELETE_ENTRIES = "DELETE FROM jprss_entry WHERE contentid = ?";
+
+	private static final String DELETE_ALL_ENTRIES = "DELETE FROM jprss_entry";
+
+}
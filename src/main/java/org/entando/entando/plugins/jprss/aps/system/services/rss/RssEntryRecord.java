@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Date;
+
+/**
+ * A row of the feed entries projection: the data of a content, in a lang, 
+ * needed to build a feed entry.
+ */
+public class RssEntryRecord {
+
+	public String getContentId() {
+		return _contentId;
+	}
+	public void setContentId(String contentId) {
+		this._contentId = contentId;
+	}
+
+	public String getLangCode() {
+		return _langCode;
+	}
+	public void setLangCode(String langCode) {
+		this._langCode = langCode;
+	}
+
+	public String getContentType() {
+		return _contentType;
+	}
+	public void setContentType(String contentType) {
+		this._contentType = contentType;
+	}
+
+	/**
+	 * The title in the lang of the record, or in the default lang if missing.
+	 * @return the title of the entry
+	 */
+	public String getTitle() {
+		return _title;
+	}
+	public void setTitle(String title) {
+		this._title = title;
+	}
+
+	/**
+	 * The description in the lang of the record, or in the default lang if missing.
+	 * The symbolic links of the text are not resolved, because the resolution 
+	 * depends on the request; null if the content type has no description.
+	 * @return the description of the entry
+	 */
+	public String getDescription() {
+		return _description;
+	}
+	public void setDescription(String description) {
+		this._description = description;
+	}
+
+	/**
+	 * The code of the page configured to show the content.
+	 * @return the code of the view page
+	 */
+	public String getViewPage() {
+		return _viewPage;
+	}
+	public void setViewPage(String viewPage) {
+		this._viewPage = viewPage;
+	}
+
+	public Date getLastModified() {
+		return _lastModified;
+	}
+	public void setLastModified(Date lastModified) {
+		this._lastModified = lastModified;
+	}
+
+	private String _contentId;
+	private String _langCode;
+	private String _contentType;
+	private String _title;
+	private String _description;
+	private String _viewPage;
+	private Date _lastModified;
+
+}
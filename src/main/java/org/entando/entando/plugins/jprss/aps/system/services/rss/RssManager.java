@@ -21,47 +21,70 @@
  */
 package org.entando.entando.plugins.jprss.aps.system.services.rss;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.entando.entando.plugins.jprss.aps.system.services.JpRssSystemConstants;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.ChannelMetrics;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.FeedMetrics;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.FeedPhase;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.event.ChannelChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.agiletec.aps.system.RequestContext;
+import com.agiletec.aps.system.SystemConstants;
 import com.agiletec.aps.system.common.AbstractService;
 import com.agiletec.aps.system.common.entity.event.EntityTypesChangingEvent;
 import com.agiletec.aps.system.common.entity.event.EntityTypesChangingObserver;
 import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
 import com.agiletec.aps.system.common.entity.model.IApsEntity;
 import com.agiletec.aps.system.common.entity.model.attribute.AttributeInterface;
-import com.agiletec.aps.system.common.entity.model.attribute.ITextAttribute;
 import com.agiletec.aps.system.exception.ApsSystemException;
 import com.agiletec.aps.system.services.baseconfig.ConfigInterface;
-import com.agiletec.aps.system.services.group.Group;
 import com.agiletec.aps.system.services.keygenerator.IKeyGeneratorManager;
+import com.agiletec.aps.system.services.lang.ILangManager;
+import com.agiletec.aps.system.services.lang.Lang;
 import com.agiletec.aps.system.services.page.IPageManager;
+import com.agiletec.aps.system.services.page.events.PageChangedEvent;
+import com.agiletec.aps.system.services.page.events.PageChangedObserver;
 import com.agiletec.plugins.jacms.aps.system.JacmsSystemConstants;
 import com.agiletec.plugins.jacms.aps.system.services.content.IContentManager;
+import com.agiletec.plugins.jacms.aps.system.services.content.event.PublicContentChangedEvent;
+import com.agiletec.plugins.jacms.aps.system.services.content.event.PublicContentChangedObserver;
 import com.agiletec.plugins.jacms.aps.system.services.content.model.Content;
-import com.agiletec.plugins.jacms.aps.system.services.content.model.ContentRecordVO;
 import com.agiletec.plugins.jacms.aps.system.services.content.model.SmallContentType;
 import com.agiletec.plugins.jacms.aps.system.services.content.model.SymbolicLink;
 import com.agiletec.plugins.jacms.aps.system.services.content.widget.util.FilterUtils;
 import com.agiletec.plugins.jacms.aps.system.services.linkresolver.ILinkResolverManager;
-import com.rometools.rome.feed.synd.SyndContent;
-import com.rometools.rome.feed.synd.SyndContentImpl;
 import com.rometools.rome.feed.synd.SyndEntry;
-import com.rometools.rome.feed.synd.SyndEntryImpl;
 import com.rometools.rome.feed.synd.SyndFeed;
 import com.rometools.rome.feed.synd.SyndFeedImpl;
+import com.rometools.rome.feed.synd.SyndLink;
+import com.rometools.rome.feed.synd.SyndLinkImpl;
+import com.rometools.rome.io.SyndFeedOutput;
 import org.entando.entando.ent.exception.EntException;
 
 /**
@@ -69,7 +92,8 @@ import org.entando.entando.ent.exception.EntException;
  * 
  * @author S.Puddu - E.Santoboni
  */
-public class RssManager extends AbstractService implements IRssManager, EntityTypesChangingObserver {
+public class RssManager extends AbstractService 
+		implements IRssManager, EntityTypesChangingObserver, PublicContentChangedObserver, PageChangedObserver {
 
 	private static final Logger _logger = LoggerFactory.getLogger(RssManager.class);
 
@@ -77,12 +101,50 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 	public void init() throws Exception {
 		try {
 			this.loadMappingConfig();
+			this.reloadChannels();
+			if (this.getEntryBuilderThreads() > 0) {
+				this.setEntryBuilderPool(new EntryBuilderPool(this.getEntryBuilderThreads(), this.isUseVirtualThreads()));
+			}
+			if (this.getRefreshThreads() > 0) {
+				this.setRefreshScheduler(this.createRefreshScheduler());
+			}
 			_logger.debug("{} ready", this.getClass().getName());
 		} catch (Throwable t) {
 			_logger.error("{} Manager: Error on initialization", this.getClass().getName(), t);
 		}
 	}
 
+	@Override
+	public void destroy() {
+		this.release();
+	}
+
+	/**
+	 * Shuts down the entry builder pool and the refresh scheduler, 
+	 * so that a refresh of the service creates them again without leaking their threads.
+	 */
+	@Override
+	protected void release() {
+		if (null != this.getRefreshScheduler()) {
+			this.getRefreshScheduler().shutdown();
+			this.setRefreshScheduler(null);
+		}
+		if (null != this.getEntryBuilderPool()) {
+			this.getEntryBuilderPool().shutdown();
+			this.setEntryBuilderPool(null);
+		}
+	}
+
+	protected FeedRefreshScheduler createRefreshScheduler() {
+		return new FeedRefreshScheduler(this.getRefreshThreads(), this.getHotFeedThreshold(), 
+				this.getAccessWindowSeconds() * 1000L, new FeedRefreshScheduler.Refresher() {
+			@Override
+			public boolean refresh(int channelId, String lang, String feedType, String feedLink, String scope) throws Throwable {
+				return refreshFeed(channelId, lang, feedType, feedLink, scope);
+			}
+		});
+	}
+
 	@Override
 	public void updateFromEntityTypesChanging(EntityTypesChangingEvent event) {
 		if (!event.getEntityManagerName().equals(JacmsSystemConstants.CONTENT_MANAGER)) {
@@ -93,6 +155,69 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 		} catch (Throwable t) {
 			_logger.error("error loading Rss Content Config", t);
 		}
+		this.touchChannels(null);
+		this.getFilterPlans().clear();
+		this.getContentIdCache().clear();
+		this.getFeedEntriesCache().clear();
+		this.getArchiveFeedCache().clear();
+		this.getRenderedFeedCache().clear();
+		this.getLargeFeeds().clear();
+		if (null != this.getRefreshScheduler()) {
+			this.getRefreshScheduler().clearStale();
+		}
+		try {
+			this.getRssEntryDAO().deleteAllEntries();
+		} catch (Throwable t) {
+			_logger.error("error clearing the feed entries projection", t);
+		}
+	}
+
+	@Override
+	public void updateFromPublicContentChanged(PublicContentChangedEvent event) {
+		Content content = event.getContent();
+		if (null == content) {
+			return;
+		}
+		if (this.getContentMapping().containsKey(content.getTypeCode())) {
+			this.updateEntryRecords(content.getId(), event.getOperationCode());
+		}
+		this.touchChannels(content.getTypeCode());
+		this.getContentIdCache().evictContentType(content.getTypeCode());
+		this.getFeedEntriesCache().evictContentType(content.getTypeCode());
+		this.scheduleRefresh(this.recordEvictions(this.getRenderedFeedCache().evictContentType(content.getTypeCode())));
+		this.getResolvedLinkCache().clear();
+	}
+
+	/**
+	 * The links of the entries point to the pages of the portal: when a page changes 
+	 * every feed is rendered again, and its stale copy is no longer served.
+	 */
+	@Override
+	public void updateFromPageChanged(PageChangedEvent event) {
+		this.touchChannels(null);
+		this.getResolvedLinkCache().clear();
+		this.getFeedEntriesCache().clear();
+		this.getArchiveFeedCache().clear();
+		this.getRenderedFeedCache().clear();
+		if (null != this.getRefreshScheduler()) {
+			this.getRefreshScheduler().clearStale();
+		}
+	}
+
+	private void updateEntryRecords(String contentId, int operationCode) {
+		try {
+			List<RssEntryRecord> entries = null;
+			if (operationCode != PublicContentChangedEvent.REMOVE_OPERATION_CODE) {
+				entries = this.buildEntryRecords(Arrays.asList(contentId));
+			}
+			if (null == entries || entries.isEmpty()) {
+				this.getRssEntryDAO().deleteEntries(contentId);
+			} else {
+				this.getRssEntryDAO().saveEntries(entries);
+			}
+		} catch (Throwable t) {
+			_logger.error("Error updating the feed entries of content {}", contentId, t);
+		}
 	}
 
 	private void loadMappingConfig() throws ApsSystemException {
@@ -125,9 +250,14 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 	@Override
 	public void addChannel(Channel channel) throws ApsSystemException {
 		try {
-			int key = getKeyGeneratorManager().getUniqueKeyCurrentValue();
-			channel.setId(key);
-			this.getRssDAO().addChannel(channel);
+			synchronized (this._channelsLock) {
+				int key = getKeyGeneratorManager().getUniqueKeyCurrentValue();
+				channel.setId(key);
+				channel.setLastModified(new Date());
+				this.getRssDAO().addChannel(channel);
+				this.reloadChannels();
+			}
+			this.notifyEvent(new ChannelChangedEvent(channel.getId(), ChannelChangedEvent.INSERT_OPERATION_CODE));
 		} catch (Throwable t) {
 			_logger.error("Error adding a new channel", t);
 			throw new ApsSystemException("Error adding a new channel", t);
@@ -137,7 +267,16 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 	@Override
 	public void deleteChannel(int id) throws ApsSystemException {
 		try {
-			this.getRssDAO().deleteChannel(id);
+			synchronized (this._channelsLock) {
+				this.getRssDAO().deleteChannel(id);
+				this.reloadChannels();
+			}
+			this.evictFilterPlans(id);
+			this.getFeedEntriesCache().evictChannel(id);
+			this.getArchiveFeedCache().evictChannel(id);
+			this.getRenderedFeedCache().evictChannel(id);
+			this.getFeedMetrics().removeChannel(id);
+			this.notifyEvent(new ChannelChangedEvent(id, ChannelChangedEvent.REMOVE_OPERATION_CODE));
 		} catch (Throwable t) {
 			_logger.error("Error deleting the channel with code ", id, t);
 			throw new ApsSystemException("Error deleting the channel with code: " + id, t);
@@ -147,7 +286,16 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 	@Override
 	public void updateChannel(Channel channel) throws ApsSystemException {
 		try {
-			this.getRssDAO().updateChannel(channel);
+			synchronized (this._channelsLock) {
+				channel.setLastModified(new Date());
+				this.getRssDAO().updateChannel(channel);
+				this.reloadChannels();
+			}
+			this.evictFilterPlans(channel.getId());
+			this.getFeedEntriesCache().evictChannel(channel.getId());
+			this.getArchiveFeedCache().evictChannel(channel.getId());
+			this.scheduleRefresh(this.recordEvictions(this.getRenderedFeedCache().evictChannel(channel.getId())));
+			this.notifyEvent(new ChannelChangedEvent(channel.getId(), ChannelChangedEvent.UPDATE_OPERATION_CODE));
 		} catch (Throwable t) {
 			_logger.error("Error updating a channel", t);
 			throw new ApsSystemException("Error updating a channel", t);
@@ -158,7 +306,7 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 	public List<Channel> getChannels(int status) throws ApsSystemException {
 		List<Channel> channels = null;
 		try {
-			channels = this.getRssDAO().getChannels(status);
+			channels = this.getChannelRegistry().getChannels(status);
 		} catch (Throwable t) {
 			_logger.error("Error getting the list of the channels by status {}", status, t);
 			throw new ApsSystemException("Error getting the list of the channels", t);
@@ -170,7 +318,7 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 	public Channel getChannel(int id) throws ApsSystemException {
 		Channel channel = null;
 		try {
-			channel = this.getRssDAO().getChannel(id);
+			channel = this.getChannelRegistry().getChannel(id);
 		} catch (Throwable t) {
 			_logger.error("Error loading channel with id {}", id, t);
 			throw new ApsSystemException("Error loading channel with id" + id, t);
@@ -178,6 +326,111 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 		return channel;
 	}
 
+	@Override
+	public String getAutodiscoveryLinks(String langCode, String baseUrl) throws ApsSystemException {
+		String key = langCode + "|" + baseUrl;
+		String links = this.getAutodiscoveryLinksCache().get(key);
+		if (null != links) {
+			return links;
+		}
+		try {
+			ChannelRegistry registry = this.getChannelRegistry();
+			links = this.createAutodiscoveryLinks(registry.getChannels(Channel.STATUS_ACTIVE), langCode, baseUrl);
+			this.getAutodiscoveryLinksCache().put(key, links);
+			if (registry != this._channelRegistry) {
+				// the channels changed while building the links
+				this.getAutodiscoveryLinksCache().remove(key, links);
+			}
+		} catch (Throwable t) {
+			_logger.error("Error building the autodiscovery links", t);
+			throw new ApsSystemException("Error building the autodiscovery links", t);
+		}
+		return links;
+	}
+
+	private String createAutodiscoveryLinks(List<Channel> channels, String langCode, String baseUrl) {
+		StringBuilder links = new StringBuilder();
+		for (int i = 0; i < channels.size(); i++) {
+			Channel channel = channels.get(i);
+			String mimeType = FeedFormats.getMimeType(channel.getFeedType());
+			if (null == mimeType) {
+				continue;
+			}
+			links.append("<link rel=\"alternate\" type=\"").append(mimeType)
+					.append("\" title=\"").append(escapeHtml(channel.getTitle()))
+					.append("\" href=\"").append(escapeHtml(baseUrl)).append("do/jprss/Rss/Feed/show.action?id=").append(channel.getId())
+					.append("&amp;lang=").append(escapeHtml(langCode)).append("\" />\n");
+		}
+		return links.toString();
+	}
+
+	private static String escapeHtml(String text) {
+		if (null == text) {
+			return "";
+		}
+		StringBuilder escaped = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+				case '&': escaped.append("&amp;"); break;
+				case '<': escaped.append("&lt;"); break;
+				case '>': escaped.append("&gt;"); break;
+				case '"': escaped.append("&#034;"); break;
+				case '\'': escaped.append("&#039;"); break;
+				default: escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	/**
+	 * Stores the date of a change of what the feeds are rendered from 
+	 * in the channels serving the given content type, or in all the channels.
+	 * @param contentType the code of the content type, null for all the channels
+	 */
+	private void touchChannels(String contentType) {
+		try {
+			synchronized (this._channelsLock) {
+				List<Channel> channels = this.getChannelRegistry().getChannels(Channel.STATUS_ALL);
+				for (int i = 0; i < channels.size(); i++) {
+					if (null == contentType || contentType.equals(channels.get(i).getContentType())) {
+						this.getRssDAO().updateLastModified(contentType, new Date());
+						this.reloadChannels();
+						return;
+					}
+				}
+			}
+		} catch (Throwable t) {
+			_logger.error("Error updating the last modification of the channels of content type {}", contentType, t);
+		}
+	}
+
+	/**
+	 * Returns the snapshot of the channels, loading it on first use.
+	 */
+	protected ChannelRegistry getChannelRegistry() throws Throwable {
+		ChannelRegistry registry = this._channelRegistry;
+		if (null == registry) {
+			synchronized (this._channelsLock) {
+				if (null == this._channelRegistry) {
+					this.reloadChannels();
+				}
+				registry = this._channelRegistry;
+			}
+		}
+		return registry;
+	}
+
+	/**
+	 * Loads all the channels and replaces the snapshot.
+	 */
+	private void reloadChannels() throws Throwable {
+		synchronized (this._channelsLock) {
+			this._channelRegistry = new ChannelRegistry(this.getRssDAO().getChannels(Channel.STATUS_ALL));
+			this.getAutodiscoveryLinksCache().clear();
+		}
+	}
+
 	private EntitySearchFilter[] getEntitySearchFilter(Channel channel, String langCode) {
 		String contentTypeCode = channel.getContentType();
 		String widgetParam = channel.getFilters();
@@ -195,88 +448,1075 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 	@Override
 	public SyndFeed getSyndFeed(Channel channel, String lang, String feedLink, HttpServletRequest req, HttpServletResponse resp)
 			throws EntException {
-		SyndFeed feed = null;
-		if (null == feed) {
-			feed = new SyndFeedImpl();
-			feed.setFeedType(channel.getFeedType());
-			feed.setTitle(channel.getTitle());
-			feed.setLink(feedLink);
-			feed.setDescription(channel.getDescription());
-			List<String> contentsId = this.getContentsId(channel, lang);
-			feed.setEntries(this.getEntries(contentsId, lang, feedLink, req, resp));
+		SyndFeed feed = this.createFeedHeader(channel, channel.getFeedType(), feedLink, this.getLastModified(channel, lang));
+		List<String> contentsId = this.getContentsId(channel, lang);
+		feed.setEntries(this.toSyndEntries(this.getEntries(this.getFeedMetrics().get(channel.getId(), lang), contentsId, lang, 
+				feedLink, this.createLinkResolver(feedLink, req, resp))));
+		return feed;
+	}
+
+	/**
+	 * Creates the resolver of the symbolic links of a feed build. The links resolved 
+	 * are shared with the builds of the same feed link requested from the same origin.
+	 */
+	private FeedLinkResolver createLinkResolver(String feedLink, HttpServletRequest req, HttpServletResponse resp) {
+		return new FeedLinkResolver(this.getLinkResolver(), req, resp, this.getResolvedLinkCache(), this.getLinkScope(feedLink, req));
+	}
+
+	/**
+	 * Returns the scope of the links of a feed: the feed link and, for the feeds rendered for a request, 
+	 * the origin of the request. The rendered feeds are cached and shared only within their scope.
+	 */
+	private String getLinkScope(String feedLink, HttpServletRequest req) {
+		StringBuilder scope = new StringBuilder(feedLink);
+		if (null != req) {
+			scope.append("|").append(req.getScheme()).append("://").append(req.getServerName()).append(":").append(req.getServerPort());
+		}
+		return scope.toString();
+	}
+
+	/**
+	 * Creates the header of a feed. The date of the feed is the last modification 
+	 * of the channel and its contents, not the time of the rendering.
+	 */
+	private SyndFeed createFeedHeader(Channel channel, String feedType, String feedLink, long lastModified) {
+		SyndFeed feed = new SyndFeedImpl();
+		feed.setFeedType(feedType);
+		feed.setTitle(channel.getTitle());
+		feed.setLink(feedLink);
+		feed.setDescription(channel.getDescription());
+		if (lastModified > 0) {
+			feed.setPublishedDate(new Date(lastModified));
 		}
 		return feed;
 	}
 
-	private List<SyndEntry> getEntries(List<String> contentsId, String lang, String feedLink, HttpServletRequest req,
-			HttpServletResponse resp) throws EntException {
-		List<SyndEntry> entries = new ArrayList<>();
+	private List<SyndEntry> toSyndEntries(List<FeedEntry> entries) {
+		List<SyndEntry> syndEntries = new ArrayList<SyndEntry>(entries.size());
+		for (int i = 0; i < entries.size(); i++) {
+			syndEntries.add(entries.get(i).toSyndEntry());
+		}
+		return syndEntries;
+	}
+
+	@Override
+	public FeedValidator getFeedValidator(Channel channel, String lang) throws EntException {
+		return this.getFeedValidator(channel, lang, channel.getFeedType());
+	}
+
+	@Override
+	public FeedValidator getFeedValidator(Channel channel, String lang, String feedType) throws EntException {
+		return new FeedValidator(channel.getId(), lang, feedType, this.getLastModified(channel, lang));
+	}
+
+	@Override
+	public FeedValidator getFeedValidator(Channel channel, String lang, String feedType, FeedPage page) throws EntException {
+		if (page.isCurrent()) {
+			return this.getFeedValidator(channel, lang, feedType);
+		}
+		long lastModified = this.getLastModified(channel, lang);
+		if (page.isArchive()) {
+			RenderedFeed archive = this.getArchiveFeedCache().peek(channel.getId(), lang, feedType, page);
+			if (null != archive) {
+				lastModified = archive.getLastModified();
+			}
+		}
+		return new FeedValidator(channel.getId(), lang, feedType + "-" + page.getKey(), lastModified);
+	}
+
+	@Override
+	public boolean hasStableArchives(Channel channel, String lang) {
+		return this.getFilterPlan(channel, lang).isOrderStable();
+	}
+
+	/**
+	 * Returns the last modification time of the feeds of a channel in a lang, from the stored data only: 
+	 * the last change of the channel (see {@link Channel#getLastModified()}) and the last modification 
+	 * of its contents, loaded once for every list of contents. The validators built from it 
+	 * don't change on a restart or from a node to another. The feeds of a plan with relative dates 
+	 * are modified at least on the day the plan was compiled (see {@link ChannelFilterPlan#getValidFrom()}).
+	 */
+	private long getLastModified(Channel channel, String lang) throws EntException {
+		long lastModified = (null != channel.getLastModified()) ? channel.getLastModified().getTime() : 0;
+		lastModified = Math.max(lastModified, this.getFilterPlan(channel, lang).getValidFrom());
+		List<String> contentsId = this.getContentsId(channel, lang);
+		Long contentsLastModified = null;
+		if (contentsId instanceof ContentIdList) {
+			contentsLastModified = ((ContentIdList) contentsId).getLastModified(lang);
+		}
+		if (null == contentsLastModified) {
+			try {
+				contentsLastModified = this.getRssEntryDAO().getLastModified(contentsId, lang);
+			} catch (Throwable t) {
+				_logger.error("Error loading the last modification of the contents of channel {}", channel.getId(), t);
+				throw new EntException("Error loading the last modification of the contents of channel " + channel.getId(), t);
+			}
+			if (contentsId instanceof ContentIdList) {
+				((ContentIdList) contentsId).setLastModified(lang, contentsLastModified);
+			}
+		}
+		return Math.max(lastModified, contentsLastModified);
+	}
+
+	@Override
+	public RenderedFeed getRenderedFeed(Channel channel, String lang, String feedLink, HttpServletRequest req, HttpServletResponse resp)
+			throws EntException {
+		return this.getRenderedFeed(channel, lang, channel.getFeedType(), feedLink, req, resp);
+	}
+
+	@Override
+	public RenderedFeed getRenderedFeed(Channel channel, String lang, String feedType, String feedLink, 
+			HttpServletRequest req, HttpServletResponse resp) throws EntException {
+		RenderedFeed renderedFeed = this.getCachedFeed(channel, lang, feedType, this.getLinkScope(feedLink, req));
+		ChannelMetrics metrics = this.getFeedMetrics().get(channel.getId(), lang);
+		if (null != renderedFeed) {
+			metrics.recordCacheHit();
+			return renderedFeed;
+		}
+		metrics.recordCacheMiss();
+		return this.buildRenderedFeedOnce(channel, lang, feedType, feedLink, req, resp);
+	}
+
+	private RenderedFeed buildRenderedFeedOnce(Channel channel, String lang, String feedType, String feedLink, 
+			HttpServletRequest req, HttpServletResponse resp) throws EntException {
+		String key = RenderedFeedCache.createKey(channel.getId(), lang, feedType, this.getLinkScope(feedLink, req));
+		return this.buildOnce(this.getFeedBuilds(), key, () -> this.buildRenderedFeed(channel, lang, feedType, feedLink, req, resp), channel, lang);
+	}
+
+	/**
+	 * Runs a build of a feed, or waits for the same build started by another request.
+	 */
+	private <T> T buildOnce(SingleFlight<String, T> builds, String key, Callable<T> build, 
+			Channel channel, String lang) throws EntException {
+		try {
+			return builds.execute(key, build, this.getFeedBuildTimeout());
+		} catch (TimeoutException e) {
+			_logger.error("Timeout waiting for the feed of channel {} lang {}", channel.getId(), lang);
+			throw new EntException("Timeout waiting for the feed of channel " + channel.getId(), e);
+		} catch (EntException e) {
+			throw e;
+		} catch (Throwable t) {
+			_logger.error("Error building the feed of channel {} lang {}", channel.getId(), lang, t);
+			throw new EntException("Error building the feed of channel " + channel.getId(), t);
+		}
+	}
+
+	/**
+	 * Renders a missing feed and puts it in the cache. 
+	 * Only one build runs at a time for every channel, lang, feed type and scope of the links: 
+	 * the concurrent requests wait for it and share its result.
+	 * A streamed feed larger than the max cached feed size is not cached, 
+	 * and the next requests stream it without coalescing.
+	 */
+	private RenderedFeed buildRenderedFeed(Channel channel, String lang, String feedType, String feedLink, 
+			HttpServletRequest req, HttpServletResponse resp) throws EntException {
+		String scope = this.getLinkScope(feedLink, req);
+		RenderedFeed renderedFeed = this.getCachedFeed(channel, lang, feedType, scope);
+		if (null != renderedFeed) {
+			return renderedFeed;
+		}
+		long generation = this.getRenderedFeedCache().getGeneration();
+		renderedFeed = this.createRenderedFeed(channel, lang, feedType, feedLink, this.createLinkResolver(feedLink, req, resp));
+		String key = RenderedFeedCache.createKey(channel.getId(), lang, feedType, scope);
+		if (this.isStreamable(feedType) && renderedFeed.getLength() > this.getMaxCachedFeedSize()) {
+			this.getLargeFeeds().add(key);
+			this.getFeedEntriesCache().remove(channel.getId(), lang, this.getPageLimit(feedType));
+		} else {
+			this.getLargeFeeds().remove(key);
+			this.getRenderedFeedCache().put(renderedFeed, generation);
+		}
+		return renderedFeed;
+	}
+
+	@Override
+	public RenderedFeed renderFreshFeed(Channel channel, String lang, String feedType, String feedLink) throws EntException {
+		String scope = this.getLinkScope(feedLink, null);
+		this.recordEvictions(this.getRenderedFeedCache().evict(channel.getId(), lang, feedType, scope));
+		if (null != this.getRefreshScheduler()) {
+			this.getRefreshScheduler().removeStale(channel.getId(), lang, feedType, scope);
+		}
+		long generation = this.getRenderedFeedCache().getGeneration();
+		RenderedFeed renderedFeed = this.createRenderedFeed(channel, lang, feedType, feedLink, this.createLinkResolver(feedLink, null, null));
+		this.getRenderedFeedCache().put(renderedFeed, generation);
+		return renderedFeed;
+	}
+
+	private boolean isStreamable(String feedType) {
+		return this.isStreamingEnabled() && (StaxFeedWriter.isSupported(feedType) || JsonFeedWriter.isSupported(feedType));
+	}
+
+	/**
+	 * Whether a feed type is written by the {@link StaxFeedWriter} or by the {@link JsonFeedWriter}, 
+	 * rather than by Rome.
+	 */
+	private boolean usesFeedWriter(String feedType) {
+		return this.isStreamable(feedType) || JsonFeedWriter.isSupported(feedType);
+	}
+
+	/**
+	 * Whether the feeds of a type are paged: only the feed writers write the links between the documents.
+	 */
+	private boolean isPaged(String feedType) {
+		return this.getPageSize() > 0 && this.usesFeedWriter(feedType);
+	}
+
+	private int getPageLimit(String feedType) {
+		return this.isPaged(feedType) ? this.getPageSize() : 0;
+	}
+
+	@Override
+	public FeedStream getFeedStream(Channel channel, String lang, String feedLink, HttpServletRequest req, HttpServletResponse resp)
+			throws EntException {
+		return this.getFeedStream(channel, lang, channel.getFeedType(), feedLink, req, resp);
+	}
+
+	@Override
+	public FeedStream getFeedStream(Channel channel, String lang, String feedType, String feedLink, 
+			HttpServletRequest req, HttpServletResponse resp) throws EntException {
+		String scope = this.getLinkScope(feedLink, req);
+		if (null != this.getRefreshScheduler()) {
+			this.getRefreshScheduler().recordAccess(channel.getId(), lang, feedType, feedLink, scope);
+		}
+		RenderedFeed renderedFeed = this.getCachedFeed(channel, lang, feedType, scope);
+		ChannelMetrics metrics = this.getFeedMetrics().get(channel.getId(), lang);
+		if (null != renderedFeed) {
+			metrics.recordCacheHit();
+			return renderedFeed;
+		}
+		metrics.recordCacheMiss();
+		String key = RenderedFeedCache.createKey(channel.getId(), lang, feedType, scope);
+		if (!this.isStreamable(feedType) || !this.getLargeFeeds().contains(key)) {
+			return this.buildRenderedFeedOnce(channel, lang, feedType, feedLink, req, resp);
+		}
+		long generation = this.getRenderedFeedCache().getGeneration();
+		long lastModified = this.getLastModified(channel, lang);
+		List<String> contentsId = this.getContentsId(channel, lang);
+		SyndFeed header = this.createFeedHeader(channel, feedType, feedLink, lastModified);
+		this.addHubLinks(header, channel, lang, feedType);
+		if (this.isPaged(feedType)) {
+			this.addPageLinks(header, channel, lang, feedType, FeedPage.CURRENT, contentsId);
+			contentsId = this.getPageContentsId(contentsId, FeedPage.CURRENT);
+		}
+		return new StreamedFeed(channel, lang, header, feedLink, contentsId, generation, lastModified, 
+				this.createLinkResolver(feedLink, req, resp), metrics);
+	}
+
+	@Override
+	public FeedStream getFeedStream(Channel channel, String lang, String feedType, FeedPage page, String feedLink, 
+			HttpServletRequest req, HttpServletResponse resp) throws EntException {
+		if (page.isCurrent()) {
+			return this.getFeedStream(channel, lang, feedType, feedLink, req, resp);
+		}
+		if (!this.isPaged(feedType)) {
+			return null;
+		}
+		List<String> contentsId = this.getContentsId(channel, lang);
+		List<String> pageContentsId = this.getPageContentsId(contentsId, page);
+		if (null == pageContentsId) {
+			return null;
+		}
+		String scope = this.getLinkScope(feedLink, req);
+		RenderedFeed renderedFeed = null;
+		if (page.isArchive()) {
+			renderedFeed = this.getArchiveFeedCache().get(channel.getId(), lang, feedType, page, scope, pageContentsId);
+		}
+		ChannelMetrics metrics = this.getFeedMetrics().get(channel.getId(), lang);
+		if (null != renderedFeed) {
+			metrics.recordCacheHit();
+			return renderedFeed;
+		}
+		metrics.recordCacheMiss();
+		String key = RenderedFeedCache.createKey(channel.getId(), lang, feedType, page) + "|" + scope;
+		return this.buildOnce(this.getFeedBuilds(), key, 
+				() -> this.buildPagedFeed(channel, lang, feedType, page, contentsId, pageContentsId, feedLink, req, resp), channel, lang);
+	}
+
+	/**
+	 * Renders an archive or a cursor page of a paged feed. The archives are cached, up to maxCachedArchives, 
+	 * until their contents or their channel change. The cursor pages are not cached: 
+	 * every content of a channel starts a page, and the clients choose the cursor.
+	 */
+	private RenderedFeed buildPagedFeed(Channel channel, String lang, String feedType, FeedPage page, List<String> contentsId, 
+			List<String> pageContentsId, String feedLink, HttpServletRequest req, HttpServletResponse resp) throws EntException {
+		long generation = this.getArchiveFeedCache().getGeneration();
+		long lastModified = this.getLastModified(channel, lang);
+		ChannelMetrics metrics = this.getFeedMetrics().get(channel.getId(), lang);
+		FeedLinkResolver linkResolver = this.createLinkResolver(feedLink, req, resp);
+		List<FeedEntry> entries = this.getEntries(metrics, pageContentsId, lang, feedLink, linkResolver);
+		SyndFeed header = this.createFeedHeader(channel, feedType, feedLink, lastModified);
+		this.addPageLinks(header, channel, lang, feedType, page, contentsId);
+		long start = System.nanoTime();
+		byte[] body = this.writeFeed(header, entries);
+		metrics.recordPhase(FeedPhase.SERIALIZATION, System.nanoTime() - start);
+		metrics.recordRender(entries.size());
+		RenderedFeed renderedFeed = new RenderedFeed(channel.getId(), channel.getContentType(), lang, feedType, page, 
+				linkResolver.getScope(), FEED_ENCODING, lastModified, body, this.compressFeed(body));
+		if (page.isArchive()) {
+			this.getArchiveFeedCache().put(renderedFeed, pageContentsId, generation);
+		}
+		return renderedFeed;
+	}
+
+	/**
+	 * Returns the ids of the contents of a document of a paged feed. 
+	 * The current document holds the newest contents; the archives hold the contents 
+	 * counted from the oldest, and only the complete archives exist. 
+	 * The archives keep their contents only when the order of the channel is stable, 
+	 * see {@link ChannelFilterPlan#isOrderStable()}.
+	 * @return the ids of the contents of the page, null if the page does not exist
+	 */
+	private List<String> getPageContentsId(List<String> contentsId, FeedPage page) {
+		int size = contentsId.size();
+		int pageSize = this.getPageSize();
+		if (page.isArchive()) {
+			if (page.getArchive() > size / pageSize) {
+				return null;
+			}
+			return contentsId.subList(size - page.getArchive() * pageSize, size - (page.getArchive() - 1) * pageSize);
+		} else if (null != page.getCursor()) {
+			int index = contentsId.indexOf(page.getCursor());
+			if (index < 0) {
+				return null;
+			}
+			return contentsId.subList(index + 1, Math.min(index + 1 + pageSize, size));
+		}
+		return contentsId.subList(0, Math.min(pageSize, size));
+	}
+
+	/**
+	 * Adds to the header of a paged feed the links of RFC 5005: 
+	 * "next" to the following cursor page, "prev-archive" and "next-archive" between the archives, 
+	 * "current" from an archive to the current document.
+	 */
+	private void addPageLinks(SyndFeed header, Channel channel, String lang, String feedType, 
+			FeedPage page, List<String> contentsId) {
+		String feedUrl = this.getFeedUrl(channel, lang, feedType);
+		int size = contentsId.size();
+		int pageSize = this.getPageSize();
+		int archives = size / pageSize;
+		List<SyndLink> links = new ArrayList<SyndLink>(header.getLinks());
+		if (page.isArchive()) {
+			links.add(this.createLink("current", feedUrl));
+			if (page.getArchive() > 1) {
+				links.add(this.createLink("prev-archive", feedUrl + FeedPage.archive(page.getArchive() - 1).getQuery()));
+			}
+			if (page.getArchive() < archives) {
+				links.add(this.createLink("next-archive", feedUrl + FeedPage.archive(page.getArchive() + 1).getQuery()));
+			}
+		} else {
+			int end = pageSize;
+			if (null != page.getCursor()) {
+				links.add(this.createLink("first", feedUrl));
+				end = contentsId.indexOf(page.getCursor()) + 1 + pageSize;
+			}
+			if (end < size) {
+				links.add(this.createLink("next", feedUrl + FeedPage.after(contentsId.get(end - 1)).getQuery()));
+			}
+			if (page.isCurrent() && archives > 0 && size > pageSize) {
+				links.add(this.createLink("prev-archive", feedUrl + FeedPage.archive(archives).getQuery()));
+			}
+		}
+		header.setLinks(links);
+	}
+
+	/**
+	 * Adds to the header of the current document the links of WebSub: 
+	 * the "hub" that pushes the updates and the "self" url of the topic.
+	 * Only the feeds written by the feed writers carry the links; every feed advertises them in the response headers.
+	 */
+	private void addHubLinks(SyndFeed header, Channel channel, String lang, String feedType) {
+		String hubUrl = this.getHubUrl();
+		if (null == hubUrl || !this.usesFeedWriter(feedType)) {
+			return;
+		}
+		List<SyndLink> links = new ArrayList<SyndLink>(header.getLinks());
+		links.add(this.createLink("hub", hubUrl));
+		links.add(this.createLink("self", this.getFeedUrl(channel, lang, feedType)));
+		header.setLinks(links);
+	}
+
+	private SyndLink createLink(String rel, String href) {
+		SyndLink link = new SyndLinkImpl();
+		link.setRel(rel);
+		link.setHref(href);
+		return link;
+	}
+
+	@Override
+	public String getFeedUrl(Channel channel, String lang, String feedType) {
+		StringBuilder feedUrl = new StringBuilder(this.getBaseUrl());
+		feedUrl.append(JpRssSystemConstants.FEED_ACTION_PATH).append("?id=").append(channel.getId()).append("&lang=").append(lang);
+		if (!feedType.equals(channel.getFeedType())) {
+			feedUrl.append("&format=").append(feedType);
+		}
+		return feedUrl.toString();
+	}
+
+	@Override
+	public String getHubUrl() {
+		return this.isWebSubEnabled() ? this.getBaseUrl() + JpRssSystemConstants.HUB_ACTION_PATH : null;
+	}
+
+	private String getBaseUrl() {
+		String baseUrl = (null != this.getConfigManager()) ? this.getConfigManager().getParam(SystemConstants.PAR_APPL_BASE_URL) : null;
+		return (null != baseUrl) ? baseUrl : "";
+	}
+
+	@Override
+	public RenderedFeed getLastRenderedFeed(Channel channel, String lang, String feedType, String feedLink, HttpServletRequest req) {
+		String scope = this.getLinkScope(feedLink, req);
+		RenderedFeed renderedFeed = this.getCachedFeed(channel, lang, feedType, scope);
+		if (null == renderedFeed) {
+			renderedFeed = this.getRenderedFeedCache().getLast(channel.getId(), lang, feedType, scope);
+		}
+		return renderedFeed;
+	}
+
+	@Override
+	public RenderedFeed getCachedFeed(Channel channel, String lang, String feedType, FeedPage page, 
+			String feedLink, HttpServletRequest req) throws EntException {
+		String scope = this.getLinkScope(feedLink, req);
+		RenderedFeed renderedFeed = null;
+		if (page.isCurrent()) {
+			renderedFeed = this.getCachedFeed(channel, lang, feedType, scope);
+		} else if (page.isArchive() && this.isPaged(feedType)) {
+			List<String> pageContentsId = this.getPageContentsId(this.getContentsId(channel, lang), page);
+			if (null != pageContentsId) {
+				renderedFeed = this.getArchiveFeedCache().get(channel.getId(), lang, feedType, page, scope, pageContentsId);
+			}
+		}
+		if (null != renderedFeed) {
+			this.getFeedMetrics().get(channel.getId(), lang).recordCacheHit();
+		}
+		return renderedFeed;
+	}
+
+	/**
+	 * Returns the feed of the given scope from the cache or, while a hot feed is refreshed, its stale copy.
+	 */
+	private RenderedFeed getCachedFeed(Channel channel, String lang, String feedType, String scope) {
+		this.getFilterPlan(channel, lang);
+		RenderedFeed renderedFeed = this.getRenderedFeedCache().get(channel.getId(), lang, feedType, scope);
+		if (null == renderedFeed && null != this.getRefreshScheduler()) {
+			renderedFeed = this.getRefreshScheduler().getStale(channel.getId(), lang, feedType, scope);
+		}
+		return renderedFeed;
+	}
+
+	/**
+	 * Returns the entries of a channel, shared by every feed type requested with the same 
+	 * scope of the links. Only one build runs at a time for every channel, lang, limit and scope.
+	 */
+	private FeedEntries getFeedEntries(Channel channel, String lang, int limit, String feedLink, 
+			FeedLinkResolver linkResolver) throws EntException {
+		FeedEntries entries = this.getFeedEntriesCache().get(channel.getId(), lang, limit, linkResolver.getScope());
+		if (null != entries) {
+			return entries;
+		}
+		String key = FeedEntriesCache.createKey(channel.getId(), lang, limit) + "|" + linkResolver.getScope();
+		return this.buildOnce(this.getEntryBuilds(), key, () -> this.buildFeedEntries(channel, lang, limit, feedLink, linkResolver), channel, lang);
+	}
+
+	private FeedEntries buildFeedEntries(Channel channel, String lang, int limit, String feedLink, 
+			FeedLinkResolver linkResolver) throws EntException {
+		FeedEntries entries = this.getFeedEntriesCache().get(channel.getId(), lang, limit, linkResolver.getScope());
+		if (null != entries) {
+			return entries;
+		}
+		long generation = this.getFeedEntriesCache().getGeneration();
+		long lastModified = this.getLastModified(channel, lang);
+		List<String> contentsId = this.getContentsId(channel, lang);
+		if (limit > 0 && contentsId.size() > limit) {
+			contentsId = contentsId.subList(0, limit);
+		}
+		entries = new FeedEntries(channel.getId(), channel.getContentType(), lang, limit, linkResolver.getScope(), lastModified, 
+				this.getEntries(this.getFeedMetrics().get(channel.getId(), lang), contentsId, lang, feedLink, linkResolver));
+		if (!linkResolver.isPublishable()) {
+			// the links of the entries may need the request: the incomplete feed is neither cached nor published
+			_logger.warn("{} entries of channel {} lang {} failed without request - feed not rendered", 
+					linkResolver.getFailedEntries(), channel.getId(), lang);
+			throw new EntException("Incomplete feed of channel " + channel.getId() + " rendered without request");
+		}
+		this.getFeedEntriesCache().put(entries, generation);
+		return entries;
+	}
+
+	/**
+	 * Renders a feed in memory from the entries of the channel: with the {@link StaxFeedWriter} 
+	 * or the {@link JsonFeedWriter} when the feed type is streamed, so that the bytes are the same 
+	 * as the streamed ones, otherwise with Rome. JSON feeds are always written by the {@link JsonFeedWriter}.
+	 */
+	private RenderedFeed createRenderedFeed(Channel channel, String lang, String feedType, String feedLink, 
+			FeedLinkResolver linkResolver) throws EntException {
+		FeedEntries entries = this.getFeedEntries(channel, lang, this.getPageLimit(feedType), feedLink, linkResolver);
+		SyndFeed header = this.createFeedHeader(channel, feedType, feedLink, entries.getLastModified());
+		this.addHubLinks(header, channel, lang, feedType);
+		if (this.isPaged(feedType)) {
+			this.addPageLinks(header, channel, lang, feedType, FeedPage.CURRENT, this.getContentsId(channel, lang));
+		}
+		ChannelMetrics metrics = this.getFeedMetrics().get(channel.getId(), lang);
+		long start = System.nanoTime();
+		byte[] body = this.renderFeed(header, entries.getEntries());
+		metrics.recordPhase(FeedPhase.SERIALIZATION, System.nanoTime() - start);
+		metrics.recordRender(entries.getEntries().size());
+		return new RenderedFeed(channel.getId(), channel.getContentType(), lang, 
+				feedType, linkResolver.getScope(), FEED_ENCODING, entries.getLastModified(), body, this.compressFeed(body));
+	}
+
+	private byte[] renderFeed(SyndFeed header, List<FeedEntry> entries) throws EntException {
+		if (this.usesFeedWriter(header.getFeedType())) {
+			return this.writeFeed(header, entries);
+		}
+		header.setEntries(this.toSyndEntries(entries));
+		return this.renderFeed(header);
+	}
+
+	@Override
+	public FeedStream getDeltaFeed(Channel channel, String lang, String feedType, Date since, String feedLink, 
+			HttpServletRequest req, HttpServletResponse resp) throws EntException {
+		long lastModified = this.getLastModified(channel, lang);
+		List<String> contentsId = null;
+		if (since.getTime() > lastModified) {
+			// nothing changed since the date: the query is not run
+			contentsId = new ArrayList<String>();
+		} else {
+			contentsId = this.getContentsId(channel, lang, since);
+		}
+		ChannelMetrics metrics = this.getFeedMetrics().get(channel.getId(), lang);
+		FeedLinkResolver linkResolver = this.createLinkResolver(feedLink, req, resp);
+		List<FeedEntry> entries = this.getEntries(metrics, contentsId, lang, feedLink, linkResolver);
+		SyndFeed header = this.createFeedHeader(channel, feedType, feedLink, lastModified);
+		long start = System.nanoTime();
+		byte[] body = this.renderFeed(header, entries);
+		metrics.recordPhase(FeedPhase.SERIALIZATION, System.nanoTime() - start);
+		metrics.recordRender(entries.size());
+		return new RenderedFeed(channel.getId(), channel.getContentType(), lang, 
+				feedType, linkResolver.getScope(), FEED_ENCODING, lastModified, body, this.compressFeed(body));
+	}
+
+	private byte[] writeFeed(SyndFeed header, List<FeedEntry> entries) throws EntException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			this.writeFeed(header, entries.iterator(), out);
+		} catch (Throwable t) {
+			_logger.error("Error rendering feed", t);
+			throw new EntException("Error rendering feed", t);
+		}
+		return out.toByteArray();
+	}
+
+	private void writeFeed(SyndFeed header, Iterator<FeedEntry> entries, OutputStream out) throws Throwable {
+		if (JsonFeedWriter.isSupported(header.getFeedType())) {
+			this.getJsonFeedWriter().write(header, entries, out);
+		} else {
+			this.getFeedWriter().write(header, entries, out);
+		}
+	}
+
+	/**
+	 * Renders again a hot feed evicted from the cache, without request. Only the feeds whose links 
+	 * were resolved without request are refreshed; the others are rendered again by their next request.
+	 * A feed with failed entries is not stored, and its stale copy is dropped after the last attempt.
+	 */
+	private boolean refreshFeed(int channelId, String lang, String feedType, String feedLink, String scope) throws Throwable {
+		Channel channel = this.getChannelRegistry().getChannel(channelId);
+		if (null == channel || !channel.isActive() || !this.isServedFeedType(channel, feedType)) {
+			return true;
+		}
+		if (!scope.equals(this.getLinkScope(feedLink, null))) {
+			// the links resolved for a request can't be resolved again in background
+			return true;
+		}
+		long generation = this.getRenderedFeedCache().getGeneration();
+		RenderedFeed renderedFeed = this.createRenderedFeed(channel, lang, feedType, feedLink, this.createLinkResolver(feedLink, null, null));
+		return this.getRenderedFeedCache().put(renderedFeed, generation);
+	}
+
+	private boolean isServedFeedType(Channel channel, String feedType) {
+		return feedType.equals(channel.getFeedType()) 
+				|| (null != this.getAvailableFeedTypes() && this.getAvailableFeedTypes().containsKey(feedType));
+	}
+
+	private List<RenderedFeed> recordEvictions(List<RenderedFeed> evictedFeeds) {
+		for (int i = 0; i < evictedFeeds.size(); i++) {
+			RenderedFeed evictedFeed = evictedFeeds.get(i);
+			this.getFeedMetrics().get(evictedFeed.getChannelId(), evictedFeed.getLang()).recordCacheEviction();
+		}
+		return evictedFeeds;
+	}
+
+	private void scheduleRefresh(List<RenderedFeed> evictedFeeds) {
+		if (null == this.getRefreshScheduler()) {
+			return;
+		}
+		// only the current documents are refreshed, the cursor pages are rendered on demand
+		List<RenderedFeed> currentFeeds = new ArrayList<RenderedFeed>(evictedFeeds.size());
+		for (int i = 0; i < evictedFeeds.size(); i++) {
+			if (evictedFeeds.get(i).getPage().isCurrent()) {
+				currentFeeds.add(evictedFeeds.get(i));
+			}
+		}
+		if (!currentFeeds.isEmpty()) {
+			this.getRefreshScheduler().scheduleRefresh(currentFeeds);
+		}
+	}
+
+	private byte[] renderFeed(SyndFeed feed) throws EntException {
+		try {
+			feed.setEncoding(FEED_ENCODING);
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			Writer writer = new OutputStreamWriter(baos, StandardCharsets.UTF_8);
+			new SyndFeedOutput().output(feed, writer);
+			writer.flush();
+			return baos.toByteArray();
+		} catch (Throwable t) {
+			_logger.error("Error rendering feed", t);
+			throw new EntException("Error rendering feed", t);
+		}
+	}
+
+	/**
+	 * Compresses a rendered feed with gzip, so that the compressed variant is built 
+	 * once and served to every client that accepts it.
+	 * @return the compressed feed, null if compression is disabled or fails
+	 */
+	private byte[] compressFeed(byte[] body) {
+		if (!this.isCompressionEnabled()) {
+			return null;
+		}
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream(body.length / 4 + 64);
+			GZIPOutputStream gzip = new GZIPOutputStream(baos);
+			gzip.write(body);
+			gzip.close();
+			return baos.toByteArray();
+		} catch (Throwable t) {
+			_logger.warn("Error compressing feed", t);
+			return null;
+		}
+	}
+
+	/**
+	 * Builds the entries of the given contents, recording the time spent loading the records 
+	 * and building the entries in the given metrics.
+	 */
+	private List<FeedEntry> getEntries(ChannelMetrics metrics, List<String> contentsId, String lang, String feedLink, 
+			FeedLinkResolver linkResolver) throws EntException {
+		long start = System.nanoTime();
+		Map<String, RssEntryRecord> records = this.loadEntryRecords(contentsId, lang);
+		long loaded = System.nanoTime();
+		metrics.recordPhase(FeedPhase.CONTENT_LOAD, loaded - start);
+		try {
+			return this.createEntries(contentsId, records, feedLink, linkResolver);
+		} finally {
+			metrics.recordPhase(FeedPhase.LINK_RESOLUTION, System.nanoTime() - loaded);
+		}
+	}
+
+	private List<FeedEntry> createEntries(List<String> contentsId, Map<String, RssEntryRecord> records, String feedLink, 
+			FeedLinkResolver linkResolver) throws EntException {
+		List<RssEntryRecord> feedRecords = new ArrayList<RssEntryRecord>();
 		Iterator<String> idIterator = contentsId.iterator();
 		while (idIterator.hasNext()) {
 			String id = (String) idIterator.next();
-			ContentRecordVO currentContent = this.getContentManager().loadContentVO(id);
-			RssContentMapping mapping = (RssContentMapping) this.getContentMapping().get(currentContent.getTypeCode());
-			if (null == mapping) {
-				_logger.error("Null content mapping by existed channel for content type {}", currentContent.getTypeCode());
+			RssEntryRecord currentEntry = records.get(id);
+			if (null == currentEntry) {
+				_logger.warn("Online content {} not found", id);
 				continue;
 			}
-			entries.add(this.createEntry(currentContent, lang, feedLink, req, resp));
+			feedRecords.add(currentEntry);
+		}
+		if (null != this.getEntryBuilderPool() && feedRecords.size() > 1) {
+			return this.createEntriesInParallel(feedRecords, feedLink, linkResolver);
+		}
+		List<FeedEntry> entries = new ArrayList<>();
+		for (int i = 0; i < feedRecords.size(); i++) {
+			RssEntryRecord record = feedRecords.get(i);
+			try {
+				entries.add(this.createEntry(record, feedLink, linkResolver));
+			} catch (Throwable t) {
+				_logger.error("Error building the entry of content {} - skipped", record.getContentId(), t);
+				linkResolver.recordFailedEntry();
+			}
 		}
 		return entries;
 	}
 
-	private SyndEntry createEntry(ContentRecordVO contentVO, String langCode, 
-            String feedLink, HttpServletRequest req, HttpServletResponse resp) throws EntException {
-		SyndEntry entry = new SyndEntryImpl();
-		RssContentMapping mapping = this.getContentMapping().get(contentVO.getTypeCode());
+	/**
+	 * Builds the entries on the entry builder pool, keeping the order of the records.
+	 * An entry that can't be built is logged and skipped.
+	 */
+	private List<FeedEntry> createEntriesInParallel(List<RssEntryRecord> records, final String feedLink, 
+			final FeedLinkResolver linkResolver) throws EntException {
+		List<Future<FeedEntry>> futures = new ArrayList<Future<FeedEntry>>(records.size());
+		for (int i = 0; i < records.size(); i++) {
+			final RssEntryRecord record = records.get(i);
+			futures.add(this.getEntryBuilderPool().submit(new Callable<FeedEntry>() {
+				@Override
+				public FeedEntry call() throws Exception {
+					return createEntry(record, feedLink, linkResolver);
+				}
+			}));
+		}
+		List<FeedEntry> entries = new ArrayList<>(records.size());
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				entries.add(futures.get(i).get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				for (int j = i; j < futures.size(); j++) {
+					futures.get(j).cancel(true);
+				}
+				throw new EntException("Interrupted while building the feed entries", e);
+			} catch (ExecutionException e) {
+				_logger.error("Error building the entry of content {} - skipped", records.get(i).getContentId(), e.getCause());
+				linkResolver.recordFailedEntry();
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Reads the entries from the projection. The entries missing from the projection 
+	 * are built from the contents and stored, in every lang.
+	 */
+	private Map<String, RssEntryRecord> loadEntryRecords(List<String> contentsId, String lang) throws EntException {
+		Map<String, RssEntryRecord> entries = null;
 		try {
-			Content content = (Content) this.getContentManager().loadContent(contentVO.getId(), true);
-			ITextAttribute titleAttr = (ITextAttribute) content.getAttribute(mapping.getTitleAttributeName());
-			String title = (titleAttr.getTextForLang(langCode));
-			if (null == title || title.trim().length() == 0) {
-				title = titleAttr.getText();
-			}
-			entry.setTitle(title);
-			String link = this.createLink(content, feedLink);
-			entry.setLink(link);
-			entry.setPublishedDate(contentVO.getModify());
-			ITextAttribute descrAttr = (ITextAttribute) content.getAttribute(mapping.getDescriptionAttributeName());
-			if (null != descrAttr) {
-				SyndContent description = new SyndContentImpl();
-				description.setType(JpRssSystemConstants.SYNDCONTENT_TYPE_TEXTHTML);
-				String inLang = descrAttr.getTextForLang(langCode);
-				//TODO Ottimizzare!
-				RequestContext requestContext = new RequestContext();
-				requestContext.setRequest(req);
-				requestContext.setResponse(resp);
-				if (null != inLang && inLang.length() > 0) {
-					String textValue = this.getLinkResolver().resolveLinks(inLang, requestContext);
-					if (null != textValue && textValue.trim().length() > 0) {
-						description.setValue(textValue);
-					} else {
-						description.setValue(descrAttr.getText());
-					}
-				} else {
-					String textValue = this.getLinkResolver().resolveLinks(descrAttr.getText(), requestContext);
-					description.setValue(textValue);
+			entries = this.getRssEntryDAO().loadEntries(contentsId, lang);
+		} catch (Throwable t) {
+			_logger.warn("Error reading the feed entries projection", t);
+			entries = new HashMap<String, RssEntryRecord>();
+		}
+		if (entries.size() == contentsId.size()) {
+			return entries;
+		}
+		List<String> missingIds = new ArrayList<String>();
+		for (int i = 0; i < contentsId.size(); i++) {
+			if (!entries.containsKey(contentsId.get(i))) {
+				missingIds.add(contentsId.get(i));
+			}
+		}
+		List<RssEntryRecord> builtEntries = this.buildEntryRecords(missingIds);
+		try {
+			this.getRssEntryDAO().saveEntries(builtEntries);
+		} catch (Throwable t) {
+			_logger.warn("Error updating the feed entries projection", t);
+		}
+		for (int i = 0; i < builtEntries.size(); i++) {
+			RssEntryRecord entry = builtEntries.get(i);
+			if (entry.getLangCode().equals(lang)) {
+				entries.put(entry.getContentId(), entry);
+			}
+		}
+		return entries;
+	}
+
+	private List<RssEntryRecord> buildEntryRecords(List<String> contentsId) throws EntException {
+		List<RssEntryRecord> entries = new ArrayList<RssEntryRecord>();
+		if (contentsId.isEmpty()) {
+			return entries;
+		}
+		Map<String, RssContentRecord> records = this.loadContentRecords(contentsId);
+		Map<String, String> viewPages = new HashMap<String, String>();
+		List<Lang> langs = this.getLangManager().getLangs();
+		String defaultLang = this.getLangManager().getDefaultLang().getCode();
+		Iterator<RssContentRecord> recordIter = records.values().iterator();
+		while (recordIter.hasNext()) {
+			RssContentRecord record = recordIter.next();
+			String viewPage = viewPages.get(record.getTypeCode());
+			if (null == viewPage) {
+				viewPage = this.getViewPage(record.getTypeCode());
+				viewPages.put(record.getTypeCode(), viewPage);
+			}
+			for (int i = 0; i < langs.size(); i++) {
+				entries.add(this.createEntryRecord(record, langs.get(i).getCode(), defaultLang, viewPage));
+			}
+		}
+		return entries;
+	}
+
+	private RssEntryRecord createEntryRecord(RssContentRecord content, String langCode, String defaultLangCode, String viewPage) {
+		RssEntryRecord entry = new RssEntryRecord();
+		entry.setContentId(content.getId());
+		entry.setLangCode(langCode);
+		entry.setContentType(content.getTypeCode());
+		entry.setViewPage(viewPage);
+		entry.setLastModified(content.getLastModified());
+		String title = content.getTitleForLang(langCode);
+		if (null == title || title.trim().length() == 0) {
+			title = content.getTitleForLang(defaultLangCode);
+		}
+		entry.setTitle(title);
+		if (content.hasDescription()) {
+			String description = content.getDescriptionForLang(langCode);
+			if (null == description || description.length() == 0) {
+				description = content.getDescriptionForLang(defaultLangCode);
+			}
+			entry.setDescription((null != description) ? description : "");
+		}
+		return entry;
+	}
+
+	private Map<String, RssContentRecord> loadContentRecords(List<String> contentsId) throws EntException {
+		Map<String, RssContentRecord> records = null;
+		try {
+			records = this.getRssContentDAO().loadContentRecords(contentsId);
+			RssContentParser parser = new RssContentParser();
+			Iterator<RssContentRecord> recordIter = records.values().iterator();
+			while (recordIter.hasNext()) {
+				RssContentRecord record = recordIter.next();
+				RssContentMapping mapping = this.getContentMapping().get(record.getTypeCode());
+				if (null == mapping) {
+					_logger.error("Null content mapping by existed channel for content type {}", record.getTypeCode());
+					recordIter.remove();
+					continue;
 				}
-				entry.setDescription(description);
+				parser.parse(record, mapping);
 			}
 		} catch (Throwable t) {
-			_logger.error("Error in createEntry", t);
+			_logger.error("Error loading rss contents", t);
+			throw new EntException("Error loading rss contents", t);
+		}
+		return records;
+	}
+
+	private String getViewPage(String typeCode) {
+		Content prototype = (Content) this.getContentManager().getEntityPrototype(typeCode);
+		return (null != prototype) ? prototype.getViewPage() : null;
+	}
+
+	/**
+	 * Builds the entry of a content: its link and the description with the symbolic links resolved.
+	 */
+	protected FeedEntry createEntry(RssEntryRecord content, String feedLink, 
+			FeedLinkResolver linkResolver) throws EntException {
+		try {
+			String viewPageCode = content.getViewPage();
+			if (null == viewPageCode || null == this.getPageManager().getOnlinePage(viewPageCode)) {
+				viewPageCode = this.getPageManager().getOnlineRoot().getCode();
+			}
+			String link = this.createLink(content.getContentId(), viewPageCode, feedLink);
+			String description = content.getDescription();
+			if (null != description) {
+				String textValue = linkResolver.resolveLinks(description);
+				if (null != textValue && textValue.trim().length() > 0) {
+					description = textValue;
+				}
+			}
+			return new FeedEntry(content.getContentId(), content.getTitle(), link, description, content.getLastModified());
+		} catch (Throwable t) {
 			throw new EntException("Error in createEntry", t);
 		}
-		return entry;
 	}
 
-	private String createLink(Content content, String feedLink) {
+	/**
+	 * A feed written by the {@link StaxFeedWriter} or the {@link JsonFeedWriter} while its entries are built, one block at a time.
+	 * The bytes written are kept for the cache up to the max cached feed size.
+	 */
+	private class StreamedFeed implements FeedStream {
+
+		private StreamedFeed(Channel channel, String lang, SyndFeed header, String feedLink, List<String> contentsId, 
+				long generation, long lastModified, FeedLinkResolver linkResolver, ChannelMetrics metrics) {
+			this._channel = channel;
+			this._lang = lang;
+			this._header = header;
+			this._feedType = header.getFeedType();
+			this._feedLink = feedLink;
+			this._contentsId = contentsId;
+			this._generation = generation;
+			this._lastModified = lastModified;
+			this._linkResolver = linkResolver;
+			this._metrics = metrics;
+		}
+
+		@Override
+		public String getEncoding() {
+			return StaxFeedWriter.ENCODING;
+		}
+
+		@Override
+		public String getFeedType() {
+			return this._feedType;
+		}
+
+		@Override
+		public int getLength() {
+			return -1;
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			CapturingOutputStream capture = new CapturingOutputStream(out, getMaxCachedFeedSize());
+			EntryIterator entries = new EntryIterator(this._metrics, this._contentsId, this._lang, this._feedLink, this._linkResolver);
+			long start = System.nanoTime();
+			try {
+				writeFeed(this._header, entries, capture);
+				// the entries are built while the feed is written
+				this._metrics.recordPhase(FeedPhase.SERIALIZATION, System.nanoTime() - start - entries.getBuildNanos());
+				this._metrics.recordRender(entries.getCount());
+				this._metrics.recordResponseBytes(capture.getCount());
+			} catch (Throwable t) {
+				_logger.error("Error streaming the feed of channel {}", this._channel.getId(), t);
+				throw new IOException("Error streaming the feed of channel " + this._channel.getId(), t);
+			}
+			byte[] body = capture.getCaptured();
+			if (null != body) {
+				String scope = this._linkResolver.getScope();
+				getLargeFeeds().remove(RenderedFeedCache.createKey(this._channel.getId(), this._lang, this._feedType, scope));
+				getRenderedFeedCache().put(new RenderedFeed(this._channel.getId(), this._channel.getContentType(), this._lang, 
+						this._feedType, scope, StaxFeedWriter.ENCODING, this._lastModified, body, compressFeed(body)), this._generation);
+			}
+		}
+
+		@Override
+		public void close() {
+			// the entries are loaded while the feed is written, nothing is held before
+		}
+
+		private final Channel _channel;
+		private final String _lang;
+		private final SyndFeed _header;
+		private final String _feedType;
+		private final String _feedLink;
+		private final List<String> _contentsId;
+		private final long _generation;
+		private final long _lastModified;
+		private final FeedLinkResolver _linkResolver;
+		private final ChannelMetrics _metrics;
+
+	}
+
+	/**
+	 * Iterates over the entries of a feed, building them one block of contents at a time.
+	 */
+	private class EntryIterator implements Iterator<FeedEntry> {
+
+		private EntryIterator(ChannelMetrics metrics, List<String> contentsId, String lang, String feedLink, 
+				FeedLinkResolver linkResolver) {
+			this._metrics = metrics;
+			this._contentsId = contentsId;
+			this._lang = lang;
+			this._feedLink = feedLink;
+			this._linkResolver = linkResolver;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (null == this._block || !this._block.hasNext()) {
+				if (this._nextIndex >= this._contentsId.size()) {
+					return false;
+				}
+				int end = Math.min(this._nextIndex + STREAM_BLOCK_SIZE, this._contentsId.size());
+				List<String> blockIds = this._contentsId.subList(this._nextIndex, end);
+				this._nextIndex = end;
+				long start = System.nanoTime();
+				try {
+					this._block = getEntries(this._metrics, blockIds, this._lang, this._feedLink, this._linkResolver).iterator();
+				} catch (EntException e) {
+					throw new RuntimeException("Error building the feed entries", e);
+				} finally {
+					this._buildNanos += System.nanoTime() - start;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public FeedEntry next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this._count++;
+			return this._block.next();
+		}
+
+		/**
+		 * The time spent building the entries returned so far.
+		 * @return the time in nanoseconds
+		 */
+		private long getBuildNanos() {
+			return _buildNanos;
+		}
+
+		private int getCount() {
+			return _count;
+		}
+
+		private final ChannelMetrics _metrics;
+		private final List<String> _contentsId;
+		private final String _lang;
+		private final String _feedLink;
+		private final FeedLinkResolver _linkResolver;
+		private Iterator<FeedEntry> _block;
+		private int _nextIndex;
+		private long _buildNanos;
+		private int _count;
+
+	}
+
+	/**
+	 * Writes to the target stream and keeps a copy of the bytes written, 
+	 * unless they exceed the given size.
+	 */
+	private static class CapturingOutputStream extends FilterOutputStream {
+
+		private CapturingOutputStream(OutputStream out, int maxSize) {
+			super(out);
+			this._maxSize = maxSize;
+			this._captured = (maxSize > 0) ? new ByteArrayOutputStream() : null;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			this.capture(new byte[] {(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+			this.capture(b, off, len);
+		}
+
+		private void capture(byte[] b, int off, int len) {
+			this._count += len;
+			if (null == this._captured) {
+				return;
+			}
+			if (this._captured.size() + len > this._maxSize) {
+				this._captured = null;
+			} else {
+				this._captured.write(b, off, len);
+			}
+		}
+
+		/**
+		 * The bytes written.
+		 * @return the bytes written, null if they exceeded the max size
+		 */
+		private byte[] getCaptured() {
+			return (null != this._captured) ? this._captured.toByteArray() : null;
+		}
+
+		/**
+		 * The number of bytes written.
+		 * @return the number of bytes
+		 */
+		private long getCount() {
+			return _count;
+		}
+
+		private final int _maxSize;
+		private ByteArrayOutputStream _captured;
+		private long _count;
+
+	}
+
+	private String createLink(String contentId, String viewPageCode, String feedLink) {
 		SymbolicLink symbolicLink = new SymbolicLink();
 		StringBuilder destination = new StringBuilder(feedLink);
-		String viewPageCode = content.getViewPage();
-		if (null == viewPageCode || null == this.getPageManager().getOnlinePage(viewPageCode)) {
-			viewPageCode = this.getPageManager().getOnlineRoot().getCode();
-		}
-		destination.append(viewPageCode).append(".page").append("?contentId=").append(content.getId());
+		destination.append(viewPageCode).append(".page").append("?contentId=").append(contentId);
 		symbolicLink.setDestinationToUrl(destination.toString());
 		return symbolicLink.getUrlDest();
 	}
@@ -316,38 +1556,123 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 		return newFilters;
 	}
 
-	private List<String> getContentsId(Channel channel, String langCode) throws EntException {
+	private boolean hasOrder(EntitySearchFilter[] filters) {
+		for (int i = 0; i < filters.length; i++) {
+			if (null != filters[i].getOrder()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the ids of the contents of the channel, executing the filter plan of the channel. 
+	 * The ids are cached by the fingerprint of the plan, so channels and langs running 
+	 * the same query share them.
+	 */
+	protected List<String> getContentsId(Channel channel, String langCode) throws EntException {
 		RssContentMapping mapping = (RssContentMapping) this.getContentMapping().get(channel.getContentType());
 		if (null == mapping) {
 			_logger.error("Null content mapping by existed channel for content type {}", channel.getContentType());
 			return new ArrayList<String>();
 		}
 		try {
-			EntitySearchFilter[] searchFilters = this.getEntitySearchFilter(channel, langCode);//this.getEntitySearchFilterDOM().getFilters(channel.getContentType(), channel.getFilters());
-			EntitySearchFilter filterToAdd = new EntitySearchFilter(IContentManager.ENTITY_TYPE_CODE_FILTER_KEY, false, channel
-					.getContentType(), false);
-			EntitySearchFilter[] entitySearchFilters = addFilter(searchFilters, filterToAdd);
-
-			String[] categories = null;
-			if (null != channel.getCategory() && channel.getCategory().trim().length() > 0) {
-				categories = new String[] { channel.getCategory() };
-			}
-			Collection<String> userGroupCodes = new ArrayList<String>();
-			userGroupCodes.add(Group.FREE_GROUP_NAME);
-			List<String> contentsId = this.getContentManager().loadPublicContentsId(channel.getContentType(), categories,
-					entitySearchFilters, userGroupCodes);
-
-			if (channel.getMaxContentsSize() > 0 && contentsId.size() > channel.getMaxContentsSize()) {
-				return contentsId.subList(0, channel.getMaxContentsSize());
-			} else {
-				return contentsId;
+			ChannelFilterPlan plan = this.getFilterPlan(channel, langCode);
+			List<String> contentsId = this.getContentIdCache().get(plan.getFingerprint());
+			if (null == contentsId) {
+				long generation = this.getContentIdCache().getGeneration();
+				long start = System.nanoTime();
+				List<String> queriedIds = plan.execute(this.getContentManager());
+				this.getFeedMetrics().get(channel.getId(), langCode).recordPhase(FeedPhase.QUERY, System.nanoTime() - start);
+				contentsId = this.getContentIdCache().put(plan.getFingerprint(), plan.getContentType(), queriedIds, generation);
 			}
+			return contentsId;
+		} catch (Throwable t) {
+			_logger.error("Error in rss contents", t);
+			throw new EntException("Error in rss contents", t);
+		}
+	}
+
+	/**
+	 * Returns the ids of the contents of the channel modified since the given date. 
+	 * The date is a filter of the query; the ids are not cached, as every client asks its own date.
+	 */
+	private List<String> getContentsId(Channel channel, String langCode, Date since) throws EntException {
+		if (null == this.getContentMapping().get(channel.getContentType())) {
+			_logger.error("Null content mapping by existed channel for content type {}", channel.getContentType());
+			return new ArrayList<String>();
+		}
+		try {
+			long start = System.nanoTime();
+			List<String> contentsId = this.getFilterPlan(channel, langCode).since(since).execute(this.getContentManager());
+			this.getFeedMetrics().get(channel.getId(), langCode).recordPhase(FeedPhase.QUERY, System.nanoTime() - start);
+			return contentsId;
 		} catch (Throwable t) {
 			_logger.error("Error in rss contents", t);
 			throw new EntException("Error in rss contents", t);
 		}
 	}
 
+	/**
+	 * Returns the filter plan of the given channel and lang. The plan is compiled on first use 
+	 * and then reused until the channel or the content types change. A plan with dates relative 
+	 * to today is compiled again on the next day, and the feeds built from it are evicted.
+	 * @param channel the channel
+	 * @param langCode the code of the lang
+	 * @return the filter plan
+	 */
+	public ChannelFilterPlan getFilterPlan(Channel channel, String langCode) {
+		String key = channel.getId() + "_" + langCode;
+		ChannelFilterPlan plan = this.getFilterPlans().get(key);
+		boolean expired = null != plan && plan.isExpired(System.currentTimeMillis());
+		if (null == plan || expired || !plan.isCompiledFrom(channel)) {
+			plan = this.compileFilterPlan(channel, langCode);
+			this.getFilterPlans().put(key, plan);
+			if (expired) {
+				this.getFeedEntriesCache().evictChannel(channel.getId());
+				this.getArchiveFeedCache().evictChannel(channel.getId());
+				this.recordEvictions(this.getRenderedFeedCache().evictChannel(channel.getId()));
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Parses the filters of the channel. The contents are ordered by last modify date, newest first, 
+	 * if the channel filters define no order: the feeds and their pages start from the newest contents. 
+	 * When the channel has a maximum size the limit is pushed into the query, 
+	 * so the database returns only the top entries.
+	 */
+	private ChannelFilterPlan compileFilterPlan(Channel channel, String langCode) {
+		EntitySearchFilter[] searchFilters = this.getEntitySearchFilter(channel, langCode);
+		EntitySearchFilter filterToAdd = new EntitySearchFilter(IContentManager.ENTITY_TYPE_CODE_FILTER_KEY, false, channel
+				.getContentType(), false);
+		EntitySearchFilter[] entitySearchFilters = addFilter(searchFilters, filterToAdd);
+		if (!this.hasOrder(entitySearchFilters)) {
+			EntitySearchFilter orderFilter = new EntitySearchFilter(IContentManager.CONTENT_MODIFY_DATE_FILTER_KEY, false);
+			orderFilter.setOrder(EntitySearchFilter.DESC_ORDER);
+			entitySearchFilters = addFilter(entitySearchFilters, orderFilter);
+		}
+		if (channel.getMaxContentsSize() > 0) {
+			entitySearchFilters = addFilter(entitySearchFilters, new EntitySearchFilter(channel.getMaxContentsSize(), 0));
+		}
+		String[] categories = null;
+		if (null != channel.getCategory() && channel.getCategory().trim().length() > 0) {
+			categories = new String[] { channel.getCategory() };
+		}
+		return new ChannelFilterPlan(channel, langCode, categories, entitySearchFilters);
+	}
+
+	protected void evictFilterPlans(int channelId) {
+		String prefix = channelId + "_";
+		Iterator<String> keyIter = this.getFilterPlans().keySet().iterator();
+		while (keyIter.hasNext()) {
+			if (keyIter.next().startsWith(prefix)) {
+				keyIter.remove();
+			}
+		}
+	}
+
 	@Override
 	public Map<String, String> getAvailableFeedTypes() {
 		return _availableFeedTypes;
@@ -357,6 +1682,232 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 		this._availableFeedTypes = availableFeedTypes;
 	}
 
+	protected boolean isStreamingEnabled() {
+		return _streamingEnabled;
+	}
+
+	/**
+	 * Enables the streaming of the feeds supported by the {@link StaxFeedWriter} (the default). 
+	 * When disabled, every feed is rendered in memory by Rome.
+	 * @param streamingEnabled true to stream the feeds
+	 */
+	public void setStreamingEnabled(boolean streamingEnabled) {
+		this._streamingEnabled = streamingEnabled;
+	}
+
+	protected int getMaxCachedFeedSize() {
+		return _maxCachedFeedSize;
+	}
+
+	/**
+	 * Sets the max size, in bytes, of a streamed feed kept in cache. 
+	 * Larger feeds are streamed again on every request.
+	 * @param maxCachedFeedSize the max size of a cached streamed feed
+	 */
+	public void setMaxCachedFeedSize(int maxCachedFeedSize) {
+		this._maxCachedFeedSize = maxCachedFeedSize;
+	}
+
+	protected FeedEntriesCache getFeedEntriesCache() {
+		return _feedEntriesCache;
+	}
+
+	protected int getPageSize() {
+		return _pageSize;
+	}
+
+	/**
+	 * Sets the number of entries of the documents of the paged feeds (RFC 5005). 
+	 * The channels with more contents are split into a current document, 
+	 * cursor pages and archives. Only the rss 2.0, atom 1.0 and json feeds are paged.
+	 * @param pageSize the number of entries of a page, 0 to disable paging
+	 */
+	public void setPageSize(int pageSize) {
+		this._pageSize = pageSize;
+	}
+
+	protected boolean isWebSubEnabled() {
+		return _webSubEnabled;
+	}
+
+	/**
+	 * Enables the WebSub hub of the plugin: the current documents of the feeds 
+	 * advertise the hub, that pushes the updated feeds to the subscribers.
+	 * @param webSubEnabled true to advertise the hub
+	 */
+	public void setWebSubEnabled(boolean webSubEnabled) {
+		this._webSubEnabled = webSubEnabled;
+	}
+
+	protected FeedMetrics getFeedMetrics() {
+		return _feedMetrics;
+	}
+
+	/**
+	 * Sets the registry of the metrics of the feeds, shared with the feed action.
+	 * @param feedMetrics the metrics registry
+	 */
+	public void setFeedMetrics(FeedMetrics feedMetrics) {
+		this._feedMetrics = feedMetrics;
+	}
+
+	protected ArchiveFeedCache getArchiveFeedCache() {
+		return _archiveFeedCache;
+	}
+
+	/**
+	 * Sets the max number of archive documents kept in cache.
+	 * @param maxCachedArchives the max number of cached archives, 0 to disable the cache
+	 */
+	public void setMaxCachedArchives(int maxCachedArchives) {
+		this._archiveFeedCache = new ArchiveFeedCache(maxCachedArchives);
+	}
+
+	protected SingleFlight<String, FeedEntries> getEntryBuilds() {
+		return _entryBuilds;
+	}
+
+	protected SingleFlight<String, RenderedFeed> getFeedBuilds() {
+		return _feedBuilds;
+	}
+
+	protected Set<String> getLargeFeeds() {
+		return _largeFeeds;
+	}
+
+	protected long getFeedBuildTimeout() {
+		return _feedBuildTimeout;
+	}
+
+	/**
+	 * Sets the max time, in milliseconds, a request waits for the build of the same feed 
+	 * started by another request.
+	 * @param feedBuildTimeout the max wait for a concurrent build
+	 */
+	public void setFeedBuildTimeout(long feedBuildTimeout) {
+		this._feedBuildTimeout = feedBuildTimeout;
+	}
+
+	protected ResolvedLinkCache getResolvedLinkCache() {
+		return _resolvedLinkCache;
+	}
+
+	/**
+	 * Sets the max number of resolved symbolic links kept between the builds of the feeds. 
+	 * Zero resolves the links again on every build.
+	 * @param maxResolvedLinks the max number of resolved links kept in cache
+	 */
+	public void setMaxResolvedLinks(int maxResolvedLinks) {
+		this._resolvedLinkCache = new ResolvedLinkCache(maxResolvedLinks);
+	}
+
+	protected boolean isCompressionEnabled() {
+		return _compressionEnabled;
+	}
+
+	/**
+	 * Enables the gzip variant of the rendered feeds (the default).
+	 * @param compressionEnabled true to store a gzip variant beside every rendered feed
+	 */
+	public void setCompressionEnabled(boolean compressionEnabled) {
+		this._compressionEnabled = compressionEnabled;
+	}
+
+	protected StaxFeedWriter getFeedWriter() {
+		return _feedWriter;
+	}
+
+	protected JsonFeedWriter getJsonFeedWriter() {
+		return _jsonFeedWriter;
+	}
+
+	protected int getRefreshThreads() {
+		return _refreshThreads;
+	}
+
+	/**
+	 * Sets the number of threads that render again the hot feeds in background after 
+	 * they are evicted; meanwhile their stale copy is served. 
+	 * Zero (the default) renders every feed on demand.
+	 * @param refreshThreads the number of refresh threads
+	 */
+	public void setRefreshThreads(int refreshThreads) {
+		this._refreshThreads = refreshThreads;
+	}
+
+	protected long getHotFeedThreshold() {
+		return _hotFeedThreshold;
+	}
+
+	/**
+	 * Sets the number of requests in an access window that makes a feed hot.
+	 * @param hotFeedThreshold the min number of requests of a hot feed
+	 */
+	public void setHotFeedThreshold(long hotFeedThreshold) {
+		this._hotFeedThreshold = hotFeedThreshold;
+	}
+
+	protected int getAccessWindowSeconds() {
+		return _accessWindowSeconds;
+	}
+
+	public void setAccessWindowSeconds(int accessWindowSeconds) {
+		this._accessWindowSeconds = accessWindowSeconds;
+	}
+
+	protected FeedRefreshScheduler getRefreshScheduler() {
+		return _refreshScheduler;
+	}
+
+	protected void setRefreshScheduler(FeedRefreshScheduler refreshScheduler) {
+		this._refreshScheduler = refreshScheduler;
+	}
+
+	protected int getEntryBuilderThreads() {
+		return _entryBuilderThreads;
+	}
+
+	/**
+	 * Sets the number of entries of a feed built at the same time. 
+	 * Zero (the default) builds the entries one at a time on the request thread.
+	 * @param entryBuilderThreads the max number of entries built in parallel
+	 */
+	public void setEntryBuilderThreads(int entryBuilderThreads) {
+		this._entryBuilderThreads = entryBuilderThreads;
+	}
+
+	protected boolean isUseVirtualThreads() {
+		return _useVirtualThreads;
+	}
+
+	public void setUseVirtualThreads(boolean useVirtualThreads) {
+		this._useVirtualThreads = useVirtualThreads;
+	}
+
+	protected EntryBuilderPool getEntryBuilderPool() {
+		return _entryBuilderPool;
+	}
+
+	protected void setEntryBuilderPool(EntryBuilderPool entryBuilderPool) {
+		this._entryBuilderPool = entryBuilderPool;
+	}
+
+	protected ContentIdCache getContentIdCache() {
+		return _contentIdCache;
+	}
+
+	protected Map<String, ChannelFilterPlan> getFilterPlans() {
+		return _filterPlans;
+	}
+
+	protected Map<String, String> getAutodiscoveryLinksCache() {
+		return _autodiscoveryLinksCache;
+	}
+
+	protected RenderedFeedCache getRenderedFeedCache() {
+		return _renderedFeedCache;
+	}
+
 	protected Map<String, RssContentMapping> getContentMapping() {
 		return _contentMapping;
 	}
@@ -397,6 +1948,30 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 		this._pageManager = pageManager;
 	}
 
+	protected IRssContentDAO getRssContentDAO() {
+		return _rssContentDAO;
+	}
+
+	public void setRssContentDAO(IRssContentDAO rssContentDAO) {
+		this._rssContentDAO = rssContentDAO;
+	}
+
+	protected IRssEntryDAO getRssEntryDAO() {
+		return _rssEntryDAO;
+	}
+
+	public void setRssEntryDAO(IRssEntryDAO rssEntryDAO) {
+		this._rssEntryDAO = rssEntryDAO;
+	}
+
+	protected ILangManager getLangManager() {
+		return _langManager;
+	}
+
+	public void setLangManager(ILangManager langManager) {
+		this._langManager = langManager;
+	}
+
 	protected IRssDAO getRssDAO() {
 		return _rssDAO;
 	}
@@ -421,5 +1996,40 @@ public class RssManager extends AbstractService implements IRssManager, EntityTy
 	private Map<String, String> _availableFeedTypes;
 	private ILinkResolverManager _linkResolver;
 	private IRssDAO _rssDAO;
+	private IRssContentDAO _rssContentDAO;
+	private IRssEntryDAO _rssEntryDAO;
+	private ILangManager _langManager;
+	private volatile ChannelRegistry _channelRegistry;
+	private final Object _channelsLock = new Object();
+	private Map<String, String> _autodiscoveryLinksCache = new ConcurrentHashMap<String, String>();
+	private Map<String, ChannelFilterPlan> _filterPlans = new ConcurrentHashMap<String, ChannelFilterPlan>();
+	private ContentIdCache _contentIdCache = new ContentIdCache();
+	private RenderedFeedCache _renderedFeedCache = new RenderedFeedCache();
+	private FeedEntriesCache _feedEntriesCache = new FeedEntriesCache();
+	private int _pageSize;
+	private boolean _webSubEnabled;
+	private ArchiveFeedCache _archiveFeedCache = new ArchiveFeedCache(1000);
+	private FeedMetrics _feedMetrics = new FeedMetrics();
+	private SingleFlight<String, FeedEntries> _entryBuilds = new SingleFlight<String, FeedEntries>();
+	private SingleFlight<String, RenderedFeed> _feedBuilds = new SingleFlight<String, RenderedFeed>();
+	private Set<String> _largeFeeds = ConcurrentHashMap.newKeySet();
+	private long _feedBuildTimeout = 30000;
+	private ResolvedLinkCache _resolvedLinkCache = new ResolvedLinkCache(10000);
+	private StaxFeedWriter _feedWriter = new StaxFeedWriter();
+	private JsonFeedWriter _jsonFeedWriter = new JsonFeedWriter();
+	private boolean _streamingEnabled = true;
+	private int _maxCachedFeedSize = 1024 * 1024;
+	private boolean _compressionEnabled = true;
+	private int _refreshThreads;
+	private long _hotFeedThreshold = 10;
+	private int _accessWindowSeconds = 60;
+	private FeedRefreshScheduler _refreshScheduler;
+	private int _entryBuilderThreads;
+	private boolean _useVirtualThreads = true;
+	private EntryBuilderPool _entryBuilderPool;
+
+	private static final String FEED_ENCODING = "UTF-8";
+
+	private static final int STREAM_BLOCK_SIZE = 50;
 
 }
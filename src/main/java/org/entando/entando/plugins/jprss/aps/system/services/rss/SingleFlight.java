@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces concurrent executions of the same task. The first caller for a key runs the task; 
+ * the callers that arrive while it runs wait for it and get the same result or the same error.
+ * @param <K> the type of the keys
+ * @param <V> the type of the results
+ */
+public class SingleFlight<K, V> {
+
+	/**
+	 * Runs the task, or waits for the execution already running for the same key.
+	 * @param key the key of the task
+	 * @param task the task to run
+	 * @param timeoutMillis the max time to wait for the execution of another caller
+	 * @return the result of the task
+	 * @throws TimeoutException if the execution of another caller didn't complete in time
+	 * @throws Exception the error thrown by the task
+	 */
+	public V execute(K key, Callable<V> task, long timeoutMillis) throws Exception {
+		CompletableFuture<V> flight = new CompletableFuture<V>();
+		CompletableFuture<V> running = this._flights.putIfAbsent(key, flight);
+		if (null != running) {
+			return this.await(running, timeoutMillis);
+		}
+		try {
+			V result = task.call();
+			flight.complete(result);
+			return result;
+		} catch (Exception e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} catch (Error e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			this._flights.remove(key, flight);
+		}
+	}
+
+	private V await(CompletableFuture<V> running, long timeoutMillis) throws Exception {
+		try {
+			return running.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw e;
+		}
+	}
+
+	public boolean isInFlight(K key) {
+		return this._flights.containsKey(key);
+	}
+
+	private final Map<K, CompletableFuture<V>> _flights = new ConcurrentHashMap<K, CompletableFuture<V>>();
+
+}
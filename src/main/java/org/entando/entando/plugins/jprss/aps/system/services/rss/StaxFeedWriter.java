@@ -0,0 +1,252 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.io.OutputStream;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.feed.synd.SyndLink;
+
+/**
+ * Writes RSS 2.0 and Atom 1.0 feeds straight to an output stream, as UTF-8 bytes.
+ * The entries are pulled one at a time from an iterator and never held together,
+ * so the memory used does not depend on the number of entries.
+ * The links of the header (RFC 5005 paging and archiving) are written as atom links; 
+ * an archive document, that links to its "current" document, is marked with fh:archive.
+ * Instances are thread safe.
+ */
+public class StaxFeedWriter {
+
+	public static boolean isSupported(String feedType) {
+		return RSS_2_0.equals(feedType) || ATOM_1_0.equals(feedType);
+	}
+
+	/**
+	 * Writes a feed.
+	 * @param header the feed that supplies type, title, link, description and published date; its entries are ignored
+	 * @param entries the entries of the feed
+	 * @param out the stream to write to. It is flushed but not closed.
+	 * @throws XMLStreamException if an error occurs
+	 */
+	public void write(SyndFeed header, Iterator<FeedEntry> entries, OutputStream out) throws XMLStreamException {
+		if (!isSupported(header.getFeedType())) {
+			throw new IllegalArgumentException("Unsupported feed type " + header.getFeedType());
+		}
+		XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(out, ENCODING);
+		try {
+			writer.writeStartDocument(ENCODING, "1.0");
+			if (RSS_2_0.equals(header.getFeedType())) {
+				this.writeRss(header, entries, writer);
+			} else {
+				this.writeAtom(header, entries, writer);
+			}
+			writer.writeEndDocument();
+			writer.flush();
+		} finally {
+			writer.close();
+		}
+	}
+
+	private void writeRss(SyndFeed header, Iterator<FeedEntry> entries, XMLStreamWriter writer) throws XMLStreamException {
+		DateFormat dateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z", Locale.US);
+		dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+		List<SyndLink> links = header.getLinks();
+		boolean hasLinks = (null != links && !links.isEmpty());
+		writer.writeStartElement("rss");
+		writer.writeAttribute("version", "2.0");
+		if (hasLinks) {
+			writer.setPrefix("atom", ATOM_NAMESPACE);
+			writer.writeNamespace("atom", ATOM_NAMESPACE);
+		}
+		if (isArchive(header)) {
+			writer.setPrefix("fh", HISTORY_NAMESPACE);
+			writer.writeNamespace("fh", HISTORY_NAMESPACE);
+		}
+		writer.writeStartElement("channel");
+		this.writeElement(writer, "title", header.getTitle());
+		this.writeElement(writer, "link", header.getLink());
+		this.writeElement(writer, "description", header.getDescription());
+		if (null != header.getPublishedDate()) {
+			this.writeElement(writer, "pubDate", dateFormat.format(header.getPublishedDate()));
+		}
+		if (hasLinks) {
+			for (int i = 0; i < links.size(); i++) {
+				writer.writeEmptyElement(ATOM_NAMESPACE, "link");
+				writer.writeAttribute("rel", links.get(i).getRel());
+				writer.writeAttribute("href", links.get(i).getHref());
+			}
+		}
+		this.writeArchiveMarker(header, writer);
+		writer.flush();
+		while (entries.hasNext()) {
+			FeedEntry entry = entries.next();
+			writer.writeStartElement("item");
+			this.writeElement(writer, "title", entry.getTitle());
+			this.writeElement(writer, "link", entry.getLink());
+			this.writeElement(writer, "description", entry.getDescription());
+			if (null != entry.getPublishedDate()) {
+				this.writeElement(writer, "pubDate", dateFormat.format(entry.getPublishedDate()));
+			}
+			if (null != entry.getLink()) {
+				writer.writeStartElement("guid");
+				writer.writeAttribute("isPermaLink", "true");
+				writer.writeCharacters(entry.getLink());
+				writer.writeEndElement();
+			}
+			writer.writeEndElement();
+		}
+		writer.writeEndElement();
+		writer.writeEndElement();
+	}
+
+	private void writeAtom(SyndFeed header, Iterator<FeedEntry> entries, XMLStreamWriter writer) throws XMLStreamException {
+		DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+		writer.setDefaultNamespace(ATOM_NAMESPACE);
+		writer.writeStartElement(ATOM_NAMESPACE, "feed");
+		writer.writeDefaultNamespace(ATOM_NAMESPACE);
+		if (isArchive(header)) {
+			writer.setPrefix("fh", HISTORY_NAMESPACE);
+			writer.writeNamespace("fh", HISTORY_NAMESPACE);
+		}
+		this.writeElement(writer, "title", header.getTitle());
+		this.writeLink(writer, header.getLink());
+		List<SyndLink> links = header.getLinks();
+		if (null != links) {
+			for (int i = 0; i < links.size(); i++) {
+				writer.writeEmptyElement("link");
+				writer.writeAttribute("rel", links.get(i).getRel());
+				writer.writeAttribute("href", links.get(i).getHref());
+			}
+		}
+		this.writeArchiveMarker(header, writer);
+		this.writeElement(writer, "subtitle", header.getDescription());
+		this.writeElement(writer, "id", header.getLink());
+		// the last modification of the channel: the same bytes for the same stored data
+		Date updated = (null != header.getPublishedDate()) ? header.getPublishedDate() : new Date(0);
+		this.writeElement(writer, "updated", dateFormat.format(updated));
+		writer.writeStartElement(ATOM_NAMESPACE, "author");
+		this.writeElement(writer, "name", (null != header.getAuthor()) ? header.getAuthor() : header.getTitle());
+		writer.writeEndElement();
+		writer.flush();
+		while (entries.hasNext()) {
+			FeedEntry entry = entries.next();
+			writer.writeStartElement(ATOM_NAMESPACE, "entry");
+			this.writeElement(writer, "title", entry.getTitle());
+			this.writeLink(writer, entry.getLink());
+			this.writeElement(writer, "id", getEntryId(header, entry));
+			Date published = (null != entry.getPublishedDate()) ? entry.getPublishedDate() : updated;
+			this.writeElement(writer, "updated", dateFormat.format(published));
+			this.writeElement(writer, "published", dateFormat.format(published));
+			if (null != entry.getDescription()) {
+				writer.writeStartElement(ATOM_NAMESPACE, "summary");
+				writer.writeAttribute("type", "html");
+				writer.writeCharacters(entry.getDescription());
+				writer.writeEndElement();
+			}
+			writer.writeEndElement();
+		}
+		writer.writeEndElement();
+	}
+
+	/**
+	 * Returns the id of an Atom entry: its link or, for an entry without link, 
+	 * an id built from the id of the content, within the link of the feed when there is one.
+	 */
+	private static String getEntryId(SyndFeed header, FeedEntry entry) {
+		if (null != entry.getLink()) {
+			return entry.getLink();
+		} else if (null != header.getLink()) {
+			return header.getLink() + "#" + entry.getContentId();
+		}
+		return "urn:entando:content:" + entry.getContentId();
+	}
+
+	private void writeArchiveMarker(SyndFeed header, XMLStreamWriter writer) throws XMLStreamException {
+		if (isArchive(header)) {
+			writer.writeEmptyElement(HISTORY_NAMESPACE, "archive");
+		}
+	}
+
+	/**
+	 * Returns the href of the link of the header with the given relation.
+	 * @param header the header of the feed
+	 * @param rel the relation of the link
+	 * @return the href of the link, null if missing
+	 */
+	public static String getLinkHref(SyndFeed header, String rel) {
+		List<SyndLink> links = header.getLinks();
+		if (null == links) {
+			return null;
+		}
+		for (int i = 0; i < links.size(); i++) {
+			if (rel.equals(links.get(i).getRel())) {
+				return links.get(i).getHref();
+			}
+		}
+		return null;
+	}
+
+	private static boolean isArchive(SyndFeed header) {
+		return null != getLinkHref(header, "current");
+	}
+
+	private void writeLink(XMLStreamWriter writer, String href) throws XMLStreamException {
+		if (null == href) {
+			return;
+		}
+		writer.writeEmptyElement("link");
+		writer.writeAttribute("rel", "alternate");
+		writer.writeAttribute("href", href);
+	}
+
+	private void writeElement(XMLStreamWriter writer, String name, String text) throws XMLStreamException {
+		if (null == text) {
+			return;
+		}
+		writer.writeStartElement(name);
+		writer.writeCharacters(text);
+		writer.writeEndElement();
+	}
+
+	public static final String RSS_2_0 = "rss_2.0";
+	public static final String ATOM_1_0 = "atom_1.0";
+
+	public static final String ENCODING = "UTF-8";
+
+	private static final String ATOM_NAMESPACE = "http://www.w3.org/2005/Atom";
+	private static final String HISTORY_NAMESPACE = "http://purl.org/syndication/history/1.0";
+
+	private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+}
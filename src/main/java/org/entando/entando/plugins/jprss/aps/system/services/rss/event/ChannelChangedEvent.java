@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss.event;
+
+import com.agiletec.aps.system.common.IManager;
+import com.agiletec.aps.system.common.notify.ApsEvent;
+
+/**
+ * Notifies that a channel was added, updated or deleted.
+ */
+public class ChannelChangedEvent extends ApsEvent {
+
+	public ChannelChangedEvent(int channelId, int operationCode) {
+		this._channelId = channelId;
+		this._operationCode = operationCode;
+	}
+
+	@Override
+	public void notify(IManager srv) {
+		((ChannelChangedObserver) srv).updateFromChannelChanged(this);
+	}
+
+	@Override
+	public Class getObserverInterface() {
+		return ChannelChangedObserver.class;
+	}
+
+	/**
+	 * The id of the changed channel.
+	 * @return the id of the channel
+	 */
+	public int getChannelId() {
+		return _channelId;
+	}
+
+	/**
+	 * The change: one of INSERT_OPERATION_CODE, UPDATE_OPERATION_CODE, REMOVE_OPERATION_CODE.
+	 * @return the code of the operation
+	 */
+	public int getOperationCode() {
+		return _operationCode;
+	}
+
+	private final int _channelId;
+	private final int _operationCode;
+
+	public static final int INSERT_OPERATION_CODE = 1;
+	public static final int REMOVE_OPERATION_CODE = 2;
+	public static final int UPDATE_OPERATION_CODE = 3;
+
+}
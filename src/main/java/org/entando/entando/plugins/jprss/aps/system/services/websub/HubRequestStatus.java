@@ -0,0 +1,64 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.websub;
+
+/**
+ * The outcome of a (un)subscription request received by the hub.
+ */
+public enum HubRequestStatus {
+
+	/**
+	 * The request is valid and its intent will be verified.
+	 */
+	ACCEPTED(202),
+
+	/**
+	 * The request is not valid: the hub is disabled, the callback is not an http url
+	 * or the topic is not a feed of an active channel.
+	 */
+	INVALID(400),
+
+	/**
+	 * The topic or the host of the callback already has the maximum number of subscriptions.
+	 */
+	LIMITED(403),
+
+	/**
+	 * Too many verifications are pending: the subscriber should ask again later.
+	 */
+	BUSY(503);
+
+	private HubRequestStatus(int status) {
+		this._status = status;
+	}
+
+	/**
+	 * The status of the response to the request.
+	 * @return the status code
+	 */
+	public int getStatus() {
+		return _status;
+	}
+
+	private final int _status;
+
+}
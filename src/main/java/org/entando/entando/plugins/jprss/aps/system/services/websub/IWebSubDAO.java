@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.websub;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Data Access Object for the subscriptions of the WebSub hub.
+ */
+public interface IWebSubDAO {
+
+	/**
+	 * Returns the subscriptions to the feeds of a channel.
+	 * @param channelId the id of the channel
+	 * @return the subscriptions, expired ones included
+	 */
+	public List<Subscription> loadSubscriptions(int channelId);
+
+	/**
+	 * Checks whether a callback is subscribed to a topic.
+	 * @param callback the callback url
+	 * @param topic the topic url
+	 * @return true if the subscription exists, also when expired
+	 */
+	public boolean existsSubscription(String callback, String topic);
+
+	/**
+	 * Counts the subscriptions to a topic.
+	 * @param topic the topic url
+	 * @return the number of subscriptions, expired ones included
+	 */
+	public int countTopicSubscriptions(String topic);
+
+	/**
+	 * Counts the subscriptions of the callbacks on a host.
+	 * @param callbackHost the host of the callbacks, lowercase
+	 * @return the number of subscriptions, expired ones included
+	 */
+	public int countCallbackHostSubscriptions(String callbackHost);
+
+	/**
+	 * Adds a subscription, replacing the one of the same callback and topic.
+	 * @param subscription the subscription to save
+	 */
+	public void saveSubscription(Subscription subscription);
+
+	/**
+	 * Deletes the subscription of a callback to a topic.
+	 * @param callback the callback url
+	 * @param topic the topic url
+	 */
+	public void deleteSubscription(String callback, String topic);
+
+	/**
+	 * Deletes the subscriptions whose lease expired.
+	 * @param now the current date
+	 */
+	public void deleteExpiredSubscriptions(Date now);
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.websub;
+
+/**
+ * The WebSub hub of the plugin: it keeps the subscriptions to the feeds of the channels 
+ * and pushes the updated feeds to the subscribers when the contents of a channel are published.
+ */
+public interface IWebSubManager {
+
+	/**
+	 * Asks a subscription. The intent of the subscriber is verified asynchronously; 
+	 * the subscription is stored once the subscriber confirmed it.
+	 * @param callback the callback url of the subscriber
+	 * @param topic the url of the feed
+	 * @param leaseSeconds the lease asked by the subscriber, 0 for the default lease
+	 * @param secret the secret used to sign the deliveries, null for unsigned deliveries
+	 * @return {@link HubRequestStatus#INVALID} if the request is not valid: the hub is disabled, 
+	 * the callback is not an http url or the topic is not a feed of an active channel; 
+	 * {@link HubRequestStatus#LIMITED} if the topic or the host of the callback has too many subscriptions; 
+	 * {@link HubRequestStatus#BUSY} if too many verifications are pending
+	 */
+	public HubRequestStatus subscribe(String callback, String topic, int leaseSeconds, String secret);
+
+	/**
+	 * Asks the removal of a subscription. The intent of the subscriber is verified asynchronously.
+	 * @param callback the callback url of the subscriber
+	 * @param topic the url of the feed
+	 * @return {@link HubRequestStatus#INVALID} if the request is not valid, 
+	 * {@link HubRequestStatus#BUSY} if too many verifications are pending
+	 */
+	public HubRequestStatus unsubscribe(String callback, String topic);
+
+	/**
+	 * Pushes the current feeds of a channel to its subscribers. 
+	 * The channels published within the batch delay are pushed together.
+	 * @param channelId the id of the channel
+	 */
+	public void publish(int channelId);
+
+}
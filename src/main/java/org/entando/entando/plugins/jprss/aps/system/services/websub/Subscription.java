@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.websub;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Date;
+
+/**
+ * The subscription of a callback to a topic of the hub: the current document 
+ * of the feed of a channel, in a lang and a feed type.
+ */
+public class Subscription {
+
+	/**
+	 * The url where the updated feed is delivered.
+	 * @return the callback url
+	 */
+	public String getCallback() {
+		return _callback;
+	}
+	public void setCallback(String callback) {
+		this._callback = callback;
+	}
+
+	/**
+	 * The url of the feed, as advertised with the "self" link.
+	 * @return the topic url
+	 */
+	public String getTopic() {
+		return _topic;
+	}
+	public void setTopic(String topic) {
+		this._topic = topic;
+	}
+
+	public int getChannelId() {
+		return _channelId;
+	}
+	public void setChannelId(int channelId) {
+		this._channelId = channelId;
+	}
+
+	public String getLangCode() {
+		return _langCode;
+	}
+	public void setLangCode(String langCode) {
+		this._langCode = langCode;
+	}
+
+	public String getFeedType() {
+		return _feedType;
+	}
+	public void setFeedType(String feedType) {
+		this._feedType = feedType;
+	}
+
+	/**
+	 * The secret used to sign the deliveries.
+	 * @return the secret, null if the deliveries are not signed
+	 */
+	public String getSecret() {
+		return _secret;
+	}
+	public void setSecret(String secret) {
+		this._secret = secret;
+	}
+
+	public Date getLeaseExpires() {
+		return _leaseExpires;
+	}
+	public void setLeaseExpires(Date leaseExpires) {
+		this._leaseExpires = leaseExpires;
+	}
+
+	/**
+	 * The host of the callback url, lowercase: the subscriptions of a host are limited.
+	 * @return the host of the callback, null if the callback is not an url
+	 */
+	public String getCallbackHost() {
+		if (null == this.getCallback()) {
+			return null;
+		}
+		try {
+			String host = new URL(this.getCallback()).getHost();
+			return (null != host && host.length() > 0) ? host.toLowerCase() : null;
+		} catch (MalformedURLException e) {
+			return null;
+		}
+	}
+
+	public boolean isExpired(long now) {
+		return null == this.getLeaseExpires() || this.getLeaseExpires().getTime() <= now;
+	}
+
+	private String _callback;
+	private String _topic;
+	private int _channelId;
+	private String _langCode;
+	private String _feedType;
+	private String _secret;
+	private Date _leaseExpires;
+
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.websub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * The HTTP calls of the hub to the subscribers: the verification of intent 
+ * and the delivery of the updated feeds, signed with the secret of the subscription.
+ * The callbacks are given by anonymous requests: unless allowed, the hub does not call 
+ * the loopback, link-local, private and multicast addresses, and it reads a few bytes of the responses at most. 
+ * The requests are written on a socket opened to the address checked, so the host is resolved only once.
+ * Instances are thread safe.
+ */
+public class WebSubClient {
+
+	public WebSubClient(int connectTimeout, int readTimeout) {
+		this(connectTimeout, readTimeout, false);
+	}
+
+	public WebSubClient(int connectTimeout, int readTimeout, boolean privateAddressesAllowed) {
+		this._connectTimeout = connectTimeout;
+		this._readTimeout = readTimeout;
+		this._privateAddressesAllowed = privateAddressesAllowed;
+	}
+
+	/**
+	 * Checks that the subscriber asked the (un)subscription: the callback must echo a random challenge.
+	 * @param callback the callback url
+	 * @param mode "subscribe" or "unsubscribe"
+	 * @param topic the topic url
+	 * @param leaseSeconds the lease of the subscription, ignored when unsubscribing
+	 * @return true if the subscriber confirmed
+	 * @throws IOException if the callback can't be called
+	 */
+	public boolean verifyIntent(String callback, String mode, String topic, int leaseSeconds) throws IOException {
+		String challenge = this.createChallenge();
+		StringBuilder url = new StringBuilder(callback);
+		url.append((callback.indexOf('?') < 0) ? '?' : '&');
+		url.append("hub.mode=").append(encode(mode));
+		url.append("&hub.topic=").append(encode(topic));
+		url.append("&hub.challenge=").append(challenge);
+		if (MODE_SUBSCRIBE.equals(mode)) {
+			url.append("&hub.lease_seconds=").append(leaseSeconds);
+		}
+		Response response = this.call("GET", url.toString(), new LinkedHashMap<String, String>(), null, challenge.length() * 2);
+		if (response._status < 200 || response._status >= 300) {
+			return false;
+		}
+		return challenge.equals(new String(response._body, StandardCharsets.UTF_8).trim());
+	}
+
+	/**
+	 * Delivers the content of a topic to a subscriber.
+	 * @param subscription the subscription
+	 * @param body the content of the topic
+	 * @param contentType the mime type of the content
+	 * @param hubUrl the url of the hub
+	 * @return the HTTP status answered by the subscriber
+	 * @throws IOException if the callback can't be called
+	 */
+	public int deliver(Subscription subscription, byte[] body, String contentType, String hubUrl) throws IOException {
+		Map<String, String> headers = new LinkedHashMap<String, String>();
+		headers.put("Content-Type", contentType);
+		headers.put("Link", "<" + hubUrl + ">; rel=\"hub\", <" + subscription.getTopic() + ">; rel=\"self\"");
+		if (null != subscription.getSecret()) {
+			headers.put("X-Hub-Signature", "sha256=" + sign(subscription.getSecret(), body));
+		}
+		return this.call("POST", subscription.getCallback(), headers, body, MAX_RESPONSE_LENGTH)._status;
+	}
+
+	/**
+	 * Signs a content with HMAC-SHA256.
+	 * @param secret the secret of the subscription
+	 * @param body the content
+	 * @return the signature, as lowercase hex
+	 */
+	public static String sign(String secret, byte[] body) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+			return toHex(mac.doFinal(body));
+		} catch (Exception e) {
+			throw new IllegalStateException("Error signing the content", e);
+		}
+	}
+
+	/**
+	 * Checks whether an address is public: not a wildcard, loopback, link-local (e.g. the cloud metadata services), 
+	 * private (site-local, IPv6 unique local, shared address space) or multicast address.
+	 * @param address the address
+	 * @return true if the address is public
+	 */
+	public static boolean isPublicAddress(InetAddress address) {
+		if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress() 
+				|| address.isSiteLocalAddress() || address.isMulticastAddress()) {
+			return false;
+		}
+		byte[] bytes = address.getAddress();
+		if (bytes.length == 4) {
+			// 0.0.0.0/8 and 100.64.0.0/10 (carrier-grade NAT)
+			return bytes[0] != 0 && !(bytes[0] == 100 && (bytes[1] & 0xC0) == 64);
+		}
+		// fc00::/7 (unique local)
+		return (bytes[0] & 0xFE) != 0xFC;
+	}
+
+	/**
+	 * Checks that an url has only printable ASCII characters, so that it can't break the request line.
+	 * @param url the url
+	 * @return true if the url has no whitespace, control or non ASCII characters
+	 */
+	public static boolean isPrintableUrl(String url) {
+		for (int i = 0; i < url.length(); i++) {
+			char c = url.charAt(i);
+			if (c <= ' ' || c >= 0x7F) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Calls a callback with a HTTP/1.1 request. The host is resolved once: the connection is opened 
+	 * to the address checked, so that a second resolution can't lead the hub to another address (DNS rebinding). 
+	 * The https connections check the certificate against the host of the callback.
+	 */
+	private Response call(String method, String url, Map<String, String> headers, byte[] body, int maxLength) throws IOException {
+		if (!isPrintableUrl(url)) {
+			throw new IOException("Invalid character in the callback url");
+		}
+		URL callback = new URL(url);
+		boolean secure = "https".equals(callback.getProtocol());
+		if (!secure && !"http".equals(callback.getProtocol())) {
+			throw new IOException("The callback " + url + " is not an http url");
+		}
+		String host = callback.getHost();
+		int port = (callback.getPort() > 0) ? callback.getPort() : callback.getDefaultPort();
+		InetAddress address = this.resolve(host);
+		Socket socket = new Socket();
+		try {
+			socket.connect(new InetSocketAddress(address, port), this._connectTimeout);
+			socket.setSoTimeout(this._readTimeout);
+			if (secure) {
+				SSLSocket sslSocket = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault()).createSocket(socket, host, port, true);
+				SSLParameters parameters = sslSocket.getSSLParameters();
+				parameters.setEndpointIdentificationAlgorithm("HTTPS");
+				sslSocket.setSSLParameters(parameters);
+				sslSocket.startHandshake();
+				socket = sslSocket;
+			}
+			StringBuilder request = new StringBuilder();
+			String path = callback.getFile();
+			request.append(method).append(' ').append((path.length() > 0) ? path : "/").append(" HTTP/1.1\r\n");
+			request.append("Host: ").append(host);
+			if (callback.getPort() > 0) {
+				request.append(':').append(callback.getPort());
+			}
+			request.append("\r\n").append("Connection: close\r\n");
+			Iterator<Map.Entry<String, String>> headerIter = headers.entrySet().iterator();
+			while (headerIter.hasNext()) {
+				Map.Entry<String, String> header = headerIter.next();
+				request.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+			}
+			if (null != body) {
+				request.append("Content-Length: ").append(body.length).append("\r\n");
+			}
+			request.append("\r\n");
+			OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+			out.write(request.toString().getBytes(StandardCharsets.UTF_8));
+			if (null != body) {
+				out.write(body);
+			}
+			out.flush();
+			return this.readResponse(new BufferedInputStream(socket.getInputStream()), maxLength);
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * Resolves the host of a callback and checks its addresses, unless the private addresses are allowed.
+	 * @return the address to connect to
+	 */
+	private InetAddress resolve(String host) throws IOException {
+		InetAddress[] addresses = InetAddress.getAllByName(host);
+		if (!this._privateAddressesAllowed) {
+			for (int i = 0; i < addresses.length; i++) {
+				if (!isPublicAddress(addresses[i])) {
+					throw new IOException("The callback " + host + " is not on a public address");
+				}
+			}
+		}
+		return addresses[0];
+	}
+
+	private Response readResponse(InputStream in, int maxLength) throws IOException {
+		String statusLine = this.readLine(in);
+		String[] parts = statusLine.split(" ");
+		if (parts.length < 2 || !parts[0].startsWith("HTTP/") || !parts[1].matches("[0-9]{3}")) {
+			throw new IOException("Invalid status line " + statusLine);
+		}
+		boolean chunked = false;
+		String line = null;
+		int headers = 0;
+		while ((line = this.readLine(in)).length() > 0) {
+			if (++headers > MAX_RESPONSE_HEADERS) {
+				throw new IOException("Too many response headers");
+			}
+			if (line.toLowerCase().startsWith("transfer-encoding:") && line.toLowerCase().contains("chunked")) {
+				chunked = true;
+			}
+		}
+		byte[] body = chunked ? this.readChunkedBody(in, maxLength) : this.readBody(in, maxLength);
+		return new Response(Integer.parseInt(parts[1]), body);
+	}
+
+	/**
+	 * Reads a line of the status or of the headers of a response, at most MAX_LINE_LENGTH bytes.
+	 */
+	private String readLine(InputStream in) throws IOException {
+		StringBuilder line = new StringBuilder();
+		int c = 0;
+		while ((c = in.read()) != '\n') {
+			if (c == -1) {
+				throw new IOException("Unexpected end of the response");
+			}
+			if (line.length() >= MAX_LINE_LENGTH) {
+				throw new IOException("Response line too long");
+			}
+			if (c != '\r') {
+				line.append((char) c);
+			}
+		}
+		return line.toString();
+	}
+
+	/**
+	 * Reads a chunked body up to the given number of bytes; the rest is not read.
+	 */
+	private byte[] readChunkedBody(InputStream in, int maxLength) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		while (body.size() < maxLength) {
+			String sizeLine = this.readLine(in);
+			int extension = sizeLine.indexOf(';');
+			String size = ((extension < 0) ? sizeLine : sizeLine.substring(0, extension)).trim();
+			if (!size.matches("[0-9a-fA-F]{1,7}")) {
+				throw new IOException("Invalid chunk size " + sizeLine);
+			}
+			int chunkLength = Integer.parseInt(size, 16);
+			if (chunkLength == 0) {
+				break;
+			}
+			int length = Math.min(chunkLength, maxLength - body.size());
+			for (int i = 0; i < length; i++) {
+				int c = in.read();
+				if (c == -1) {
+					throw new IOException("Unexpected end of the response");
+				}
+				body.write(c);
+			}
+			if (length < chunkLength) {
+				break;
+			}
+			this.readLine(in);
+		}
+		return body.toByteArray();
+	}
+
+	/**
+	 * Reads the body of a response up to the given number of bytes, within the read timeout; 
+	 * the rest is not read.
+	 */
+	private byte[] readBody(InputStream in, int maxLength) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[Math.min(maxLength, 1024)];
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this._readTimeout);
+		int read = 0;
+		while (body.size() < maxLength && System.nanoTime() < deadline 
+				&& (read = in.read(buffer, 0, Math.min(buffer.length, maxLength - body.size()))) != -1) {
+			body.write(buffer, 0, read);
+		}
+		return body.toByteArray();
+	}
+
+	private String createChallenge() {
+		byte[] bytes = new byte[16];
+		RANDOM.nextBytes(bytes);
+		return toHex(bytes);
+	}
+
+	private static String encode(String value) throws IOException {
+		return URLEncoder.encode(value, "UTF-8");
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (int i = 0; i < bytes.length; i++) {
+			hex.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16)).append(Character.forDigit(bytes[i] & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	/**
+	 * The status and the first bytes of the body of a response.
+	 */
+	private static class Response {
+
+		private Response(int status, byte[] body) {
+			this._status = status;
+			this._body = body;
+		}
+
+		private final int _status;
+		private final byte[] _body;
+
+	}
+
+	private final int _connectTimeout;
+	private final int _readTimeout;
+	private final boolean _privateAddressesAllowed;
+
+	public static final String MODE_SUBSCRIBE = "subscribe";
+	public static final String MODE_UNSUBSCRIBE = "unsubscribe";
+
+	private static final int MAX_RESPONSE_LENGTH = 8192;
+	private static final int MAX_LINE_LENGTH = 8192;
+	private static final int MAX_RESPONSE_HEADERS = 100;
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.websub;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.agiletec.aps.system.common.AbstractDAO;
+
+/**
+ * Data Access Object for the subscriptions of the WebSub hub.
+ */
+public class WebSubDAO extends AbstractDAO implements IWebSubDAO {
+
+	private static final Logger _logger = LoggerFactory.getLogger(WebSubDAO.class);
+
+	@Override
+	public List<Subscription> loadSubscriptions(int channelId) {
+		List<Subscription> subscriptions = new ArrayList<Subscription>();
+		Connection conn = null;
+		PreparedStatement stat = null;
+		ResultSet res = null;
+		try {
+			conn = this.getConnection();
+			stat = conn.prepareStatement(LOAD_SUBSCRIPTIONS);
+			stat.setInt(1, channelId);
+			res = stat.executeQuery();
+			while (res.next()) {
+				Subscription subscription = new Subscription();
+				subscription.setCallback(res.getString("callback"));
+				subscription.setTopic(res.getString("topic"));
+				subscription.setChannelId(res.getInt("channelid"));
+				subscription.setLangCode(res.getString("langcode"));
+				subscription.setFeedType(res.getString("feedtype"));
+				subscription.setSecret(res.getString("secret"));
+				Timestamp leaseExpires = res.getTimestamp("leaseexpires");
+				if (null != leaseExpires) {
+					subscription.setLeaseExpires(new Date(leaseExpires.getTime()));
+				}
+				subscriptions.add(subscription);
+			}
+		} catch (Throwable t) {
+			_logger.error("Error loading the subscriptions of channel {}", channelId, t);
+			throw new RuntimeException("Error loading subscriptions", t);
+		} finally {
+			closeDaoResources(res, stat, conn);
+		}
+		return subscriptions;
+	}
+
+	@Override
+	public boolean existsSubscription(String callback, String topic) {
+		return this.count(COUNT_SUBSCRIPTION, callback, topic) > 0;
+	}
+
+	@Override
+	public int countTopicSubscriptions(String topic) {
+		return this.count(COUNT_TOPIC_SUBSCRIPTIONS, topic);
+	}
+
+	@Override
+	public int countCallbackHostSubscriptions(String callbackHost) {
+		return this.count(COUNT_CALLBACK_HOST_SUBSCRIPTIONS, callbackHost);
+	}
+
+	private int count(String query, String... params) {
+		Connection conn = null;
+		PreparedStatement stat = null;
+		ResultSet res = null;
+		try {
+			conn = this.getConnection();
+			stat = conn.prepareStatement(query);
+			for (int i = 0; i < params.length; i++) {
+				stat.setString(i + 1, params[i]);
+			}
+			res = stat.executeQuery();
+			return res.next() ? res.getInt(1) : 0;
+		} catch (Throwable t) {
+			_logger.error("Error counting the subscriptions", t);
+			throw new RuntimeException("Error counting subscriptions", t);
+		} finally {
+			closeDaoResources(res, stat, conn);
+		}
+	}
+
+	@Override
+	public void saveSubscription(Subscription subscription) {
+		Connection conn = null;
+		PreparedStatement stat = null;
+		try {
+			conn = this.getConnection();
+			conn.setAutoCommit(false);
+			stat = conn.prepareStatement(DELETE_SUBSCRIPTION);
+			stat.setString(1, subscription.getCallback());
+			stat.setString(2, subscription.getTopic());
+			stat.executeUpdate();
+			stat.close();
+			stat = conn.prepareStatement(ADD_SUBSCRIPTION);
+			stat.setString(1, subscription.getCallback());
+			stat.setString(2, subscription.getTopic());
+			stat.setInt(3, subscription.getChannelId());
+			stat.setString(4, subscription.getLangCode());
+			stat.setString(5, subscription.getFeedType());
+			if (null != subscription.getSecret()) {
+				stat.setString(6, subscription.getSecret());
+			} else {
+				stat.setNull(6, Types.VARCHAR);
+			}
+			stat.setTimestamp(7, new Timestamp(subscription.getLeaseExpires().getTime()));
+			stat.setString(8, subscription.getCallbackHost());
+			stat.executeUpdate();
+			conn.commit();
+		} catch (Throwable t) {
+			this.executeRollback(conn);
+			_logger.error("Error saving the subscription of {} to {}", subscription.getCallback(), subscription.getTopic(), t);
+			throw new RuntimeException("Error saving subscription", t);
+		} finally {
+			closeDaoResources(null, stat, conn);
+		}
+	}
+
+	@Override
+	public void deleteSubscription(String callback, String topic) {
+		Connection conn = null;
+		PreparedStatement stat = null;
+		try {
+			conn = this.getConnection();
+			conn.setAutoCommit(false);
+			stat = conn.prepareStatement(DELETE_SUBSCRIPTION);
+			stat.setString(1, callback);
+			stat.setString(2, topic);
+			stat.executeUpdate();
+			conn.commit();
+		} catch (Throwable t) {
+			this.executeRollback(conn);
+			_logger.error("Error deleting the subscription of {} to {}", callback, topic, t);
+			throw new RuntimeException("Error deleting subscription", t);
+		} finally {
+			closeDaoResources(null, stat, conn);
+		}
+	}
+
+	@Override
+	public void deleteExpiredSubscriptions(Date now) {
+		Connection conn = null;
+		PreparedStatement stat = null;
+		try {
+			conn = this.getConnection();
+			conn.setAutoCommit(false);
+			stat = conn.prepareStatement(DELETE_EXPIRED_SUBSCRIPTIONS);
+			stat.setTimestamp(1, new Timestamp(now.getTime()));
+			stat.executeUpdate();
+			conn.commit();
+		} catch (Throwable t) {
+			this.executeRollback(conn);
+			_logger.error("Error deleting the expired subscriptions", t);
+			throw new RuntimeException("Error deleting expired subscriptions", t);
+		} finally {
+			closeDaoResources(null, stat, conn);
+		}
+	}
+
+	private static final String LOAD_SUBSCRIPTIONS = 
+		"SELECT callback, topic, channelid, langcode, feedtype, secret, leaseexpires FROM jprss_subscription " + 
+		"WHERE channelid = ?";
+
+	private static final String ADD_SUBSCRIPTION = 
+		"INSERT INTO jprss_subscription (callback, topic, channelid, langcode, feedtype, secret, leaseexpires, callbackhost) " + 
+		"VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String COUNT_SUBSCRIPTION = "SELECT COUNT(*) FROM jprss_subscription WHERE callback = ? AND topic = ?";
+
+	private static final String COUNT_TOPIC_SUBSCRIPTIONS = "SELECT COUNT(*) FROM jprss_subscription WHERE topic = ?";
+
+	private static final String COUNT_CALLBACK_HOST_SUBSCRIPTIONS = "SELECT COUNT(*) FROM jprss_subscription WHERE callbackhost = ?";
+
+	private static final String DELETE_SUBSCRIPTION = "DELETE FROM jprss_subscription WHERE callback = ? AND topic = ?";
+
+	private static final String DELETE_EXPIRED_SUBSCRIPTIONS = "DELETE FROM jprss_subscription WHERE leaseexpires <= ?";
+
+}
@@ -0,0 +1,618 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.websub;
+
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.entando.entando.plugins.jprss.aps.system.services.JpRssSystemConstants;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.Channel;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.FeedFormats;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.IRssManager;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.RenderedFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.agiletec.aps.system.SystemConstants;
+import com.agiletec.aps.system.common.AbstractService;
+import com.agiletec.aps.system.services.baseconfig.ConfigInterface;
+import com.agiletec.aps.system.services.lang.ILangManager;
+import com.agiletec.plugins.jacms.aps.system.services.content.event.PublicContentChangedEvent;
+import com.agiletec.plugins.jacms.aps.system.services.content.event.PublicContentChangedObserver;
+import com.agiletec.plugins.jacms.aps.system.services.content.model.Content;
+
+/**
+ * The WebSub (W3C Recommendation) hub of the plugin. 
+ * When a content is published, the channels of its content type are marked; after the batch delay 
+ * the marked channels are pushed together: every feed (lang and feed type) with subscribers 
+ * is rendered once and delivered to each of them. The verifications and the deliveries run on 
+ * a bounded pool; a failed delivery is retried with exponential backoff, a subscriber 
+ * that answers 410 Gone is removed. At most maxPendingVerifications verifications wait for the pool, 
+ * and the callbacks on private addresses are refused unless privateCallbacksAllowed. 
+ * A topic has at most maxTopicSubscriptions subscriptions, and the callbacks on a host 
+ * at most maxCallbackHostSubscriptions.
+ */
+public class WebSubManager extends AbstractService implements IWebSubManager, PublicContentChangedObserver {
+
+	private static final Logger _logger = LoggerFactory.getLogger(WebSubManager.class);
+
+	@Override
+	public void init() throws Exception {
+		this.setWebSubClient(new WebSubClient(this.getConnectTimeout(), this.getReadTimeout(), this.isPrivateCallbacksAllowed()));
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(this.getDeliveryThreads(), new HubThreadFactory());
+		executor.setRemoveOnCancelPolicy(true);
+		this.setExecutor(executor);
+		_logger.debug("{} ready", this.getClass().getName());
+	}
+
+	@Override
+	public void destroy() {
+		this.release();
+	}
+
+	/**
+	 * Shuts down the pool of the verifications and the deliveries, 
+	 * so that a refresh of the service creates it again without leaking its threads.
+	 */
+	@Override
+	protected void release() {
+		if (null != this.getExecutor()) {
+			this.getExecutor().shutdownNow();
+			this.setExecutor(null);
+		}
+		// the verifications dropped with the pool are no longer pending, the pending channels wait for the next publish
+		this._pendingVerifications = new AtomicInteger();
+		this._flushScheduled.set(false);
+	}
+
+	@Override
+	public void updateFromPublicContentChanged(PublicContentChangedEvent event) {
+		Content content = event.getContent();
+		if (null == content || null == this.getRssManager().getHubUrl()) {
+			return;
+		}
+		try {
+			List<Channel> channels = this.getRssManager().getChannels(Channel.STATUS_ACTIVE);
+			for (int i = 0; i < channels.size(); i++) {
+				if (content.getTypeCode().equals(channels.get(i).getContentType())) {
+					this.publish(channels.get(i).getId());
+				}
+			}
+		} catch (Throwable t) {
+			_logger.error("Error publishing the channels of content {}", content.getId(), t);
+		}
+	}
+
+	@Override
+	public void publish(int channelId) {
+		if (null == this.getExecutor()) {
+			return;
+		}
+		this._pendingChannels.add(channelId);
+		if (this._flushScheduled.compareAndSet(false, true)) {
+			this.getExecutor().schedule(new Runnable() {
+				@Override
+				public void run() {
+					flush();
+				}
+			}, this.getBatchDelay(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Pushes the feeds of the channels published since the last batch.
+	 */
+	protected void flush() {
+		this._flushScheduled.set(false);
+		List<Integer> channelsId = new ArrayList<Integer>();
+		Iterator<Integer> iter = this._pendingChannels.iterator();
+		while (iter.hasNext()) {
+			channelsId.add(iter.next());
+			iter.remove();
+		}
+		long now = System.currentTimeMillis();
+		try {
+			this.getWebSubDAO().deleteExpiredSubscriptions(new Date(now));
+		} catch (Throwable t) {
+			_logger.error("Error deleting the expired subscriptions", t);
+		}
+		for (int i = 0; i < channelsId.size(); i++) {
+			try {
+				this.pushChannel(channelsId.get(i), now);
+			} catch (Throwable t) {
+				_logger.error("Error pushing the feeds of channel {}", channelsId.get(i), t);
+			}
+		}
+	}
+
+	private void pushChannel(int channelId, long now) throws Throwable {
+		Channel channel = this.getRssManager().getChannel(channelId);
+		if (null == channel || !channel.isActive()) {
+			return;
+		}
+		Map<String, List<Subscription>> feeds = new LinkedHashMap<String, List<Subscription>>();
+		List<Subscription> subscriptions = this.getWebSubDAO().loadSubscriptions(channelId);
+		for (int i = 0; i < subscriptions.size(); i++) {
+			Subscription subscription = subscriptions.get(i);
+			if (subscription.isExpired(now)) {
+				continue;
+			}
+			String key = subscription.getLangCode() + "_" + subscription.getFeedType();
+			List<Subscription> subscribers = feeds.get(key);
+			if (null == subscribers) {
+				subscribers = new ArrayList<Subscription>();
+				feeds.put(key, subscribers);
+			}
+			subscribers.add(subscription);
+		}
+		String hubUrl = this.getRssManager().getHubUrl();
+		Iterator<List<Subscription>> feedIter = feeds.values().iterator();
+		while (feedIter.hasNext()) {
+			List<Subscription> subscribers = feedIter.next();
+			String lang = subscribers.get(0).getLangCode();
+			String feedType = subscribers.get(0).getFeedType();
+			// never the cached or the stale copy, that may predate the publication
+			RenderedFeed feed = this.getRssManager().renderFreshFeed(channel, lang, feedType, this.getBaseUrl() + lang + "/");
+			String contentType = FeedFormats.getMimeType(feedType);
+			for (int i = 0; i < subscribers.size(); i++) {
+				this.getExecutor().execute(new Delivery(subscribers.get(i), feed.getBody(), contentType, hubUrl, 1));
+			}
+		}
+	}
+
+	@Override
+	public HubRequestStatus subscribe(String callback, String topic, int leaseSeconds, String secret) {
+		Subscription subscription = this.createSubscription(callback, topic);
+		if (null == subscription || (null != secret && secret.getBytes().length >= MAX_SECRET_LENGTH)) {
+			return HubRequestStatus.INVALID;
+		}
+		if (!this.isWithinLimits(subscription)) {
+			_logger.debug("Too many subscriptions, {} to {} refused", subscription.getCallback(), subscription.getTopic());
+			return HubRequestStatus.LIMITED;
+		}
+		int lease = (leaseSeconds > 0) ? Math.min(leaseSeconds, this.getMaxLeaseSeconds()) : this.getDefaultLeaseSeconds();
+		subscription.setLeaseExpires(new Date(System.currentTimeMillis() + lease * 1000L));
+		subscription.setSecret(secret);
+		return this.verify(new Verification(subscription, WebSubClient.MODE_SUBSCRIBE, lease));
+	}
+
+	@Override
+	public HubRequestStatus unsubscribe(String callback, String topic) {
+		Subscription subscription = this.createSubscription(callback, topic);
+		if (null == subscription) {
+			return HubRequestStatus.INVALID;
+		}
+		return this.verify(new Verification(subscription, WebSubClient.MODE_UNSUBSCRIBE, 0));
+	}
+
+	/**
+	 * Checks that a new subscription stays within the limits of its topic and of the host of its callback. 
+	 * The renewal of an existing subscription is always within the limits.
+	 */
+	private boolean isWithinLimits(Subscription subscription) {
+		IWebSubDAO dao = this.getWebSubDAO();
+		if (dao.existsSubscription(subscription.getCallback(), subscription.getTopic())) {
+			return true;
+		}
+		return dao.countTopicSubscriptions(subscription.getTopic()) < this.getMaxTopicSubscriptions() 
+				&& dao.countCallbackHostSubscriptions(subscription.getCallbackHost()) < this.getMaxCallbackHostSubscriptions();
+	}
+
+	/**
+	 * Queues a verification, unless maxPendingVerifications are already queued or running: 
+	 * the queue of the executor is shared with the deliveries and is not bounded.
+	 */
+	private HubRequestStatus verify(Verification verification) {
+		if (verification._pending.incrementAndGet() > this.getMaxPendingVerifications()) {
+			verification._pending.decrementAndGet();
+			_logger.debug("Too many pending verifications, {} to {} refused", verification._mode, verification._subscription.getTopic());
+			return HubRequestStatus.BUSY;
+		}
+		try {
+			this.getExecutor().execute(verification);
+		} catch (RuntimeException e) {
+			verification._pending.decrementAndGet();
+			throw e;
+		}
+		return HubRequestStatus.ACCEPTED;
+	}
+
+	/**
+	 * The number of the verifications queued or running.
+	 * @return the number of the pending verifications
+	 */
+	public int getPendingVerifications() {
+		return this._pendingVerifications.get();
+	}
+
+	/**
+	 * Checks a request and returns the subscription it asks. 
+	 * The topic must be the url of a feed of an active channel, as advertised with the "self" link.
+	 * @return the subscription, null if the request is not valid
+	 */
+	private Subscription createSubscription(String callback, String topic) {
+		if (null == this.getExecutor() || null == this.getRssManager().getHubUrl() || null == callback || null == topic 
+				|| !(callback.startsWith("http://") || callback.startsWith("https://")) || callback.length() > MAX_URL_LENGTH 
+				|| !WebSubClient.isPrintableUrl(callback)) {
+			return null;
+		}
+		String feedUrl = this.getBaseUrl() + JpRssSystemConstants.FEED_ACTION_PATH + "?";
+		if (!topic.startsWith(feedUrl) || topic.length() > MAX_URL_LENGTH) {
+			return null;
+		}
+		try {
+			Map<String, String> params = this.parseQuery(topic.substring(feedUrl.length()));
+			String id = params.get("id");
+			String lang = params.get("lang");
+			if (null == id || !id.matches("[0-9]{1,9}") || null == lang || null == this.getLangManager().getLang(lang)) {
+				return null;
+			}
+			Channel channel = this.getRssManager().getChannel(Integer.parseInt(id));
+			if (null == channel || !channel.isActive()) {
+				return null;
+			}
+			String feedType = channel.getFeedType();
+			if (null != params.get("format")) {
+				feedType = FeedFormats.getFeedType(params.get("format"), this.getRssManager().getAvailableFeedTypes().keySet());
+			}
+			if (null == feedType || !topic.equals(this.getRssManager().getFeedUrl(channel, lang, feedType))) {
+				return null;
+			}
+			Subscription subscription = new Subscription();
+			subscription.setCallback(callback);
+			subscription.setTopic(topic);
+			subscription.setChannelId(channel.getId());
+			subscription.setLangCode(lang);
+			subscription.setFeedType(feedType);
+			return (null != subscription.getCallbackHost()) ? subscription : null;
+		} catch (Throwable t) {
+			_logger.error("Error checking the topic {}", topic, t);
+			return null;
+		}
+	}
+
+	private Map<String, String> parseQuery(String query) throws Exception {
+		Map<String, String> params = new HashMap<String, String>();
+		String[] pairs = query.split("&");
+		for (int i = 0; i < pairs.length; i++) {
+			int index = pairs[i].indexOf('=');
+			if (index > 0) {
+				params.put(URLDecoder.decode(pairs[i].substring(0, index), "UTF-8"), URLDecoder.decode(pairs[i].substring(index + 1), "UTF-8"));
+			}
+		}
+		return params;
+	}
+
+	private String getBaseUrl() {
+		String baseUrl = this.getConfigManager().getParam(SystemConstants.PAR_APPL_BASE_URL);
+		return (null != baseUrl) ? baseUrl : "";
+	}
+
+	/**
+	 * Verifies the intent of a subscriber and stores or removes its subscription.
+	 */
+	private class Verification implements Runnable {
+
+		private Verification(Subscription subscription, String mode, int leaseSeconds) {
+			this._subscription = subscription;
+			this._mode = mode;
+			this._leaseSeconds = leaseSeconds;
+			this._pending = _pendingVerifications;
+		}
+
+		@Override
+		public void run() {
+			try {
+				if (!getWebSubClient().verifyIntent(this._subscription.getCallback(), this._mode, this._subscription.getTopic(), this._leaseSeconds)) {
+					_logger.info("The subscriber {} did not confirm the {} to {}", this._subscription.getCallback(), this._mode, this._subscription.getTopic());
+					return;
+				}
+				if (WebSubClient.MODE_SUBSCRIBE.equals(this._mode)) {
+					synchronized (_subscriptionsLock) {
+						// the limits are checked again: other subscriptions may have been verified meanwhile
+						if (!isWithinLimits(this._subscription)) {
+							_logger.info("Too many subscriptions, {} to {} not stored", this._subscription.getCallback(), this._subscription.getTopic());
+							return;
+						}
+						getWebSubDAO().saveSubscription(this._subscription);
+					}
+				} else {
+					getWebSubDAO().deleteSubscription(this._subscription.getCallback(), this._subscription.getTopic());
+				}
+			} catch (Throwable t) {
+				_logger.warn("Error verifying the {} of {} to {}", this._mode, this._subscription.getCallback(), this._subscription.getTopic(), t);
+			} finally {
+				this._pending.decrementAndGet();
+			}
+		}
+
+		private final Subscription _subscription;
+		private final String _mode;
+		private final int _leaseSeconds;
+		private final AtomicInteger _pending;
+
+	}
+
+	/**
+	 * Delivers a feed to a subscriber, scheduling a new attempt when the delivery fails.
+	 */
+	private class Delivery implements Runnable {
+
+		private Delivery(Subscription subscription, byte[] body, String contentType, String hubUrl, int attempt) {
+			this._subscription = subscription;
+			this._body = body;
+			this._contentType = contentType;
+			this._hubUrl = hubUrl;
+			this._attempt = attempt;
+		}
+
+		@Override
+		public void run() {
+			int status = -1;
+			try {
+				status = getWebSubClient().deliver(this._subscription, this._body, this._contentType, this._hubUrl);
+			} catch (Throwable t) {
+				_logger.debug("Error delivering {} to {}", this._subscription.getTopic(), this._subscription.getCallback(), t);
+			}
+			if (status >= 200 && status < 300) {
+				return;
+			} else if (status == 410) {
+				getWebSubDAO().deleteSubscription(this._subscription.getCallback(), this._subscription.getTopic());
+			} else if (this._attempt < getMaxAttempts() && null != getExecutor()) {
+				long delay = getRetryDelay() << (this._attempt - 1);
+				getExecutor().schedule(new Delivery(this._subscription, this._body, this._contentType, this._hubUrl, this._attempt + 1), 
+						delay, TimeUnit.MILLISECONDS);
+			} else {
+				_logger.warn("Delivery of {} to {} failed after {} attempts, last status {}", 
+						this._subscription.getTopic(), this._subscription.getCallback(), this._attempt, status);
+			}
+		}
+
+		private final Subscription _subscription;
+		private final byte[] _body;
+		private final String _contentType;
+		private final String _hubUrl;
+		private final int _attempt;
+
+	}
+
+	private static class HubThreadFactory implements ThreadFactory {
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "jprss-websub-" + this._counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+		private final AtomicInteger _counter = new AtomicInteger();
+
+	}
+
+	protected IWebSubDAO getWebSubDAO() {
+		return _webSubDAO;
+	}
+	public void setWebSubDAO(IWebSubDAO webSubDAO) {
+		this._webSubDAO = webSubDAO;
+	}
+
+	protected IRssManager getRssManager() {
+		return _rssManager;
+	}
+	public void setRssManager(IRssManager rssManager) {
+		this._rssManager = rssManager;
+	}
+
+	protected ConfigInterface getConfigManager() {
+		return _configManager;
+	}
+	public void setConfigManager(ConfigInterface configManager) {
+		this._configManager = configManager;
+	}
+
+	protected ILangManager getLangManager() {
+		return _langManager;
+	}
+	public void setLangManager(ILangManager langManager) {
+		this._langManager = langManager;
+	}
+
+	protected WebSubClient getWebSubClient() {
+		return _webSubClient;
+	}
+	protected void setWebSubClient(WebSubClient webSubClient) {
+		this._webSubClient = webSubClient;
+	}
+
+	protected ScheduledThreadPoolExecutor getExecutor() {
+		return _executor;
+	}
+	protected void setExecutor(ScheduledThreadPoolExecutor executor) {
+		this._executor = executor;
+	}
+
+	protected int getDeliveryThreads() {
+		return _deliveryThreads;
+	}
+
+	/**
+	 * Sets the number of threads that verify the subscribers and deliver the feeds: 
+	 * the max number of concurrent calls to the subscribers.
+	 * @param deliveryThreads the number of threads
+	 */
+	public void setDeliveryThreads(int deliveryThreads) {
+		this._deliveryThreads = deliveryThreads;
+	}
+
+	protected long getBatchDelay() {
+		return _batchDelay;
+	}
+
+	/**
+	 * Sets the time the hub waits after a publication before pushing the feeds, 
+	 * so that the channels published meanwhile are pushed once.
+	 * @param batchDelay the delay in milliseconds
+	 */
+	public void setBatchDelay(long batchDelay) {
+		this._batchDelay = batchDelay;
+	}
+
+	protected int getMaxAttempts() {
+		return _maxAttempts;
+	}
+	public void setMaxAttempts(int maxAttempts) {
+		this._maxAttempts = maxAttempts;
+	}
+
+	protected long getRetryDelay() {
+		return _retryDelay;
+	}
+
+	/**
+	 * Sets the delay before the second attempt of a failed delivery; it doubles at every attempt.
+	 * @param retryDelay the delay in milliseconds
+	 */
+	public void setRetryDelay(long retryDelay) {
+		this._retryDelay = retryDelay;
+	}
+
+	protected int getConnectTimeout() {
+		return _connectTimeout;
+	}
+	public void setConnectTimeout(int connectTimeout) {
+		this._connectTimeout = connectTimeout;
+	}
+
+	protected int getReadTimeout() {
+		return _readTimeout;
+	}
+	public void setReadTimeout(int readTimeout) {
+		this._readTimeout = readTimeout;
+	}
+
+	protected int getMaxPendingVerifications() {
+		return _maxPendingVerifications;
+	}
+
+	/**
+	 * Sets the maximum number of the verifications queued or running; 
+	 * the requests beyond it are answered with 503.
+	 * @param maxPendingVerifications the bound of the verifications
+	 */
+	public void setMaxPendingVerifications(int maxPendingVerifications) {
+		this._maxPendingVerifications = maxPendingVerifications;
+	}
+
+	protected boolean isPrivateCallbacksAllowed() {
+		return _privateCallbacksAllowed;
+	}
+
+	/**
+	 * Sets whether the callbacks can be on loopback, link-local and private addresses. 
+	 * The hub is anonymous: only allow them when the subscribers are on the intranet 
+	 * and the hub is not reachable from the outside.
+	 * @param privateCallbacksAllowed true to allow the private callbacks
+	 */
+	public void setPrivateCallbacksAllowed(boolean privateCallbacksAllowed) {
+		this._privateCallbacksAllowed = privateCallbacksAllowed;
+	}
+
+	protected int getDefaultLeaseSeconds() {
+		return _defaultLeaseSeconds;
+	}
+	public void setDefaultLeaseSeconds(int defaultLeaseSeconds) {
+		this._defaultLeaseSeconds = defaultLeaseSeconds;
+	}
+
+	protected int getMaxLeaseSeconds() {
+		return _maxLeaseSeconds;
+	}
+	public void setMaxLeaseSeconds(int maxLeaseSeconds) {
+		this._maxLeaseSeconds = maxLeaseSeconds;
+	}
+
+	protected int getMaxTopicSubscriptions() {
+		return _maxTopicSubscriptions;
+	}
+
+	/**
+	 * Sets the maximum number of subscriptions to a topic; the requests beyond it are answered with 403.
+	 * @param maxTopicSubscriptions the bound of the subscriptions of a topic
+	 */
+	public void setMaxTopicSubscriptions(int maxTopicSubscriptions) {
+		this._maxTopicSubscriptions = maxTopicSubscriptions;
+	}
+
+	protected int getMaxCallbackHostSubscriptions() {
+		return _maxCallbackHostSubscriptions;
+	}
+
+	/**
+	 * Sets the maximum number of subscriptions of the callbacks on a host, to every topic; 
+	 * the requests beyond it are answered with 403.
+	 * @param maxCallbackHostSubscriptions the bound of the subscriptions of a callback host
+	 */
+	public void setMaxCallbackHostSubscriptions(int maxCallbackHostSubscriptions) {
+		this._maxCallbackHostSubscriptions = maxCallbackHostSubscriptions;
+	}
+
+	private IWebSubDAO _webSubDAO;
+	private IRssManager _rssManager;
+	private ConfigInterface _configManager;
+	private ILangManager _langManager;
+	private WebSubClient _webSubClient;
+	private ScheduledThreadPoolExecutor _executor;
+	private int _deliveryThreads = 4;
+	private long _batchDelay = 2000;
+	private int _maxAttempts = 5;
+	private long _retryDelay = 30000;
+	private int _connectTimeout = 5000;
+	private int _readTimeout = 10000;
+	private int _maxPendingVerifications = 100;
+	private boolean _privateCallbacksAllowed;
+	private int _defaultLeaseSeconds = 864000;
+	private int _maxLeaseSeconds = 2592000;
+	private int _maxTopicSubscriptions = 1000;
+	private int _maxCallbackHostSubscriptions = 20;
+
+	private final Set<Integer> _pendingChannels = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean _flushScheduled = new AtomicBoolean();
+	private final Object _subscriptionsLock = new Object();
+	private volatile AtomicInteger _pendingVerifications = new AtomicInteger();
+
+	private static final int MAX_SECRET_LENGTH = 200;
+	private static final int MAX_URL_LENGTH = 512;
+
+}
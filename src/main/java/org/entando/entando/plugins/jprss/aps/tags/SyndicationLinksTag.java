@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.tags;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.tagext.TagSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.agiletec.aps.system.RequestContext;
+import com.agiletec.aps.system.SystemConstants;
+import com.agiletec.aps.system.services.baseconfig.ConfigInterface;
+import com.agiletec.aps.system.services.lang.Lang;
+import com.agiletec.aps.util.ApsWebApplicationUtils;
+import org.entando.entando.plugins.jprss.aps.system.services.JpRssSystemConstants;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.IRssManager;
+
+/**
+ * This tag prints the autodiscovery links (&lt;link rel="alternate"&gt;) of all the active channels, 
+ * in the lang of the current page. The links are rendered once and then read from cache.
+ */
+public class SyndicationLinksTag extends TagSupport {
+	
+	private static final Logger _logger = LoggerFactory.getLogger(SyndicationLinksTag.class);
+	
+	@Override
+	public int doStartTag() throws JspException {
+		ServletRequest request = this.pageContext.getRequest();
+		try {
+			IRssManager rssManager = (IRssManager) ApsWebApplicationUtils.getBean(JpRssSystemConstants.RSS_MANAGER, this.pageContext);
+			ConfigInterface configManager = (ConfigInterface) ApsWebApplicationUtils.getBean(SystemConstants.BASE_CONFIG_MANAGER, this.pageContext);
+			RequestContext reqCtx = (RequestContext) request.getAttribute(RequestContext.REQCTX);
+			Lang currentLang = (null != reqCtx) ? (Lang) reqCtx.getExtraParam(SystemConstants.EXTRAPAR_CURRENT_LANG) : null;
+			if (null == currentLang) {
+				return SKIP_BODY;
+			}
+			String baseUrl = configManager.getParam(SystemConstants.PAR_APPL_BASE_URL);
+			this.pageContext.getOut().print(rssManager.getAutodiscoveryLinks(currentLang.getCode(), baseUrl));
+		} catch (Throwable t) {
+			_logger.error("error in doStartTag", t);
+			throw new JspException("Error in SyndicationLinksTag - doStartTag", t);
+		}
+		return SKIP_BODY;
+	}
+	
+}
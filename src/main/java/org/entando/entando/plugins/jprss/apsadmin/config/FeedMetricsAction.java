@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.apsadmin.config;
+
+import java.io.Writer;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.struts2.interceptor.ServletResponseAware;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.FeedMetrics;
+
+import com.agiletec.aps.system.ApsSystemUtils;
+import com.agiletec.apsadmin.system.BaseAction;
+
+/**
+ * The action that exposes the metrics of the feeds in the Prometheus text format. 
+ * The action is in the admin area and requires the superuser permission; 
+ * it answers 404 unless the endpoint is enabled.
+ */
+public class FeedMetricsAction extends BaseAction implements ServletResponseAware {
+
+	public String metrics() {
+		HttpServletResponse response = this.getServletResponse();
+		if (!this.isMetricsEnabled()) {
+			response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+			return null;
+		}
+		try {
+			response.setContentType(CONTENT_TYPE);
+			response.setHeader("Cache-Control", "no-store");
+			Writer writer = response.getWriter();
+			this.getFeedMetrics().writePrometheus(writer);
+			writer.flush();
+		} catch (Throwable t) {
+			ApsSystemUtils.logThrowable(t, this, "metrics");
+			response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+		}
+		return null;
+	}
+
+	protected FeedMetrics getFeedMetrics() {
+		return _feedMetrics;
+	}
+	public void setFeedMetrics(FeedMetrics feedMetrics) {
+		this._feedMetrics = feedMetrics;
+	}
+
+	protected boolean isMetricsEnabled() {
+		return _metricsEnabled;
+	}
+
+	/**
+	 * Enables the Prometheus endpoint of the metrics (off by default).
+	 * @param metricsEnabled true to expose the metrics
+	 */
+	public void setMetricsEnabled(boolean metricsEnabled) {
+		this._metricsEnabled = metricsEnabled;
+	}
+
+	@Override
+	public void setServletResponse(HttpServletResponse response) {
+		this._servletResponse = response;
+	}
+	public HttpServletResponse getServletResponse() {
+		return _servletResponse;
+	}
+
+	private FeedMetrics _feedMetrics;
+	private boolean _metricsEnabled;
+	private HttpServletResponse _servletResponse;
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+}
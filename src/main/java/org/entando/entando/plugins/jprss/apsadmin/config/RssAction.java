@@ -130,6 +130,7 @@ public class RssAction extends BaseAction {
 			this.setFilters(channel.getFilters());
 			this.setTitle(channel.getTitle());
 			this.setMaxContentsSize(channel.getMaxContentsSize());
+			this.setMaxConcurrentRequests(channel.getMaxConcurrentRequests());
 			this.setFiltersProperties(this.buildFilterProperties());
 		} catch (Throwable t) {
 			ApsSystemUtils.logThrowable(t, this, "edit");
@@ -154,6 +155,7 @@ public class RssAction extends BaseAction {
 			this.setFilters(channel.getFilters());
 			this.setTitle(channel.getTitle());
 			this.setMaxContentsSize(channel.getMaxContentsSize());
+			this.setMaxConcurrentRequests(channel.getMaxConcurrentRequests());
 		} catch (Throwable t) {
 			ApsSystemUtils.logThrowable(t, this, "trash");
 			return FAILURE;
@@ -248,6 +250,7 @@ public class RssAction extends BaseAction {
 		if (this.getMaxContentsSize() > 0) {
 			channel.setMaxContentsSize(this.getMaxContentsSize());
 		}
+		channel.setMaxConcurrentRequests(this.getMaxConcurrentRequests());
 		return channel;
 	}
 
@@ -416,6 +419,13 @@ public class RssAction extends BaseAction {
 		this._maxContentsSize = maxContentsSize;
 	}
 	
+	public int getMaxConcurrentRequests() {
+		return _maxConcurrentRequests;
+	}
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		this._maxConcurrentRequests = maxConcurrentRequests;
+	}
+	
 	public void setFilters(String filters) {
 		this._filters = filters;
 	}
@@ -460,6 +470,7 @@ public class RssAction extends BaseAction {
 	private String _contentType;
 	private String _category;
 	private int _maxContentsSize = -1;
+	private int _maxConcurrentRequests = -1;
 	
 	private String _filters;
 	private String _movement;
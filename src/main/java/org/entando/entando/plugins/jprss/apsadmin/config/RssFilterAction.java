@@ -103,6 +103,13 @@ public class RssFilterAction extends BaseFilterAction {
 		this._maxContentsSize = maxContentsSize;
 	}
 	
+	public int getMaxConcurrentRequests() {
+		return _maxConcurrentRequests;
+	}
+	public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+		this._maxConcurrentRequests = maxConcurrentRequests;
+	}
+	
 	private int _id;
 	private String _title;
 	private String _description;
@@ -113,5 +120,6 @@ public class RssFilterAction extends BaseFilterAction {
 	private int _strutsAction;
 	private List<Properties> _filtersProperties;
 	private int _maxContentsSize;
+	private int _maxConcurrentRequests = -1;
 	
 }
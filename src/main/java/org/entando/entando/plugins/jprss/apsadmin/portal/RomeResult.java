@@ -22,6 +22,10 @@
 package org.entando.entando.plugins.jprss.apsadmin.portal;
 
 import com.opensymphony.xwork2.ActionInvocation;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.FeedFormats;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.FeedStream;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.JsonFeedWriter;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.RenderedFeed;
 import com.rometools.rome.feed.synd.SyndFeed;
 import com.rometools.rome.io.SyndFeedOutput;
 
@@ -30,7 +34,12 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.struts2.ServletActionContext;
 import org.apache.struts2.result.StrutsResultSupport;
 
+import java.io.OutputStream;
 import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 /**
  * A simple {@link org.apache.struts2.dispatcher.StrutsResultSupport} to output a <a href="https://rome.dev.java.net/">Rome</a> {@link com.sun.syndication.feed.synd.SyndFeed} object into a newsfeed.
@@ -40,6 +49,9 @@ import java.io.Writer;
  * <li><b>feedName</b> (required): the expression to find the {@link com.sun.syndication.feed.synd.SyndFeed} on the value stack (eg. 'feed' will result in a call to 'getFeed()' on your Action.</li>
  * <li><b>mimeType</b> (optional, defaults to 'text/xml'): the preferred mime type.</li>
  * <li><b>encoding</b> (optional, defaults to the {@link com.sun.syndication.feed.synd.SyndFeed}'s encoding or falls back on the system): the preferred encoding (eg. UFT-8)
+ * <li><b>feedStreamName</b> (optional): the expression to find a {@link FeedStream} on the value stack. 
+ * When found, it is written straight to the response output stream and the {@link com.sun.syndication.feed.synd.SyndFeed} is not looked up. 
+ * Clients that accept gzip get the compressed variant stored beside a {@link RenderedFeed}, or a streamed feed compressed while it is written.</li>
  * <li><b>feedType</b> (optional): the feed type.
  * <p>
  * Accepted feedType values are:
@@ -55,6 +67,7 @@ import java.io.Writer;
  * <li>rss_1.0</li>
  * <li>rss_2.0</li>
  * </ul>
+ * JSON feeds (feed type json) are only written from a {@link FeedStream}, with the application/feed+json mime type.
  * </p>
  * </li>
  * </ul>
@@ -70,6 +83,7 @@ public class RomeResult extends StrutsResultSupport {
     private static final long serialVersionUID = -6638060951669685997L;
 
     private String feedName;                // must be set by the parameter
+    private String feedStreamName;          // optional, the feed stream takes precedence over the SyndFeed
     private String feedType;                // see javadoc for a list of the supported values
     private String mimeType = "text/xml";   // the original default, probably always wrong.
     private String encoding;                // defaults to platform default. Should be set in feed.
@@ -93,6 +107,13 @@ public class RomeResult extends StrutsResultSupport {
 
         // don't forget to set the content to the correct mimetype
         ServletActionContext.getResponse().setContentType(mimeType);
+        if (feedStreamName != null) {
+            FeedStream feedStream = (FeedStream) actionInvocation.getStack().findValue(feedStreamName);
+            if (feedStream != null) {
+                this.writeFeedStream(feedStream, ServletActionContext.getRequest(), ServletActionContext.getResponse());
+                return;
+            }
+        }
         // get the feed from the stack that can be found by the feedName
         SyndFeed feed = (SyndFeed) actionInvocation.getStack().findValue(feedName);
 
@@ -131,10 +152,102 @@ public class RomeResult extends StrutsResultSupport {
         }
     }
     
+    /**
+     * Writes a {@link FeedStream} into the response, compressed when the client accepts gzip.
+     * The stream is always closed, also when the request is a HEAD or the response fails before the feed is written.
+     * @param feedStream the feed to write
+     * @param request the request of the feed
+     * @param response the response to write to
+     */
+    protected void writeFeedStream(FeedStream feedStream, HttpServletRequest request, HttpServletResponse response) throws Exception {
+        try {
+            if (JsonFeedWriter.isSupported(feedStream.getFeedType()))
+                response.setContentType(FeedFormats.JSON_MIME_TYPE); // the configured mime type is meant for the xml feeds
+            // the bytes of the stream are already encoded, the configured encoding can't override it
+            response.setCharacterEncoding(feedStream.getEncoding());
+            response.addHeader("Vary", "Accept-Encoding");
+            boolean gzip = isGzipAccepted(request.getHeader("Accept-Encoding"));
+            RenderedFeed renderedFeed = (feedStream instanceof RenderedFeed) ? (RenderedFeed) feedStream : null;
+            if (gzip && renderedFeed != null && !renderedFeed.hasGzipBody())
+                gzip = false; // compression disabled when the feed was rendered
+            if (gzip) {
+                response.setHeader("Content-Encoding", "gzip");
+                // the compressed body is a different representation of the same feed
+                String eTag = response.getHeader("ETag");
+                if (eTag != null && eTag.startsWith("\""))
+                    response.setHeader("ETag", "W/" + eTag);
+                if (renderedFeed != null)
+                    response.setContentLength(renderedFeed.getGzipBody().length);
+            } else if (feedStream.getLength() >= 0) {
+                response.setContentLength(feedStream.getLength());
+            }
+            if ("HEAD".equalsIgnoreCase(request.getMethod()))
+                return;
+            OutputStream out = null;
+            try {
+                out = response.getOutputStream();
+                if (gzip && renderedFeed != null) {
+                    out.write(renderedFeed.getGzipBody());
+                } else if (gzip) {
+                    // a streamed feed is compressed while it is written
+                    out = new GZIPOutputStream(out, 8192);
+                    feedStream.writeTo(out);
+                } else {
+                    feedStream.writeTo(out);
+                }
+            } catch (Exception e) {
+                logger.error("Could not write the feed: " + e.getMessage(), e);
+            } finally {
+                if (out != null)
+                    out.close();
+            }
+        } finally {
+            feedStream.close();
+        }
+    }
+
+    /**
+     * Checks whether the client accepts a gzip body, honouring the quality values of the header.
+     * @param acceptEncoding the value of the Accept-Encoding header, may be null
+     * @return true if the gzip coding is acceptable
+     */
+    protected static boolean isGzipAccepted(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+        boolean accepted = false;
+        String[] codings = acceptEncoding.split(",");
+        for (int i = 0; i < codings.length; i++) {
+            String[] parts = codings[i].split(";");
+            String coding = parts[0].trim().toLowerCase();
+            boolean acceptable = true;
+            for (int j = 1; j < parts.length; j++) {
+                String param = parts[j].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        acceptable = Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        acceptable = false;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                // an explicit coding overrides the wildcard
+                return acceptable;
+            } else if (coding.equals("*")) {
+                accepted = acceptable;
+            }
+        }
+        return accepted;
+    }
+    
     public void setFeedName(String feedName) {
         this.feedName = feedName;
     }
 
+    public void setFeedStreamName(String feedStreamName) {
+        this.feedStreamName = feedStreamName;
+    }
+
     public void setFeedType(String feedType) {
         this.feedType = feedType;
     }
@@ -25,10 +25,24 @@ import com.agiletec.aps.system.ApsSystemUtils;
 import com.agiletec.aps.system.SystemConstants;
 import com.agiletec.aps.system.services.baseconfig.ConfigInterface;
 import com.agiletec.apsadmin.system.BaseAction;
+import org.entando.entando.plugins.jprss.aps.system.services.admission.FeedAdmission;
+import org.entando.entando.plugins.jprss.aps.system.services.admission.FeedAdmissionController;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.ChannelMetrics;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.FeedMetrics;
 import org.entando.entando.plugins.jprss.aps.system.services.rss.Channel;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.FeedFormats;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.FeedPage;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.FeedValidator;
 import org.entando.entando.plugins.jprss.aps.system.services.rss.IRssManager;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.RenderedFeed;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.FeedStream;
 import com.rometools.rome.feed.synd.SyndFeed;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -55,6 +69,14 @@ public class RssPortalAction extends BaseAction implements ServletResponseAware
 				log.info("Channel id was null.");
 				return null;
 			}
+			int suffixIndex = this.getId().indexOf('.');
+			if (suffixIndex > 0) {
+				// the format can be asked as a suffix of the id, e.g. id=12.atom
+				if (null == this.getFormat()) {
+					this.setFormat(this.getId().substring(suffixIndex + 1));
+				}
+				this.setId(this.getId().substring(0, suffixIndex));
+			}
 			boolean isnumeric = this.isNumeric(this.getId()); 
 			if (!isnumeric) {
 				log.info("JpRssPortalAction - Wrong channel id.");
@@ -66,17 +88,313 @@ public class RssPortalAction extends BaseAction implements ServletResponseAware
 				log.info("JpRssPortalAction - Channel " + channelId + " not found");
 				return null;
 			}
-			String feedLink = this.getFeedLink();
-			SyndFeed syndFeed = this.getRssManager().getSyndFeed(channel, this.getLang(), feedLink, this.getRequest(), this.getServletResponse());
-			this.setSyndFeed(syndFeed);
-			this.setFeedType(channel.getFeedType());
+			ChannelMetrics metrics = this.getFeedMetrics().get(channelId, this.getLang());
+			metrics.recordRequest();
+			FeedPage page = this.getFeedPage();
+			if (null == page) {
+				log.info("JpRssPortalAction - Wrong page or cursor.");
+				return null;
+			}
+			Date since = null;
+			if (null != this.getSince() && this.getSince().trim().length() > 0) {
+				since = this.parseSince(this.getSince().trim());
+				if (null == since || !page.isCurrent()) {
+					log.info("JpRssPortalAction - Wrong since.");
+					return null;
+				}
+			}
+			String feedType = FeedFormats.negotiate(this.getFormat(), this.getRequest().getHeader("Accept"), 
+					channel.getFeedType(), this.getRssManager().getAvailableFeedTypes().keySet());
+			return this.serveFeed(channel, feedType, page, since, metrics);
 		} catch (Throwable t) {
 			ApsSystemUtils.logThrowable(t, this, "show");
 			return FAILURE;
 		}
+	}
+
+	/**
+	 * Serves a feed. The requests answered with a 304 or with a cached feed are not subject 
+	 * to the admission control: only the requests that load the contents or render the feed are.
+	 */
+	private String serveFeed(Channel channel, String feedType, FeedPage page, Date since, 
+			ChannelMetrics metrics) throws Throwable {
+		FeedValidator validator = this.getRssManager().getFeedValidator(channel, this.getLang(), feedType, page);
+		HttpServletResponse response = this.getServletResponse();
+		response.addHeader("Vary", "Accept, A-IM");
+		String hubUrl = this.getRssManager().getHubUrl();
+		if (null != hubUrl && page.isCurrent()) {
+			// WebSub discovery, for every feed type
+			response.addHeader("Link", "<" + hubUrl + ">; rel=\"hub\"");
+			response.addHeader("Link", "<" + this.getRssManager().getFeedUrl(channel, this.getLang(), feedType) + ">; rel=\"self\"");
+		}
+		if (page.isArchive()) {
+			if (this.getRssManager().hasStableArchives(channel, this.getLang())) {
+				// a complete archive does not change while newer contents are published
+				response.setHeader("Cache-Control", "public, max-age=31536000, immutable");
+			} else {
+				// the archives shift when the list of the contents is capped or ordered by modify date
+				response.setHeader("Cache-Control", "public, max-age=" + ARCHIVE_MAX_AGE);
+			}
+		}
+		response.setDateHeader("Last-Modified", validator.getLastModified());
+		response.setHeader("ETag", validator.getETag());
+		if (this.isNotModified(validator)) {
+			metrics.recordNotModified();
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return null;
+		}
+		Date deltaSince = since;
+		if (null == since && page.isCurrent() && this.isFeedDeltaAccepted()) {
+			// RFC 3229: the client copy is the feed last modified at If-Modified-Since
+			long ifModifiedSince = this.getIfModifiedSince();
+			if (ifModifiedSince >= 0) {
+				deltaSince = new Date(ifModifiedSince);
+			}
+		}
+		if (null == deltaSince) {
+			RenderedFeed cachedFeed = this.getRssManager().getCachedFeed(channel, this.getLang(), feedType, page, 
+					this.getFeedLink(), this.getRequest());
+			if (null != cachedFeed) {
+				return this.setFeed(cachedFeed, channel, feedType, page, validator, metrics);
+			}
+		}
+		FeedAdmission admission = this.admit(channel);
+		if (!admission.isAdmitted()) {
+			return this.reject(channel, feedType, page.isCurrent() && null == since, admission, metrics);
+		}
+		boolean streamed = false;
+		try {
+			String result = this.serveAdmittedFeed(channel, feedType, page, since, deltaSince, validator, metrics, admission);
+			streamed = (this.getFeedStream() instanceof AdmittedFeedStream);
+			return result;
+		} finally {
+			if (!streamed) {
+				admission.release();
+			}
+		}
+	}
+
+	/**
+	 * Serves the feed of an admitted request. The admission of a feed streamed while it is written 
+	 * is released by the stream, that the {@link RomeResult} always closes.
+	 */
+	private String serveAdmittedFeed(Channel channel, String feedType, FeedPage page, Date since, Date deltaSince, 
+			FeedValidator validator, ChannelMetrics metrics, FeedAdmission admission) throws Throwable {
+		Logger log = ApsSystemUtils.getLogger();
+		int channelId = channel.getId();
+		HttpServletResponse response = this.getServletResponse();
+		String feedLink = this.getFeedLink();
+		if (null == since && null != deltaSince) {
+			response.setStatus(SC_IM_USED);
+			response.setHeader("IM", "feed");
+			response.setHeader("Cache-Control", "no-store, im");
+			since = deltaSince;
+		}
+		FeedStream feedStream = null;
+		if (null != since) {
+			feedStream = this.getRssManager().getDeltaFeed(channel, this.getLang(), feedType, since, feedLink, this.getRequest(), this.getServletResponse());
+		} else {
+			feedStream = this.getRssManager().getFeedStream(channel, this.getLang(), feedType, page, feedLink, this.getRequest(), this.getServletResponse());
+		}
+		if (null == feedStream) {
+			log.info("JpRssPortalAction - Page " + page + " of channel " + channelId + " not found");
+			response.setHeader("Cache-Control", "no-cache");
+			response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+			return null;
+		}
+		if (null == since && feedStream instanceof RenderedFeed) {
+			return this.setFeed((RenderedFeed) feedStream, channel, feedType, page, validator, metrics);
+		}
+		if (feedStream.getLength() >= 0) {
+			// the streamed feeds count their bytes while they are written
+			metrics.recordResponseBytes(feedStream.getLength());
+		} else {
+			// the entries of a streamed feed are loaded while it is written
+			feedStream = new AdmittedFeedStream(feedStream, admission);
+		}
+		this.setFeedStream(feedStream);
+		this.setFeedType(feedType);
 		return SUCCESS;
 	}
 
+	/**
+	 * Sets a rendered feed as the response.
+	 */
+	private String setFeed(RenderedFeed renderedFeed, Channel channel, String feedType, FeedPage page, 
+			FeedValidator validator, ChannelMetrics metrics) {
+		if (page.isCurrent()) {
+			FeedValidator feedValidator = new FeedValidator(channel.getId(), this.getLang(), feedType, renderedFeed.getLastModified());
+			if (!feedValidator.getETag().equals(validator.getETag())) {
+				// a stale copy is served while the feed is refreshed
+				this.getServletResponse().setDateHeader("Last-Modified", feedValidator.getLastModified());
+				this.getServletResponse().setHeader("ETag", feedValidator.getETag());
+			}
+		}
+		metrics.recordResponseBytes(renderedFeed.getLength());
+		this.setFeedStream(renderedFeed);
+		this.setFeedType(feedType);
+		return SUCCESS;
+	}
+
+	private FeedAdmission admit(Channel channel) {
+		FeedAdmissionController admissionController = this.getAdmissionController();
+		if (null == admissionController) {
+			return FeedAdmission.UNCONTROLLED;
+		}
+		return admissionController.admit(channel.getId(), channel.getMaxConcurrentRequests(), 
+				admissionController.getClientId(this.getRequest()));
+	}
+
+	/**
+	 * Answers a request that was not admitted: with the last rendered feed, if the request asks 
+	 * the current feed and the feed was rendered, otherwise with the status of the rejection 
+	 * and the Retry-After header.
+	 */
+	private String reject(Channel channel, String feedType, boolean currentFeed, 
+			FeedAdmission admission, ChannelMetrics metrics) {
+		HttpServletResponse response = this.getServletResponse();
+		RenderedFeed lastFeed = currentFeed 
+				? this.getRssManager().getLastRenderedFeed(channel, this.getLang(), feedType, this.getFeedLink(), this.getRequest()) : null;
+		metrics.recordRejection(admission.getRejectionReason(), null != lastFeed);
+		ApsSystemUtils.getLogger().debug("JpRssPortalAction - Request of channel " + channel.getId() 
+				+ " not admitted: " + admission.getRejectionReason().getLabel());
+		if (null == lastFeed) {
+			response.setHeader("Cache-Control", "no-store");
+			response.setHeader("Retry-After", String.valueOf(admission.getRetryAfterSeconds()));
+			response.setStatus(admission.getStatus());
+			return null;
+		}
+		FeedValidator validator = new FeedValidator(channel.getId(), this.getLang(), feedType, lastFeed.getLastModified());
+		response.setHeader("Cache-Control", "no-cache");
+		response.setDateHeader("Last-Modified", validator.getLastModified());
+		response.setHeader("ETag", validator.getETag());
+		if (this.isNotModified(validator)) {
+			metrics.recordNotModified();
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return null;
+		}
+		metrics.recordResponseBytes(lastFeed.getLength());
+		this.setFeedStream(lastFeed);
+		this.setFeedType(feedType);
+		return SUCCESS;
+	}
+
+	/**
+	 * Returns the document of the paged feed asked with the "page" (an archive) 
+	 * or the "cursor" (the entries after a content) parameters.
+	 * @return the asked document, null if the parameters are wrong
+	 */
+	private FeedPage getFeedPage() {
+		if (null != this.getPage() && this.getPage().trim().length() > 0) {
+			String page = this.getPage().trim();
+			if (!this.isNumeric(page) || page.length() > 9 || Integer.parseInt(page) < 1 || null != this.getCursor()) {
+				return null;
+			}
+			return FeedPage.archive(Integer.parseInt(page));
+		} else if (null != this.getCursor()) {
+			return FeedPage.isValidCursor(this.getCursor()) ? FeedPage.after(this.getCursor()) : null;
+		}
+		return FeedPage.CURRENT;
+	}
+
+	/**
+	 * Parses the "since" parameter: a unix timestamp in seconds 
+	 * or an ISO 8601 date time with offset (e.g. 2020-05-01T10:00:00Z).
+	 * @return the date, null if the parameter is wrong
+	 */
+	private Date parseSince(String since) {
+		try {
+			if (this.isNumeric(since)) {
+				return new Date(Long.parseLong(since) * 1000);
+			}
+			return Date.from(OffsetDateTime.parse(since).toInstant());
+		} catch (NumberFormatException | DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * A streamed feed that releases the admission of its request once written, 
+	 * or when the result closes it without writing it.
+	 */
+	private static class AdmittedFeedStream implements FeedStream {
+
+		private AdmittedFeedStream(FeedStream feedStream, FeedAdmission admission) {
+			this._feedStream = feedStream;
+			this._admission = admission;
+		}
+
+		@Override
+		public String getEncoding() {
+			return this._feedStream.getEncoding();
+		}
+
+		@Override
+		public String getFeedType() {
+			return this._feedStream.getFeedType();
+		}
+
+		@Override
+		public int getLength() {
+			return this._feedStream.getLength();
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			try {
+				this._feedStream.writeTo(out);
+			} finally {
+				this._admission.release();
+			}
+		}
+
+		@Override
+		public void close() {
+			try {
+				this._feedStream.close();
+			} finally {
+				this._admission.release();
+			}
+		}
+
+		private final FeedStream _feedStream;
+		private final FeedAdmission _admission;
+
+	}
+
+	private boolean isFeedDeltaAccepted() {
+		String aIm = this.getRequest().getHeader("A-IM");
+		if (null == aIm) {
+			return false;
+		}
+		String[] manipulations = aIm.split(",");
+		for (int i = 0; i < manipulations.length; i++) {
+			String manipulation = manipulations[i].trim();
+			int paramIndex = manipulation.indexOf(';');
+			if (paramIndex >= 0) {
+				manipulation = manipulation.substring(0, paramIndex).trim();
+			}
+			if (manipulation.equalsIgnoreCase("feed")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isNotModified(FeedValidator validator) {
+		return validator.isNotModified(this.getRequest().getHeader("If-None-Match"), this.getIfModifiedSince());
+	}
+
+	private long getIfModifiedSince() {
+		long ifModifiedSince = -1;
+		try {
+			ifModifiedSince = this.getRequest().getDateHeader("If-Modified-Since");
+		} catch (IllegalArgumentException e) {
+			ApsSystemUtils.getLogger().debug("JpRssPortalAction - Invalid If-Modified-Since header");
+		}
+		return ifModifiedSince;
+	}
+
 	private boolean isNumeric(String string) {
 		Pattern p = Pattern.compile("([0-9]*)");
 		Matcher m = p.matcher(string);
@@ -104,6 +422,52 @@ public class RssPortalAction extends BaseAction implements ServletResponseAware
 		return _lang;
 	}
 	
+	/**
+	 * The format asked by the client, a feed type or one of the short names "rss", "atom" and "rdf". 
+	 * When missing, the feed type is negotiated from the Accept header.
+	 * @param format the format of the feed
+	 */
+	public void setFormat(String format) {
+		this._format = format;
+	}
+	public String getFormat() {
+		return _format;
+	}
+	
+	/**
+	 * The number of the archive document of a paged feed, starting from 1 for the oldest.
+	 * @param page the number of the archive
+	 */
+	public void setPage(String page) {
+		this._page = page;
+	}
+	public String getPage() {
+		return _page;
+	}
+	
+	/**
+	 * The id of the content after which the page of a paged feed starts.
+	 * @param cursor the id of the last content of the previous page
+	 */
+	public void setCursor(String cursor) {
+		this._cursor = cursor;
+	}
+	public String getCursor() {
+		return _cursor;
+	}
+	
+	/**
+	 * The date from which the feed holds the modified contents only: 
+	 * a unix timestamp in seconds or an ISO 8601 date time.
+	 * @param since the date of the delta feed
+	 */
+	public void setSince(String since) {
+		this._since = since;
+	}
+	public String getSince() {
+		return _since;
+	}
+	
 	public void setRssManager(IRssManager rssManager) {
 		this._rssManager = rssManager;
 	}
@@ -111,6 +475,24 @@ public class RssPortalAction extends BaseAction implements ServletResponseAware
 		return _rssManager;
 	}
 	
+	public void setFeedMetrics(FeedMetrics feedMetrics) {
+		this._feedMetrics = feedMetrics;
+	}
+	protected FeedMetrics getFeedMetrics() {
+		return _feedMetrics;
+	}
+	
+	/**
+	 * The admission control of the feed requests; without it every request is admitted.
+	 * @param admissionController the admission controller
+	 */
+	public void setAdmissionController(FeedAdmissionController admissionController) {
+		this._admissionController = admissionController;
+	}
+	protected FeedAdmissionController getAdmissionController() {
+		return _admissionController;
+	}
+	
 	public void setConfigManager(ConfigInterface configManager) {
 		this._configManager = configManager;
 	}
@@ -133,6 +515,13 @@ public class RssPortalAction extends BaseAction implements ServletResponseAware
 		return _syndFeed;
 	}
 
+	public void setFeedStream(FeedStream feedStream) {
+		this._feedStream = feedStream;
+	}
+	public FeedStream getFeedStream() {
+		return _feedStream;
+	}
+
 	public void setFeedType(String feedType) {
 		this._feedType = feedType;
 	}
@@ -140,12 +529,22 @@ public class RssPortalAction extends BaseAction implements ServletResponseAware
 		return _feedType;
 	}
 	
+	private static final int SC_IM_USED = 226;
+	private static final int ARCHIVE_MAX_AGE = 300;
+	
 	private String _id;
 	private String _lang;
+	private String _format;
+	private String _page;
+	private String _cursor;
+	private String _since;
 	private IRssManager _rssManager;
+	private FeedMetrics _feedMetrics;
+	private FeedAdmissionController _admissionController;
 	private ConfigInterface _configManager;
 	private HttpServletResponse _servletResponse;
 	private SyndFeed _syndFeed;
+	private FeedStream _feedStream;
 	private String _feedType;
 	
 }
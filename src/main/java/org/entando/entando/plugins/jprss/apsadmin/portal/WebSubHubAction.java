@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.apsadmin.portal;
+
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.struts2.interceptor.ServletResponseAware;
+import org.entando.entando.plugins.jprss.aps.system.services.admission.ClientRateLimiter;
+import org.entando.entando.plugins.jprss.aps.system.services.admission.FeedAdmission;
+import org.entando.entando.plugins.jprss.aps.system.services.websub.HubRequestStatus;
+import org.entando.entando.plugins.jprss.aps.system.services.websub.IWebSubManager;
+import org.entando.entando.plugins.jprss.aps.system.services.websub.WebSubClient;
+
+import com.agiletec.aps.system.ApsSystemUtils;
+import com.agiletec.apsadmin.system.BaseAction;
+
+/**
+ * The action of the WebSub hub: it receives the subscription requests of the subscribers. 
+ * The requests are answered with 202 Accepted and verified asynchronously, 
+ * with 400 Bad Request when they are not valid, with 403 Forbidden when the topic or the host 
+ * of the callback has too many subscriptions, with 429 Too Many Requests 
+ * when the client exceeds its rate, or with 503 Service Unavailable when too many verifications are pending.
+ */
+public class WebSubHubAction extends BaseAction implements ServletResponseAware {
+
+	public String hub() {
+		HttpServletResponse response = this.getServletResponse();
+		try {
+			HttpServletRequest request = this.getRequest();
+			if (!"POST".equals(request.getMethod())) {
+				response.setHeader("Allow", "POST");
+				response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+				return null;
+			}
+			ClientRateLimiter rateLimiter = this.getClientRateLimiter();
+			if (null != rateLimiter) {
+				long waitNanos = rateLimiter.acquire(rateLimiter.getClientId(request));
+				if (waitNanos > 0) {
+					response.setHeader("Retry-After", String.valueOf(ClientRateLimiter.toRetryAfterSeconds(waitNanos)));
+					response.setStatus(FeedAdmission.SC_TOO_MANY_REQUESTS);
+					return null;
+				}
+			}
+			String mode = request.getParameter("hub.mode");
+			String callback = request.getParameter("hub.callback");
+			String topic = request.getParameter("hub.topic");
+			HubRequestStatus status = HubRequestStatus.INVALID;
+			if (WebSubClient.MODE_SUBSCRIBE.equals(mode)) {
+				String leaseSeconds = request.getParameter("hub.lease_seconds");
+				int lease = 0;
+				if (null != leaseSeconds && LEASE_PATTERN.matcher(leaseSeconds).matches()) {
+					lease = Integer.parseInt(leaseSeconds);
+				}
+				status = this.getWebSubManager().subscribe(callback, topic, lease, request.getParameter("hub.secret"));
+			} else if (WebSubClient.MODE_UNSUBSCRIBE.equals(mode)) {
+				status = this.getWebSubManager().unsubscribe(callback, topic);
+			}
+			if (status == HubRequestStatus.BUSY) {
+				response.setHeader("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+			}
+			response.setStatus(status.getStatus());
+		} catch (Throwable t) {
+			ApsSystemUtils.logThrowable(t, this, "hub");
+			response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+		}
+		return null;
+	}
+
+	protected IWebSubManager getWebSubManager() {
+		return _webSubManager;
+	}
+	public void setWebSubManager(IWebSubManager webSubManager) {
+		this._webSubManager = webSubManager;
+	}
+
+	protected ClientRateLimiter getClientRateLimiter() {
+		return _clientRateLimiter;
+	}
+
+	/**
+	 * The limit of the requests of every client; without it the requests are not limited.
+	 * @param clientRateLimiter the rate limiter
+	 */
+	public void setClientRateLimiter(ClientRateLimiter clientRateLimiter) {
+		this._clientRateLimiter = clientRateLimiter;
+	}
+
+	@Override
+	public void setServletResponse(HttpServletResponse response) {
+		this._servletResponse = response;
+	}
+	public HttpServletResponse getServletResponse() {
+		return _servletResponse;
+	}
+
+	private IWebSubManager _webSubManager;
+	private ClientRateLimiter _clientRateLimiter;
+	private HttpServletResponse _servletResponse;
+
+	private static final Pattern LEASE_PATTERN = Pattern.compile("[0-9]{1,9}");
+	private static final int RETRY_AFTER_SECONDS = 60;
+
+}
@@ -275,6 +275,20 @@
                 </div>
             </div>
 
+            <div class="form-group">
+                <div class="col-sm-2 control-label">
+                    <s:text name="label.maxConcurrentRequests" />
+                </div>
+                <div class="col-sm-10">
+                    <wpsf:select id="maxConcurrentRequests"
+                                 name="maxConcurrentRequests"
+                                 headerKey="-1"
+                                 headerValue="%{getText('label.maxConcurrentRequests.default')}"
+                                 list="#{1:1,2:2,4:4,8:8,16:16,32:32,64:64}"
+                                 cssClass="form-control" />
+                </div>
+            </div>
+
 
         </div>
 
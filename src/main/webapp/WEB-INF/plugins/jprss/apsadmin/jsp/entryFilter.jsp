@@ -55,6 +55,7 @@
         <wpsf:hidden name="feedType" />
         <wpsf:hidden name="category" />
         <wpsf:hidden name="maxContentsSize" />
+        <wpsf:hidden name="maxConcurrentRequests" />
         <wpsf:hidden name="filters" />
         <wpsf:hidden name="active" />
         <wpsf:hidden name="strutsAction" />
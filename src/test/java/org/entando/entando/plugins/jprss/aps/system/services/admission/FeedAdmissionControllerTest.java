@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.admission;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.RejectionReason;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class FeedAdmissionControllerTest {
+
+	private FeedAdmissionController admissionController;
+
+	@BeforeEach
+	public void setUp() {
+		admissionController = new FeedAdmissionController();
+		admissionController.setClientRate(0);
+		admissionController.setMaxConcurrentRequests(2);
+		admissionController.setMaxQueuedRequests(0);
+		admissionController.setRetryAfterSeconds(7);
+	}
+
+	@Test
+	void testChannelServesUpToItsLimit() {
+		FeedAdmission first = admissionController.admit(1, "client");
+		FeedAdmission second = admissionController.admit(1, "client");
+		Assertions.assertTrue(first.isAdmitted());
+		Assertions.assertTrue(second.isAdmitted());
+		FeedAdmission third = admissionController.admit(1, "client");
+		Assertions.assertFalse(third.isAdmitted());
+		Assertions.assertEquals(RejectionReason.CHANNEL_BUSY, third.getRejectionReason());
+		Assertions.assertEquals(FeedAdmission.SC_SERVICE_UNAVAILABLE, third.getStatus());
+		Assertions.assertEquals(7, third.getRetryAfterSeconds());
+		Assertions.assertTrue(admissionController.admit(2, "client").isAdmitted());
+		first.release();
+		first.release();
+		Assertions.assertTrue(admissionController.admit(1, "client").isAdmitted());
+		Assertions.assertFalse(admissionController.admit(1, "client").isAdmitted());
+	}
+
+	@Test
+	void testChannelLimitIsOverridden() {
+		for (int i = 0; i < 10; i++) {
+			Assertions.assertTrue(admissionController.admit(3, 0, "client").isAdmitted());
+		}
+		Assertions.assertTrue(admissionController.admit(3, 1, "client").isAdmitted());
+		Assertions.assertFalse(admissionController.admit(3, 1, "client").isAdmitted());
+		Assertions.assertTrue(admissionController.admit(3, -1, "client").isAdmitted());
+		Assertions.assertTrue(admissionController.admit(3, -1, "client").isAdmitted());
+		Assertions.assertFalse(admissionController.admit(3, -1, "client").isAdmitted());
+	}
+
+	@Test
+	void testRequestsWaitForBusyChannelWithinTheQueueBound() throws Exception {
+		admissionController.setMaxConcurrentRequests(1);
+		admissionController.setMaxQueuedRequests(1);
+		admissionController.setMaxQueueWait(5000);
+		FeedAdmission busy = admissionController.admit(1, "client");
+		CountDownLatch waiting = new CountDownLatch(1);
+		CompletableFuture<FeedAdmission> queued = CompletableFuture.supplyAsync(() -> {
+			waiting.countDown();
+			return admissionController.admit(1, "client");
+		});
+		waiting.await();
+		while (admissionController.getQueuedRequests() == 0) {
+			Thread.sleep(5);
+		}
+		Assertions.assertTrue(admissionController.admit(2, "client").isAdmitted());
+		FeedAdmission full = admissionController.admit(1, "client");
+		Assertions.assertEquals(RejectionReason.QUEUE_FULL, full.getRejectionReason());
+		busy.release();
+		Assertions.assertTrue(queued.get(5, TimeUnit.SECONDS).isAdmitted());
+		Assertions.assertEquals(0, admissionController.getQueuedRequests());
+	}
+
+	@Test
+	void testQueuedRequestTimesOut() {
+		admissionController.setMaxConcurrentRequests(1);
+		admissionController.setMaxQueuedRequests(10);
+		admissionController.setMaxQueueWait(20);
+		Assertions.assertTrue(admissionController.admit(1, "client").isAdmitted());
+		FeedAdmission timedOut = admissionController.admit(1, "client");
+		Assertions.assertEquals(RejectionReason.CHANNEL_BUSY, timedOut.getRejectionReason());
+		Assertions.assertEquals(0, admissionController.getQueuedRequests());
+	}
+
+	@Test
+	void testClientRateIsLimitedByTokenBucket() {
+		admissionController.setMaxConcurrentRequests(0);
+		admissionController.setClientRate(0.1);
+		admissionController.setClientBurst(3);
+		for (int i = 0; i < 3; i++) {
+			Assertions.assertTrue(admissionController.admit(1, "10.0.0.1").isAdmitted());
+		}
+		FeedAdmission limited = admissionController.admit(2, "10.0.0.1");
+		Assertions.assertEquals(RejectionReason.CLIENT_RATE, limited.getRejectionReason());
+		Assertions.assertEquals(FeedAdmission.SC_TOO_MANY_REQUESTS, limited.getStatus());
+		Assertions.assertTrue(limited.getRetryAfterSeconds() > 1 && limited.getRetryAfterSeconds() <= 10);
+		Assertions.assertTrue(admissionController.admit(1, "10.0.0.2").isAdmitted());
+	}
+
+	@Test
+	void testClientsBeyondTheTrackedOnesShareABucket() {
+		admissionController.setMaxConcurrentRequests(0);
+		admissionController.setClientRate(0.1);
+		admissionController.setClientBurst(2);
+		admissionController.setMaxTrackedClients(1);
+		Assertions.assertTrue(admissionController.admit(1, "tracked").isAdmitted());
+		Assertions.assertTrue(admissionController.admit(1, "first").isAdmitted());
+		Assertions.assertTrue(admissionController.admit(1, "second").isAdmitted());
+		Assertions.assertFalse(admissionController.admit(1, "third").isAdmitted());
+		Assertions.assertTrue(admissionController.admit(1, "tracked").isAdmitted());
+	}
+
+	@Test
+	void testClientIdFromHeaderOrRemoteAddress() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setRemoteAddr("10.0.0.9");
+		request.addHeader("X-Forwarded-For", " 6.6.6.6, 192.168.1.4");
+		Assertions.assertEquals("10.0.0.9", admissionController.getClientId(request));
+		admissionController.setClientIdHeader("X-Forwarded-For");
+		// the first addresses are sent by the client, the last one is added by the proxy
+		Assertions.assertEquals("192.168.1.4", admissionController.getClientId(request));
+		MockHttpServletRequest spoofed = new MockHttpServletRequest();
+		spoofed.setRemoteAddr("10.0.0.9");
+		spoofed.addHeader("X-Forwarded-For", "7.7.7.7, 192.168.1.4");
+		Assertions.assertEquals("192.168.1.4", admissionController.getClientId(spoofed));
+		MockHttpServletRequest direct = new MockHttpServletRequest();
+		direct.setRemoteAddr("10.0.0.8");
+		Assertions.assertEquals("10.0.0.8", admissionController.getClientId(direct));
+	}
+
+}
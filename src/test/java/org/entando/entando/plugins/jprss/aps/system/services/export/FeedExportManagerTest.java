@@ -0,0 +1,218 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.export;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.entando.entando.plugins.jprss.aps.system.services.rss.Channel;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.IRssManager;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.RenderedFeed;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.event.ChannelChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.agiletec.aps.system.SystemConstants;
+import com.agiletec.aps.system.services.baseconfig.ConfigInterface;
+import com.agiletec.aps.system.services.lang.ILangManager;
+import com.agiletec.aps.system.services.lang.Lang;
+import com.agiletec.plugins.jacms.aps.system.services.content.event.PublicContentChangedEvent;
+import com.agiletec.plugins.jacms.aps.system.services.content.model.Content;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FeedExportManagerTest {
+
+	@Mock
+	private IRssManager rssManager;
+	@Mock
+	private ConfigInterface configManager;
+	@Mock
+	private ILangManager langManager;
+
+	@TempDir
+	Path exportDir;
+
+	private FeedExportManager exportManager;
+	private Channel rssChannel;
+	private Channel jsonChannel;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		rssChannel = this.createChannel(1, "ART", "rss_2.0");
+		jsonChannel = this.createChannel(2, "NEW", "json");
+		when(rssManager.getChannel(1)).thenReturn(rssChannel);
+		when(rssManager.getChannel(2)).thenReturn(jsonChannel);
+		when(rssManager.getChannels(Channel.STATUS_ACTIVE)).thenReturn(Arrays.asList(rssChannel, jsonChannel));
+		when(rssManager.getRenderedFeed(any(Channel.class), anyString(), anyString(), anyString(), any(), any()))
+				.thenAnswer(invocation -> {
+					Channel channel = invocation.getArgument(0);
+					String lang = invocation.getArgument(1);
+					byte[] body = ("feed " + channel.getId() + " " + lang).getBytes(StandardCharsets.UTF_8);
+					return new RenderedFeed(channel.getId(), channel.getContentType(), lang, channel.getFeedType(), 
+							invocation.getArgument(3), "UTF-8", 1500000000000L, body, null);
+				});
+		when(configManager.getParam(SystemConstants.PAR_APPL_BASE_URL)).thenReturn("http://localhost/portal/");
+		when(langManager.getLangs()).thenReturn(Arrays.asList(this.createLang("en"), this.createLang("it")));
+		exportManager = new FeedExportManager();
+		exportManager.setRssManager(rssManager);
+		exportManager.setConfigManager(configManager);
+		exportManager.setLangManager(langManager);
+		exportManager.setExportDir(exportDir.toString());
+		exportManager.setParallelism(2);
+		exportManager.setExportDelay(50);
+		exportManager.init();
+		// waits for the export made at startup
+		exportManager.getScheduler().submit(() -> {}).get();
+		clearInvocations(rssManager);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		exportManager.destroy();
+	}
+
+	@Test
+	void testRefreshShutsDownTheReplacedPools() throws Throwable {
+		ScheduledThreadPoolExecutor scheduler = exportManager.getScheduler();
+		ForkJoinPool forkJoinPool = exportManager.getForkJoinPool();
+		exportManager.refresh();
+		Assertions.assertTrue(scheduler.isShutdown());
+		Assertions.assertTrue(forkJoinPool.isShutdown());
+		Assertions.assertNotSame(scheduler, exportManager.getScheduler());
+		Assertions.assertNotSame(forkJoinPool, exportManager.getForkJoinPool());
+		exportManager.getScheduler().submit(() -> {}).get();
+	}
+
+	@Test
+	void testEveryChannelIsExportedWithItsGzipTwin() throws Exception {
+		Path stale = Files.write(exportDir.resolve("9_en.xml"), new byte[0]);
+		Path other = Files.write(exportDir.resolve("robots.txt"), new byte[0]);
+		Assertions.assertEquals(4, exportManager.exportAll());
+		Assertions.assertEquals("feed 1 en", this.read(exportDir.resolve("1_en.xml")));
+		Assertions.assertEquals("feed 2 it", this.read(exportDir.resolve("2_it.json")));
+		Assertions.assertEquals("feed 1 it", this.readGzip(exportDir.resolve("1_it.xml.gz")));
+		Assertions.assertEquals("feed 2 en", this.readGzip(exportDir.resolve("2_en.json.gz")));
+		Assertions.assertEquals(1500000000000L, Files.getLastModifiedTime(exportDir.resolve("1_en.xml")).toMillis());
+		verify(rssManager).getRenderedFeed(eq(rssChannel), eq("en"), eq("rss_2.0"), eq("http://localhost/portal/en/"), any(), any());
+		Assertions.assertFalse(Files.exists(stale));
+		Assertions.assertTrue(Files.exists(other));
+		try (Stream<Path> files = Files.list(exportDir)) {
+			Assertions.assertEquals(9, files.filter(file -> !file.getFileName().toString().endsWith(".tmp")).count());
+		}
+	}
+
+	@Test
+	void testPublishedContentExportsOnlyItsChannels() throws Exception {
+		Content content = new Content();
+		content.setId("NEW1");
+		content.setTypeCode("NEW");
+		PublicContentChangedEvent event = new PublicContentChangedEvent();
+		event.setContent(content);
+		try (Stream<Path> files = Files.list(exportDir)) {
+			files.forEach(file -> file.toFile().delete());
+		}
+		exportManager.updateFromPublicContentChanged(event);
+		verify(rssManager, timeout(5000)).getRenderedFeed(eq(jsonChannel), eq("it"), anyString(), anyString(), any(), any());
+		Thread.sleep(100);
+		verify(rssManager, never()).getRenderedFeed(eq(rssChannel), anyString(), anyString(), anyString(), any(), any());
+		try (Stream<Path> files = Files.list(exportDir)) {
+			Assertions.assertEquals(Arrays.asList("2_en.json", "2_en.json.gz", "2_it.json", "2_it.json.gz"), 
+					files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	void testChangedChannelsAreExportedAgainAndTheirOldFilesDeleted() throws Exception {
+		Assertions.assertEquals(4, exportManager.exportAll());
+		rssChannel.setFeedType("json");
+		when(rssManager.getChannel(2)).thenReturn(null);
+		exportManager.updateFromChannelChanged(new ChannelChangedEvent(1, ChannelChangedEvent.UPDATE_OPERATION_CODE));
+		exportManager.updateFromChannelChanged(new ChannelChangedEvent(2, ChannelChangedEvent.REMOVE_OPERATION_CODE));
+		verify(rssManager, timeout(5000).times(2)).getRenderedFeed(eq(rssChannel), eq("it"), anyString(), anyString(), any(), any());
+		exportManager.getScheduler().submit(() -> {}).get();
+		try (Stream<Path> files = Files.list(exportDir)) {
+			Assertions.assertEquals(Arrays.asList("1_en.json", "1_en.json.gz", "1_it.json", "1_it.json.gz"), 
+					files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList()));
+		}
+		Assertions.assertEquals("feed 1 en", this.readGzip(exportDir.resolve("1_en.json.gz")));
+	}
+
+	private Channel createChannel(int id, String contentType, String feedType) {
+		Channel channel = new Channel();
+		channel.setId(id);
+		channel.setActive(true);
+		channel.setContentType(contentType);
+		channel.setFeedType(feedType);
+		return channel;
+	}
+
+	private Lang createLang(String code) {
+		Lang lang = new Lang();
+		lang.setCode(code);
+		return lang;
+	}
+
+	private String read(Path file) throws Exception {
+		return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+	}
+
+	private String readGzip(Path file) throws Exception {
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[1024];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				out.write(buffer, 0, read);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+}
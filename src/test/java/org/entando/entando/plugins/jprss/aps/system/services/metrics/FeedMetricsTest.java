@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.metrics;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FeedMetricsTest {
+
+	@Test
+	void testHistogramBucketsAndQuantiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 98; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(500));
+		}
+		histogram.record(TimeUnit.MILLISECONDS.toNanos(30));
+		histogram.record(TimeUnit.SECONDS.toNanos(20));
+		Assertions.assertEquals(100, histogram.getCount());
+		long[] counts = histogram.getBucketCounts();
+		Assertions.assertEquals(98, counts[0]);
+		Assertions.assertEquals(1, counts[4]);
+		Assertions.assertEquals(1, counts[counts.length - 1]);
+		Assertions.assertEquals(1.0, histogram.getQuantileMillis(0.5));
+		Assertions.assertEquals(50.0, histogram.getQuantileMillis(0.99));
+		Assertions.assertEquals(10000.0, histogram.getQuantileMillis(1));
+	}
+
+	@Test
+	void testPrometheusExposition() throws Exception {
+		FeedMetrics feedMetrics = new FeedMetrics();
+		ChannelMetrics second = feedMetrics.get(2, "en");
+		ChannelMetrics first = feedMetrics.get(1, "it");
+		Assertions.assertSame(first, feedMetrics.get(1, "it"));
+		first.recordRequest();
+		first.recordRequest();
+		first.recordNotModified();
+		second.recordRequest();
+		first.recordPhase(FeedPhase.QUERY, TimeUnit.MILLISECONDS.toNanos(3));
+		first.recordRejection(RejectionReason.CLIENT_RATE, false);
+		first.recordRejection(RejectionReason.CHANNEL_BUSY, true);
+		first.recordRejection(RejectionReason.CHANNEL_BUSY, false);
+		StringWriter writer = new StringWriter();
+		feedMetrics.writePrometheus(writer);
+		String text = writer.toString();
+		Assertions.assertTrue(text.contains("# TYPE jprss_feed_requests_total counter\n"
+				+ "jprss_feed_requests_total{channel=\"1\",lang=\"it\"} 2\n"
+				+ "jprss_feed_requests_total{channel=\"2\",lang=\"en\"} 1\n"), text);
+		Assertions.assertTrue(text.contains("jprss_feed_not_modified_total{channel=\"1\",lang=\"it\"} 1\n"));
+		Assertions.assertTrue(text.contains("# TYPE jprss_feed_phase_duration_seconds histogram\n"));
+		Assertions.assertTrue(text.contains("jprss_feed_phase_duration_seconds_bucket{channel=\"1\",lang=\"it\",phase=\"query\",le=\"0.001\"} 0\n"));
+		Assertions.assertTrue(text.contains("jprss_feed_phase_duration_seconds_bucket{channel=\"1\",lang=\"it\",phase=\"query\",le=\"0.005\"} 1\n"));
+		Assertions.assertTrue(text.contains("jprss_feed_phase_duration_seconds_bucket{channel=\"1\",lang=\"it\",phase=\"query\",le=\"+Inf\"} 1\n"));
+		Assertions.assertTrue(text.contains("jprss_feed_phase_duration_seconds_sum{channel=\"1\",lang=\"it\",phase=\"query\"} 0.003\n"));
+		Assertions.assertTrue(text.contains("jprss_feed_phase_duration_seconds_count{channel=\"2\",lang=\"en\",phase=\"serialization\"} 0\n"));
+		Assertions.assertTrue(text.contains("# TYPE jprss_feed_rejections_total counter\n"
+				+ "jprss_feed_rejections_total{channel=\"1\",lang=\"it\",reason=\"client_rate\"} 1\n"
+				+ "jprss_feed_rejections_total{channel=\"1\",lang=\"it\",reason=\"channel_busy\"} 2\n"
+				+ "jprss_feed_rejections_total{channel=\"1\",lang=\"it\",reason=\"queue_full\"} 0\n"), text);
+		Assertions.assertTrue(text.contains("jprss_feed_last_feeds_served_total{channel=\"1\",lang=\"it\"} 1\n"));
+		Assertions.assertEquals(0.5, first.getNotModifiedRatio());
+		Assertions.assertEquals(3, first.getRejections());
+	}
+
+	@Test
+	void testMetricsAreRegisteredAsMBeans() throws Exception {
+		FeedMetrics feedMetrics = new FeedMetrics();
+		feedMetrics.setJmxEnabled(true);
+		feedMetrics.setJmxDomain("org.entando.entando.plugins.jprss.test");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName("org.entando.entando.plugins.jprss.test:type=FeedMetrics,channel=7,lang=\"en\"");
+		try {
+			feedMetrics.get(7, "en").recordRequest();
+			Assertions.assertEquals(1L, server.getAttribute(name, "Requests"));
+			feedMetrics.removeChannel(7);
+			Assertions.assertFalse(server.isRegistered(name));
+		} finally {
+			feedMetrics.destroy();
+		}
+	}
+
+}
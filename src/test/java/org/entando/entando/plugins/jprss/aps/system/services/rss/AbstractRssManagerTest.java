@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.agiletec.aps.system.services.lang.ILangManager;
+import com.agiletec.aps.system.services.lang.Lang;
+import com.agiletec.aps.system.services.page.IPage;
+import com.agiletec.aps.system.services.page.IPageManager;
+import com.agiletec.plugins.jacms.aps.system.services.content.IContentManager;
+import com.agiletec.plugins.jacms.aps.system.services.content.event.PublicContentChangedEvent;
+import com.agiletec.plugins.jacms.aps.system.services.content.model.Content;
+import com.agiletec.plugins.jacms.aps.system.services.linkresolver.ILinkResolverManager;
+
+/**
+ * The fixture of the tests of the {@link RssManager} features: a manager with mocked 
+ * collaborators, the channels, the content ids and the entries of the projection.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+abstract class AbstractRssManagerTest {
+
+	@Mock
+	protected IContentManager contentManager;
+	@Mock
+	protected IPageManager pageManager;
+	@Mock
+	protected ILinkResolverManager linkResolver;
+	@Mock
+	protected ILangManager langManager;
+	@Mock
+	protected IRssDAO rssDAO;
+	@Mock
+	protected IRssContentDAO rssContentDAO;
+	@Mock
+	protected IRssEntryDAO rssEntryDAO;
+	@Mock
+	protected IPage page;
+
+	protected RssManager rssManager;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		Lang lang = new Lang();
+		lang.setCode("en");
+		List<Lang> langs = new ArrayList<Lang>();
+		langs.add(lang);
+		when(langManager.getDefaultLang()).thenReturn(lang);
+		when(langManager.getLangs()).thenReturn(langs);
+		when(page.getCode()).thenReturn("homepage");
+		when(pageManager.getOnlinePage(anyString())).thenReturn(page);
+		when(pageManager.getOnlineRoot()).thenReturn(page);
+		rssManager = new RssManager();
+		rssManager.setContentManager(contentManager);
+		rssManager.setPageManager(pageManager);
+		rssManager.setLinkResolver(linkResolver);
+		rssManager.setLangManager(langManager);
+		rssManager.setRssDAO(rssDAO);
+		rssManager.setRssContentDAO(rssContentDAO);
+		rssManager.setRssEntryDAO(rssEntryDAO);
+		Map<String, RssContentMapping> mappings = new HashMap<String, RssContentMapping>();
+		RssContentMapping mapping = new RssContentMapping();
+		mapping.setContentType("ART");
+		mapping.setTitleAttributeName("Titolo");
+		mappings.put("ART", mapping);
+		rssManager.setContentMapping(mappings);
+	}
+
+	protected Channel createChannel(int maxContentsSize) {
+		Channel channel = new Channel();
+		channel.setId(1);
+		channel.setActive(true);
+		channel.setContentType("ART");
+		channel.setDescription("channel");
+		channel.setTitle("channel");
+		channel.setFeedType("rss_2.0");
+		channel.setMaxContentsSize(maxContentsSize);
+		return channel;
+	}
+
+	protected List<String> createIds(int size) {
+		List<String> ids = new ArrayList<String>();
+		for (int i = 0; i < size; i++) {
+			ids.add("ART" + i);
+		}
+		return ids;
+	}
+
+	protected Map<String, RssEntryRecord> createEntries(List<String> ids) {
+		Map<String, RssEntryRecord> entries = new HashMap<String, RssEntryRecord>();
+		for (String id : ids) {
+			RssEntryRecord entry = new RssEntryRecord();
+			entry.setContentId(id);
+			entry.setLangCode("en");
+			entry.setContentType("ART");
+			entry.setTitle("title " + id);
+			entry.setViewPage("homepage");
+			entry.setLastModified(new Date());
+			entries.put(id, entry);
+		}
+		return entries;
+	}
+
+	protected void publishContent(String id) {
+		Content content = new Content();
+		content.setId(id);
+		content.setTypeCode("ART");
+		PublicContentChangedEvent event = new PublicContentChangedEvent();
+		event.setContent(content);
+		event.setOperationCode(PublicContentChangedEvent.INSERT_OPERATION_CODE);
+		rssManager.updateFromPublicContentChanged(event);
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
+import com.agiletec.plugins.jacms.aps.system.services.content.IContentManager;
+import com.agiletec.plugins.jacms.aps.system.services.content.model.Content;
+import com.rometools.rome.feed.synd.SyndFeed;
+
+class ChannelFilterPlanTest extends AbstractRssManagerTest {
+
+	@Test
+	void testMaxContentsSizeIsPushedIntoTheQuery() throws Exception {
+		Channel channel = this.createChannel(20);
+		List<String> ids = this.createIds(20);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		SyndFeed feed = rssManager.getSyndFeed(channel, "en", "http://localhost/portal/en/", null, null);
+		Assertions.assertEquals(20, feed.getEntries().size());
+		ArgumentCaptor<EntitySearchFilter[]> captor = ArgumentCaptor.forClass(EntitySearchFilter[].class);
+		verify(contentManager, times(1)).loadPublicContentsId(eq("ART"), any(), captor.capture(), any(Collection.class));
+		EntitySearchFilter limitFilter = null;
+		EntitySearchFilter orderFilter = null;
+		for (EntitySearchFilter filter : captor.getValue()) {
+			if (null != filter.getLimit()) {
+				limitFilter = filter;
+			}
+			if (null != filter.getOrder()) {
+				orderFilter = filter;
+			}
+		}
+		Assertions.assertNotNull(limitFilter);
+		Assertions.assertEquals(20, limitFilter.getLimit().intValue());
+		Assertions.assertNotNull(orderFilter);
+		Assertions.assertEquals(IContentManager.CONTENT_MODIFY_DATE_FILTER_KEY, orderFilter.getKey());
+		verify(rssContentDAO, times(0)).loadContentRecords(anyList());
+	}
+
+	@Test
+	void testNoLimitWithoutMaxContentsSize() throws Exception {
+		Channel channel = this.createChannel(-1);
+		List<String> ids = this.createIds(5);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		rssManager.getSyndFeed(channel, "en", "http://localhost/portal/en/", null, null);
+		ArgumentCaptor<EntitySearchFilter[]> captor = ArgumentCaptor.forClass(EntitySearchFilter[].class);
+		verify(contentManager, times(1)).loadPublicContentsId(eq("ART"), any(), captor.capture(), any(Collection.class));
+		EntitySearchFilter orderFilter = null;
+		for (EntitySearchFilter filter : captor.getValue()) {
+			Assertions.assertNull(filter.getLimit());
+			if (null != filter.getOrder()) {
+				orderFilter = filter;
+			}
+		}
+		Assertions.assertNotNull(orderFilter);
+		Assertions.assertEquals(IContentManager.CONTENT_MODIFY_DATE_FILTER_KEY, orderFilter.getKey());
+		Assertions.assertEquals(EntitySearchFilter.DESC_ORDER, orderFilter.getOrder());
+	}
+
+	@Test
+	void testDefaultOrderOnlyForUnorderedChannels() throws Exception {
+		when(contentManager.getEntityPrototype("ART")).thenReturn(mock(Content.class));
+		Channel unordered = this.createChannel(-1);
+		EntitySearchFilter[] filters = rssManager.getFilterPlan(unordered, "en").getFilters();
+		List<EntitySearchFilter> orders = this.getOrderFilters(filters);
+		// the contents of an unordered channel were served in the order of the database, now newest first
+		Assertions.assertEquals(1, orders.size());
+		Assertions.assertEquals(IContentManager.CONTENT_MODIFY_DATE_FILTER_KEY, orders.get(0).getKey());
+		Assertions.assertEquals(EntitySearchFilter.DESC_ORDER, orders.get(0).getOrder());
+		Channel ordered = this.createChannel(-1);
+		ordered.setId(2);
+		ordered.setFilters("(order=ASC;attributeFilter=false;key=created)");
+		orders = this.getOrderFilters(rssManager.getFilterPlan(ordered, "en").getFilters());
+		// the order of the channel filters is kept as it was
+		Assertions.assertEquals(1, orders.size());
+		Assertions.assertEquals(IContentManager.CONTENT_CREATION_DATE_FILTER_KEY, orders.get(0).getKey());
+		Assertions.assertEquals(EntitySearchFilter.ASC_ORDER, orders.get(0).getOrder());
+	}
+
+	private List<EntitySearchFilter> getOrderFilters(EntitySearchFilter[] filters) {
+		List<EntitySearchFilter> orders = new ArrayList<EntitySearchFilter>();
+		for (int i = 0; i < filters.length; i++) {
+			if (null != filters[i].getOrder()) {
+				orders.add(filters[i]);
+			}
+		}
+		return orders;
+	}
+
+	@Test
+	void testArchivesAreStableOnlyWhenOrderedByCreationDate() throws Exception {
+		Channel channel = this.createChannel(0);
+		Assertions.assertFalse(rssManager.hasStableArchives(channel, "en"));
+		EntitySearchFilter created = new EntitySearchFilter(IContentManager.CONTENT_CREATION_DATE_FILTER_KEY, false);
+		created.setOrder(EntitySearchFilter.DESC_ORDER);
+		Assertions.assertTrue(new ChannelFilterPlan(channel, "en", null, new EntitySearchFilter[] {created}).isOrderStable());
+		Assertions.assertFalse(new ChannelFilterPlan(this.createChannel(20), "en", null, new EntitySearchFilter[] {created}).isOrderStable());
+		EntitySearchFilter ascending = new EntitySearchFilter(IContentManager.CONTENT_CREATION_DATE_FILTER_KEY, false);
+		ascending.setOrder(EntitySearchFilter.ASC_ORDER);
+		Assertions.assertFalse(new ChannelFilterPlan(channel, "en", null, new EntitySearchFilter[] {ascending}).isOrderStable());
+	}
+
+	@Test
+	void testFilterPlanIsCompiledOnce() throws Exception {
+		Channel channel = this.createChannel(5);
+		channel.setFilters("(order=DESC;attributeFilter=false;key=created)");
+		List<String> ids = this.createIds(5);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		rssManager.getSyndFeed(channel, "en", "http://localhost/portal/en/", null, null);
+		ChannelFilterPlan plan = rssManager.getFilterPlan(channel, "en");
+		rssManager.getSyndFeed(channel, "en", "http://localhost/portal/en/", null, null);
+		Assertions.assertSame(plan, rssManager.getFilterPlan(channel, "en"));
+		verify(contentManager, times(1)).getEntityPrototype("ART");
+		verify(contentManager, times(1)).getEntityPrototype("ART");
+		Assertions.assertNotSame(plan, rssManager.getFilterPlan(channel, "it"));
+		Channel changed = channel.clone();
+		changed.setMaxContentsSize(3);
+		ChannelFilterPlan changedPlan = rssManager.getFilterPlan(changed, "en");
+		Assertions.assertNotSame(plan, changedPlan);
+		Assertions.assertEquals(3, changedPlan.getMaxContentsSize());
+	}
+
+	@Test
+	void testLangFilterIsPartOfTheFingerprint() throws Exception {
+		EntitySearchFilter langFilter = new EntitySearchFilter("Titolo", true, "news", true);
+		langFilter.setLangCode("en");
+		Channel channel = this.createChannel(5);
+		ChannelFilterPlan plan = new ChannelFilterPlan(channel, "en", null, new EntitySearchFilter[] {langFilter});
+		ChannelFilterPlan otherPlan = new ChannelFilterPlan(channel, "it", null, new EntitySearchFilter[] {langFilter});
+		Assertions.assertNotEquals(plan.getFingerprint(), otherPlan.getFingerprint());
+		EntitySearchFilter filter = new EntitySearchFilter("Titolo", true, "news", true);
+		plan = new ChannelFilterPlan(channel, "en", null, new EntitySearchFilter[] {filter});
+		otherPlan = new ChannelFilterPlan(channel, "it", null, new EntitySearchFilter[] {filter});
+		Assertions.assertEquals(plan.getFingerprint(), otherPlan.getFingerprint());
+		otherPlan = new ChannelFilterPlan(channel, "it", new String[] {"news"}, new EntitySearchFilter[] {filter});
+		Assertions.assertNotEquals(plan.getFingerprint(), otherPlan.getFingerprint());
+	}
+
+	@Test
+	void testDeltaFeedPushesSinceIntoTheQuery() throws Exception {
+		Channel channel = this.createChannel(50);
+		List<String> ids = this.createIds(3);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenAnswer(invocation -> this.createEntries(invocation.getArgument(0)));
+		rssManager.updateChannel(channel);
+		Date since = new Date(System.currentTimeMillis() - 60000);
+		FeedStream delta = rssManager.getDeltaFeed(channel, "en", "rss_2.0", since, "http://localhost/portal/en/", null, null);
+		String body = new String(((RenderedFeed) delta).getBody(), StandardCharsets.UTF_8);
+		Assertions.assertTrue(body.contains("title ART2<"));
+		ArgumentCaptor<EntitySearchFilter[]> captor = ArgumentCaptor.forClass(EntitySearchFilter[].class);
+		// the cached query of the channel gives the last modification, the delta runs its own query
+		verify(contentManager, times(2)).loadPublicContentsId(eq("ART"), any(), captor.capture(), any(Collection.class));
+		EntitySearchFilter sinceFilter = null;
+		for (EntitySearchFilter[] filters : captor.getAllValues()) {
+			for (EntitySearchFilter filter : filters) {
+				if (IContentManager.CONTENT_MODIFY_DATE_FILTER_KEY.equals(filter.getKey()) && null != filter.getStart()) {
+					sinceFilter = filter;
+				}
+			}
+		}
+		Assertions.assertNotNull(sinceFilter);
+		Assertions.assertEquals(since, sinceFilter.getStart());
+		Assertions.assertNull(sinceFilter.getEnd());
+		delta = rssManager.getDeltaFeed(channel, "en", "rss_2.0", new Date(System.currentTimeMillis() + 60000), 
+				"http://localhost/portal/en/", null, null);
+		Assertions.assertFalse(new String(((RenderedFeed) delta).getBody(), StandardCharsets.UTF_8).contains("<item>"));
+		verify(contentManager, times(2)).loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class));
+	}
+
+	@Test
+	void testPlanWithRelativeDatesExpiresOnTheNextDay() throws Exception {
+		Channel channel = this.createChannel(10);
+		channel.setFilters("(key=modified;start=today;startDateDelay=-7)");
+		List<String> ids = this.createIds(10);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		ChannelFilterPlan plan = rssManager.getFilterPlan(channel, "en");
+		Assertions.assertTrue(plan.isRelative());
+		Assertions.assertFalse(plan.isExpired(System.currentTimeMillis()));
+		Assertions.assertTrue(plan.isExpired(System.currentTimeMillis() + 25 * 3600000L));
+		Assertions.assertTrue(rssManager.getFeedValidator(channel, "en", "rss_2.0").getLastModified() >= plan.getValidFrom());
+		RenderedFeed rendered = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null);
+		Assertions.assertSame(rendered, rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null));
+		ChannelFilterPlan yesterday = new ChannelFilterPlan(channel, "en", null, plan.getFilters(), 
+				System.currentTimeMillis() - 25 * 3600000L);
+		rssManager.getFilterPlans().put("1_en", yesterday);
+		Assertions.assertNotSame(rendered, rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null));
+		Assertions.assertNotSame(yesterday, rssManager.getFilterPlan(channel, "en"));
+		Assertions.assertFalse(rssManager.getFilterPlan(channel, "en").isExpired(System.currentTimeMillis()));
+		channel.setFilters("(key=modified;start=01/01/2020)");
+		Assertions.assertFalse(rssManager.getFilterPlan(channel, "en").isRelative());
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ChannelRegistryTest extends AbstractRssManagerTest {
+
+	@Test
+	void testChannelsAreReadFromTheRegistry() throws Throwable {
+		Channel active = this.createChannel(10);
+		Channel notActive = this.createChannel(10);
+		notActive.setId(2);
+		notActive.setActive(false);
+		List<Channel> channels = new ArrayList<Channel>();
+		channels.add(active);
+		channels.add(notActive);
+		when(rssDAO.getChannels(Channel.STATUS_ALL)).thenReturn(channels);
+		Channel channel = rssManager.getChannel(1);
+		Assertions.assertEquals("channel", channel.getTitle());
+		channel.setTitle("changed");
+		Assertions.assertEquals("channel", rssManager.getChannel(1).getTitle());
+		Assertions.assertNull(rssManager.getChannel(3));
+		Assertions.assertEquals(1, rssManager.getChannels(Channel.STATUS_ACTIVE).size());
+		Assertions.assertEquals(2, rssManager.getChannels(Channel.STATUS_NOT_ACTIVE).get(0).getId());
+		Assertions.assertEquals(2, rssManager.getChannels(Channel.STATUS_ALL).size());
+		verify(rssDAO, times(1)).getChannels(Channel.STATUS_ALL);
+		verify(rssDAO, times(0)).getChannel(anyInt());
+		rssManager.updateChannel(channel);
+		verify(rssDAO, times(2)).getChannels(Channel.STATUS_ALL);
+	}
+
+}
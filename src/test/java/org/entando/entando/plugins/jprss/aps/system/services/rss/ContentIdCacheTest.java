@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
+
+class ContentIdCacheTest extends AbstractRssManagerTest {
+
+	@Test
+	void testContentIdsAreSharedByFingerprint() throws Exception {
+		Channel channel = this.createChannel(5);
+		Channel other = this.createChannel(5);
+		other.setId(2);
+		other.setTitle("other");
+		other.setFeedType("atom_1.0");
+		List<String> ids = this.createIds(5);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), anyString())).thenReturn(this.createEntries(ids));
+		rssManager.getSyndFeed(channel, "en", "http://localhost/portal/en/", null, null);
+		rssManager.getSyndFeed(channel, "it", "http://localhost/portal/it/", null, null);
+		rssManager.getSyndFeed(other, "en", "http://localhost/portal/en/", null, null);
+		Assertions.assertEquals(rssManager.getFilterPlan(channel, "en").getFingerprint(), rssManager.getFilterPlan(other, "it").getFingerprint());
+		verify(contentManager, times(1)).loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class));
+		this.publishContent("ART100");
+		rssManager.getSyndFeed(other, "en", "http://localhost/portal/en/", null, null);
+		verify(contentManager, times(2)).loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class));
+	}
+
+	@Test
+	void testCachedIdsFindTheCursorByIndex() throws Exception {
+		ContentIdCache cache = new ContentIdCache();
+		List<String> ids = cache.put("ART", "ART", this.createIds(1000), cache.getGeneration());
+		Assertions.assertTrue(ids instanceof ContentIdList);
+		Assertions.assertEquals(0, ids.indexOf("ART0"));
+		Assertions.assertEquals(999, ids.indexOf("ART999"));
+		Assertions.assertEquals(-1, ids.indexOf("ART1000"));
+		Assertions.assertTrue(ids.contains("ART500"));
+		Assertions.assertEquals("ART500", ids.get(500));
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> ids.add("ART1000"));
+	}
+
+}
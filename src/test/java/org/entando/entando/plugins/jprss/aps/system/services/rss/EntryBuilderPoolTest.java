@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
+import com.rometools.rome.feed.synd.SyndFeed;
+
+class EntryBuilderPoolTest extends AbstractRssManagerTest {
+
+	@Test
+	void testParallelEntriesKeepOrderAndSkipBrokenEntries() throws Exception {
+		rssManager.setEntryBuilderPool(new EntryBuilderPool(4, true));
+		try {
+			Channel channel = this.createChannel(50);
+			List<String> ids = this.createIds(50);
+			Map<String, RssEntryRecord> entries = this.createEntries(ids);
+			for (RssEntryRecord entry : entries.values()) {
+				entry.setDescription("descr #!C;" + entry.getContentId() + "!#");
+			}
+			when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+			when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(entries);
+			when(linkResolver.resolveLinks(anyString(), any())).thenAnswer(invocation -> {
+				String text = invocation.getArgument(0);
+				if (text.equals("#!C;ART7!#")) {
+					throw new RuntimeException("broken content");
+				}
+				return text;
+			});
+			SyndFeed feed = rssManager.getSyndFeed(channel, "en", "http://localhost/portal/en/", null, null);
+			Assertions.assertEquals(49, feed.getEntries().size());
+			int index = 0;
+			for (String id : ids) {
+				if (id.equals("ART7")) {
+					continue;
+				}
+				Assertions.assertEquals("title " + id, feed.getEntries().get(index++).getTitle());
+			}
+		} finally {
+			rssManager.destroy();
+		}
+	}
+
+}
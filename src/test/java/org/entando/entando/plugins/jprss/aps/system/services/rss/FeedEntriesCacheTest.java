@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
+
+class FeedEntriesCacheTest extends AbstractRssManagerTest {
+
+	@Test
+	void testEveryFeedTypeIsRenderedFromTheSameEntries() throws Exception {
+		Channel channel = this.createChannel(10);
+		List<String> ids = this.createIds(10);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		RenderedFeed rss = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null);
+		RenderedFeed atom = rssManager.getRenderedFeed(channel, "en", "atom_1.0", "http://localhost/portal/en/", null, null);
+		RenderedFeed rdf = rssManager.getRenderedFeed(channel, "en", "rss_1.0", "http://localhost/portal/en/", null, null);
+		RenderedFeed json = rssManager.getRenderedFeed(channel, "en", "json", "http://localhost/portal/en/", null, null);
+		verify(rssEntryDAO, times(1)).loadEntries(anyList(), eq("en"));
+		Assertions.assertTrue(new String(json.getBody(), StandardCharsets.UTF_8).startsWith("{\"version\":\"https://jsonfeed.org/version/1.1\""));
+		Assertions.assertEquals("atom_1.0", atom.getFeedType());
+		Assertions.assertTrue(new String(rss.getBody(), StandardCharsets.UTF_8).contains("<rss version=\"2.0\">"));
+		Assertions.assertTrue(new String(atom.getBody(), StandardCharsets.UTF_8).contains("http://www.w3.org/2005/Atom"));
+		Assertions.assertTrue(new String(rdf.getBody(), StandardCharsets.UTF_8).contains("rdf:RDF"));
+		Assertions.assertNotEquals(rssManager.getFeedValidator(channel, "en", "rss_2.0").getETag(), 
+				rssManager.getFeedValidator(channel, "en", "atom_1.0").getETag());
+		rssManager.updateChannel(channel);
+		rssManager.getRenderedFeed(channel, "en", "atom_1.0", "http://localhost/portal/en/", null, null);
+		verify(rssEntryDAO, times(2)).loadEntries(anyList(), eq("en"));
+	}
+
+	@Test
+	void testEntriesAreSharedOnlyByTheSameOrigin() throws Exception {
+		Channel channel = this.createChannel(10);
+		List<String> ids = this.createIds(10);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		MockHttpServletRequest internal = new MockHttpServletRequest("GET", "/portal/do/jprss/Rss/Feed/show.action");
+		internal.setServerName("intranet");
+		MockHttpServletRequest external = new MockHttpServletRequest("GET", "/portal/do/jprss/Rss/Feed/show.action");
+		external.setServerName("www.example.com");
+		rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", internal, null);
+		rssManager.getRenderedFeed(channel, "en", "atom_1.0", "http://localhost/portal/en/", internal, null);
+		verify(rssEntryDAO, times(1)).loadEntries(anyList(), eq("en"));
+		rssManager.getRenderedFeed(channel, "en", "rss_1.0", "http://localhost/portal/en/", external, null);
+		verify(rssEntryDAO, times(2)).loadEntries(anyList(), eq("en"));
+		Assertions.assertTrue(rssManager.getFeedEntriesCache().get(1, "en", 0).getScope().contains("www.example.com"));
+	}
+
+}
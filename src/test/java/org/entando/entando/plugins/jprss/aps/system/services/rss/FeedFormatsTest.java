@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FeedFormatsTest {
+
+	private List<String> availableTypes = Arrays.asList("rss_0.92", "rss_1.0", "rss_2.0", "atom_1.0", "json");
+
+	@Test
+	void testFormatTakesPrecedence() {
+		Assertions.assertEquals("atom_1.0", FeedFormats.negotiate("atom", "application/rss+xml", "rss_2.0", availableTypes));
+		Assertions.assertEquals("rss_1.0", FeedFormats.negotiate("rdf", null, "rss_2.0", availableTypes));
+		Assertions.assertEquals("json", FeedFormats.negotiate("json", "application/rss+xml", "rss_2.0", availableTypes));
+		Assertions.assertEquals("rss_0.92", FeedFormats.negotiate("rss_0.92", null, "atom_1.0", availableTypes));
+		Assertions.assertEquals("rss_2.0", FeedFormats.negotiate("atom_0.3", null, "rss_2.0", availableTypes));
+	}
+
+	@Test
+	void testNegotiateFromAcceptHeader() {
+		Assertions.assertEquals("atom_1.0", FeedFormats.negotiate(null, "application/atom+xml", "rss_2.0", availableTypes));
+		Assertions.assertEquals("rss_2.0", FeedFormats.negotiate(null, "application/rss+xml", "atom_1.0", availableTypes));
+		Assertions.assertEquals("rss_0.92", FeedFormats.negotiate(null, "application/rss+xml", "rss_0.92", availableTypes));
+		Assertions.assertEquals("atom_1.0", 
+				FeedFormats.negotiate(null, "application/rss+xml;q=0.5, application/atom+xml", "rss_2.0", availableTypes));
+		Assertions.assertEquals("rss_2.0", FeedFormats.negotiate(null, "application/atom+xml;q=0", "rss_2.0", availableTypes));
+		Assertions.assertEquals("json", FeedFormats.negotiate(null, "application/feed+json", "rss_2.0", availableTypes));
+		Assertions.assertEquals("json", FeedFormats.negotiate(null, "application/json, text/xml;q=0.5", "atom_1.0", availableTypes));
+		Assertions.assertEquals("rss_2.0", FeedFormats.negotiate(null, "application/json", "rss_2.0", Arrays.asList("rss_2.0")));
+	}
+
+	@Test
+	void testGenericTypesSelectTheDefault() {
+		Assertions.assertEquals("rss_2.0", FeedFormats.negotiate(null, null, "rss_2.0", availableTypes));
+		Assertions.assertEquals("rss_2.0", FeedFormats.negotiate(null, "text/html, */*;q=0.8", "rss_2.0", availableTypes));
+		Assertions.assertEquals("rss_2.0", FeedFormats.negotiate(null, "application/atom+xml, */*", "rss_2.0", availableTypes));
+		Assertions.assertEquals("atom_1.0", FeedFormats.negotiate(null, "application/atom+xml, */*;q=0.1", "rss_2.0", availableTypes));
+	}
+
+	@Test
+	void testMimeTypes() {
+		Assertions.assertEquals("application/rss+xml", FeedFormats.getMimeType("rss_1.0"));
+		Assertions.assertEquals("application/atom+xml", FeedFormats.getMimeType("atom_0.3"));
+		Assertions.assertEquals("application/feed+json", FeedFormats.getMimeType("json"));
+		Assertions.assertNull(FeedFormats.getMimeType("unknown"));
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.agiletec.plugins.jacms.aps.system.services.linkresolver.ILinkResolverManager;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FeedLinkResolverTest {
+
+	@Mock
+	private ILinkResolverManager linkResolver;
+
+	@BeforeEach
+	public void setUp() {
+		when(linkResolver.resolveLinks(anyString(), any())).thenAnswer(invocation -> {
+			String link = invocation.getArgument(0);
+			return "http://localhost/" + link.substring(2, link.length() - 2);
+		});
+	}
+
+	@Test
+	void testLinksAreResolvedOncePerFeed() {
+		FeedLinkResolver resolver = new FeedLinkResolver(linkResolver, null, null, null, "scope");
+		String text = "<a href=\"#!P;homepage!#\">home</a> <a href=\"#!C;ART1!#\">art</a> <a href=\"#!P;homepage!#\">again</a>";
+		Assertions.assertEquals("<a href=\"http://localhost/P;homepage\">home</a> <a href=\"http://localhost/C;ART1\">art</a> "
+				+ "<a href=\"http://localhost/P;homepage\">again</a>", resolver.resolveLinks(text));
+		resolver.resolveLinks("#!P;homepage!# and #!C;ART1!#");
+		verify(linkResolver, times(1)).resolveLinks(eq("#!P;homepage!#"), any());
+		verify(linkResolver, times(1)).resolveLinks(eq("#!C;ART1!#"), any());
+	}
+
+	@Test
+	void testSharedCacheIsScoped() {
+		ResolvedLinkCache cache = new ResolvedLinkCache(100);
+		new FeedLinkResolver(linkResolver, null, null, cache, "scope").resolveLinks("#!P;homepage!#");
+		new FeedLinkResolver(linkResolver, null, null, cache, "scope").resolveLinks("#!P;homepage!#");
+		verify(linkResolver, times(1)).resolveLinks(eq("#!P;homepage!#"), any());
+		new FeedLinkResolver(linkResolver, null, null, cache, "other").resolveLinks("#!P;homepage!#");
+		verify(linkResolver, times(2)).resolveLinks(eq("#!P;homepage!#"), any());
+		cache.clear();
+		new FeedLinkResolver(linkResolver, null, null, cache, "scope").resolveLinks("#!P;homepage!#");
+		verify(linkResolver, times(3)).resolveLinks(eq("#!P;homepage!#"), any());
+	}
+
+	@Test
+	void testTextWithoutLinks() {
+		FeedLinkResolver resolver = new FeedLinkResolver(linkResolver, null, null, null, "scope");
+		Assertions.assertEquals("plain text", resolver.resolveLinks("plain text"));
+		Assertions.assertEquals("unterminated #!P;homepage", resolver.resolveLinks("unterminated #!P;homepage"));
+		Assertions.assertNull(resolver.resolveLinks(null));
+		verify(linkResolver, times(0)).resolveLinks(anyString(), any());
+	}
+
+	@Test
+	void testFailedEntriesWithoutRequestAreNotPublishable() {
+		FeedLinkResolver resolver = new FeedLinkResolver(linkResolver, null, null, null, "scope");
+		Assertions.assertTrue(resolver.isPublishable());
+		resolver.recordFailedEntry();
+		Assertions.assertEquals(1, resolver.getFailedEntries());
+		Assertions.assertFalse(resolver.isPublishable());
+		FeedLinkResolver requestResolver = new FeedLinkResolver(linkResolver, new MockHttpServletRequest(), null, null, "scope");
+		requestResolver.recordFailedEntry();
+		Assertions.assertTrue(requestResolver.isPublishable());
+	}
+
+}
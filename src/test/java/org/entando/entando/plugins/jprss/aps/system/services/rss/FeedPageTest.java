@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
+
+class FeedPageTest extends AbstractRssManagerTest {
+
+	@Test
+	void testCurrentDocumentOfPagedFeedLinksToNextPageAndArchives() throws Exception {
+		Channel channel = this.createChannel(0);
+		List<String> ids = this.createIds(25);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenAnswer(invocation -> this.createEntries(invocation.getArgument(0)));
+		rssManager.setPageSize(10);
+		RenderedFeed current = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null);
+		String body = new String(current.getBody(), StandardCharsets.UTF_8);
+		Assertions.assertTrue(body.contains("title ART9<"));
+		Assertions.assertFalse(body.contains("title ART10<"));
+		Assertions.assertTrue(body.contains("<atom:link rel=\"next\" href=\"do/jprss/Rss/Feed/show.action?id=1&amp;lang=en&amp;cursor=ART9\"/>"));
+		Assertions.assertTrue(body.contains("<atom:link rel=\"prev-archive\" href=\"do/jprss/Rss/Feed/show.action?id=1&amp;lang=en&amp;page=2\"/>"));
+		Assertions.assertFalse(body.contains("fh:archive"));
+		int cachedFeeds = rssManager.getRenderedFeedCache().size();
+		FeedStream next = rssManager.getFeedStream(channel, "en", "rss_2.0", FeedPage.after("ART9"), "http://localhost/portal/en/", null, null);
+		body = new String(((RenderedFeed) next).getBody(), StandardCharsets.UTF_8);
+		Assertions.assertTrue(body.contains("title ART10<"));
+		Assertions.assertTrue(body.contains("title ART19<"));
+		Assertions.assertFalse(body.contains("title ART20<"));
+		Assertions.assertTrue(body.contains("&amp;cursor=ART19\"/>"));
+		Assertions.assertEquals(cachedFeeds, rssManager.getRenderedFeedCache().size());
+		Assertions.assertNull(rssManager.getFeedStream(channel, "en", "rss_2.0", FeedPage.after("ART999"), "http://localhost/portal/en/", null, null));
+		Assertions.assertNull(rssManager.getFeedStream(channel, "en", "rss_1.0", FeedPage.after("ART9"), "http://localhost/portal/en/", null, null));
+	}
+
+	@Test
+	void testArchivesDoNotChangeWhenContentsArePublished() throws Exception {
+		Channel channel = this.createChannel(0);
+		List<String> ids = this.createIds(25);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenAnswer(invocation -> this.createEntries(invocation.getArgument(0)));
+		rssManager.setPageSize(10);
+		RenderedFeed oldest = (RenderedFeed) rssManager.getFeedStream(channel, "en", "atom_1.0", FeedPage.archive(1), "http://localhost/portal/en/", null, null);
+		String body = new String(oldest.getBody(), StandardCharsets.UTF_8);
+		Assertions.assertTrue(body.contains("title ART15<"));
+		Assertions.assertTrue(body.contains("title ART24<"));
+		Assertions.assertFalse(body.contains("title ART14<"));
+		Assertions.assertTrue(body.contains("<fh:archive/>"));
+		Assertions.assertTrue(body.contains("<link rel=\"next-archive\" href=\"do/jprss/Rss/Feed/show.action?id=1&amp;lang=en&amp;format=atom_1.0&amp;page=2\"/>"));
+		Assertions.assertFalse(body.contains("prev-archive"));
+		Assertions.assertNull(rssManager.getFeedStream(channel, "en", "atom_1.0", FeedPage.archive(3), "http://localhost/portal/en/", null, null));
+		List<String> newIds = new ArrayList<String>(ids);
+		newIds.add(0, "ART100");
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(newIds);
+		this.publishContent("ART100");
+		Assertions.assertSame(oldest, rssManager.getFeedStream(channel, "en", "atom_1.0", FeedPage.archive(1), "http://localhost/portal/en/", null, null));
+		Assertions.assertEquals(rssManager.getFeedValidator(channel, "en", "atom_1.0", FeedPage.archive(1)).getETag(), 
+				new FeedValidator(1, "en", "atom_1.0-archive-1", oldest.getLastModified()).getETag());
+		Assertions.assertNotEquals(rssManager.getFeedValidator(channel, "en", "atom_1.0", FeedPage.archive(1)).getETag(), 
+				rssManager.getFeedValidator(channel, "en", "atom_1.0").getETag());
+	}
+
+}
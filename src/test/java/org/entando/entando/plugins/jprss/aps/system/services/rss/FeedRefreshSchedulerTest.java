@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FeedRefreshSchedulerTest {
+
+	private static final String FEED_LINK = "http://localhost/portal/en/";
+
+	private FeedRefreshScheduler scheduler;
+
+	@AfterEach
+	public void tearDown() {
+		if (null != scheduler) {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	void testHotFeedIsServedStaleWhileRefreshed() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		scheduler = new FeedRefreshScheduler(1, 3, 60000, (channelId, lang, feedType, feedLink, scope) -> {
+			started.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return true;
+		});
+		for (int i = 0; i < 3; i++) {
+			scheduler.recordAccess(1, "en", "rss_2.0", FEED_LINK, FEED_LINK);
+		}
+		scheduler.recordAccess(2, "en", "rss_2.0", FEED_LINK, FEED_LINK);
+		RenderedFeed hot = this.createFeed(1);
+		RenderedFeed cold = this.createFeed(2);
+		scheduler.scheduleRefresh(Arrays.asList(hot, cold));
+		Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+		Assertions.assertSame(hot, scheduler.getStale(1, "en", "rss_2.0", FEED_LINK));
+		Assertions.assertNull(scheduler.getStale(2, "en", "rss_2.0", FEED_LINK));
+		release.countDown();
+		long deadline = System.currentTimeMillis() + 5000;
+		while (null != scheduler.getStale(1, "en", "rss_2.0", FEED_LINK) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		Assertions.assertNull(scheduler.getStale(1, "en", "rss_2.0", FEED_LINK));
+	}
+
+	@Test
+	void testMostRequestedFeedsAreRefreshedFirst() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(4);
+		final List<Integer> refreshed = Collections.synchronizedList(new ArrayList<Integer>());
+		scheduler = new FeedRefreshScheduler(1, 1, 60000, (channelId, lang, feedType, feedLink, scope) -> {
+			if (channelId == 1) {
+				release.await(5, TimeUnit.SECONDS);
+			}
+			refreshed.add(channelId);
+			done.countDown();
+			return true;
+		});
+		int[] requests = {1, 2, 5, 3};
+		for (int id = 1; id <= 4; id++) {
+			for (int i = 0; i < requests[id - 1]; i++) {
+				scheduler.recordAccess(id, "en", "rss_2.0", FEED_LINK, FEED_LINK);
+			}
+		}
+		scheduler.scheduleRefresh(Arrays.asList(this.createFeed(1)));
+		Thread.sleep(100);
+		scheduler.scheduleRefresh(Arrays.asList(this.createFeed(2), this.createFeed(3), this.createFeed(4)));
+		release.countDown();
+		Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(Arrays.asList(1, 3, 4, 2), refreshed);
+	}
+
+	@Test
+	void testFailedRefreshDropsTheStaleFeed() throws Exception {
+		final CountDownLatch done = new CountDownLatch(1);
+		scheduler = new FeedRefreshScheduler(1, 1, 60000, (channelId, lang, feedType, feedLink, scope) -> {
+			done.countDown();
+			throw new RuntimeException("broken channel");
+		});
+		scheduler.recordAccess(1, "en", "rss_2.0", FEED_LINK, FEED_LINK);
+		scheduler.scheduleRefresh(Arrays.asList(this.createFeed(1)));
+		Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+		long deadline = System.currentTimeMillis() + 5000;
+		while (null != scheduler.getStale(1, "en", "rss_2.0", FEED_LINK) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		Assertions.assertNull(scheduler.getStale(1, "en", "rss_2.0", FEED_LINK));
+	}
+
+	private RenderedFeed createFeed(int channelId) {
+		return new RenderedFeed(channelId, "ART", "en", "rss_2.0", FEED_LINK, "UTF-8", System.currentTimeMillis(), new byte[0], null);
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FeedValidatorTest {
+
+	@Test
+	void testChangesWithinASecondHaveDifferentETags() {
+		FeedValidator first = new FeedValidator(1, "en", "rss_2.0", 1600000000100L);
+		FeedValidator second = new FeedValidator(1, "en", "rss_2.0", 1600000000900L);
+		Assertions.assertEquals(1600000000000L, first.getLastModified());
+		Assertions.assertEquals(first.getLastModified(), second.getLastModified());
+		Assertions.assertNotEquals(first.getETag(), second.getETag());
+		Assertions.assertFalse(second.isNotModified(first.getETag(), -1));
+		Assertions.assertTrue(second.isNotModified("W/" + second.getETag(), -1));
+	}
+
+	@Test
+	void testIfModifiedSinceWithoutETag() {
+		FeedValidator validator = new FeedValidator(1, "en", 1600000000900L);
+		Assertions.assertTrue(validator.isNotModified(null, 1600000000000L));
+		Assertions.assertFalse(validator.isNotModified(null, 1599999999000L));
+		Assertions.assertFalse(validator.isNotModified(null, -1));
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.feed.synd.SyndFeedImpl;
+import com.rometools.rome.feed.synd.SyndLink;
+import com.rometools.rome.feed.synd.SyndLinkImpl;
+
+class JsonFeedWriterTest {
+
+	@Test
+	void testWriteJsonFeed() throws Exception {
+		List<FeedEntry> entries = new ArrayList<FeedEntry>();
+		entries.add(new FeedEntry("ART0", "Title \"0\"", "http://localhost/portal/en/homepage.page?contentId=ART0", 
+				"<p>Descr 0</p>", new Date(0)));
+		entries.add(new FeedEntry("ART1", "Title 1", null, null, null));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new JsonFeedWriter().write(this.createHeader("json"), entries.iterator(), out);
+		JsonNode feed = new ObjectMapper().readTree(out.toByteArray());
+		Assertions.assertEquals("https://jsonfeed.org/version/1.1", feed.get("version").asText());
+		Assertions.assertEquals("Channel title", feed.get("title").asText());
+		Assertions.assertEquals("http://localhost/portal/en/", feed.get("home_page_url").asText());
+		Assertions.assertEquals(2, feed.get("items").size());
+		JsonNode item = feed.get("items").get(0);
+		Assertions.assertEquals("http://localhost/portal/en/homepage.page?contentId=ART0", item.get("id").asText());
+		Assertions.assertEquals("http://localhost/portal/en/homepage.page?contentId=ART0", item.get("url").asText());
+		Assertions.assertEquals("Title \"0\"", item.get("title").asText());
+		Assertions.assertEquals("<p>Descr 0</p>", item.get("content_html").asText());
+		Assertions.assertEquals("1970-01-01T00:00:00Z", item.get("date_published").asText());
+		item = feed.get("items").get(1);
+		Assertions.assertEquals("ART1", item.get("id").asText());
+		Assertions.assertFalse(item.has("url"));
+		Assertions.assertEquals("", item.get("content_html").asText());
+		Assertions.assertFalse(item.has("date_published"));
+	}
+
+	@Test
+	void testNextUrlOfPagedFeed() throws Exception {
+		SyndFeed header = this.createHeader("json");
+		List<SyndLink> links = new ArrayList<SyndLink>();
+		SyndLink link = new SyndLinkImpl();
+		link.setRel("prev-archive");
+		link.setHref("http://localhost/portal/do/jprss/Rss/Feed/show.action?id=1&lang=en&page=2");
+		links.add(link);
+		header.setLinks(links);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new JsonFeedWriter().write(header, new ArrayList<FeedEntry>().iterator(), out);
+		JsonNode feed = new ObjectMapper().readTree(out.toByteArray());
+		Assertions.assertEquals("http://localhost/portal/do/jprss/Rss/Feed/show.action?id=1&lang=en&page=2", feed.get("next_url").asText());
+		out.reset();
+		new JsonFeedWriter().write(this.createHeader("json"), new ArrayList<FeedEntry>().iterator(), out);
+		Assertions.assertFalse(new ObjectMapper().readTree(out.toByteArray()).has("next_url"));
+	}
+
+	@Test
+	void testUnsupportedFeedType() {
+		Assertions.assertTrue(JsonFeedWriter.isSupported("json"));
+		Assertions.assertFalse(JsonFeedWriter.isSupported("rss_2.0"));
+		Assertions.assertThrows(IllegalArgumentException.class, 
+				() -> new JsonFeedWriter().write(this.createHeader("rss_2.0"), new ArrayList<FeedEntry>().iterator(), new ByteArrayOutputStream()));
+	}
+
+	private SyndFeed createHeader(String feedType) {
+		SyndFeed header = new SyndFeedImpl();
+		header.setFeedType(feedType);
+		header.setTitle("Channel title");
+		header.setLink("http://localhost/portal/en/");
+		header.setDescription("Channel description");
+		return header;
+	}
+
+}
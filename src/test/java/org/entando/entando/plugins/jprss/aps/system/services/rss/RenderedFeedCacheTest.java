@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
+import com.agiletec.aps.system.services.page.events.PageChangedEvent;
+
+class RenderedFeedCacheTest extends AbstractRssManagerTest {
+
+	@Test
+	void testMissingFeedIsRenderedOnceAndCached() throws Exception {
+		Channel channel = this.createChannel(120);
+		List<String> ids = this.createIds(120);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		FeedStream feedStream = rssManager.getFeedStream(channel, "en", "http://localhost/portal/en/", null, null);
+		Assertions.assertTrue(feedStream instanceof RenderedFeed);
+		verify(rssEntryDAO, times(1)).loadEntries(anyList(), eq("en"));
+		FeedStream cached = rssManager.getFeedStream(channel, "en", "http://localhost/portal/en/", null, null);
+		Assertions.assertSame(feedStream, cached);
+		verify(rssEntryDAO, times(1)).loadEntries(anyList(), eq("en"));
+	}
+
+	@Test
+	void testLastRenderedFeedOutlivesThePublicationOfContents() throws Exception {
+		Channel channel = this.createChannel(20);
+		List<String> ids = this.createIds(20);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		Assertions.assertNull(rssManager.getLastRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null));
+		RenderedFeed rendered = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null);
+		Assertions.assertSame(rendered, rssManager.getLastRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null));
+		this.publishContent("ART100");
+		Assertions.assertNull(rssManager.getRenderedFeedCache().get(1, "en", "rss_2.0", "http://localhost/portal/en/"));
+		Assertions.assertSame(rendered, rssManager.getLastRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null));
+		RenderedFeed rerendered = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null);
+		Assertions.assertNotSame(rendered, rerendered);
+		Assertions.assertSame(rerendered, rssManager.getLastRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null));
+		rssManager.getRenderedFeedCache().evictChannel(1);
+		Assertions.assertNull(rssManager.getLastRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null));
+	}
+
+	@Test
+	void testRenderedFeedHasGzipVariant() throws Exception {
+		Channel channel = this.createChannel(10);
+		channel.setFeedType("rss_1.0");
+		List<String> ids = this.createIds(10);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		RenderedFeed feed = rssManager.getRenderedFeed(channel, "en", "http://localhost/portal/en/", null, null);
+		Assertions.assertTrue(feed.hasGzipBody());
+		Assertions.assertTrue(feed.getGzipBody().length < feed.getLength());
+		GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(feed.getGzipBody()));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int read;
+		while ((read = gzip.read(buffer)) > 0) {
+			out.write(buffer, 0, read);
+		}
+		Assertions.assertArrayEquals(feed.getBody(), out.toByteArray());
+		rssManager.setCompressionEnabled(false);
+		rssManager.updateChannel(channel);
+		Assertions.assertFalse(rssManager.getRenderedFeed(channel, "en", "http://localhost/portal/en/", null, null).hasGzipBody());
+	}
+
+	@Test
+	void testFreshFeedBypassesTheStaleCopy() throws Exception {
+		Channel channel = this.createChannel(30);
+		List<String> ids = this.createIds(20);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		CountDownLatch refreshed = new CountDownLatch(1);
+		FeedRefreshScheduler scheduler = new FeedRefreshScheduler(1, 1, 60000, (channelId, lang, feedType, feedLink, scope) -> {
+			refreshed.await();
+			return true;
+		});
+		rssManager.setRefreshScheduler(scheduler);
+		try {
+			scheduler.recordAccess(1, "en", "rss_2.0", "http://localhost/portal/en/", "http://localhost/portal/en/");
+			RenderedFeed rendered = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null);
+			List<String> publishedIds = this.createIds(21);
+			when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(publishedIds);
+			when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(publishedIds));
+			this.publishContent("ART20");
+			Assertions.assertSame(rendered, rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null));
+			RenderedFeed fresh = rssManager.renderFreshFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/");
+			Assertions.assertTrue(new String(fresh.getBody(), StandardCharsets.UTF_8).contains("title ART20"));
+			Assertions.assertNull(scheduler.getStale(1, "en", "rss_2.0", "http://localhost/portal/en/"));
+			Assertions.assertSame(fresh, rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null));
+		} finally {
+			refreshed.countDown();
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	void testFeedsAreCachedByScopeOfTheLinks() throws Exception {
+		Channel channel = this.createChannel(10);
+		List<String> ids = this.createIds(10);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		MockHttpServletRequest first = new MockHttpServletRequest("GET", "/portal/do/jprss/Rss/Feed/show.action");
+		first.setServerName("www.example.com");
+		MockHttpServletRequest second = new MockHttpServletRequest("GET", "/portal/do/jprss/Rss/Feed/show.action");
+		second.setServerName("intranet.example.com");
+		RenderedFeed firstFeed = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", first, null);
+		RenderedFeed secondFeed = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", second, null);
+		Assertions.assertNotSame(firstFeed, secondFeed);
+		Assertions.assertSame(firstFeed, rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", first, null));
+		RenderedFeed fresh = rssManager.renderFreshFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/");
+		Assertions.assertEquals("http://localhost/portal/en/", fresh.getScope());
+		Assertions.assertSame(firstFeed, rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", first, null));
+		Assertions.assertSame(fresh, rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null));
+	}
+
+	@Test
+	void testPageChangeEvictsTheRenderedFeeds() throws Throwable {
+		Channel channel = this.createChannel(10);
+		List<String> ids = this.createIds(10);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		when(rssDAO.getChannels(Channel.STATUS_ALL)).thenReturn(Collections.singletonList(channel));
+		doAnswer(invocation -> {
+			channel.setLastModified(invocation.getArgument(1));
+			return null;
+		}).when(rssDAO).updateLastModified(any(), any(Date.class));
+		RenderedFeed rendered = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null);
+		String eTag = rssManager.getFeedValidator(channel, "en", "rss_2.0").getETag();
+		Assertions.assertEquals(1, rssManager.getFeedEntriesCache().size());
+		Thread.sleep(5);
+		rssManager.updateFromPageChanged(new PageChangedEvent());
+		Assertions.assertEquals(0, rssManager.getRenderedFeedCache().size());
+		Assertions.assertEquals(0, rssManager.getFeedEntriesCache().size());
+		Assertions.assertNull(rssManager.getLastRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null));
+		Assertions.assertNotEquals(eTag, rssManager.getFeedValidator(channel, "en", "rss_2.0").getETag());
+		Assertions.assertNotSame(rendered, rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null));
+	}
+
+}
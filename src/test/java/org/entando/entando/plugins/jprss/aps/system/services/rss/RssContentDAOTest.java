@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RssContentDAOTest {
+
+	@Mock
+	private DataSource dataSource;
+	@Mock
+	private Connection connection;
+	@Mock
+	private PreparedStatement statement;
+	@Mock
+	private ResultSet resultSet;
+
+	private RssContentDAO rssContentDAO;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		when(dataSource.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(statement.executeQuery()).thenReturn(resultSet);
+		when(resultSet.next()).thenReturn(false);
+		rssContentDAO = new RssContentDAO();
+		rssContentDAO.setDataSource(dataSource);
+	}
+
+	@Test
+	void testQueryCountDoesNotGrowWithEntries() throws Exception {
+		rssContentDAO.loadContentRecords(this.createIds(10));
+		rssContentDAO.loadContentRecords(this.createIds(100));
+		rssContentDAO.loadContentRecords(this.createIds(RssContentDAO.MAX_IDS_PER_QUERY));
+		verify(connection, times(3)).prepareStatement(anyString());
+		verify(statement, times(3)).executeQuery();
+	}
+
+	@Test
+	void testQueriesAreSplitInBlocks() throws Exception {
+		rssContentDAO.loadContentRecords(this.createIds(RssContentDAO.MAX_IDS_PER_QUERY * 2 + 1));
+		verify(dataSource, times(1)).getConnection();
+		verify(connection, times(3)).prepareStatement(anyString());
+	}
+
+	@Test
+	void testEmptyIdsDoNotQuery() throws Exception {
+		Map<String, RssContentRecord> records = rssContentDAO.loadContentRecords(new ArrayList<String>());
+		Assertions.assertTrue(records.isEmpty());
+		verify(dataSource, times(0)).getConnection();
+	}
+
+	private List<String> createIds(int size) {
+		List<String> ids = new ArrayList<String>();
+		for (int i = 0; i < size; i++) {
+			ids.add("ART" + i);
+		}
+		return ids;
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RssContentParserTest {
+
+	@Test
+	void testParseTexts() throws Exception {
+		RssContentRecord record = new RssContentRecord();
+		record.setId("ART1");
+		record.setXml(CONTENT_XML);
+		RssContentMapping mapping = new RssContentMapping();
+		mapping.setContentType("ART");
+		mapping.setTitleAttributeName("Titolo");
+		mapping.setDescriptionAttributeName("CorpoTesto");
+		new RssContentParser().parse(record, mapping);
+		Assertions.assertEquals("Il titolo", record.getTitleForLang("it"));
+		Assertions.assertEquals("The title", record.getTitleForLang("en"));
+		Assertions.assertNull(record.getTitleForLang("fr"));
+		Assertions.assertTrue(record.hasDescription());
+		Assertions.assertEquals("<p>Il testo #!U;http://www.entando.com!#</p>", record.getDescriptionForLang("it"));
+		Assertions.assertNull(record.getDescriptionForLang("en"));
+	}
+
+	@Test
+	void testParseNestedAndMonotext() throws Exception {
+		RssContentRecord record = new RssContentRecord();
+		record.setId("ART1");
+		record.setXml(CONTENT_XML);
+		RssContentMapping mapping = new RssContentMapping();
+		mapping.setContentType("ART");
+		mapping.setTitleAttributeName("Codice");
+		mapping.setDescriptionAttributeName("Autori");
+		new RssContentParser().parse(record, mapping);
+		Assertions.assertEquals("A-01", record.getTitleForLang("it"));
+		Assertions.assertFalse(record.hasDescription());
+	}
+
+	private static final String CONTENT_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+			+ "<content id=\"ART1\" typecode=\"ART\" typedescr=\"Articolo rassegna stampa\"><descr>Articolo</descr>"
+			+ "<groups mainGroup=\"free\" /><categories /><attributes>"
+			+ "<attribute name=\"Titolo\" attributetype=\"Text\"><text lang=\"it\">Il titolo</text><text lang=\"en\">The title</text></attribute>"
+			+ "<list attributetype=\"Monolist\" name=\"Autori\" nestedtype=\"Monotext\">"
+			+ "<attribute name=\"Autori\" attributetype=\"Monotext\"><monotext>Pippo</monotext></attribute></list>"
+			+ "<attribute name=\"Codice\" attributetype=\"Monotext\"><monotext>A-01</monotext></attribute>"
+			+ "<attribute name=\"CorpoTesto\" attributetype=\"Hypertext\"><hypertext lang=\"it\"><![CDATA[<p>Il testo #!U;http://www.entando.com!#</p>]]></hypertext></attribute>"
+			+ "</attributes><status>PUBLIC</status></content>";
+
+}
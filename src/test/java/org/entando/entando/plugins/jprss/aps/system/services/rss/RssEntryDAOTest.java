@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RssEntryDAOTest {
+
+	@Mock
+	private DataSource dataSource;
+	@Mock
+	private Connection connection;
+	@Mock
+	private PreparedStatement updateStatement;
+	@Mock
+	private PreparedStatement insertStatement;
+
+	private RssEntryDAO rssEntryDAO;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		when(dataSource.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(startsWith("UPDATE"))).thenReturn(updateStatement);
+		when(connection.prepareStatement(startsWith("INSERT"))).thenReturn(insertStatement);
+		rssEntryDAO = new RssEntryDAO();
+		rssEntryDAO.setDataSource(dataSource);
+	}
+
+	@Test
+	void testOlderEntriesAreReplacedWithoutDeleting() throws Exception {
+		when(updateStatement.executeBatch()).thenReturn(new int[] {1, 1});
+		rssEntryDAO.saveEntries(this.createEntries("ART1", "en", "it"));
+		verify(updateStatement, times(2)).addBatch();
+		verify(connection, never()).prepareStatement(startsWith("DELETE"));
+		verify(connection, never()).prepareStatement(startsWith("INSERT"));
+	}
+
+	@Test
+	void testEntryOfTheSameDateIsReplaced() throws Exception {
+		when(updateStatement.executeBatch()).thenReturn(new int[] {1});
+		rssEntryDAO.saveEntries(this.createEntries("ART1", "en"));
+		verify(connection, times(1)).prepareStatement(contains("lastmodified <= ?"));
+		verify(connection, never()).prepareStatement(startsWith("INSERT"));
+	}
+
+	@Test
+	void testMissingEntriesAreInserted() throws Exception {
+		when(updateStatement.executeBatch()).thenReturn(new int[] {1, 0});
+		rssEntryDAO.saveEntries(this.createEntries("ART1", "en", "it"));
+		verify(insertStatement, times(1)).setString(2, "it");
+		verify(insertStatement, times(1)).executeUpdate();
+	}
+
+	@Test
+	void testEntrySavedMeanwhileIsKept() throws Exception {
+		// the stored entry is newer, or a concurrent save inserted it first
+		when(updateStatement.executeBatch()).thenReturn(new int[] {0});
+		when(insertStatement.executeUpdate()).thenThrow(new SQLIntegrityConstraintViolationException("duplicate key", "23505"));
+		rssEntryDAO.saveEntries(this.createEntries("ART1", "en"));
+		verify(insertStatement, times(1)).executeUpdate();
+		verify(connection, times(2)).prepareStatement(anyString());
+	}
+
+	private List<RssEntryRecord> createEntries(String contentId, String... langs) {
+		List<RssEntryRecord> entries = new ArrayList<RssEntryRecord>();
+		for (int i = 0; i < langs.length; i++) {
+			RssEntryRecord entry = new RssEntryRecord();
+			entry.setContentId(contentId);
+			entry.setLangCode(langs[i]);
+			entry.setContentType("ART");
+			entry.setTitle("title " + contentId);
+			entry.setViewPage("homepage");
+			entry.setLastModified(new Date());
+			entries.add(entry);
+		}
+		return entries;
+	}
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.entando.entando.ent.exception.EntException;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.ChannelMetrics;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.FeedMetrics;
+import org.entando.entando.plugins.jprss.aps.system.services.metrics.FeedPhase;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
+
+class RssManagerTest extends AbstractRssManagerTest {
+
+	@Test
+	void testQueryCountDoesNotGrowWithEntries() throws Exception {
+		int[] sizes = {10, 100};
+		int[] queries = new int[sizes.length];
+		for (int i = 0; i < sizes.length; i++) {
+			this.setUp();
+			clearInvocations(contentManager, rssEntryDAO, rssContentDAO);
+			Channel channel = this.createChannel(sizes[i]);
+			List<String> ids = this.createIds(sizes[i]);
+			Map<String, RssEntryRecord> entries = this.createEntries(ids);
+			for (int j = 0; j < ids.size(); j += 5) {
+				// missing from the projection, loaded from the contents
+				entries.remove(ids.get(j));
+			}
+			when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+			when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(entries);
+			rssManager.getSyndFeed(channel, "en", "http://localhost/portal/en/", null, null);
+			rssManager.getRenderedFeed(channel, "en", "http://localhost/portal/en/", null, null);
+			queries[i] = mockingDetails(contentManager).getInvocations().size() 
+					+ mockingDetails(rssEntryDAO).getInvocations().size() + mockingDetails(rssContentDAO).getInvocations().size();
+		}
+		Assertions.assertEquals(queries[0], queries[1]);
+		verify(rssContentDAO, times(2)).loadContentRecords(anyList());
+	}
+
+	@Test
+	void testFeedWithFailedEntriesWithoutRequestIsNotCached() throws Exception {
+		Channel channel = this.createChannel(10);
+		List<String> ids = this.createIds(10);
+		Map<String, RssEntryRecord> entries = this.createEntries(ids);
+		entries.get("ART3").setDescription("descr #!P;homepage!#");
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(entries);
+		when(linkResolver.resolveLinks(anyString(), any())).thenThrow(new RuntimeException("no request"));
+		Assertions.assertThrows(EntException.class, 
+				() -> rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null));
+		Assertions.assertNull(rssManager.getRenderedFeedCache().get(1, "en", "rss_2.0", "http://localhost/portal/en/"));
+		Assertions.assertNull(rssManager.getFeedEntriesCache().get(1, "en", 0));
+		RenderedFeed rendered = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", 
+				new MockHttpServletRequest("GET", "/portal/do/jprss/Rss/Feed/show.action"), new MockHttpServletResponse());
+		Assertions.assertSame(rendered, rssManager.getRenderedFeedCache().get(1, "en", "rss_2.0", rendered.getScope()));
+		Assertions.assertEquals("http://localhost/portal/en/|http://localhost:80", rendered.getScope());
+	}
+
+	@Test
+	void testMetricsRecordCacheAndPhases() throws Exception {
+		Channel channel = this.createChannel(10);
+		List<String> ids = this.createIds(10);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		FeedMetrics feedMetrics = new FeedMetrics();
+		rssManager.setFeedMetrics(feedMetrics);
+		rssManager.getFeedStream(channel, "en", "http://localhost/portal/en/", null, null);
+		rssManager.getFeedStream(channel, "en", "http://localhost/portal/en/", null, null);
+		ChannelMetrics metrics = feedMetrics.get(channel.getId(), "en");
+		Assertions.assertEquals(1, metrics.getCacheHits());
+		Assertions.assertEquals(1, metrics.getCacheMisses());
+		Assertions.assertEquals(1, metrics.getRenders());
+		Assertions.assertEquals(10, metrics.getRenderedEntries());
+		for (FeedPhase phase : FeedPhase.values()) {
+			Assertions.assertEquals(1, metrics.getHistogram(phase).getCount(), phase.getLabel());
+		}
+		this.publishContent("ART100");
+		Assertions.assertEquals(1, metrics.getCacheEvictions());
+		rssManager.deleteChannel(channel.getId());
+		Assertions.assertTrue(feedMetrics.getAll().isEmpty());
+	}
+
+	@Test
+	void testLargeFeedIsStreamed() throws Exception {
+		Channel channel = this.createChannel(120);
+		List<String> ids = this.createIds(120);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		rssManager.setMaxCachedFeedSize(1024);
+		FeedStream rendered = rssManager.getFeedStream(channel, "en", "http://localhost/portal/en/", null, null);
+		Assertions.assertTrue(rendered instanceof RenderedFeed);
+		FeedStream streamed = rssManager.getFeedStream(channel, "en", "http://localhost/portal/en/", null, null);
+		Assertions.assertFalse(streamed instanceof RenderedFeed);
+		Assertions.assertEquals(-1, streamed.getLength());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		streamed.writeTo(out);
+		Assertions.assertArrayEquals(((RenderedFeed) rendered).getBody(), out.toByteArray());
+		Assertions.assertFalse(rssManager.getFeedStream(channel, "en", "http://localhost/portal/en/", null, null) instanceof RenderedFeed);
+	}
+
+	@Test
+	void testFeedsAdvertiseTheHub() throws Exception {
+		Channel channel = this.createChannel(10);
+		List<String> ids = this.createIds(10);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.loadEntries(anyList(), eq("en"))).thenReturn(this.createEntries(ids));
+		rssManager.setWebSubEnabled(true);
+		RenderedFeed rss = rssManager.getRenderedFeed(channel, "en", "rss_2.0", "http://localhost/portal/en/", null, null);
+		String body = new String(rss.getBody(), StandardCharsets.UTF_8);
+		Assertions.assertTrue(body.contains("<atom:link rel=\"hub\" href=\"do/jprss/Rss/Hub/hub.action\"/>"));
+		Assertions.assertTrue(body.contains("<atom:link rel=\"self\" href=\"do/jprss/Rss/Feed/show.action?id=1&amp;lang=en\"/>"));
+		RenderedFeed json = rssManager.getRenderedFeed(channel, "en", "json", "http://localhost/portal/en/", null, null);
+		body = new String(json.getBody(), StandardCharsets.UTF_8);
+		Assertions.assertTrue(body.contains("\"hubs\":[{\"type\":\"WebSub\",\"url\":\"do/jprss/Rss/Hub/hub.action\"}]"));
+		Assertions.assertTrue(body.contains("\"feed_url\":\"do/jprss/Rss/Feed/show.action?id=1&lang=en&format=json\""));
+	}
+
+	@Test
+	void testAutodiscoveryLinksAreCached() throws Throwable {
+		Channel rss = this.createChannel(10);
+		rss.setTitle("News & \"more\"");
+		Channel atom = this.createChannel(10);
+		atom.setId(2);
+		atom.setFeedType("atom_1.0");
+		Channel notActive = this.createChannel(10);
+		notActive.setId(3);
+		notActive.setActive(false);
+		List<Channel> channels = new ArrayList<Channel>();
+		channels.add(rss);
+		channels.add(atom);
+		channels.add(notActive);
+		when(rssDAO.getChannels(Channel.STATUS_ALL)).thenReturn(channels);
+		String links = rssManager.getAutodiscoveryLinks("en", "http://localhost/portal/");
+		Assertions.assertEquals("<link rel=\"alternate\" type=\"application/rss+xml\" title=\"News &amp; &#034;more&#034;\" "
+				+ "href=\"http://localhost/portal/do/jprss/Rss/Feed/show.action?id=1&amp;lang=en\" />\n"
+				+ "<link rel=\"alternate\" type=\"application/atom+xml\" title=\"channel\" "
+				+ "href=\"http://localhost/portal/do/jprss/Rss/Feed/show.action?id=2&amp;lang=en\" />\n", links);
+		Assertions.assertSame(links, rssManager.getAutodiscoveryLinks("en", "http://localhost/portal/"));
+		Assertions.assertTrue(rssManager.getAutodiscoveryLinks("it", "http://localhost/portal/").contains("lang=it"));
+		channels.remove(atom);
+		rssManager.deleteChannel(2);
+		Assertions.assertFalse(rssManager.getAutodiscoveryLinks("en", "http://localhost/portal/").contains("id=2"));
+	}
+
+	@Test
+	void testValidatorIsBuiltFromTheStoredDates() throws Exception {
+		Channel channel = this.createChannel(10);
+		channel.setLastModified(new Date(1600000000000L));
+		List<String> ids = this.createIds(10);
+		when(contentManager.loadPublicContentsId(eq("ART"), any(), any(EntitySearchFilter[].class), any(Collection.class))).thenReturn(ids);
+		when(rssEntryDAO.getLastModified(anyList(), eq("en"))).thenReturn(1600000005000L);
+		FeedValidator validator = rssManager.getFeedValidator(channel, "en", "rss_2.0");
+		Assertions.assertEquals(1600000005000L, validator.getLastModified());
+		this.setUp();
+		Assertions.assertEquals(validator.getETag(), rssManager.getFeedValidator(channel, "en", "rss_2.0").getETag());
+		channel.setLastModified(new Date(1600000009000L));
+		this.setUp();
+		Assertions.assertEquals(1600000009000L, rssManager.getFeedValidator(channel, "en", "rss_2.0").getLastModified());
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+	private SingleFlight<String, String> singleFlight = new SingleFlight<String, String>();
+	private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void testConcurrentCallersShareOneExecution() throws Exception {
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> leader = executor.submit(() -> singleFlight.execute("1_en_rss_2.0", () -> {
+			executions.incrementAndGet();
+			release.await();
+			return "feed";
+		}, 5000));
+		this.waitForFlight("1_en_rss_2.0");
+		List<Future<String>> waiters = new ArrayList<Future<String>>();
+		CountDownLatch started = new CountDownLatch(3);
+		for (int i = 0; i < 3; i++) {
+			waiters.add(executor.submit(() -> {
+				started.countDown();
+				return singleFlight.execute("1_en_rss_2.0", () -> {
+					executions.incrementAndGet();
+					return "other";
+				}, 5000);
+			}));
+		}
+		started.await(5, TimeUnit.SECONDS);
+		Thread.sleep(100);
+		release.countDown();
+		Assertions.assertEquals("feed", leader.get(5, TimeUnit.SECONDS));
+		for (Future<String> waiter : waiters) {
+			Assertions.assertEquals("feed", waiter.get(5, TimeUnit.SECONDS));
+		}
+		Assertions.assertEquals(1, executions.get());
+		Assertions.assertFalse(singleFlight.isInFlight("1_en_rss_2.0"));
+	}
+
+	@Test
+	void testErrorIsPropagatedToWaiters() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> leader = executor.submit(() -> singleFlight.execute("1_en_rss_2.0", () -> {
+			release.await();
+			throw new IllegalStateException("broken feed");
+		}, 5000));
+		this.waitForFlight("1_en_rss_2.0");
+		CountDownLatch started = new CountDownLatch(1);
+		Future<String> waiter = executor.submit(() -> {
+			started.countDown();
+			return singleFlight.execute("1_en_rss_2.0", () -> "other", 5000);
+		});
+		started.await(5, TimeUnit.SECONDS);
+		Thread.sleep(100);
+		release.countDown();
+		Exception leaderError = Assertions.assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+		Exception waiterError = Assertions.assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+		Assertions.assertTrue(leaderError.getCause() instanceof IllegalStateException);
+		Assertions.assertSame(leaderError.getCause(), waiterError.getCause());
+		Assertions.assertEquals("other", singleFlight.execute("1_en_rss_2.0", () -> "other", 5000));
+	}
+
+	@Test
+	void testWaiterTimesOut() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		executor.submit(() -> singleFlight.execute("1_en_rss_2.0", () -> {
+			release.await();
+			return "feed";
+		}, 5000));
+		this.waitForFlight("1_en_rss_2.0");
+		try {
+			Assertions.assertThrows(TimeoutException.class, () -> singleFlight.execute("1_en_rss_2.0", () -> "other", 50));
+			Assertions.assertEquals("other", singleFlight.execute("2_en_rss_2.0", () -> "other", 50));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	private void waitForFlight(String key) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!singleFlight.isInFlight(key) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.rss;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.rometools.rome.feed.synd.SyndEntry;
+import com.rometools.rome.feed.synd.SyndFeed;
+import com.rometools.rome.feed.synd.SyndFeedImpl;
+import com.rometools.rome.io.SyndFeedInput;
+
+class StaxFeedWriterTest {
+
+	@Test
+	void testWriteRss() throws Exception {
+		SyndFeed feed = this.writeAndRead("rss_2.0", 3);
+		Assertions.assertEquals("rss_2.0", feed.getFeedType());
+		Assertions.assertEquals("Channel title", feed.getTitle());
+		Assertions.assertEquals("http://localhost/portal/en/", feed.getLink());
+		Assertions.assertEquals(3, feed.getEntries().size());
+		SyndEntry entry = feed.getEntries().get(1);
+		Assertions.assertEquals("Title 1 & more", entry.getTitle());
+		Assertions.assertEquals("http://localhost/portal/en/homepage.page?contentId=ART1", entry.getLink());
+		Assertions.assertEquals("<p>Descr 1</p>", entry.getDescription().getValue());
+		Assertions.assertNotNull(entry.getPublishedDate());
+	}
+
+	@Test
+	void testWriteAtom() throws Exception {
+		SyndFeed feed = this.writeAndRead("atom_1.0", 2);
+		Assertions.assertEquals("atom_1.0", feed.getFeedType());
+		Assertions.assertEquals("Channel title", feed.getTitle());
+		Assertions.assertEquals(2, feed.getEntries().size());
+		SyndEntry entry = feed.getEntries().get(0);
+		Assertions.assertEquals("Title 0 & more", entry.getTitle());
+		Assertions.assertEquals("http://localhost/portal/en/homepage.page?contentId=ART0", entry.getLink());
+		Assertions.assertEquals("<p>Descr 0</p>", entry.getDescription().getValue());
+	}
+
+	@Test
+	void testAtomHasIdsAuthorAndTheDateOfTheChannel() throws Exception {
+		SyndFeed header = this.createHeader("atom_1.0");
+		header.setPublishedDate(new Date(1600000000000L));
+		List<FeedEntry> entries = this.createEntries(1);
+		entries.add(new FeedEntry("ART9", "Title 9", null, null, null));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new StaxFeedWriter().write(header, entries.iterator(), out);
+		String atom = out.toString("UTF-8");
+		Assertions.assertTrue(atom.contains("<updated>2020-09-13T12:26:40Z</updated><author><name>Channel title</name></author>"));
+		Assertions.assertTrue(atom.contains("<id>http://localhost/portal/en/#ART9</id>"));
+		SyndFeed feed = new SyndFeedInput().build(new InputStreamReader(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8));
+		Assertions.assertEquals(new Date(1600000000000L), feed.getPublishedDate());
+		Assertions.assertEquals("Channel title", feed.getAuthors().get(0).getName());
+		Assertions.assertEquals("http://localhost/portal/en/#ART9", feed.getEntries().get(1).getUri());
+		header.setLink(null);
+		out = new ByteArrayOutputStream();
+		new StaxFeedWriter().write(header, entries.iterator(), out);
+		Assertions.assertTrue(out.toString("UTF-8").contains("<id>urn:entando:content:ART9</id>"));
+	}
+
+	@Test
+	void testEntriesArePulledLazily() throws Exception {
+		final List<FeedEntry> entries = this.createEntries(10);
+		final int[] pulled = new int[1];
+		Iterator<FeedEntry> iterator = new Iterator<FeedEntry>() {
+			@Override
+			public boolean hasNext() {
+				return pulled[0] < entries.size();
+			}
+			@Override
+			public FeedEntry next() {
+				return entries.get(pulled[0]++);
+			}
+		};
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new StaxFeedWriter().write(this.createHeader("rss_2.0"), iterator, out);
+		Assertions.assertEquals(10, pulled[0]);
+		Assertions.assertTrue(out.toString("UTF-8").startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?><rss version=\"2.0\">"));
+	}
+
+	@Test
+	void testUnsupportedFeedType() {
+		Assertions.assertFalse(StaxFeedWriter.isSupported("rss_0.91"));
+		Assertions.assertThrows(IllegalArgumentException.class, 
+				() -> new StaxFeedWriter().write(this.createHeader("rss_0.91"), this.createEntries(1).iterator(), new ByteArrayOutputStream()));
+	}
+
+	private SyndFeed writeAndRead(String feedType, int size) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new StaxFeedWriter().write(this.createHeader(feedType), this.createEntries(size).iterator(), out);
+		return new SyndFeedInput().build(new InputStreamReader(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8));
+	}
+
+	private SyndFeed createHeader(String feedType) {
+		SyndFeed header = new SyndFeedImpl();
+		header.setFeedType(feedType);
+		header.setTitle("Channel title");
+		header.setLink("http://localhost/portal/en/");
+		header.setDescription("Channel description");
+		return header;
+	}
+
+	private List<FeedEntry> createEntries(int size) {
+		List<FeedEntry> entries = new ArrayList<FeedEntry>();
+		for (int i = 0; i < size; i++) {
+			entries.add(new FeedEntry("ART" + i, "Title " + i + " & more", "http://localhost/portal/en/homepage.page?contentId=ART" + i, 
+					"<p>Descr " + i + "</p>", new Date()));
+		}
+		return entries;
+	}
+
+}
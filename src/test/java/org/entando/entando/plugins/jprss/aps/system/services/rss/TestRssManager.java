@@ -25,15 +25,20 @@ import org.junit.jupiter.api.Assertions;
 
 import com.agiletec.aps.BaseTestCase;
 import com.agiletec.aps.system.common.entity.IEntityTypesConfigurer;
+import com.agiletec.aps.system.common.entity.model.EntitySearchFilter;
 import com.agiletec.aps.system.common.entity.model.attribute.AttributeInterface;
+import com.agiletec.aps.system.common.entity.model.attribute.ITextAttribute;
+import com.agiletec.aps.system.services.group.Group;
 import com.agiletec.plugins.jacms.aps.system.JacmsSystemConstants;
 import com.agiletec.plugins.jacms.aps.system.services.content.IContentManager;
 import com.agiletec.plugins.jacms.aps.system.services.content.model.Content;
 import org.entando.entando.plugins.jprss.aps.system.services.JpRssSystemConstants;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import javax.sql.DataSource;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -109,6 +114,65 @@ public class TestRssManager extends BaseTestCase {
 		Assertions.assertTrue(fullList.isEmpty());
 	}
 	
+	@Test
+    public void testRenderedFeedCache() throws Throwable {
+		Channel testChannel = this.createTestChannel();
+		testChannel.setCategory(null);
+		this.getRssManager().addChannel(testChannel);
+		String feedLink = "http://localhost:8080/entando/en/";
+		RenderedFeed first = this.getRssManager().getRenderedFeed(testChannel, "en", feedLink, null, null);
+		Assertions.assertNotNull(first);
+		Assertions.assertTrue(first.getLength() > 0);
+		RenderedFeed second = this.getRssManager().getRenderedFeed(testChannel, "en", feedLink, null, null);
+		Assertions.assertSame(first, second);
+		
+		testChannel.setTitle("updated title");
+		this.getRssManager().updateChannel(testChannel);
+		RenderedFeed updated = this.getRssManager().getRenderedFeed(testChannel, "en", feedLink, null, null);
+		Assertions.assertNotSame(first, updated);
+		Assertions.assertTrue(new String(updated.getBody(), "UTF-8").contains("updated title"));
+		this.getRssManager().deleteChannel(testChannel.getId());
+	}
+	
+	@Test
+	public void testContentRecordsMatchTheContentManager() throws Throwable {
+		IContentManager contentManager = (IContentManager) this.getService(JacmsSystemConstants.CONTENT_MANAGER);
+		List<String> groups = new ArrayList<String>();
+		groups.add(Group.FREE_GROUP_NAME);
+		List<String> contentsId = contentManager.loadPublicContentsId("ART", null, new EntitySearchFilter[0], groups);
+		Assertions.assertFalse(contentsId.isEmpty());
+		RssContentDAO rssContentDAO = new RssContentDAO();
+		rssContentDAO.setDataSource((DataSource) this.getService("portDataSource"));
+		Map<String, RssContentRecord> records = rssContentDAO.loadContentRecords(contentsId);
+		Assertions.assertEquals(contentsId.size(), records.size());
+		RssContentMapping mapping = new RssContentMapping();
+		mapping.setContentType("ART");
+		mapping.setTitleAttributeName("Titolo");
+		mapping.setDescriptionAttributeName("CorpoTesto");
+		RssContentParser parser = new RssContentParser();
+		String[] langs = {"it", "en"};
+		for (int i = 0; i < contentsId.size(); i++) {
+			RssContentRecord record = records.get(contentsId.get(i));
+			parser.parse(record, mapping);
+			Content content = contentManager.loadContent(contentsId.get(i), true);
+			Assertions.assertEquals(content.getTypeCode(), record.getTypeCode());
+			ITextAttribute title = (ITextAttribute) content.getAttribute("Titolo");
+			ITextAttribute description = (ITextAttribute) content.getAttribute("CorpoTesto");
+			for (int j = 0; j < langs.length; j++) {
+				Assertions.assertEquals(this.getText(title, langs[j]), this.getText(record.getTitleForLang(langs[j])));
+				Assertions.assertEquals(this.getText(description, langs[j]), this.getText(record.getDescriptionForLang(langs[j])));
+			}
+		}
+	}
+	
+	private String getText(ITextAttribute attribute, String langCode) {
+		return (null != attribute) ? this.getText(attribute.getTextForLang(langCode)) : "";
+	}
+	
+	private String getText(String text) {
+		return (null != text) ? text : "";
+	}
+	
 	private Channel createTestChannel() {
 		Channel channel = new Channel();
 		channel.setActive(true);
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.aps.system.services.websub;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.entando.entando.plugins.jprss.aps.system.services.rss.Channel;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.IRssManager;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.RenderedFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.agiletec.aps.system.SystemConstants;
+import com.agiletec.aps.system.services.baseconfig.ConfigInterface;
+import com.agiletec.aps.system.services.lang.ILangManager;
+import com.agiletec.aps.system.services.lang.Lang;
+import com.agiletec.plugins.jacms.aps.system.services.content.event.PublicContentChangedEvent;
+import com.agiletec.plugins.jacms.aps.system.services.content.model.Content;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WebSubManagerTest {
+
+	private static final String HUB_URL = "http://localhost/portal/do/jprss/Rss/Hub/hub.action";
+	private static final String TOPIC = "http://localhost/portal/do/jprss/Rss/Feed/show.action?id=1&lang=en";
+
+	@Mock
+	private IWebSubDAO webSubDAO;
+	@Mock
+	private IRssManager rssManager;
+	@Mock
+	private ConfigInterface configManager;
+	@Mock
+	private ILangManager langManager;
+
+	private HttpServer server;
+	private WebSubManager webSubManager;
+	private Channel channel;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.start();
+		channel = new Channel();
+		channel.setId(1);
+		channel.setActive(true);
+		channel.setContentType("ART");
+		channel.setFeedType("rss_2.0");
+		when(rssManager.getHubUrl()).thenReturn(HUB_URL);
+		when(rssManager.getChannel(1)).thenReturn(channel);
+		when(rssManager.getChannels(Channel.STATUS_ACTIVE)).thenReturn(Arrays.asList(channel));
+		when(rssManager.getFeedUrl(channel, "en", "rss_2.0")).thenReturn(TOPIC);
+		when(configManager.getParam(SystemConstants.PAR_APPL_BASE_URL)).thenReturn("http://localhost/portal/");
+		when(langManager.getLang("en")).thenReturn(new Lang());
+		webSubManager = new WebSubManager();
+		webSubManager.setWebSubDAO(webSubDAO);
+		webSubManager.setRssManager(rssManager);
+		webSubManager.setConfigManager(configManager);
+		webSubManager.setLangManager(langManager);
+		webSubManager.setBatchDelay(50);
+		webSubManager.setRetryDelay(10);
+		webSubManager.setMaxAttempts(3);
+		webSubManager.setPrivateCallbacksAllowed(true);
+		webSubManager.init();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		webSubManager.destroy();
+		server.stop(0);
+	}
+
+	@Test
+	void testPublishedFeedIsPushedOnceAndRetried() throws Exception {
+		byte[] body = "<rss version=\"2.0\"></rss>".getBytes(StandardCharsets.UTF_8);
+		when(rssManager.renderFreshFeed(eq(channel), eq("en"), eq("rss_2.0"), anyString()))
+				.thenReturn(new RenderedFeed(1, "ART", "en", "rss_2.0", "http://localhost/portal/en/", "UTF-8", 0, body, null));
+		when(webSubDAO.loadSubscriptions(1)).thenReturn(Arrays.asList(this.createSubscription("/callback", "secret")));
+		final CountDownLatch delivered = new CountDownLatch(2);
+		final AtomicInteger calls = new AtomicInteger();
+		final List<Map<String, String>> requests = Collections.synchronizedList(new ArrayList<Map<String, String>>());
+		server.createContext("/callback", exchange -> {
+			Map<String, String> request = new HashMap<String, String>();
+			request.put("body", new String(this.read(exchange.getRequestBody()), StandardCharsets.UTF_8));
+			request.put("signature", exchange.getRequestHeaders().getFirst("X-Hub-Signature"));
+			request.put("link", exchange.getRequestHeaders().getFirst("Link"));
+			request.put("type", exchange.getRequestHeaders().getFirst("Content-Type"));
+			requests.add(request);
+			this.respond(exchange, (calls.incrementAndGet() == 1) ? 500 : 204, null);
+			delivered.countDown();
+		});
+		PublicContentChangedEvent event = this.createEvent("ART1");
+		webSubManager.updateFromPublicContentChanged(event);
+		webSubManager.updateFromPublicContentChanged(this.createEvent("ART2"));
+		Assertions.assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		Thread.sleep(100);
+		Assertions.assertEquals(2, requests.size());
+		verify(rssManager, times(1)).renderFreshFeed(eq(channel), eq("en"), eq("rss_2.0"), eq("http://localhost/portal/en/"));
+		Map<String, String> request = requests.get(1);
+		Assertions.assertEquals("<rss version=\"2.0\"></rss>", request.get("body"));
+		Assertions.assertEquals("sha256=" + WebSubClient.sign("secret", body), request.get("signature"));
+		Assertions.assertEquals("<" + HUB_URL + ">; rel=\"hub\", <" + TOPIC + ">; rel=\"self\"", request.get("link"));
+		Assertions.assertEquals("application/rss+xml", request.get("type"));
+	}
+
+	@Test
+	void testGoneSubscriberIsRemoved() throws Exception {
+		byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+		when(rssManager.renderFreshFeed(eq(channel), eq("en"), eq("rss_2.0"), anyString()))
+				.thenReturn(new RenderedFeed(1, "ART", "en", "rss_2.0", "http://localhost/portal/en/", "UTF-8", 0, body, null));
+		Subscription subscription = this.createSubscription("/gone", null);
+		when(webSubDAO.loadSubscriptions(1)).thenReturn(Arrays.asList(subscription));
+		server.createContext("/gone", exchange -> {
+			this.read(exchange.getRequestBody());
+			this.respond(exchange, 410, null);
+		});
+		webSubManager.publish(1);
+		verify(webSubDAO, timeout(5000)).deleteSubscription(subscription.getCallback(), TOPIC);
+	}
+
+	@Test
+	void testSubscriptionIsStoredWhenVerified() throws Exception {
+		server.createContext("/subscriber", exchange -> {
+			String query = exchange.getRequestURI().getQuery();
+			String challenge = query.substring(query.indexOf("hub.challenge=") + "hub.challenge=".length());
+			challenge = challenge.substring(0, challenge.indexOf('&'));
+			this.respond(exchange, 200, challenge);
+		});
+		String callback = this.getServerUrl("/subscriber");
+		Assertions.assertEquals(HubRequestStatus.ACCEPTED, webSubManager.subscribe(callback, TOPIC, 3600, "secret"));
+		verify(webSubDAO, timeout(5000)).saveSubscription(argThat(subscription -> callback.equals(subscription.getCallback()) 
+				&& TOPIC.equals(subscription.getTopic()) && subscription.getChannelId() == 1 
+				&& "rss_2.0".equals(subscription.getFeedType()) && !subscription.isExpired(System.currentTimeMillis())));
+		Assertions.assertEquals(HubRequestStatus.INVALID, webSubManager.subscribe(callback, TOPIC + "&format=json", 0, null));
+		Assertions.assertEquals(HubRequestStatus.INVALID, webSubManager.subscribe("ftp://localhost/", TOPIC, 0, null));
+		Assertions.assertEquals(HubRequestStatus.INVALID, webSubManager.subscribe(callback, "http://localhost/portal/do/jprss/Rss/Feed/show.action?id=2&lang=en", 0, null));
+	}
+
+	@Test
+	void testSubscriptionIsNotStoredWithoutChallenge() throws Exception {
+		final CountDownLatch verified = new CountDownLatch(1);
+		server.createContext("/subscriber", exchange -> {
+			this.respond(exchange, 200, "wrong");
+			verified.countDown();
+		});
+		Assertions.assertEquals(HubRequestStatus.ACCEPTED, webSubManager.subscribe(this.getServerUrl("/subscriber"), TOPIC, 0, null));
+		Assertions.assertTrue(verified.await(5, TimeUnit.SECONDS));
+		Thread.sleep(100);
+		verify(webSubDAO, never()).saveSubscription(any(Subscription.class));
+	}
+
+	@Test
+	void testPrivateCallbackIsNotCalled() throws Exception {
+		webSubManager.destroy();
+		webSubManager.setPrivateCallbacksAllowed(false);
+		webSubManager.init();
+		final AtomicInteger calls = new AtomicInteger();
+		server.createContext("/subscriber", exchange -> {
+			calls.incrementAndGet();
+			this.respond(exchange, 404, null);
+		});
+		Assertions.assertEquals(HubRequestStatus.ACCEPTED, webSubManager.subscribe(this.getServerUrl("/subscriber"), TOPIC, 0, null));
+		for (int i = 0; i < 50 && webSubManager.getPendingVerifications() > 0; i++) {
+			Thread.sleep(20);
+		}
+		Assertions.assertEquals(0, webSubManager.getPendingVerifications());
+		Assertions.assertEquals(0, calls.get());
+		verify(webSubDAO, never()).saveSubscription(any(Subscription.class));
+		Assertions.assertFalse(WebSubClient.isPublicAddress(InetAddress.getByName("127.0.0.1")));
+		Assertions.assertFalse(WebSubClient.isPublicAddress(InetAddress.getByName("169.254.169.254")));
+		Assertions.assertFalse(WebSubClient.isPublicAddress(InetAddress.getByName("10.1.2.3")));
+		Assertions.assertFalse(WebSubClient.isPublicAddress(InetAddress.getByName("192.168.0.1")));
+		Assertions.assertFalse(WebSubClient.isPublicAddress(InetAddress.getByName("100.64.0.1")));
+		Assertions.assertFalse(WebSubClient.isPublicAddress(InetAddress.getByName("::1")));
+		Assertions.assertFalse(WebSubClient.isPublicAddress(InetAddress.getByName("fd00::1")));
+		Assertions.assertTrue(WebSubClient.isPublicAddress(InetAddress.getByName("93.184.216.34")));
+		Assertions.assertTrue(WebSubClient.isPublicAddress(InetAddress.getByName("2606:2800:220:1::1")));
+	}
+
+	@Test
+	void testRefreshShutsDownTheReplacedPool() throws Throwable {
+		ScheduledThreadPoolExecutor executor = webSubManager.getExecutor();
+		webSubManager.refresh();
+		Assertions.assertTrue(executor.isShutdown());
+		Assertions.assertNotNull(webSubManager.getExecutor());
+		Assertions.assertNotSame(executor, webSubManager.getExecutor());
+		Assertions.assertEquals(0, webSubManager.getPendingVerifications());
+	}
+
+	@Test
+	void testVerificationsBeyondTheBoundAreRefused() throws Exception {
+		webSubManager.destroy();
+		webSubManager.setDeliveryThreads(1);
+		webSubManager.setMaxPendingVerifications(2);
+		webSubManager.init();
+		final CountDownLatch release = new CountDownLatch(1);
+		server.createContext("/subscriber", exchange -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.respond(exchange, 404, null);
+		});
+		String callback = this.getServerUrl("/subscriber");
+		Assertions.assertEquals(HubRequestStatus.ACCEPTED, webSubManager.subscribe(callback, TOPIC, 0, null));
+		Assertions.assertEquals(HubRequestStatus.ACCEPTED, webSubManager.unsubscribe(callback, TOPIC));
+		Assertions.assertEquals(HubRequestStatus.BUSY, webSubManager.subscribe(callback, TOPIC, 0, null));
+		release.countDown();
+		for (int i = 0; i < 250 && webSubManager.getPendingVerifications() > 0; i++) {
+			Thread.sleep(20);
+		}
+		Assertions.assertEquals(HubRequestStatus.ACCEPTED, webSubManager.subscribe(callback, TOPIC, 0, null));
+	}
+
+	@Test
+	void testSubscriptionsBeyondTheLimitsAreRefused() throws Exception {
+		webSubManager.setMaxTopicSubscriptions(2);
+		webSubManager.setMaxCallbackHostSubscriptions(1);
+		String callback = this.getServerUrl("/subscriber");
+		when(webSubDAO.countTopicSubscriptions(TOPIC)).thenReturn(2);
+		Assertions.assertEquals(HubRequestStatus.LIMITED, webSubManager.subscribe(callback, TOPIC, 0, null));
+		when(webSubDAO.countTopicSubscriptions(TOPIC)).thenReturn(1);
+		when(webSubDAO.countCallbackHostSubscriptions("localhost")).thenReturn(1);
+		Assertions.assertEquals(HubRequestStatus.LIMITED, webSubManager.subscribe(callback, TOPIC, 0, null));
+		when(webSubDAO.existsSubscription(callback, TOPIC)).thenReturn(true);
+		Assertions.assertEquals(HubRequestStatus.ACCEPTED, webSubManager.subscribe(callback, TOPIC, 0, null));
+		Assertions.assertEquals(HubRequestStatus.INVALID, webSubManager.subscribe("http:///subscriber", TOPIC, 0, null));
+		Assertions.assertEquals(HubRequestStatus.INVALID, webSubManager.subscribe(callback + "\r\nHost: other", TOPIC, 0, null));
+	}
+
+	private Subscription createSubscription(String path, String secret) {
+		Subscription subscription = new Subscription();
+		subscription.setCallback(this.getServerUrl(path));
+		subscription.setTopic(TOPIC);
+		subscription.setChannelId(1);
+		subscription.setLangCode("en");
+		subscription.setFeedType("rss_2.0");
+		subscription.setSecret(secret);
+		subscription.setLeaseExpires(new Date(System.currentTimeMillis() + 60000));
+		return subscription;
+	}
+
+	private PublicContentChangedEvent createEvent(String contentId) {
+		Content content = new Content();
+		content.setId(contentId);
+		content.setTypeCode("ART");
+		PublicContentChangedEvent event = new PublicContentChangedEvent();
+		event.setContent(content);
+		event.setOperationCode(PublicContentChangedEvent.INSERT_OPERATION_CODE);
+		return event;
+	}
+
+	private String getServerUrl(String path) {
+		return "http://localhost:" + server.getAddress().getPort() + path;
+	}
+
+	private byte[] read(InputStream in) throws java.io.IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int read = 0;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private void respond(HttpExchange exchange, int status, String body) throws java.io.IOException {
+		byte[] bytes = (null != body) ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+		exchange.sendResponseHeaders(status, (bytes.length > 0) ? bytes.length : -1);
+		if (bytes.length > 0) {
+			OutputStream out = exchange.getResponseBody();
+			out.write(bytes);
+			out.close();
+		}
+		exchange.close();
+	}
+
+}
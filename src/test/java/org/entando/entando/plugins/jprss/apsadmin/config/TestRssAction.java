@@ -80,7 +80,8 @@ public class TestRssAction extends ApsAdminBaseTestCase {
 		RssAction action = (RssAction) this.getAction();
 		Map<String, String> feedTypes = action.getAvailableFeedTypes();
 		Assertions.assertNotNull(feedTypes);
-		Assertions.assertEquals(8, feedTypes.size());
+		Assertions.assertEquals(10, feedTypes.size());
+		Assertions.assertEquals("atom 1.0", feedTypes.get("atom_1.0"));
 	}
 	
 	@Test
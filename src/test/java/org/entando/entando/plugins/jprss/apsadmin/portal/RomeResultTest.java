@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015-Present Entando Inc. (http://www.entando.com) All rights reserved.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.entando.entando.plugins.jprss.apsadmin.portal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.servlet.ServletOutputStream;
+
+import org.entando.entando.plugins.jprss.aps.system.services.rss.FeedStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RomeResultTest {
+
+	@Test
+	void testGzipAccepted() {
+		Assertions.assertTrue(RomeResult.isGzipAccepted("gzip, deflate, br"));
+		Assertions.assertTrue(RomeResult.isGzipAccepted("br;q=1.0, GZIP;q=0.5"));
+		Assertions.assertTrue(RomeResult.isGzipAccepted("x-gzip"));
+		Assertions.assertTrue(RomeResult.isGzipAccepted("*"));
+		Assertions.assertTrue(RomeResult.isGzipAccepted("identity, *;q=0.1"));
+	}
+
+	@Test
+	void testGzipNotAccepted() {
+		Assertions.assertFalse(RomeResult.isGzipAccepted(null));
+		Assertions.assertFalse(RomeResult.isGzipAccepted(""));
+		Assertions.assertFalse(RomeResult.isGzipAccepted("identity"));
+		Assertions.assertFalse(RomeResult.isGzipAccepted("deflate, br"));
+		Assertions.assertFalse(RomeResult.isGzipAccepted("gzip;q=0"));
+		Assertions.assertFalse(RomeResult.isGzipAccepted("*, gzip;q=0"));
+		Assertions.assertFalse(RomeResult.isGzipAccepted("gzip;q=abc"));
+	}
+
+	@Test
+	void testFeedStreamClosedAfterWriting() throws Exception {
+		ClosingFeedStream feedStream = new ClosingFeedStream();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new RomeResult().writeFeedStream(feedStream, new MockHttpServletRequest("GET", "/feed"), response);
+		Assertions.assertEquals("<rss/>", response.getContentAsString());
+		Assertions.assertEquals(1, feedStream._closed);
+	}
+
+	@Test
+	void testFeedStreamClosedWithoutWriting() throws Exception {
+		ClosingFeedStream feedStream = new ClosingFeedStream();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		new RomeResult().writeFeedStream(feedStream, new MockHttpServletRequest("HEAD", "/feed"), response);
+		Assertions.assertEquals(0, response.getContentAsByteArray().length);
+		Assertions.assertEquals(1, feedStream._closed);
+		feedStream = new ClosingFeedStream();
+		response = new MockHttpServletResponse() {
+			@Override
+			public ServletOutputStream getOutputStream() {
+				throw new IllegalStateException("getWriter() has already been called");
+			}
+		};
+		new RomeResult().writeFeedStream(feedStream, new MockHttpServletRequest("GET", "/feed"), response);
+		Assertions.assertEquals(1, feedStream._closed);
+	}
+
+	private static class ClosingFeedStream implements FeedStream {
+
+		@Override
+		public String getEncoding() {
+			return "UTF-8";
+		}
+
+		@Override
+		public String getFeedType() {
+			return "rss_2.0";
+		}
+
+		@Override
+		public int getLength() {
+			return -1;
+		}
+
+		@Override
+		public void writeTo(OutputStream out) throws IOException {
+			out.write("<rss/>".getBytes("UTF-8"));
+		}
+
+		@Override
+		public void close() {
+			this._closed++;
+		}
+
+		private int _closed;
+
+	}
+
+}
@@ -28,14 +28,20 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.entando.entando.plugins.jprss.aps.system.services.JpRssSystemConstants;
+import org.entando.entando.plugins.jprss.aps.system.services.admission.FeedAdmission;
+import org.entando.entando.plugins.jprss.aps.system.services.admission.FeedAdmissionController;
 import org.entando.entando.plugins.jprss.aps.system.services.rss.Channel;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.FeedValidator;
 import org.entando.entando.plugins.jprss.aps.system.services.rss.IRssManager;
+import org.entando.entando.plugins.jprss.aps.system.services.rss.RenderedFeed;
 import com.opensymphony.xwork2.Action;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 public class TestRssPortalAction extends ApsAdminBaseTestCase {
 
@@ -49,6 +55,49 @@ public class TestRssPortalAction extends ApsAdminBaseTestCase {
 		Assertions.assertEquals(Action.SUCCESS, result);
 	}
 	
+	@Test
+	public void testShowNotModified() throws Throwable {
+		Channel channel = this.createTestChannel("title", "descr", true);
+		this.getRssManager().addChannel(channel);
+		FeedValidator validator = this.getRssManager().getFeedValidator(channel, "it");
+		this.initAction(NAMESPACE, "show");
+		this.addParameter("id", channel.getId());
+		this.addParameter("lang", "it");
+		((MockHttpServletRequest) this.getRequest()).addHeader("If-None-Match", validator.getETag());
+		String result = this.executeAction();
+		Assertions.assertNull(result);
+		MockHttpServletResponse response = (MockHttpServletResponse) ((RssPortalAction) this.getAction()).getServletResponse();
+		Assertions.assertEquals(304, response.getStatus());
+		Assertions.assertNull(((RssPortalAction) this.getAction()).getFeedStream());
+	}
+	
+	@Test
+	public void testCachedFeedIsServedWithoutAdmission() throws Throwable {
+		Channel channel = this.createTestChannel("title", "descr", true);
+		channel.setMaxConcurrentRequests(1);
+		this.getRssManager().addChannel(channel);
+		this.initAction(NAMESPACE, "show");
+		this.addParameter("id", channel.getId());
+		this.addParameter("lang", "it");
+		Assertions.assertEquals(Action.SUCCESS, this.executeAction());
+		Object cached = ((RssPortalAction) this.getAction()).getFeedStream();
+		Assertions.assertTrue(cached instanceof RenderedFeed);
+		FeedAdmissionController admissionController = 
+				(FeedAdmissionController) this.getService("jprssFeedAdmissionController");
+		FeedAdmission busy = admissionController.admit(channel.getId(), 1, "other");
+		Assertions.assertTrue(busy.isAdmitted());
+		try {
+			this.initAction(NAMESPACE, "show");
+			this.addParameter("id", channel.getId());
+			this.addParameter("lang", "it");
+			String result = this.executeAction();
+			Assertions.assertEquals(Action.SUCCESS, result);
+			Assertions.assertSame(cached, ((RssPortalAction) this.getAction()).getFeedStream());
+		} finally {
+			busy.release();
+		}
+	}
+	
 	private Channel createTestChannel(String title, String descr, boolean active) {
 		Channel channel = new Channel();
 		channel.setActive(active);